@@ -0,0 +1,221 @@
+package com.adityachandel.booklore.benchmark;
+
+import com.adityachandel.booklore.model.entity.*;
+import com.adityachandel.booklore.model.enums.BookFileType;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.PDPage;
+import org.apache.pdfbox.pdmodel.PDPageContentStream;
+import org.apache.pdfbox.pdmodel.font.PDType1Font;
+import org.apache.pdfbox.pdmodel.font.Standard14Fonts;
+
+import javax.imageio.ImageIO;
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.*;
+import java.util.zip.CRC32;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * Deterministic inputs for the benchmarks. Every generator takes a seed, so two runs on different machines
+ * hash, map and render exactly the same data and the numbers stay comparable with the committed baseline.
+ */
+public final class BenchmarkFixtures {
+
+    private static final String[] WORDS = {
+            "shadow", "river", "empire", "garden", "winter", "silver", "machine", "letters", "island", "night",
+            "memory", "storm", "kingdom", "glass", "journey", "forest", "signal", "harbor", "echo", "crown"
+    };
+
+    private BenchmarkFixtures() {
+    }
+
+    public static Path writeEpub(Path path, int chapters, long seed) throws IOException {
+        Random random = new Random(seed);
+        try (ZipOutputStream zos = new ZipOutputStream(new FileOutputStream(path.toFile()))) {
+            byte[] mimetype = "application/epub+zip".getBytes(StandardCharsets.US_ASCII);
+            ZipEntry mimetypeEntry = new ZipEntry("mimetype");
+            mimetypeEntry.setMethod(ZipEntry.STORED);
+            mimetypeEntry.setSize(mimetype.length);
+            CRC32 crc = new CRC32();
+            crc.update(mimetype);
+            mimetypeEntry.setCrc(crc.getValue());
+            zos.putNextEntry(mimetypeEntry);
+            zos.write(mimetype);
+            zos.closeEntry();
+
+            put(zos, "META-INF/container.xml", """
+                    <?xml version="1.0" encoding="UTF-8"?>
+                    <container version="1.0" xmlns="urn:oasis:names:tc:opendocument:xmlns:container">
+                      <rootfiles><rootfile full-path="OEBPS/content.opf" media-type="application/oebps-package+xml"/></rootfiles>
+                    </container>
+                    """.getBytes(StandardCharsets.UTF_8));
+
+            StringBuilder manifest = new StringBuilder();
+            StringBuilder spine = new StringBuilder();
+            for (int i = 1; i <= chapters; i++) {
+                manifest.append("<item id=\"ch").append(i).append("\" href=\"text/ch").append(i).append(".xhtml\" media-type=\"application/xhtml+xml\"/>");
+                spine.append("<itemref idref=\"ch").append(i).append("\"/>");
+                put(zos, "OEBPS/text/ch" + i + ".xhtml", ("<html><body><p>" + sentence(random, 4_000) + "</p></body></html>").getBytes(StandardCharsets.UTF_8));
+            }
+            put(zos, "OEBPS/images/cover.jpg", jpeg(coverImage(600, 900, seed)));
+            put(zos, "OEBPS/content.opf", """
+                    <?xml version="1.0" encoding="UTF-8"?>
+                    <package xmlns="http://www.idpf.org/2007/opf" version="3.0" unique-identifier="id">
+                      <metadata xmlns:dc="http://purl.org/dc/elements/1.1/">
+                        <dc:title>%s</dc:title>
+                        <dc:creator>%s</dc:creator>
+                        <meta name="cover" content="cover-img"/>
+                      </metadata>
+                      <manifest><item id="cover-img" href="images/cover.jpg" media-type="image/jpeg"/>%s</manifest>
+                      <spine>%s</spine>
+                    </package>
+                    """.formatted(sentence(random, 3), sentence(random, 2), manifest, spine).getBytes(StandardCharsets.UTF_8));
+        }
+        return path;
+    }
+
+    public static Path writeCbz(Path path, int pages, long seed) throws IOException {
+        try (ZipOutputStream zos = new ZipOutputStream(new FileOutputStream(path.toFile()))) {
+            for (int i = 1; i <= pages; i++) {
+                put(zos, String.format("page-%03d.jpg", i), jpeg(coverImage(800, 1200, seed + i)));
+            }
+        }
+        return path;
+    }
+
+    public static Path writePdf(Path path, int pages, long seed) throws IOException {
+        Random random = new Random(seed);
+        try (PDDocument document = new PDDocument()) {
+            PDType1Font font = new PDType1Font(Standard14Fonts.FontName.HELVETICA);
+            for (int i = 0; i < pages; i++) {
+                PDPage page = new PDPage();
+                document.addPage(page);
+                try (PDPageContentStream content = new PDPageContentStream(document, page)) {
+                    content.beginText();
+                    content.setFont(font, 11);
+                    content.newLineAtOffset(50, 700);
+                    for (int line = 0; line < 40; line++) {
+                        content.showText(sentence(random, 12));
+                        content.newLineAtOffset(0, -15);
+                    }
+                    content.endText();
+                }
+            }
+            document.save(path.toFile());
+        }
+        return path;
+    }
+
+    public static BufferedImage coverImage(int width, int height, long seed) {
+        Random random = new Random(seed);
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+        Graphics2D g = image.createGraphics();
+        g.setColor(new Color(random.nextInt(0xFFFFFF)));
+        g.fillRect(0, 0, width, height);
+        for (int i = 0; i < 200; i++) {
+            g.setColor(new Color(random.nextInt(), true));
+            g.fillOval(random.nextInt(width), random.nextInt(height), 10 + random.nextInt(width / 4), 10 + random.nextInt(height / 4));
+        }
+        g.dispose();
+        return image;
+    }
+
+    /**
+     * Books spread over one library with a shared pool of authors and categories, so similarity scoring sees
+     * realistic overlap between books instead of disjoint sets.
+     */
+    public static List<BookEntity> books(int count, long seed) {
+        Random random = new Random(seed);
+        LibraryEntity library = LibraryEntity.builder().id(1L).name("Benchmark Library").build();
+        LibraryPathEntity libraryPath = LibraryPathEntity.builder().id(1L).path("/library").library(library).build();
+
+        List<AuthorEntity> authors = new ArrayList<>();
+        for (int i = 0; i < Math.max(10, count / 5); i++) {
+            authors.add(AuthorEntity.builder().id((long) i).name(sentence(random, 2)).build());
+        }
+        List<CategoryEntity> categories = new ArrayList<>();
+        for (int i = 0; i < 40; i++) {
+            categories.add(CategoryEntity.builder().id((long) i).name(WORDS[i % WORDS.length] + " " + i).build());
+        }
+
+        List<BookEntity> books = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            BookEntity book = BookEntity.builder()
+                    .id((long) i + 1)
+                    .fileName("book-" + i + ".epub")
+                    .fileSubPath(WORDS[random.nextInt(WORDS.length)])
+                    .bookType(BookFileType.values()[random.nextInt(BookFileType.values().length)])
+                    .library(library)
+                    .libraryPath(libraryPath)
+                    .addedOn(Instant.ofEpochSecond(1_700_000_000L + i * 3_600L))
+                    .shelves(new HashSet<>())
+                    .build();
+
+            BookMetadataEntity metadata = BookMetadataEntity.builder()
+                    .bookId(book.getId())
+                    .book(book)
+                    .title(sentence(random, 2 + random.nextInt(5)))
+                    .subtitle(random.nextBoolean() ? sentence(random, 4) : null)
+                    .publisher(sentence(random, 2))
+                    .publishedDate(LocalDate.of(1950 + random.nextInt(75), 1 + random.nextInt(12), 1 + random.nextInt(28)))
+                    .description(sentence(random, 80))
+                    .seriesName(random.nextInt(3) == 0 ? WORDS[random.nextInt(WORDS.length)] + " saga" : null)
+                    .seriesNumber((float) (1 + random.nextInt(10)))
+                    .isbn10(String.format("%010d", Math.abs(random.nextLong()) % 10_000_000_000L))
+                    .isbn13(String.format("978%010d", Math.abs(random.nextLong()) % 10_000_000_000L))
+                    .language("en")
+                    .rating(1 + random.nextDouble() * 4)
+                    .coverUpdatedOn(Instant.ofEpochSecond(1_700_000_000L + i))
+                    .authors(pick(authors, 1 + random.nextInt(3), random))
+                    .categories(pick(categories, 1 + random.nextInt(5), random))
+                    .moods(new HashSet<>())
+                    .tags(new HashSet<>())
+                    .build();
+            book.setMetadata(metadata);
+            books.add(book);
+        }
+        return books;
+    }
+
+    private static <T> Set<T> pick(List<T> pool, int n, Random random) {
+        Set<T> picked = new HashSet<>();
+        while (picked.size() < n) {
+            picked.add(pool.get(random.nextInt(pool.size())));
+        }
+        return picked;
+    }
+
+    private static String sentence(Random random, int words) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < words; i++) {
+            if (i > 0) sb.append(' ');
+            String word = WORDS[random.nextInt(WORDS.length)];
+            sb.append(i == 0 ? Character.toUpperCase(word.charAt(0)) + word.substring(1) : word);
+        }
+        return sb.toString();
+    }
+
+    private static byte[] jpeg(BufferedImage image) throws IOException {
+        BufferedImage rgb = new BufferedImage(image.getWidth(), image.getHeight(), BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = rgb.createGraphics();
+        g.drawImage(image, 0, 0, Color.WHITE, null);
+        g.dispose();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(rgb, "JPEG", out);
+        return out.toByteArray();
+    }
+
+    private static void put(ZipOutputStream zos, String name, byte[] data) throws IOException {
+        zos.putNextEntry(new ZipEntry(name));
+        zos.write(data);
+        zos.closeEntry();
+    }
+}
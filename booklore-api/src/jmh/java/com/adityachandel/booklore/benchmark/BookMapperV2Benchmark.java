@@ -0,0 +1,32 @@
+package com.adityachandel.booklore.benchmark;
+
+import com.adityachandel.booklore.mapper.v2.BookMapperV2;
+import com.adityachandel.booklore.mapper.v2.BookMapperV2Impl;
+import com.adityachandel.booklore.model.dto.Book;
+import com.adityachandel.booklore.model.entity.BookEntity;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class BookMapperV2Benchmark {
+
+    @Param({"1", "500"})
+    public int books;
+
+    private final BookMapperV2 mapper = new BookMapperV2Impl();
+    private List<BookEntity> entities;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        entities = BenchmarkFixtures.books(books, 42);
+    }
+
+    @Benchmark
+    public List<Book> toDTO() {
+        return entities.stream().map(mapper::toDTO).toList();
+    }
+}
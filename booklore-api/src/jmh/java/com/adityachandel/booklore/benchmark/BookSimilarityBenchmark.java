@@ -0,0 +1,41 @@
+package com.adityachandel.booklore.benchmark;
+
+import com.adityachandel.booklore.model.entity.BookEntity;
+import com.adityachandel.booklore.service.recommender.BookSimilarityService;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class BookSimilarityBenchmark {
+
+    @Param({"1000"})
+    public int candidates;
+
+    private final BookSimilarityService similarityService = new BookSimilarityService();
+    private BookEntity target;
+    private List<BookEntity> others;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        List<BookEntity> books = BenchmarkFixtures.books(candidates + 1, 42);
+        target = books.getFirst();
+        others = books.subList(1, books.size());
+    }
+
+    @Benchmark
+    public double calculateSimilarityPair() {
+        return similarityService.calculateSimilarity(target, others.getFirst());
+    }
+
+    @Benchmark
+    public void calculateSimilarityAgainstLibrary(Blackhole blackhole) {
+        for (BookEntity other : others) {
+            blackhole.consume(similarityService.calculateSimilarity(target, other));
+        }
+    }
+}
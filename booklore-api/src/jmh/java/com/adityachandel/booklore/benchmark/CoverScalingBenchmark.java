@@ -0,0 +1,56 @@
+package com.adityachandel.booklore.benchmark;
+
+import com.adityachandel.booklore.config.AppProperties;
+import com.adityachandel.booklore.util.FileService;
+import org.openjdk.jmh.annotations.*;
+
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class CoverScalingBenchmark {
+
+    @Param({"600x900", "1600x2400"})
+    public String size;
+
+    private Path dataDir;
+    private FileService fileService;
+    private BufferedImage cover;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        dataDir = Files.createTempDirectory("booklore-jmh-covers");
+        AppProperties appProperties = new AppProperties();
+        appProperties.setPathConfig(dataDir.toString());
+        fileService = new FileService(appProperties);
+
+        String[] dims = size.split("x");
+        cover = BenchmarkFixtures.coverImage(Integer.parseInt(dims[0]), Integer.parseInt(dims[1]), 42);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        try (Stream<Path> paths = Files.walk(dataDir)) {
+            for (Path path : paths.sorted(Comparator.reverseOrder()).toList()) {
+                Files.deleteIfExists(path);
+            }
+        }
+    }
+
+    @Benchmark
+    public BufferedImage resizeToThumbnail() {
+        return fileService.resizeImage(cover, 250, 350);
+    }
+
+    @Benchmark
+    public boolean saveCoverImages() throws IOException {
+        return fileService.saveCoverImages(cover, 1L);
+    }
+}
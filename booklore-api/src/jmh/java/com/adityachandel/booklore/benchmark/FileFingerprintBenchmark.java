@@ -0,0 +1,44 @@
+package com.adityachandel.booklore.benchmark;
+
+import com.adityachandel.booklore.service.file.FileFingerprint;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class FileFingerprintBenchmark {
+
+    @Param({"epub", "cbz", "pdf"})
+    public String format;
+
+    private Path dir;
+    private Path file;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        dir = Files.createTempDirectory("booklore-jmh-fingerprint");
+        Path target = dir.resolve("book." + format);
+        file = switch (format) {
+            case "epub" -> BenchmarkFixtures.writeEpub(target, 60, 42);
+            case "cbz" -> BenchmarkFixtures.writeCbz(target, 40, 42);
+            case "pdf" -> BenchmarkFixtures.writePdf(target, 300, 42);
+            default -> throw new IllegalArgumentException(format);
+        };
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(file);
+        Files.deleteIfExists(dir);
+    }
+
+    @Benchmark
+    public String generateHash() {
+        return FileFingerprint.generateHash(file);
+    }
+}
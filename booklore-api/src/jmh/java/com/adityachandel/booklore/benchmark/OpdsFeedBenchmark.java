@@ -0,0 +1,60 @@
+package com.adityachandel.booklore.benchmark;
+
+import com.adityachandel.booklore.config.security.service.AuthenticationService;
+import com.adityachandel.booklore.mapper.v2.BookMapperV2;
+import com.adityachandel.booklore.mapper.v2.BookMapperV2Impl;
+import com.adityachandel.booklore.model.dto.Book;
+import com.adityachandel.booklore.service.opds.OpdsBookService;
+import com.adityachandel.booklore.service.opds.OpdsFeedService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Renders a catalog page from pre-mapped books; the collaborators are stubs, so only feed generation is measured.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class OpdsFeedBenchmark {
+
+    @Param({"50", "100"})
+    public int pageSize;
+
+    private OpdsFeedService feedService;
+    private MockHttpServletRequest request;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        BookMapperV2 mapper = new BookMapperV2Impl();
+        List<Book> books = BenchmarkFixtures.books(pageSize, 42).stream().map(mapper::toDTO).toList();
+
+        AuthenticationService authenticationService = mock(AuthenticationService.class);
+        OpdsBookService opdsBookService = mock(OpdsBookService.class);
+        when(opdsBookService.getBooksPage(any(), any(), any(), any(), anyInt(), anyInt()))
+                .thenReturn(new PageImpl<>(books, PageRequest.of(0, pageSize), 10_000));
+        feedService = new OpdsFeedService(authenticationService, opdsBookService);
+
+        request = new MockHttpServletRequest("GET", "/api/v1/opds/catalog");
+        request.setQueryString("page=1&size=" + pageSize);
+        request.addParameter("page", "1");
+        request.addParameter("size", String.valueOf(pageSize));
+    }
+
+    @Benchmark
+    public int writeCatalogFeed() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(64 * 1024);
+        feedService.writeCatalogFeed(request, out);
+        return out.size();
+    }
+}
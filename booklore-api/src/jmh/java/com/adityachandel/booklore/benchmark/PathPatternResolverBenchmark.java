@@ -0,0 +1,35 @@
+package com.adityachandel.booklore.benchmark;
+
+import com.adityachandel.booklore.model.entity.BookEntity;
+import com.adityachandel.booklore.util.PathPatternResolver;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class PathPatternResolverBenchmark {
+
+    @Param({
+            "{authors}/{title}",
+            "{authors}/<{series}/><{seriesIndex}. >{title}< ({year})>",
+            "{language}/{publisher}/{authors} - {title} [{isbn}]"
+    })
+    public String pattern;
+
+    private List<BookEntity> books;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        books = BenchmarkFixtures.books(256, 42);
+    }
+
+    @Benchmark
+    public String resolvePattern() {
+        BookEntity book = books.get(next++ & 255);
+        return PathPatternResolver.resolvePattern(book, pattern);
+    }
+}
@@ -15,6 +15,9 @@ public class AppProperties {
     private String version;
     private RemoteAuth remoteAuth;
     private Swagger swagger = new Swagger();
+    private Metrics metrics = new Metrics();
+    private Kobo kobo = new Kobo();
+    private Tasks tasks = new Tasks();
     private Boolean forceDisableOidc = false;
 
     @Getter
@@ -34,4 +37,27 @@ public class AppProperties {
     public static class Swagger {
         private boolean enabled = true;
     }
+
+    @Getter
+    @Setter
+    public static class Metrics {
+        private boolean prometheusPublic = false;
+    }
+
+    @Getter
+    @Setter
+    public static class Kobo {
+        private int syncBatchSize = 50;
+        private int syncMinBatchSize = 5;
+        private int syncMaxBatchSize = 250;
+        private int syncTargetPayloadKb = 512;
+    }
+
+    @Getter
+    @Setter
+    public static class Tasks {
+        private int diskHeavyConcurrency = 1;
+        private int cpuHeavyConcurrency = 1;
+        private int networkBoundConcurrency = 2;
+    }
 }
@@ -5,6 +5,7 @@ import com.adityachandel.booklore.service.security.JwtSecretService;
 import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.ExpiredJwtException;
 import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.security.Keys;
 import lombok.Getter;
@@ -30,9 +31,26 @@ public class JwtUtils {
     @Getter
     public final long refreshTokenExpirationMs = 1000L * 60 * 60 * 24 * 30; // 30 days
 
+    private volatile SecretKey signingKey;
+    private volatile JwtParser parser;
+
     private SecretKey getSigningKey() {
-        String secretKey = jwtSecretService.getSecret();
-        return Keys.hmacShaKeyFor(secretKey.getBytes(StandardCharsets.UTF_8));
+        SecretKey key = signingKey;
+        if (key == null) {
+            String secretKey = jwtSecretService.getSecret();
+            key = Keys.hmacShaKeyFor(secretKey.getBytes(StandardCharsets.UTF_8));
+            signingKey = key;
+        }
+        return key;
+    }
+
+    private JwtParser getParser() {
+        JwtParser jwtParser = parser;
+        if (jwtParser == null) {
+            jwtParser = Jwts.parser().verifyWith(getSigningKey()).build();
+            parser = jwtParser;
+        }
+        return jwtParser;
     }
 
     public String generateToken(BookLoreUserEntity user, boolean isRefreshToken) {
@@ -57,23 +75,22 @@ public class JwtUtils {
     }
 
     public boolean validateToken(String token) {
+        return extractValidClaims(token) != null;
+    }
+
+    public Claims extractValidClaims(String token) {
         try {
-            extractClaims(token);
-            return true;
+            return extractClaims(token);
         } catch (ExpiredJwtException e) {
             log.debug("Token expired: {}", e.getMessage());
         } catch (JwtException e) {
             log.debug("Invalid token: {}", e.getMessage());
         }
-        return false;
+        return null;
     }
 
     public Claims extractClaims(String token) {
-        return Jwts.parser()
-                .verifyWith(getSigningKey())
-                .build()
-                .parseSignedClaims(token)
-                .getPayload();
+        return getParser().parseSignedClaims(token).getPayload();
     }
 
     public String extractUsername(String token) {
@@ -81,7 +98,11 @@ public class JwtUtils {
     }
 
     public Long extractUserId(String token) {
-        Object userIdClaim = extractClaims(token).get("userId");
+        return extractUserId(extractClaims(token));
+    }
+
+    public Long extractUserId(Claims claims) {
+        Object userIdClaim = claims.get("userId");
         if (userIdClaim instanceof Number) {
             return ((Number) userIdClaim).longValue();
         }
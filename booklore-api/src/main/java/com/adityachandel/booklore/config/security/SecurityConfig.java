@@ -48,6 +48,8 @@ public class SecurityConfig {
             "/api/v1/api-docs/**"
     };
 
+    private static final String PROMETHEUS_ENDPOINT = "/actuator/prometheus";
+
     private static final String[] COMMON_PUBLIC_ENDPOINTS = {
             "/ws/**",                  // WebSocket connections (auth handled in WebSocketAuthInterceptor)
             "/kobo/**",                // Kobo API requests (auth handled in KoboAuthFilter)
@@ -140,6 +142,9 @@ public class SecurityConfig {
         if (appProperties.getSwagger().isEnabled()) {
             publicEndpoints.addAll(Arrays.asList(SWAGGER_ENDPOINTS));
         }
+        if (appProperties.getMetrics().isPrometheusPublic()) {
+            publicEndpoints.add(PROMETHEUS_ENDPOINT);
+        }
         http
                 .cors(cors -> cors.configurationSource(corsConfigurationSource()))
                 .csrf(AbstractHttpConfigurer::disable)
@@ -1,6 +1,7 @@
 package com.adityachandel.booklore.config.security.filter;
 
 import com.adityachandel.booklore.config.security.JwtUtils;
+import com.adityachandel.booklore.config.security.service.AuthenticatedPrincipalCache;
 import com.adityachandel.booklore.config.security.service.DynamicOidcJwtProcessor;
 import com.adityachandel.booklore.config.security.userdetails.UserAuthenticationDetails;
 import com.adityachandel.booklore.mapper.custom.BookLoreUserTransformer;
@@ -9,6 +10,7 @@ import com.adityachandel.booklore.model.dto.settings.OidcProviderDetails;
 import com.adityachandel.booklore.model.entity.BookLoreUserEntity;
 import com.adityachandel.booklore.repository.UserRepository;
 import com.adityachandel.booklore.service.appsettings.AppSettingService;
+import io.jsonwebtoken.Claims;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -32,6 +34,7 @@ public class CoverJwtFilter extends OncePerRequestFilter {
     private final BookLoreUserTransformer bookLoreUserTransformer;
     private final AppSettingService appSettingService;
     private final DynamicOidcJwtProcessor dynamicOidcJwtProcessor;
+    private final AuthenticatedPrincipalCache principalCache;
 
     @Override
     protected boolean shouldNotFilter(HttpServletRequest request) {
@@ -47,8 +50,12 @@ public class CoverJwtFilter extends OncePerRequestFilter {
             return;
         }
         try {
-            if (jwtUtils.validateToken(token)) {
-                authenticateLocalUser(token, request);
+            BookLoreUser cachedUser = principalCache.get(token);
+            Claims claims;
+            if (cachedUser != null) {
+                setAuthentication(cachedUser, request);
+            } else if ((claims = jwtUtils.extractValidClaims(token)) != null) {
+                authenticateLocalUser(token, claims, request);
             } else if (appSettingService.getAppSettings().isOidcEnabled()) {
                 authenticateOidcUser(token, request);
             } else {
@@ -63,10 +70,15 @@ public class CoverJwtFilter extends OncePerRequestFilter {
         chain.doFilter(request, response);
     }
 
-    private void authenticateLocalUser(String token, HttpServletRequest request) {
-        Long userId = jwtUtils.extractUserId(token);
+    private void authenticateLocalUser(String token, Claims claims, HttpServletRequest request) {
+        Long userId = jwtUtils.extractUserId(claims);
         BookLoreUserEntity entity = userRepository.findById(userId).orElseThrow(() -> new UsernameNotFoundException("User not found with ID: " + userId));
         BookLoreUser user = bookLoreUserTransformer.toDTO(entity);
+        principalCache.put(token, user, claims.getExpiration() != null ? claims.getExpiration().toInstant() : null);
+        setAuthentication(user, request);
+    }
+
+    private void setAuthentication(BookLoreUser user, HttpServletRequest request) {
         UsernamePasswordAuthenticationToken authentication = new UsernamePasswordAuthenticationToken(user, null, null);
         authentication.setDetails(new UserAuthenticationDetails(request, user.getId()));
         SecurityContextHolder.getContext().setAuthentication(authentication);
@@ -85,9 +97,7 @@ public class CoverJwtFilter extends OncePerRequestFilter {
         String username = claimsSet.getStringClaim(claimMapping.getUsername());
         BookLoreUserEntity entity = userRepository.findByUsername(username).orElseThrow(() -> new UsernameNotFoundException("OIDC user not found: " + username));
         BookLoreUser user = bookLoreUserTransformer.toDTO(entity);
-
-        UsernamePasswordAuthenticationToken authentication = new UsernamePasswordAuthenticationToken(user, null, null);
-        authentication.setDetails(new UserAuthenticationDetails(request, user.getId()));
-        SecurityContextHolder.getContext().setAuthentication(authentication);
+        principalCache.put(token, user, claimsSet.getExpirationTime().toInstant());
+        setAuthentication(user, request);
     }
 }
\ No newline at end of file
@@ -1,6 +1,7 @@
 package com.adityachandel.booklore.config.security.filter;
 
 import com.adityachandel.booklore.config.security.JwtUtils;
+import com.adityachandel.booklore.config.security.service.AuthenticatedPrincipalCache;
 import com.adityachandel.booklore.config.security.service.DynamicOidcJwtProcessor;
 import com.adityachandel.booklore.config.security.userdetails.UserAuthenticationDetails;
 import com.adityachandel.booklore.exception.ApiError;
@@ -13,6 +14,7 @@ import com.adityachandel.booklore.repository.UserRepository;
 import com.adityachandel.booklore.service.appsettings.AppSettingService;
 import com.adityachandel.booklore.service.user.UserProvisioningService;
 import com.nimbusds.jwt.JWTClaimsSet;
+import io.jsonwebtoken.Claims;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -43,6 +45,7 @@ public class DualJwtAuthenticationFilter extends OncePerRequestFilter {
     private final UserProvisioningService userProvisioningService;
     private static final ConcurrentMap<String, Object> userLocks = new ConcurrentHashMap<>();
     private final DynamicOidcJwtProcessor dynamicOidcJwtProcessor;
+    private final AuthenticatedPrincipalCache principalCache;
 
     private static final List<String> WHITELISTED_PATHS = List.of(
             "/api/v1/opds/",
@@ -70,8 +73,12 @@ public class DualJwtAuthenticationFilter extends OncePerRequestFilter {
             return;
         }
         try {
-            if (jwtUtils.validateToken(token)) {
-                authenticateLocalUser(token, request);
+            BookLoreUser cachedUser = principalCache.get(token);
+            Claims claims;
+            if (cachedUser != null) {
+                setAuthentication(cachedUser, request);
+            } else if ((claims = jwtUtils.extractValidClaims(token)) != null) {
+                authenticateLocalUser(token, claims, request);
             } else if (appSettingService.getAppSettings().isOidcEnabled()) {
                 authenticateOidcUser(token, request);
             } else {
@@ -87,10 +94,16 @@ public class DualJwtAuthenticationFilter extends OncePerRequestFilter {
         chain.doFilter(request, response);
     }
 
-    private void authenticateLocalUser(String token, HttpServletRequest request) {
-        Long userId = jwtUtils.extractUserId(token);
+    private void authenticateLocalUser(String token, Claims claims, HttpServletRequest request) {
+        Long userId = jwtUtils.extractUserId(claims);
+        long generation = principalCache.generation();
         BookLoreUserEntity entity = userRepository.findById(userId).orElseThrow(() -> new UsernameNotFoundException("User not found with ID: " + userId));
         BookLoreUser user = bookLoreUserTransformer.toDTO(entity);
+        principalCache.put(token, user, claims.getExpiration() != null ? claims.getExpiration().toInstant() : null, generation);
+        setAuthentication(user, request);
+    }
+
+    private void setAuthentication(BookLoreUser user, HttpServletRequest request) {
         UsernamePasswordAuthenticationToken authentication = new UsernamePasswordAuthenticationToken(user, null, null);
         authentication.setDetails(new UserAuthenticationDetails(request, user.getId()));
         SecurityContextHolder.getContext().setAuthentication(authentication);
@@ -114,6 +127,7 @@ public class DualJwtAuthenticationFilter extends OncePerRequestFilter {
             OidcAutoProvisionDetails provisionDetails = appSettingService.getAppSettings().getOidcAutoProvisionDetails();
             boolean autoProvision = provisionDetails != null && provisionDetails.isEnableAutoProvisioning();
 
+            long generation = principalCache.generation();
             BookLoreUserEntity entity = userRepository.findByUsername(username)
                     .orElseGet(() -> {
                         if (!autoProvision) {
@@ -135,9 +149,8 @@ public class DualJwtAuthenticationFilter extends OncePerRequestFilter {
                     });
 
             BookLoreUser user = bookLoreUserTransformer.toDTO(entity);
-            UsernamePasswordAuthenticationToken authentication = new UsernamePasswordAuthenticationToken(user, null, null);
-            authentication.setDetails(new UserAuthenticationDetails(request, user.getId()));
-            SecurityContextHolder.getContext().setAuthentication(authentication);
+            principalCache.put(token, user, claimsSet.getExpirationTime().toInstant(), generation);
+            setAuthentication(user, request);
 
         } catch (Exception e) {
             log.error("OIDC authentication failed", e);
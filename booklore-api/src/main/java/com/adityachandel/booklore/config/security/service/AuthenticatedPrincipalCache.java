@@ -0,0 +1,105 @@
+package com.adityachandel.booklore.config.security.service;
+
+import com.adityachandel.booklore.model.dto.BookLoreUser;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Short-lived cache of resolved principals keyed by the bearer token they were authenticated with.
+ * A hit skips signature verification, the user lookup and the DTO transformation, so the token
+ * string itself (not just its claims) is the key. Entries never outlive the token and are evicted
+ * whenever the underlying user, its permissions, libraries or password change.
+ * <p>
+ * A request may load a user just before an eviction and store it just after. To keep that stale
+ * principal out, callers read {@link #generation()} before loading the user and pass it to
+ * {@link #put}; evictions record the generation they happened at and {@code put} drops any principal
+ * loaded before the last eviction that affects it.
+ */
+@Slf4j
+@Component
+public class AuthenticatedPrincipalCache {
+
+    static final Duration TTL = Duration.ofSeconds(60);
+    static final int MAX_ENTRIES = 10_000;
+
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    private final AtomicLong generation = new AtomicLong();
+    private final Map<Long, Long> userEvictedAt = new ConcurrentHashMap<>();
+    private volatile long allEvictedAt;
+
+    private record Entry(BookLoreUser user, Instant expiresAt) {
+    }
+
+    public BookLoreUser get(String token) {
+        Entry entry = entries.get(token);
+        if (entry == null) {
+            return null;
+        }
+        if (entry.expiresAt().isBefore(Instant.now())) {
+            entries.remove(token, entry);
+            return null;
+        }
+        return entry.user();
+    }
+
+    /**
+     * The current generation, to be read before the user is loaded and passed to {@link #put}.
+     */
+    public long generation() {
+        return generation.get();
+    }
+
+    /**
+     * Caches the principal unless the user was evicted after {@code loadedAt}, i.e. while it was being loaded.
+     */
+    public void put(String token, BookLoreUser user, Instant tokenExpiresAt, long loadedAt) {
+        if (user == null || user.getId() == null || evictedSince(user.getId(), loadedAt)) {
+            return;
+        }
+        Instant expiresAt = Instant.now().plus(TTL);
+        if (tokenExpiresAt != null && tokenExpiresAt.isBefore(expiresAt)) {
+            expiresAt = tokenExpiresAt;
+        }
+        if (entries.size() >= MAX_ENTRIES) {
+            evictExpired();
+            if (entries.size() >= MAX_ENTRIES) {
+                log.debug("Principal cache full ({} entries), clearing", entries.size());
+                entries.clear();
+            }
+        }
+        Entry entry = new Entry(user, expiresAt);
+        entries.put(token, entry);
+        // an eviction may have run its removal between the check above and the put
+        if (evictedSince(user.getId(), loadedAt)) {
+            entries.remove(token, entry);
+        }
+    }
+
+    public void evictUser(Long userId) {
+        if (userId == null) {
+            return;
+        }
+        userEvictedAt.put(userId, generation.incrementAndGet());
+        entries.values().removeIf(entry -> userId.equals(entry.user().getId()));
+    }
+
+    public void evictAll() {
+        allEvictedAt = generation.incrementAndGet();
+        entries.clear();
+    }
+
+    private boolean evictedSince(Long userId, long loadedAt) {
+        return allEvictedAt > loadedAt || userEvictedAt.getOrDefault(userId, 0L) > loadedAt;
+    }
+
+    private void evictExpired() {
+        Instant now = Instant.now();
+        entries.values().removeIf(entry -> entry.expiresAt().isBefore(now));
+    }
+}
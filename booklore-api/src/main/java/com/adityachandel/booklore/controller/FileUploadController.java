@@ -1,14 +1,16 @@
 package com.adityachandel.booklore.controller;
 
 import com.adityachandel.booklore.model.dto.Book;
+import com.adityachandel.booklore.model.dto.request.ChunkedUploadRequest;
+import com.adityachandel.booklore.model.dto.response.ChunkedUploadStatus;
+import com.adityachandel.booklore.service.upload.ChunkedUploadService;
 import com.adityachandel.booklore.service.upload.FileUploadService;
+import jakarta.servlet.http.HttpServletRequest;
 import lombok.AllArgsConstructor;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
-import org.springframework.web.bind.annotation.PostMapping;
-import org.springframework.web.bind.annotation.RequestMapping;
-import org.springframework.web.bind.annotation.RequestParam;
-import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
 
 import io.swagger.v3.oas.annotations.tags.Tag;
@@ -25,6 +27,7 @@ import java.io.IOException;
 public class FileUploadController {
 
     private final FileUploadService fileUploadService;
+    private final ChunkedUploadService chunkedUploadService;
 
     @Operation(summary = "Upload a file", description = "Upload a file to a specific library and path. Requires upload permission or admin.")
     @ApiResponse(responseCode = "204", description = "File uploaded successfully")
@@ -52,4 +55,53 @@ public class FileUploadController {
         }
         return ResponseEntity.ok(fileUploadService.uploadFileBookDrop(file));
     }
+
+    @Operation(summary = "Stream a file upload", description = "Upload a file sent as the raw request body to a specific library and path. The body is written straight into the library without being buffered. Requires upload permission or admin.")
+    @ApiResponse(responseCode = "204", description = "File uploaded successfully")
+    @PreAuthorize("@securityUtil.isAdmin() or @securityUtil.canUpload()")
+    @PostMapping(value = "/upload/stream", consumes = MediaType.APPLICATION_OCTET_STREAM_VALUE)
+    public ResponseEntity<Void> uploadFileStream(
+            @Parameter(description = "Library ID") @RequestParam("libraryId") long libraryId,
+            @Parameter(description = "Path ID") @RequestParam("pathId") long pathId,
+            @Parameter(description = "Original file name") @RequestParam("fileName") String fileName,
+            HttpServletRequest request) throws IOException {
+        fileUploadService.uploadFileStream(request.getInputStream(), fileName, request.getContentLengthLong(), libraryId, pathId);
+        return ResponseEntity.noContent().build();
+    }
+
+    @Operation(summary = "Start a resumable upload", description = "Open a chunked upload session for a file of known size. Requires upload permission or admin.")
+    @ApiResponse(responseCode = "200", description = "Upload session created")
+    @PreAuthorize("@securityUtil.isAdmin() or @securityUtil.canUpload()")
+    @PostMapping("/upload/sessions")
+    public ResponseEntity<ChunkedUploadStatus> startChunkedUpload(@RequestBody ChunkedUploadRequest request) {
+        return ResponseEntity.ok(chunkedUploadService.startUpload(request));
+    }
+
+    @Operation(summary = "Get resumable upload status", description = "Return how many bytes of a chunked upload have been received, i.e. the offset to resume from.")
+    @ApiResponse(responseCode = "200", description = "Upload session status")
+    @PreAuthorize("@securityUtil.isAdmin() or @securityUtil.canUpload()")
+    @GetMapping("/upload/sessions/{uploadId}")
+    public ResponseEntity<ChunkedUploadStatus> getChunkedUploadStatus(@Parameter(description = "Upload session ID") @PathVariable String uploadId) {
+        return ResponseEntity.ok(chunkedUploadService.getStatus(uploadId));
+    }
+
+    @Operation(summary = "Upload a chunk", description = "Append the raw request body to a chunked upload at the given offset. The file is imported once its last byte is received.")
+    @ApiResponse(responseCode = "200", description = "Chunk stored")
+    @PreAuthorize("@securityUtil.isAdmin() or @securityUtil.canUpload()")
+    @PutMapping(value = "/upload/sessions/{uploadId}", consumes = MediaType.APPLICATION_OCTET_STREAM_VALUE)
+    public ResponseEntity<ChunkedUploadStatus> uploadChunk(
+            @Parameter(description = "Upload session ID") @PathVariable String uploadId,
+            @Parameter(description = "Byte offset of this chunk") @RequestParam("offset") long offset,
+            HttpServletRequest request) throws IOException {
+        return ResponseEntity.ok(chunkedUploadService.appendChunk(uploadId, offset, request.getInputStream()));
+    }
+
+    @Operation(summary = "Cancel a resumable upload", description = "Discard a chunked upload session and the data received so far.")
+    @ApiResponse(responseCode = "204", description = "Upload session cancelled")
+    @PreAuthorize("@securityUtil.isAdmin() or @securityUtil.canUpload()")
+    @DeleteMapping("/upload/sessions/{uploadId}")
+    public ResponseEntity<Void> cancelChunkedUpload(@Parameter(description = "Upload session ID") @PathVariable String uploadId) {
+        chunkedUploadService.cancel(uploadId);
+        return ResponseEntity.noContent().build();
+    }
 }
@@ -8,9 +8,11 @@ import io.swagger.v3.oas.annotations.tags.Tag;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.core.io.Resource;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
@@ -18,6 +20,10 @@ import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
 
 @Tag(name = "OPDS", description = "Endpoints for OPDS catalog feeds, book downloads, covers, and search description")
 @Slf4j
@@ -28,6 +34,7 @@ public class OpdsController {
 
     private static final String OPDS_CATALOG_MEDIA_TYPE = "application/atom+xml;profile=opds-catalog;kind=navigation;charset=utf-8";
     private static final String OPDS_ACQUISITION_MEDIA_TYPE = "application/atom+xml;profile=opds-catalog;kind=acquisition;charset=utf-8";
+    private static final String REVALIDATE_CACHE_CONTROL = CacheControl.noCache().cachePrivate().getHeaderValue();
 
     private final OpdsFeedService opdsFeedService;
     private final BookService bookService;
@@ -62,67 +69,69 @@ public class OpdsController {
     @Operation(summary = "Get OPDS root catalog", description = "Retrieve the OPDS root navigation feed.")
     @ApiResponse(responseCode = "200", description = "Root OPDS catalog returned successfully")
     @GetMapping(produces = OPDS_CATALOG_MEDIA_TYPE)
-    public ResponseEntity<String> getRootCatalog(
-            @Parameter(hidden = true) HttpServletRequest request) {
-        String feed = opdsFeedService.generateRootNavigation(request);
-        return ResponseEntity.ok()
-                .contentType(MediaType.parseMediaType(OPDS_CATALOG_MEDIA_TYPE))
-                .body(feed);
+    public void getRootCatalog(
+            @Parameter(hidden = true) HttpServletRequest request,
+            @Parameter(hidden = true) HttpServletResponse response) throws IOException {
+        writeFeed(response, OPDS_CATALOG_MEDIA_TYPE, out -> opdsFeedService.writeRootNavigation(request, out));
     }
 
     @Operation(summary = "Get OPDS libraries navigation", description = "Retrieve the OPDS libraries navigation feed.")
     @ApiResponse(responseCode = "200", description = "Libraries navigation feed returned successfully")
     @GetMapping(value = "/libraries", produces = OPDS_CATALOG_MEDIA_TYPE)
-    public ResponseEntity<String> getLibrariesNavigation(
-            @Parameter(hidden = true) HttpServletRequest request) {
-        String feed = opdsFeedService.generateLibrariesNavigation(request);
-        return ResponseEntity.ok()
-                .contentType(MediaType.parseMediaType(OPDS_CATALOG_MEDIA_TYPE))
-                .body(feed);
+    public void getLibrariesNavigation(
+            @Parameter(hidden = true) HttpServletRequest request,
+            @Parameter(hidden = true) HttpServletResponse response) throws IOException {
+        writeFeed(response, OPDS_CATALOG_MEDIA_TYPE, out -> opdsFeedService.writeLibrariesNavigation(request, out));
     }
 
     @Operation(summary = "Get OPDS shelves navigation", description = "Retrieve the OPDS shelves navigation feed.")
     @ApiResponse(responseCode = "200", description = "Shelves navigation feed returned successfully")
     @GetMapping(value = "/shelves", produces = OPDS_CATALOG_MEDIA_TYPE)
-    public ResponseEntity<String> getShelvesNavigation(
-            @Parameter(hidden = true) HttpServletRequest request) {
-        String feed = opdsFeedService.generateShelvesNavigation(request);
-        return ResponseEntity.ok()
-                .contentType(MediaType.parseMediaType(OPDS_CATALOG_MEDIA_TYPE))
-                .body(feed);
+    public void getShelvesNavigation(
+            @Parameter(hidden = true) HttpServletRequest request,
+            @Parameter(hidden = true) HttpServletResponse response) throws IOException {
+        writeFeed(response, OPDS_CATALOG_MEDIA_TYPE, out -> opdsFeedService.writeShelvesNavigation(request, out));
     }
 
-    @Operation(summary = "Get OPDS catalog feed", description = "Retrieve the OPDS acquisition catalog feed.")
-    @ApiResponse(responseCode = "200", description = "Catalog feed returned successfully")
+    @Operation(summary = "Get OPDS catalog feed", description = "Retrieve the OPDS acquisition catalog feed. Honors If-None-Match.")
+    @ApiResponses({
+        @ApiResponse(responseCode = "200", description = "Catalog feed returned successfully"),
+        @ApiResponse(responseCode = "304", description = "Catalog feed unchanged since the supplied ETag")
+    })
     @GetMapping(value = "/catalog", produces = OPDS_ACQUISITION_MEDIA_TYPE)
-    public ResponseEntity<String> getCatalog(
-            @Parameter(hidden = true) HttpServletRequest request) {
-        String feed = opdsFeedService.generateCatalogFeed(request);
-        return ResponseEntity.ok()
-                .contentType(MediaType.parseMediaType(OPDS_ACQUISITION_MEDIA_TYPE))
-                .body(feed);
+    public void getCatalog(
+            @Parameter(hidden = true) HttpServletRequest request,
+            @Parameter(hidden = true) HttpServletResponse response) throws IOException {
+        if (new ServletWebRequest(request, response).checkNotModified(opdsFeedService.getCatalogFeedETag(request))) {
+            return;
+        }
+        response.setHeader(HttpHeaders.CACHE_CONTROL, REVALIDATE_CACHE_CONTROL);
+        writeFeed(response, OPDS_ACQUISITION_MEDIA_TYPE, out -> opdsFeedService.writeCatalogFeed(request, out));
     }
 
-    @Operation(summary = "Get recent books feed", description = "Retrieve the OPDS feed for recently added books.")
-    @ApiResponse(responseCode = "200", description = "Recent books feed returned successfully")
+    @Operation(summary = "Get recent books feed", description = "Retrieve the OPDS feed for recently added books. Honors If-None-Match.")
+    @ApiResponses({
+        @ApiResponse(responseCode = "200", description = "Recent books feed returned successfully"),
+        @ApiResponse(responseCode = "304", description = "Recent books feed unchanged since the supplied ETag")
+    })
     @GetMapping(value = "/recent", produces = OPDS_ACQUISITION_MEDIA_TYPE)
-    public ResponseEntity<String> getRecentBooks(
-            @Parameter(hidden = true) HttpServletRequest request) {
-        String feed = opdsFeedService.generateRecentFeed(request);
-        return ResponseEntity.ok()
-                .contentType(MediaType.parseMediaType(OPDS_ACQUISITION_MEDIA_TYPE))
-                .body(feed);
+    public void getRecentBooks(
+            @Parameter(hidden = true) HttpServletRequest request,
+            @Parameter(hidden = true) HttpServletResponse response) throws IOException {
+        if (new ServletWebRequest(request, response).checkNotModified(opdsFeedService.getRecentFeedETag(request))) {
+            return;
+        }
+        response.setHeader(HttpHeaders.CACHE_CONTROL, REVALIDATE_CACHE_CONTROL);
+        writeFeed(response, OPDS_ACQUISITION_MEDIA_TYPE, out -> opdsFeedService.writeRecentFeed(request, out));
     }
 
     @Operation(summary = "Get surprise feed", description = "Retrieve the OPDS feed for surprise/random books.")
     @ApiResponse(responseCode = "200", description = "Surprise feed returned successfully")
     @GetMapping(value = "/surprise", produces = OPDS_ACQUISITION_MEDIA_TYPE)
-    public ResponseEntity<String> getSurpriseFeed(
-            @Parameter(hidden = true) HttpServletRequest request) {
-        String feed = opdsFeedService.generateSurpriseFeed(request);
-        return ResponseEntity.ok()
-                .contentType(MediaType.parseMediaType(OPDS_ACQUISITION_MEDIA_TYPE))
-                .body(feed);
+    public void getSurpriseFeed(
+            @Parameter(hidden = true) HttpServletRequest request,
+            @Parameter(hidden = true) HttpServletResponse response) throws IOException {
+        writeFeed(response, OPDS_ACQUISITION_MEDIA_TYPE, out -> opdsFeedService.writeSurpriseFeed(request, out));
     }
 
     @Operation(summary = "Get OPDS search description", description = "Retrieve the OpenSearch description document for OPDS search.")
@@ -139,4 +148,9 @@ public class OpdsController {
                 .contentType(MediaType.parseMediaType("application/opensearchdescription+xml;charset=utf-8"))
                 .body(searchDoc);
     }
+
+    private void writeFeed(HttpServletResponse response, String mediaType, StreamingResponseBody feed) throws IOException {
+        response.setContentType(mediaType);
+        feed.writeTo(response.getOutputStream());
+    }
 }
@@ -6,6 +6,7 @@ import com.adityachandel.booklore.model.dto.request.TaskCronConfigRequest;
 import com.adityachandel.booklore.model.dto.response.CronConfig;
 import com.adityachandel.booklore.model.dto.response.TaskCancelResponse;
 import com.adityachandel.booklore.model.dto.response.TaskCreateResponse;
+import com.adityachandel.booklore.model.dto.response.TaskQueueResponse;
 import com.adityachandel.booklore.model.dto.response.TasksHistoryResponse;
 import com.adityachandel.booklore.model.enums.TaskType;
 import com.adityachandel.booklore.service.task.TaskCronService;
@@ -60,6 +61,12 @@ public class TaskController {
         return ResponseEntity.ok(response);
     }
 
+    @GetMapping("/queue")
+    @PreAuthorize("@securityUtil.isAdmin()")
+    public ResponseEntity<TaskQueueResponse> getTaskQueue() {
+        return ResponseEntity.ok(service.getTaskQueue());
+    }
+
     @PatchMapping("/{taskType}/cron")
     @PreAuthorize("@securityUtil.isAdmin()")
     public ResponseEntity<CronConfig> patchCronConfig(@PathVariable TaskType taskType, @RequestBody TaskCronConfigRequest request) {
@@ -53,7 +53,9 @@ public enum ApiError {
     FILE_NOT_FOUND(HttpStatus.NOT_FOUND, "File not found: %s"),
     SHELF_CANNOT_BE_DELETED(HttpStatus.FORBIDDEN, "'%s' shelf can't be deleted" ),
     TASK_NOT_FOUND(HttpStatus.NOT_FOUND, "Scheduled task not found: %s"),
-    TASK_ALREADY_RUNNING(HttpStatus.CONFLICT, "Task is already running: %s"),;
+    TASK_ALREADY_RUNNING(HttpStatus.CONFLICT, "Task is already running: %s"),
+    UPLOAD_SESSION_NOT_FOUND(HttpStatus.NOT_FOUND, "Upload session not found: %s"),
+    UPLOAD_OFFSET_MISMATCH(HttpStatus.CONFLICT, "Upload offset %d does not match the %d bytes received so far"),;
 
     private final HttpStatus status;
     private final String message;
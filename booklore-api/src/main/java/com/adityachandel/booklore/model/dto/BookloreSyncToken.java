@@ -13,4 +13,5 @@ public class BookloreSyncToken {
     private String ongoingSyncPointId;
     private String lastSuccessfulSyncPointId;
     private String rawKoboSyncToken;
+    private Integer batchSize;
 }
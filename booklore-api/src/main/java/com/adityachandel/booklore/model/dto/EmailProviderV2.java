@@ -21,4 +21,6 @@ public class EmailProviderV2 {
     private Boolean startTls;
     private Boolean defaultProvider;
     private Boolean shared;
+    private Integer maxConcurrentSends;
+    private Integer maxSendsPerMinute;
 }
@@ -1,6 +1,8 @@
 package com.adityachandel.booklore.model.dto;
 
 import com.adityachandel.booklore.model.dto.response.CronConfig;
+import com.adityachandel.booklore.model.enums.TaskPriority;
+import com.adityachandel.booklore.model.enums.TaskResourceClass;
 import com.adityachandel.booklore.model.enums.TaskType;
 import com.fasterxml.jackson.annotation.JsonInclude;
 import lombok.AllArgsConstructor;
@@ -20,6 +22,8 @@ public class TaskInfo {
     private boolean parallel;
     private boolean async;
     private boolean cronSupported;
+    private TaskPriority priority;
+    private TaskResourceClass resourceClass;
     private CronConfig cronConfig;
     private String metadata;
 
@@ -31,6 +35,8 @@ public class TaskInfo {
                 .parallel(taskType.isParallel())
                 .async(taskType.isAsync())
                 .cronSupported(taskType.isCronSupported())
+                .priority(taskType.getPriority())
+                .resourceClass(taskType.getResourceClass())
                 .build();
     }
 }
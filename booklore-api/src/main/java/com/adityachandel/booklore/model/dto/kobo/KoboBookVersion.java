@@ -0,0 +1,12 @@
+package com.adityachandel.booklore.model.dto.kobo;
+
+import com.adityachandel.booklore.model.enums.BookFileType;
+
+import java.time.Instant;
+
+/**
+ * The few book columns a Kobo sync needs to build an entitlement and to tell whether a rendered copy of the
+ * book's metadata is still current.
+ */
+public record KoboBookVersion(Long bookId, BookFileType bookType, Instant addedOn, Long fileSizeKb, Instant metadataUpdatedAt) {
+}
@@ -19,4 +19,6 @@ public class CreateEmailProviderRequest {
     private Boolean auth;
     private Boolean startTls;
     private boolean shared;
+    private Integer maxConcurrentSends;
+    private Integer maxSendsPerMinute;
 }
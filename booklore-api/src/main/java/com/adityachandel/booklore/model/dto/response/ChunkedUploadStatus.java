@@ -0,0 +1,14 @@
+package com.adityachandel.booklore.model.dto.response;
+
+import lombok.Builder;
+import lombok.Data;
+
+@Builder
+@Data
+public class ChunkedUploadStatus {
+    private String uploadId;
+    private String fileName;
+    private long fileSize;
+    private long receivedBytes;
+    private boolean complete;
+}
@@ -0,0 +1,38 @@
+package com.adityachandel.booklore.model.dto.response;
+
+import com.adityachandel.booklore.model.enums.TaskPriority;
+import com.adityachandel.booklore.model.enums.TaskResourceClass;
+import com.adityachandel.booklore.model.enums.TaskType;
+import com.adityachandel.booklore.task.TaskStatus;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class TaskQueueResponse {
+    private Map<TaskResourceClass, Integer> concurrencyLimits;
+    private List<QueuedTask> tasks;
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class QueuedTask {
+        private String taskId;
+        private TaskType taskType;
+        private TaskResourceClass resourceClass;
+        private TaskPriority priority;
+        private TaskStatus status;
+        private Integer position;
+        private LocalDateTime queuedAt;
+        private LocalDateTime startedAt;
+    }
+}
@@ -4,8 +4,6 @@ import jakarta.persistence.*;
 import lombok.*;
 
 import java.time.LocalDateTime;
-import java.util.List;
-import java.util.Objects;
 
 @Entity
 @Getter
@@ -19,9 +17,25 @@ public class AppMigrationEntity {
     @Column(name = "migration_key", nullable = false, unique = true)
     private String key;
 
-    @Column(name = "executed_at", nullable = false)
+    @Column(name = "executed_at")
     private LocalDateTime executedAt;
 
     @Column(name = "description")
     private String description;
+
+    @Column(name = "last_processed_id")
+    private Long lastProcessedId;
+
+    @Column(name = "processed_count", nullable = false)
+    private long processedCount;
+
+    public AppMigrationEntity(String key, LocalDateTime executedAt, String description) {
+        this.key = key;
+        this.executedAt = executedAt;
+        this.description = description;
+    }
+
+    public boolean isCompleted() {
+        return executedAt != null;
+    }
 }
@@ -41,6 +41,9 @@ public class BookEntity {
     @Column(name = "metadata_match_score")
     private Float metadataMatchScore;
 
+    @Column(name = "metadata_presence")
+    private Integer metadataPresence;
+
     @OneToOne(mappedBy = "book", cascade = CascadeType.ALL, orphanRemoval = true, fetch = FetchType.LAZY)
     private BookMetadataEntity metadata;
 
@@ -67,6 +70,9 @@ public class BookEntity {
     @Column(name = "deleted_at")
     private Instant deletedAt;
 
+    @Column(name = "updated_at", insertable = false, updatable = false)
+    private Instant updatedAt;
+
     @ManyToMany
     @JoinTable(
             name = "book_shelf_mapping",
@@ -48,5 +48,13 @@ public class EmailProviderV2Entity {
 
     @Column(name = "shared", nullable = false)
     private boolean shared;
+
+    @Column(name = "max_concurrent_sends", nullable = false)
+    @Builder.Default
+    private int maxConcurrentSends = 2;
+
+    @Column(name = "max_sends_per_minute", nullable = false)
+    @Builder.Default
+    private int maxSendsPerMinute = 20;
 }
 
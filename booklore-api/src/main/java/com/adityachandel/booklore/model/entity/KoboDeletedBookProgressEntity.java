@@ -23,4 +23,7 @@ public class KoboDeletedBookProgressEntity {
 
     @Column(name = "book_id_synced", nullable = false)
     private Long bookIdSynced;
+
+    @Column(nullable = false)
+    private boolean synced;
 }
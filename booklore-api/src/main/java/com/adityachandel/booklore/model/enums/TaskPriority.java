@@ -0,0 +1,10 @@
+package com.adityachandel.booklore.model.enums;
+
+/**
+ * Order in which queued tasks of the same resource class are started; tasks of equal priority run in submission order.
+ */
+public enum TaskPriority {
+    HIGH,
+    NORMAL,
+    LOW
+}
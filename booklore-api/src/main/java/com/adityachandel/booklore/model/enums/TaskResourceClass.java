@@ -0,0 +1,11 @@
+package com.adityachandel.booklore.model.enums;
+
+/**
+ * The resource a task mostly waits on. Tasks of the same class share a concurrency limit, so a recommendation rebuild
+ * and a library rescan can run side by side while two rescans cannot.
+ */
+public enum TaskResourceClass {
+    DISK_HEAVY,
+    CPU_HEAVY,
+    NETWORK_BOUND
+}
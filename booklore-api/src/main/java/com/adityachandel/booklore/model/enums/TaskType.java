@@ -9,6 +9,8 @@ public enum TaskType {
             false,
             true,
             false,
+            TaskPriority.NORMAL,
+            TaskResourceClass.DISK_HEAVY,
             "Clear CBX Cache",
             "Clears temporarily extracted comic book files used by the reader."
     ),
@@ -17,6 +19,8 @@ public enum TaskType {
             false,
             true,
             false,
+            TaskPriority.NORMAL,
+            TaskResourceClass.DISK_HEAVY,
             "Clear PDF Cache",
             "Clears temporarily generated images used by the streaming PDF reader."
     ),
@@ -25,6 +29,8 @@ public enum TaskType {
             true,
             false,
             false,
+            TaskPriority.LOW,
+            TaskResourceClass.DISK_HEAVY,
             "Refresh Metadata",
             "Re-reads book information (title, author, cover, etc.) from your files and updates the Booklore database."
     ),
@@ -33,6 +39,8 @@ public enum TaskType {
             true,
             true,
             false,
+            TaskPriority.LOW,
+            TaskResourceClass.CPU_HEAVY,
             "Update Book Recommendations",
             "Analyzes your library to generate personalized book recommendations based on the books you own."
     ),
@@ -41,6 +49,8 @@ public enum TaskType {
             false,
             true,
             false,
+            TaskPriority.NORMAL,
+            TaskResourceClass.DISK_HEAVY,
             "Cleanup Deleted Books",
             "Permanently removes database entries for books you previously deleted from your libraries."
     ),
@@ -49,6 +59,8 @@ public enum TaskType {
             false,
             true,
             false,
+            TaskPriority.NORMAL,
+            TaskResourceClass.DISK_HEAVY,
             "Sync Library Files",
             "Scans your library folders to detect new books and removes entries for files that no longer exist."
     ),
@@ -57,6 +69,8 @@ public enum TaskType {
             false,
             true,
             false,
+            TaskPriority.NORMAL,
+            TaskResourceClass.DISK_HEAVY,
             "Cleanup Temporary Metadata",
             "Removes temporary metadata files created during the bookdrop and manual metadata review processes."
     ),
@@ -65,8 +79,50 @@ public enum TaskType {
             true,
             false,
             true,
+            TaskPriority.HIGH,
+            TaskResourceClass.NETWORK_BOUND,
             "Refresh Metadata",
             "Updates metadata information for your selected books."
+    ),
+    APP_MIGRATION(
+            false,
+            true,
+            false,
+            true,
+            TaskPriority.HIGH,
+            TaskResourceClass.DISK_HEAVY,
+            "Data Migration",
+            "Upgrades data of existing books after a Booklore update."
+    ),
+    WRITE_METADATA_FILES(
+            true,
+            true,
+            false,
+            true,
+            TaskPriority.NORMAL,
+            TaskResourceClass.DISK_HEAVY,
+            "Write Metadata to Files",
+            "Writes changed metadata back into book files after authors, categories or series were merged or deleted."
+    ),
+    SCAN_LIBRARY(
+            true,
+            true,
+            false,
+            true,
+            TaskPriority.NORMAL,
+            TaskResourceClass.DISK_HEAVY,
+            "Scan Library",
+            "Imports books from a library's folders after the library is created, gets new paths or is rescanned."
+    ),
+    REGENERATE_COVERS(
+            false,
+            true,
+            false,
+            true,
+            TaskPriority.LOW,
+            TaskResourceClass.CPU_HEAVY,
+            "Regenerate Covers",
+            "Regenerates the cover image of every book whose cover is not locked."
     );
 
     @Getter
@@ -81,17 +137,26 @@ public enum TaskType {
     @Getter
     private final boolean hiddenFromUI;
 
+    @Getter
+    private final TaskPriority priority;
+
+    @Getter
+    private final TaskResourceClass resourceClass;
+
     @Getter
     private final String name;
 
     @Getter
     private final String description;
 
-    TaskType(boolean parallel, boolean async, boolean cronSupported, boolean hiddenFromUI, String name, String description) {
+    TaskType(boolean parallel, boolean async, boolean cronSupported, boolean hiddenFromUI, TaskPriority priority,
+             TaskResourceClass resourceClass, String name, String description) {
         this.parallel = parallel;
         this.async = async;
         this.cronSupported = cronSupported;
         this.hiddenFromUI = hiddenFromUI;
+        this.priority = priority;
+        this.resourceClass = resourceClass;
         this.name = name;
         this.description = description;
     }
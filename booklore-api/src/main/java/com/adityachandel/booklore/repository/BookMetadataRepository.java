@@ -2,9 +2,11 @@ package com.adityachandel.booklore.repository;
 
 import com.adityachandel.booklore.model.entity.*;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
 import java.util.List;
 
 public interface BookMetadataRepository extends JpaRepository<BookMetadataEntity, Long> {
@@ -12,17 +14,36 @@ public interface BookMetadataRepository extends JpaRepository<BookMetadataEntity
     @Query("SELECT m FROM BookMetadataEntity m WHERE m.bookId IN :bookIds")
     List<BookMetadataEntity> getMetadataForBookIds(@Param("bookIds") List<Long> bookIds);
 
-    List<BookMetadataEntity> findAllByAuthorsContaining(AuthorEntity author);
+    @Query("SELECT m.bookId FROM BookMetadataEntity m WHERE LOWER(m.seriesName) IN :names")
+    List<Long> findBookIdsBySeriesNames(@Param("names") Collection<String> lowerCaseNames);
 
-    List<BookMetadataEntity> findAllByCategoriesContaining(CategoryEntity category);
+    @Query("SELECT m.bookId FROM BookMetadataEntity m WHERE LOWER(m.publisher) IN :names")
+    List<Long> findBookIdsByPublishers(@Param("names") Collection<String> lowerCaseNames);
 
-    List<BookMetadataEntity> findAllByMoodsContaining(MoodEntity mood);
+    @Query("SELECT m.bookId FROM BookMetadataEntity m WHERE LOWER(m.language) IN :names")
+    List<Long> findBookIdsByLanguages(@Param("names") Collection<String> lowerCaseNames);
 
-    List<BookMetadataEntity> findAllByTagsContaining(TagEntity tag);
+    /**
+     * Bumps {@code updated_at} for books whose authors, categories, moods, tags or shelves changed. Those edits only
+     * write mapping tables, and OPDS feed versions and cached Kobo metadata are keyed on this column.
+     */
+    @Modifying(flushAutomatically = true)
+    @Query(value = "UPDATE book_metadata SET updated_at = CURRENT_TIMESTAMP(6) WHERE book_id IN :bookIds", nativeQuery = true)
+    int touchUpdatedAt(@Param("bookIds") Collection<Long> bookIds);
 
-    List<BookMetadataEntity> findAllBySeriesNameIgnoreCase(String seriesName);
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE BookMetadataEntity m SET m.seriesName = :seriesName WHERE m.bookId IN :bookIds")
+    int updateSeriesName(@Param("bookIds") Collection<Long> bookIds, @Param("seriesName") String seriesName);
 
-    List<BookMetadataEntity> findAllByPublisherIgnoreCase(String publisher);
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE BookMetadataEntity m SET m.seriesName = NULL, m.seriesNumber = NULL, m.seriesTotal = NULL WHERE m.bookId IN :bookIds")
+    int clearSeries(@Param("bookIds") Collection<Long> bookIds);
 
-    List<BookMetadataEntity> findAllByLanguageIgnoreCase(String language);
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE BookMetadataEntity m SET m.publisher = :publisher WHERE m.bookId IN :bookIds")
+    int updatePublisher(@Param("bookIds") Collection<Long> bookIds, @Param("publisher") String publisher);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE BookMetadataEntity m SET m.language = :language WHERE m.bookId IN :bookIds")
+    int updateLanguage(@Param("bookIds") Collection<Long> bookIds, @Param("language") String language);
 }
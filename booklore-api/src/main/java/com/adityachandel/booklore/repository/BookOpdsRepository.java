@@ -1,18 +1,23 @@
 package com.adityachandel.booklore.repository;
 
 import com.adityachandel.booklore.model.entity.BookEntity;
+import jakarta.persistence.QueryHint;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.Instant;
 import java.util.Collection;
 import java.util.List;
 
+import static org.hibernate.jpa.HibernateHints.HINT_READ_ONLY;
+
 @Repository
 public interface BookOpdsRepository extends JpaRepository<BookEntity, Long>, JpaSpecificationExecutor<BookEntity> {
 
@@ -23,6 +28,7 @@ public interface BookOpdsRepository extends JpaRepository<BookEntity, Long>, Jpa
     @Query("SELECT b.id FROM BookEntity b WHERE (b.deleted IS NULL OR b.deleted = false)")
     Page<Long> findBookIds(Pageable pageable);
 
+    @QueryHints(@QueryHint(name = HINT_READ_ONLY, value = "true"))
     @EntityGraph(attributePaths = {"metadata", "additionalFiles", "shelves"})
     @Query("SELECT b FROM BookEntity b WHERE b.id IN :ids AND (b.deleted IS NULL OR b.deleted = false)")
     List<BookEntity> findAllWithMetadataByIds(@Param("ids") Collection<Long> ids);
@@ -43,6 +49,7 @@ public interface BookOpdsRepository extends JpaRepository<BookEntity, Long>, Jpa
     @Query("SELECT b.id FROM BookEntity b WHERE b.library.id IN :libraryIds AND (b.deleted IS NULL OR b.deleted = false)")
     Page<Long> findBookIdsByLibraryIds(@Param("libraryIds") Collection<Long> libraryIds, Pageable pageable);
 
+    @QueryHints(@QueryHint(name = HINT_READ_ONLY, value = "true"))
     @EntityGraph(attributePaths = {"metadata", "additionalFiles", "shelves"})
     @Query("SELECT b FROM BookEntity b WHERE b.id IN :ids AND b.library.id IN :libraryIds AND (b.deleted IS NULL OR b.deleted = false)")
     List<BookEntity> findAllWithMetadataByIdsAndLibraryIds(@Param("ids") Collection<Long> ids, @Param("libraryIds") Collection<Long> libraryIds);
@@ -63,6 +70,7 @@ public interface BookOpdsRepository extends JpaRepository<BookEntity, Long>, Jpa
     @Query("SELECT DISTINCT b.id FROM BookEntity b JOIN b.shelves s WHERE s.id = :shelfId AND (b.deleted IS NULL OR b.deleted = false)")
     Page<Long> findBookIdsByShelfId(@Param("shelfId") Long shelfId, Pageable pageable);
 
+    @QueryHints(@QueryHint(name = HINT_READ_ONLY, value = "true"))
     @EntityGraph(attributePaths = {"metadata", "additionalFiles", "shelves"})
     @Query("SELECT DISTINCT b FROM BookEntity b JOIN b.shelves s WHERE b.id IN :ids AND s.id = :shelfId AND (b.deleted IS NULL OR b.deleted = false)")
     List<BookEntity> findAllWithMetadataByIdsAndShelfId(@Param("ids") Collection<Long> ids, @Param("shelfId") Long shelfId);
@@ -84,6 +92,7 @@ public interface BookOpdsRepository extends JpaRepository<BookEntity, Long>, Jpa
             """)
     Page<Long> findBookIdsByMetadataSearch(@Param("text") String text, Pageable pageable);
 
+    @QueryHints(@QueryHint(name = HINT_READ_ONLY, value = "true"))
     @EntityGraph(attributePaths = {"metadata", "metadata.authors", "metadata.categories", "additionalFiles", "shelves"})
     @Query("SELECT DISTINCT b FROM BookEntity b WHERE b.id IN :ids AND (b.deleted IS NULL OR b.deleted = false)")
     List<BookEntity> findAllWithFullMetadataByIds(@Param("ids") Collection<Long> ids);
@@ -107,17 +116,75 @@ public interface BookOpdsRepository extends JpaRepository<BookEntity, Long>, Jpa
             """)
     Page<Long> findBookIdsByMetadataSearchAndLibraryIds(@Param("text") String text, @Param("libraryIds") Collection<Long> libraryIds, Pageable pageable);
 
+    @QueryHints(@QueryHint(name = HINT_READ_ONLY, value = "true"))
     @EntityGraph(attributePaths = {"metadata", "metadata.authors", "metadata.categories", "additionalFiles", "shelves"})
     @Query("SELECT DISTINCT b FROM BookEntity b WHERE b.id IN :ids AND b.library.id IN :libraryIds AND (b.deleted IS NULL OR b.deleted = false)")
     List<BookEntity> findAllWithFullMetadataByIdsAndLibraryIds(@Param("ids") Collection<Long> ids, @Param("libraryIds") Collection<Long> libraryIds);
 
+    // ============================================
+    // FEED VERSION - ETag validators
+    // ============================================
+
+    /**
+     * Cheap summary of a feed's scope. Any insert, soft delete or row update of a book or its metadata changes
+     * at least one of these values, so feeds can be revalidated without loading the entity graph.
+     */
+    interface FeedVersion {
+        long getBookCount();
+
+        Instant getBooksUpdatedAt();
+
+        Instant getMetadataUpdatedAt();
+    }
+
+    @Query("""
+            SELECT COUNT(b) AS bookCount, MAX(b.updatedAt) AS booksUpdatedAt, MAX(m.updatedAt) AS metadataUpdatedAt
+            FROM BookEntity b LEFT JOIN b.metadata m
+            WHERE (b.deleted IS NULL OR b.deleted = false)
+            """)
+    FeedVersion findFeedVersion();
+
+    @Query("""
+            SELECT COUNT(b) AS bookCount, MAX(b.updatedAt) AS booksUpdatedAt, MAX(m.updatedAt) AS metadataUpdatedAt
+            FROM BookEntity b LEFT JOIN b.metadata m
+            WHERE b.library.id IN :libraryIds AND (b.deleted IS NULL OR b.deleted = false)
+            """)
+    FeedVersion findFeedVersionByLibraryIds(@Param("libraryIds") Collection<Long> libraryIds);
+
+    @Query("""
+            SELECT COUNT(b) AS bookCount, MAX(b.updatedAt) AS booksUpdatedAt, MAX(m.updatedAt) AS metadataUpdatedAt
+            FROM BookEntity b JOIN b.shelves s LEFT JOIN b.metadata m
+            WHERE s.id = :shelfId AND (b.deleted IS NULL OR b.deleted = false)
+            """)
+    FeedVersion findFeedVersionByShelfId(@Param("shelfId") Long shelfId);
+
     // ============================================
     // RANDOM BOOKS - "Surprise Me" Feed
     // ============================================
 
-    @Query(value = "SELECT b.id FROM BookEntity b WHERE (b.deleted IS NULL OR b.deleted = false) ORDER BY function('RAND')", nativeQuery = false)
-    List<Long> findRandomBookIds();
+    interface IdRange {
+        long getBookCount();
+
+        Long getMinId();
+
+        Long getMaxId();
+    }
+
+    @Query("SELECT COUNT(b) AS bookCount, MIN(b.id) AS minId, MAX(b.id) AS maxId FROM BookEntity b WHERE (b.deleted IS NULL OR b.deleted = false)")
+    IdRange findIdRange();
+
+    @Query("SELECT COUNT(b) AS bookCount, MIN(b.id) AS minId, MAX(b.id) AS maxId FROM BookEntity b WHERE b.library.id IN :libraryIds AND (b.deleted IS NULL OR b.deleted = false)")
+    IdRange findIdRangeByLibraryIds(@Param("libraryIds") Collection<Long> libraryIds);
+
+    @Query("SELECT b.id FROM BookEntity b WHERE b.id IN :ids AND (b.deleted IS NULL OR b.deleted = false)")
+    List<Long> findExistingBookIds(@Param("ids") Collection<Long> ids);
+
+    @Query("SELECT b.id FROM BookEntity b WHERE b.id IN :ids AND b.library.id IN :libraryIds AND (b.deleted IS NULL OR b.deleted = false)")
+    List<Long> findExistingBookIdsByLibraryIds(@Param("ids") Collection<Long> ids, @Param("libraryIds") Collection<Long> libraryIds);
+
+    @Query("SELECT b.id FROM BookEntity b WHERE (b.deleted IS NULL OR b.deleted = false) ORDER BY b.id")
+    List<Long> findBookIdsOrderedById(Pageable pageable);
 
-    @Query(value = "SELECT b.id FROM BookEntity b WHERE b.library.id IN :libraryIds AND (b.deleted IS NULL OR b.deleted = false) ORDER BY function('RAND')", nativeQuery = false)
-    List<Long> findRandomBookIdsByLibraryIds(@Param("libraryIds") Collection<Long> libraryIds);
+    @Query("SELECT b.id FROM BookEntity b WHERE b.library.id IN :libraryIds AND (b.deleted IS NULL OR b.deleted = false) ORDER BY b.id")
+    List<Long> findBookIdsByLibraryIdsOrderedById(@Param("libraryIds") Collection<Long> libraryIds, Pageable pageable);
 }
@@ -0,0 +1,221 @@
+package com.adityachandel.booklore.repository;
+
+import com.adityachandel.booklore.model.dto.Book;
+import com.adityachandel.booklore.model.dto.BookMetadata;
+import com.adityachandel.booklore.model.dto.LibraryPath;
+import com.adityachandel.booklore.model.dto.Shelf;
+import com.adityachandel.booklore.model.dto.Sort;
+import com.adityachandel.booklore.model.enums.BookFileType;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.TypedQuery;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.*;
+
+/**
+ * Read-only list queries for the book grid. Scalar columns are selected as tuples and the
+ * many-to-many collections are fetched with one flat query each, so no entity is ever
+ * attached to the persistence context and nothing has to be dirty-checked or mapped.
+ */
+@Repository
+@RequiredArgsConstructor
+public class BookProjectionRepository {
+
+    private static final String NOT_DELETED = "(b.deleted IS NULL OR b.deleted = false)";
+
+    private static final String BOOK_COLUMNS = """
+            b.id AS id, b.bookType AS bookType, b.library.id AS libraryId, b.library.name AS libraryName,
+            b.libraryPath.id AS libraryPathId, b.fileName AS fileName, b.fileSubPath AS fileSubPath,
+            b.fileSizeKb AS fileSizeKb, b.addedOn AS addedOn, b.metadataMatchScore AS metadataMatchScore,
+            m.bookId AS metadataBookId, m.title AS title, m.subtitle AS subtitle, m.publisher AS publisher,
+            m.publishedDate AS publishedDate, m.seriesName AS seriesName, m.seriesNumber AS seriesNumber,
+            m.seriesTotal AS seriesTotal, m.isbn13 AS isbn13, m.isbn10 AS isbn10, m.pageCount AS pageCount,
+            m.language AS language, m.rating AS rating, m.asin AS asin, m.amazonRating AS amazonRating,
+            m.amazonReviewCount AS amazonReviewCount, m.goodreadsId AS goodreadsId, m.comicvineId AS comicvineId,
+            m.goodreadsRating AS goodreadsRating, m.goodreadsReviewCount AS goodreadsReviewCount,
+            m.hardcoverId AS hardcoverId, m.hardcoverRating AS hardcoverRating,
+            m.hardcoverReviewCount AS hardcoverReviewCount, m.personalRating AS personalRating,
+            m.googleId AS googleId, m.coverUpdatedOn AS coverUpdatedOn,
+            m.titleLocked AS titleLocked, m.subtitleLocked AS subtitleLocked, m.publisherLocked AS publisherLocked,
+            m.publishedDateLocked AS publishedDateLocked, m.descriptionLocked AS descriptionLocked,
+            m.seriesNameLocked AS seriesNameLocked, m.seriesNumberLocked AS seriesNumberLocked,
+            m.seriesTotalLocked AS seriesTotalLocked, m.isbn13Locked AS isbn13Locked, m.isbn10Locked AS isbn10Locked,
+            m.asinLocked AS asinLocked, m.goodreadsIdLocked AS goodreadsIdLocked,
+            m.comicvineIdLocked AS comicvineIdLocked, m.hardcoverIdLocked AS hardcoverIdLocked,
+            m.googleIdLocked AS googleIdLocked, m.pageCountLocked AS pageCountLocked,
+            m.languageLocked AS languageLocked, m.personalRatingLocked AS personalRatingLocked,
+            m.amazonRatingLocked AS amazonRatingLocked, m.amazonReviewCountLocked AS amazonReviewCountLocked,
+            m.goodreadsRatingLocked AS goodreadsRatingLocked, m.goodreadsReviewCountLocked AS goodreadsReviewCountLocked,
+            m.hardcoverRatingLocked AS hardcoverRatingLocked, m.hardcoverReviewCountLocked AS hardcoverReviewCountLocked,
+            m.coverLocked AS coverLocked, m.authorsLocked AS authorsLocked, m.categoriesLocked AS categoriesLocked,
+            m.moodsLocked AS moodsLocked, m.tagsLocked AS tagsLocked, m.reviewsLocked AS reviewsLocked
+            """;
+
+    private final EntityManager entityManager;
+
+    public List<Book> findAllBookSummaries(boolean includeDescription, Long userId) {
+        return findBookSummaries(null, includeDescription, userId);
+    }
+
+    public List<Book> findBookSummariesByLibraryIds(Collection<Long> libraryIds, boolean includeDescription, Long userId) {
+        if (libraryIds == null || libraryIds.isEmpty()) {
+            return List.of();
+        }
+        return findBookSummaries(libraryIds, includeDescription, userId);
+    }
+
+    private List<Book> findBookSummaries(Collection<Long> libraryIds, boolean includeDescription, Long userId) {
+        String where = libraryIds == null ? NOT_DELETED : NOT_DELETED + " AND b.library.id IN :libraryIds";
+
+        String select = includeDescription ? BOOK_COLUMNS + ", m.description AS description" : BOOK_COLUMNS;
+        TypedQuery<Tuple> bookQuery = entityManager.createQuery(
+                "SELECT " + select + " FROM BookEntity b LEFT JOIN b.metadata m WHERE " + where, Tuple.class);
+        bindLibraryIds(bookQuery, libraryIds);
+
+        List<Tuple> rows = bookQuery.getResultList();
+        if (rows.isEmpty()) {
+            return List.of();
+        }
+
+        Map<Long, Set<String>> authors = findNames("m.authors", where, libraryIds);
+        Map<Long, Set<String>> categories = findNames("m.categories", where, libraryIds);
+        Map<Long, Set<String>> moods = findNames("m.moods", where, libraryIds);
+        Map<Long, Set<String>> tags = findNames("m.tags", where, libraryIds);
+        Map<Long, Set<Shelf>> shelves = findShelves(where, libraryIds, userId);
+
+        List<Book> books = new ArrayList<>(rows.size());
+        for (Tuple row : rows) {
+            Long bookId = row.get("id", Long.class);
+            BookMetadata metadata = null;
+            if (row.get("metadataBookId") != null) {
+                metadata = toMetadata(row, includeDescription);
+                metadata.setAuthors(authors.getOrDefault(bookId, Set.of()));
+                metadata.setCategories(categories.getOrDefault(bookId, Set.of()));
+                metadata.setMoods(moods.getOrDefault(bookId, Set.of()));
+                metadata.setTags(tags.getOrDefault(bookId, Set.of()));
+            }
+            books.add(Book.builder()
+                    .id(bookId)
+                    .bookType(row.get("bookType", BookFileType.class))
+                    .libraryId(row.get("libraryId", Long.class))
+                    .libraryName(row.get("libraryName", String.class))
+                    .libraryPath(LibraryPath.builder().id(row.get("libraryPathId", Long.class)).build())
+                    .fileName(row.get("fileName", String.class))
+                    .fileSubPath(row.get("fileSubPath", String.class))
+                    .fileSizeKb(row.get("fileSizeKb", Long.class))
+                    .addedOn(row.get("addedOn", Instant.class))
+                    .metadataMatchScore(row.get("metadataMatchScore", Float.class))
+                    .metadata(metadata)
+                    .shelves(shelves.getOrDefault(bookId, new HashSet<>()))
+                    .build());
+        }
+        return books;
+    }
+
+    private BookMetadata toMetadata(Tuple row, boolean includeDescription) {
+        return BookMetadata.builder()
+                .bookId(row.get("metadataBookId", Long.class))
+                .title(row.get("title", String.class))
+                .subtitle(row.get("subtitle", String.class))
+                .publisher(row.get("publisher", String.class))
+                .publishedDate(row.get("publishedDate", LocalDate.class))
+                .description(includeDescription ? row.get("description", String.class) : null)
+                .seriesName(row.get("seriesName", String.class))
+                .seriesNumber(row.get("seriesNumber", Float.class))
+                .seriesTotal(row.get("seriesTotal", Integer.class))
+                .isbn13(row.get("isbn13", String.class))
+                .isbn10(row.get("isbn10", String.class))
+                .pageCount(row.get("pageCount", Integer.class))
+                .language(row.get("language", String.class))
+                .rating(row.get("rating", Double.class))
+                .asin(row.get("asin", String.class))
+                .amazonRating(row.get("amazonRating", Double.class))
+                .amazonReviewCount(row.get("amazonReviewCount", Integer.class))
+                .goodreadsId(row.get("goodreadsId", String.class))
+                .comicvineId(row.get("comicvineId", String.class))
+                .goodreadsRating(row.get("goodreadsRating", Double.class))
+                .goodreadsReviewCount(row.get("goodreadsReviewCount", Integer.class))
+                .hardcoverId(row.get("hardcoverId", String.class))
+                .hardcoverRating(row.get("hardcoverRating", Double.class))
+                .hardcoverReviewCount(row.get("hardcoverReviewCount", Integer.class))
+                .personalRating(row.get("personalRating", Double.class))
+                .googleId(row.get("googleId", String.class))
+                .coverUpdatedOn(row.get("coverUpdatedOn", Instant.class))
+                .titleLocked(row.get("titleLocked", Boolean.class))
+                .subtitleLocked(row.get("subtitleLocked", Boolean.class))
+                .publisherLocked(row.get("publisherLocked", Boolean.class))
+                .publishedDateLocked(row.get("publishedDateLocked", Boolean.class))
+                .descriptionLocked(row.get("descriptionLocked", Boolean.class))
+                .seriesNameLocked(row.get("seriesNameLocked", Boolean.class))
+                .seriesNumberLocked(row.get("seriesNumberLocked", Boolean.class))
+                .seriesTotalLocked(row.get("seriesTotalLocked", Boolean.class))
+                .isbn13Locked(row.get("isbn13Locked", Boolean.class))
+                .isbn10Locked(row.get("isbn10Locked", Boolean.class))
+                .asinLocked(row.get("asinLocked", Boolean.class))
+                .goodreadsIdLocked(row.get("goodreadsIdLocked", Boolean.class))
+                .comicvineIdLocked(row.get("comicvineIdLocked", Boolean.class))
+                .hardcoverIdLocked(row.get("hardcoverIdLocked", Boolean.class))
+                .googleIdLocked(row.get("googleIdLocked", Boolean.class))
+                .pageCountLocked(row.get("pageCountLocked", Boolean.class))
+                .languageLocked(row.get("languageLocked", Boolean.class))
+                .personalRatingLocked(row.get("personalRatingLocked", Boolean.class))
+                .amazonRatingLocked(row.get("amazonRatingLocked", Boolean.class))
+                .amazonReviewCountLocked(row.get("amazonReviewCountLocked", Boolean.class))
+                .goodreadsRatingLocked(row.get("goodreadsRatingLocked", Boolean.class))
+                .goodreadsReviewCountLocked(row.get("goodreadsReviewCountLocked", Boolean.class))
+                .hardcoverRatingLocked(row.get("hardcoverRatingLocked", Boolean.class))
+                .hardcoverReviewCountLocked(row.get("hardcoverReviewCountLocked", Boolean.class))
+                .coverLocked(row.get("coverLocked", Boolean.class))
+                .authorsLocked(row.get("authorsLocked", Boolean.class))
+                .categoriesLocked(row.get("categoriesLocked", Boolean.class))
+                .moodsLocked(row.get("moodsLocked", Boolean.class))
+                .tagsLocked(row.get("tagsLocked", Boolean.class))
+                .reviewsLocked(row.get("reviewsLocked", Boolean.class))
+                .build();
+    }
+
+    private Map<Long, Set<String>> findNames(String collectionPath, String where, Collection<Long> libraryIds) {
+        TypedQuery<Object[]> query = entityManager.createQuery(
+                "SELECT b.id, x.name FROM BookEntity b JOIN b.metadata m JOIN " + collectionPath + " x WHERE " + where, Object[].class);
+        bindLibraryIds(query, libraryIds);
+
+        Map<Long, Set<String>> result = new HashMap<>();
+        for (Object[] row : query.getResultList()) {
+            result.computeIfAbsent((Long) row[0], id -> new HashSet<>()).add((String) row[1]);
+        }
+        return result;
+    }
+
+    private Map<Long, Set<Shelf>> findShelves(String where, Collection<Long> libraryIds, Long userId) {
+        String shelfWhere = userId == null ? where : where + " AND s.user.id = :userId";
+        TypedQuery<Object[]> query = entityManager.createQuery(
+                "SELECT b.id, s.id, s.name, s.icon, s.sort, s.user.id FROM BookEntity b JOIN b.shelves s WHERE " + shelfWhere, Object[].class);
+        bindLibraryIds(query, libraryIds);
+        if (userId != null) {
+            query.setParameter("userId", userId);
+        }
+
+        Map<Long, Set<Shelf>> result = new HashMap<>();
+        for (Object[] row : query.getResultList()) {
+            Shelf shelf = Shelf.builder()
+                    .id((Long) row[1])
+                    .name((String) row[2])
+                    .icon((String) row[3])
+                    .sort((Sort) row[4])
+                    .userId((Long) row[5])
+                    .build();
+            result.computeIfAbsent((Long) row[0], id -> new HashSet<>()).add(shelf);
+        }
+        return result;
+    }
+
+    private void bindLibraryIds(TypedQuery<?> query, Collection<Long> libraryIds) {
+        if (libraryIds != null) {
+            query.setParameter("libraryIds", libraryIds);
+        }
+    }
+}
@@ -1,7 +1,9 @@
 package com.adityachandel.booklore.repository;
 
+import com.adityachandel.booklore.model.dto.kobo.KoboBookVersion;
 import com.adityachandel.booklore.model.entity.BookEntity;
 import com.adityachandel.booklore.model.entity.LibraryPathEntity;
+import com.adityachandel.booklore.model.enums.BookFileType;
 import jakarta.transaction.Transactional;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
@@ -26,11 +28,21 @@ public interface BookRepository extends JpaRepository<BookEntity, Long>, JpaSpec
 
     Optional<BookEntity> findByCurrentHashAndDeletedTrue(String currentHash);
 
+    @Query("SELECT b.id FROM BookEntity b WHERE b.currentHash = :currentHash")
+    Optional<Long> findIdByCurrentHash(@Param("currentHash") String currentHash);
+
+    @Query("SELECT b.bookType FROM BookEntity b WHERE b.id = :id")
+    Optional<BookFileType> findBookTypeById(@Param("id") Long id);
+
     @Query("SELECT b.id FROM BookEntity b WHERE b.library.id = :libraryId AND (b.deleted IS NULL OR b.deleted = false)")
     Set<Long> findBookIdsByLibraryId(@Param("libraryId") long libraryId);
 
     List<BookEntity> findAllByLibraryPathIdAndFileSubPathStartingWith(Long libraryPathId, String fileSubPathPrefix);
 
+    @EntityGraph(attributePaths = {"libraryPath"})
+    @Query("SELECT b FROM BookEntity b WHERE b.libraryPath.id IN :libraryPathIds ORDER BY b.id")
+    List<BookEntity> findAllWithLibraryPathByLibraryPathIdIn(@Param("libraryPathIds") Collection<Long> libraryPathIds);
+
     @Query("SELECT b FROM BookEntity b WHERE b.libraryPath.id = :libraryPathId AND b.fileSubPath = :fileSubPath AND b.fileName = :fileName AND (b.deleted IS NULL OR b.deleted = false)")
     Optional<BookEntity> findByLibraryPath_IdAndFileSubPathAndFileName(@Param("libraryPathId") Long libraryPathId,
                                                                        @Param("fileSubPath") String fileSubPath,
@@ -39,10 +51,6 @@ public interface BookRepository extends JpaRepository<BookEntity, Long>, JpaSpec
     @Query("SELECT b.id FROM BookEntity b WHERE b.libraryPath.id IN :libraryPathIds AND (b.deleted IS NULL OR b.deleted = false)")
     List<Long> findAllBookIdsByLibraryPathIdIn(@Param("libraryPathIds") Collection<Long> libraryPathIds);
 
-    @EntityGraph(attributePaths = {"metadata", "shelves", "libraryPath"})
-    @Query("SELECT b FROM BookEntity b WHERE (b.deleted IS NULL OR b.deleted = false)")
-    List<BookEntity> findAllWithMetadata();
-
     @EntityGraph(attributePaths = {"metadata", "shelves", "libraryPath"})
     @Query(value = "SELECT b FROM BookEntity b WHERE (b.deleted IS NULL OR b.deleted = false)")
     Page<BookEntity> findAllWithMetadata(Pageable pageable);
@@ -51,6 +59,10 @@ public interface BookRepository extends JpaRepository<BookEntity, Long>, JpaSpec
     @Query("SELECT b FROM BookEntity b WHERE b.id IN :bookIds AND (b.deleted IS NULL OR b.deleted = false)")
     List<BookEntity> findAllWithMetadataByIds(@Param("bookIds") Set<Long> bookIds);
 
+    @Query("SELECT new com.adityachandel.booklore.model.dto.kobo.KoboBookVersion(b.id, b.bookType, b.addedOn, b.fileSizeKb, m.updatedAt) " +
+            "FROM BookEntity b JOIN b.metadata m WHERE b.id IN :bookIds AND (b.deleted IS NULL OR b.deleted = false)")
+    List<KoboBookVersion> findKoboBookVersionsByIds(@Param("bookIds") Collection<Long> bookIds);
+
     @EntityGraph(attributePaths = {"metadata", "shelves", "libraryPath"})
     @Query("SELECT b FROM BookEntity b WHERE b.id IN :bookIds AND (b.deleted IS NULL OR b.deleted = false)")
     List<BookEntity> findWithMetadataByIdsWithPagination(@Param("bookIds") Set<Long> bookIds, Pageable pageable);
@@ -59,18 +71,10 @@ public interface BookRepository extends JpaRepository<BookEntity, Long>, JpaSpec
     @Query("SELECT b FROM BookEntity b WHERE b.library.id = :libraryId AND (b.deleted IS NULL OR b.deleted = false)")
     List<BookEntity> findAllWithMetadataByLibraryId(@Param("libraryId") Long libraryId);
 
-    @EntityGraph(attributePaths = {"metadata", "shelves", "libraryPath"})
-    @Query("SELECT b FROM BookEntity b WHERE b.library.id IN :libraryIds AND (b.deleted IS NULL OR b.deleted = false)")
-    List<BookEntity> findAllWithMetadataByLibraryIds(@Param("libraryIds") Collection<Long> libraryIds);
-
     @EntityGraph(attributePaths = {"metadata", "shelves", "libraryPath"})
     @Query("SELECT DISTINCT b FROM BookEntity b JOIN b.shelves s WHERE s.id = :shelfId AND (b.deleted IS NULL OR b.deleted = false)")
     List<BookEntity> findAllWithMetadataByShelfId(@Param("shelfId") Long shelfId);
 
-    @EntityGraph(attributePaths = {"metadata", "shelves", "libraryPath"})
-    @Query("SELECT b FROM BookEntity b WHERE b.fileSizeKb IS NULL AND (b.deleted IS NULL OR b.deleted = false)")
-    List<BookEntity> findAllWithMetadataByFileSizeKbIsNull();
-
     @Query("""
                 SELECT DISTINCT b FROM BookEntity b
                 LEFT JOIN FETCH b.metadata m
@@ -81,6 +85,38 @@ public interface BookRepository extends JpaRepository<BookEntity, Long>, JpaSpec
             """)
     List<BookEntity> findAllFullBooks();
 
+    @Query("""
+                SELECT DISTINCT b FROM BookEntity b
+                LEFT JOIN FETCH b.metadata m
+                LEFT JOIN FETCH m.authors
+                LEFT JOIN FETCH m.categories
+                LEFT JOIN FETCH b.shelves
+                WHERE b.id IN :bookIds
+            """)
+    List<BookEntity> findAllFullBooksByIds(@Param("bookIds") Collection<Long> bookIds);
+
+    @EntityGraph(attributePaths = {"libraryPath"})
+    @Query("SELECT b FROM BookEntity b WHERE b.id IN :bookIds")
+    List<BookEntity> findAllWithLibraryPathByIdIn(@Param("bookIds") Collection<Long> bookIds);
+
+    @Query("SELECT b.id FROM BookEntity b WHERE b.id > :afterId ORDER BY b.id")
+    List<Long> findIdsAfter(@Param("afterId") long afterId, Pageable pageable);
+
+    @Query("SELECT COUNT(b) FROM BookEntity b WHERE b.id > :afterId")
+    long countIdsAfter(@Param("afterId") long afterId);
+
+    @Query("SELECT b.id FROM BookEntity b WHERE b.id > :afterId AND b.metadataPresence IS NULL ORDER BY b.id")
+    List<Long> findIdsWithoutMetadataPresenceAfter(@Param("afterId") long afterId, Pageable pageable);
+
+    @Query("SELECT COUNT(b) FROM BookEntity b WHERE b.id > :afterId AND b.metadataPresence IS NULL")
+    long countIdsWithoutMetadataPresenceAfter(@Param("afterId") long afterId);
+
+    @Query("SELECT b.id FROM BookEntity b WHERE b.id > :afterId AND b.fileSizeKb IS NULL AND (b.deleted IS NULL OR b.deleted = false) ORDER BY b.id")
+    List<Long> findIdsWithoutFileSizeAfter(@Param("afterId") long afterId, Pageable pageable);
+
+    @Query("SELECT COUNT(b) FROM BookEntity b WHERE b.id > :afterId AND b.fileSizeKb IS NULL AND (b.deleted IS NULL OR b.deleted = false)")
+    long countIdsWithoutFileSizeAfter(@Param("afterId") long afterId);
+
     @Query(value = """
                 SELECT DISTINCT b FROM BookEntity b
                 LEFT JOIN b.metadata m
@@ -2,8 +2,12 @@ package com.adityachandel.booklore.repository;
 
 import com.adityachandel.booklore.model.entity.CategoryEntity;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
@@ -12,4 +16,7 @@ public interface CategoryRepository extends JpaRepository<CategoryEntity, Long>
     Optional<CategoryEntity> findByName(String categoryName);
 
     Optional<CategoryEntity> findByNameIgnoreCase(String categoryName);
+
+    @Query("SELECT c FROM CategoryEntity c WHERE LOWER(c.name) IN :names")
+    List<CategoryEntity> findAllByLowerCaseNameIn(@Param("names") Collection<String> lowerCaseNames);
 }
@@ -0,0 +1,38 @@
+package com.adityachandel.booklore.repository;
+
+import com.adityachandel.booklore.model.entity.EmailOutboxEntity;
+import jakarta.transaction.Transactional;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+import java.util.List;
+
+@Repository
+public interface EmailOutboxRepository extends JpaRepository<EmailOutboxEntity, Long> {
+
+    @Query("SELECT e FROM EmailOutboxEntity e WHERE e.status = com.adityachandel.booklore.model.entity.EmailOutboxEntity.Status.PENDING AND e.nextAttemptAt <= :now ORDER BY e.nextAttemptAt, e.id")
+    List<EmailOutboxEntity> findDue(@Param("now") Instant now, Pageable pageable);
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE EmailOutboxEntity e SET e.status = com.adityachandel.booklore.model.entity.EmailOutboxEntity.Status.SENDING " +
+            "WHERE e.id = :id AND e.status = com.adityachandel.booklore.model.entity.EmailOutboxEntity.Status.PENDING")
+    int claim(@Param("id") Long id);
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE EmailOutboxEntity e SET e.status = com.adityachandel.booklore.model.entity.EmailOutboxEntity.Status.PENDING " +
+            "WHERE e.status = com.adityachandel.booklore.model.entity.EmailOutboxEntity.Status.SENDING")
+    int releaseInFlight();
+
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM EmailOutboxEntity e WHERE e.status = com.adityachandel.booklore.model.entity.EmailOutboxEntity.Status.FAILED " +
+            "AND e.createdAt < :cutoff")
+    int deleteFailedCreatedBefore(@Param("cutoff") Instant cutoff);
+}
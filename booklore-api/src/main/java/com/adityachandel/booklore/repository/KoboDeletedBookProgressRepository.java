@@ -2,15 +2,27 @@ package com.adityachandel.booklore.repository;
 
 import com.adityachandel.booklore.model.entity.KoboDeletedBookProgressEntity;
 import jakarta.transaction.Transactional;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
+
 @Repository
 public interface KoboDeletedBookProgressRepository extends JpaRepository<KoboDeletedBookProgressEntity, Long> {
 
+    Slice<KoboDeletedBookProgressEntity> findBySnapshotIdAndUserIdAndSyncedFalse(String snapshotId, Long userId, Pageable pageable);
+
+    boolean existsBySnapshotIdAndUserIdAndSyncedFalse(String snapshotId, Long userId);
+
+    @Modifying
+    @Query("UPDATE KoboDeletedBookProgressEntity p SET p.synced = true WHERE p.id IN :ids")
+    void markSynced(@Param("ids") List<Long> ids);
+
     @Modifying
     @Transactional
     @Query("DELETE FROM KoboDeletedBookProgressEntity p WHERE p.snapshotId = :snapshotId AND p.userId = :userId")
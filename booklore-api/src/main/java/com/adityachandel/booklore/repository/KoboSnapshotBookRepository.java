@@ -2,8 +2,8 @@ package com.adityachandel.booklore.repository;
 
 
 import com.adityachandel.booklore.model.entity.KoboSnapshotBookEntity;
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
@@ -15,63 +15,45 @@ import java.util.List;
 @Repository
 public interface KoboSnapshotBookRepository extends JpaRepository<KoboSnapshotBookEntity, Long> {
 
-    Page<KoboSnapshotBookEntity> findBySnapshot_IdAndSyncedFalse(String snapshotId, Pageable pageable);
+    Slice<KoboSnapshotBookEntity> findBySnapshot_IdAndSyncedFalse(String snapshotId, Pageable pageable);
 
     @Modifying
     @Query("UPDATE KoboSnapshotBookEntity b SET b.synced = true WHERE b.snapshot.id = :snapshotId AND b.bookId IN :bookIds")
     void markBooksSynced(@Param("snapshotId") String snapshotId, @Param("bookIds") List<Long> bookIds);
 
-    @Query("""
-        SELECT curr
-        FROM KoboSnapshotBookEntity curr
-        WHERE curr.snapshot.id = :currSnapshotId
-          AND curr.bookId IN (
-              SELECT prev.bookId
-              FROM KoboSnapshotBookEntity prev
-              WHERE prev.snapshot.id = :prevSnapshotId
-          )
-    """)
-    List<KoboSnapshotBookEntity> findExistingBooksBetweenSnapshots(
+    /**
+     * Marks every book of the current snapshot that was already part of the previous one as synced, so the
+     * remaining unsynced rows are exactly the newly added books.
+     */
+    @Modifying
+    @Query(value = """
+            UPDATE kobo_library_snapshot_book curr
+            JOIN kobo_library_snapshot_book prev
+              ON prev.snapshot_id = :prevSnapshotId AND prev.book_id = curr.book_id
+            SET curr.synced = TRUE
+            WHERE curr.snapshot_id = :currSnapshotId
+            """, nativeQuery = true)
+    int markExistingBooksSynced(
             @Param("prevSnapshotId") String prevSnapshotId,
             @Param("currSnapshotId") String currSnapshotId
     );
 
-    @Query("""
-            SELECT curr
-            FROM KoboSnapshotBookEntity curr
-            WHERE curr.snapshot.id = :currSnapshotId
-              AND (:unsyncedOnly = false OR curr.synced = false)
-              AND curr.bookId NOT IN (
-                    SELECT prev.bookId
-                    FROM KoboSnapshotBookEntity prev
-                    WHERE prev.snapshot.id = :prevSnapshotId
-              )
-            """)
-    Page<KoboSnapshotBookEntity> findNewlyAddedBooks(
-            @Param("prevSnapshotId") String prevSnapshotId,
-            @Param("currSnapshotId") String currSnapshotId,
-            @Param("unsyncedOnly") boolean unsyncedOnly,
-            Pageable pageable
-    );
-
-    @Query("""
-        SELECT prev
-        FROM KoboSnapshotBookEntity prev
-        WHERE prev.snapshot.id = :prevSnapshotId
-          AND prev.bookId NOT IN (
-              SELECT curr.bookId
-              FROM KoboSnapshotBookEntity curr
-              WHERE curr.snapshot.id = :currSnapshotId
-          )
-          AND prev.bookId NOT IN (
-              SELECT p.bookIdSynced
-              FROM KoboDeletedBookProgressEntity p
-              WHERE p.snapshotId = :currSnapshotId
-          )
-    """)
-    Page<KoboSnapshotBookEntity> findRemovedBooks(
+    /**
+     * Records every book of the previous snapshot that is missing from the current one as a pending removal.
+     */
+    @Modifying
+    @Query(value = """
+            INSERT IGNORE INTO kobo_removed_books_tracking (snapshot_id, user_id, book_id_synced, synced)
+            SELECT :currSnapshotId, :userId, prev.book_id, FALSE
+            FROM kobo_library_snapshot_book prev
+            LEFT JOIN kobo_library_snapshot_book curr
+              ON curr.snapshot_id = :currSnapshotId AND curr.book_id = prev.book_id
+            WHERE prev.snapshot_id = :prevSnapshotId
+              AND curr.id IS NULL
+            """, nativeQuery = true)
+    int insertRemovedBooks(
             @Param("prevSnapshotId") String prevSnapshotId,
             @Param("currSnapshotId") String currSnapshotId,
-            Pageable pageable
+            @Param("userId") Long userId
     );
 }
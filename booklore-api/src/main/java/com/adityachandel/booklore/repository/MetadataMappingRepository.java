@@ -0,0 +1,99 @@
+package com.adityachandel.booklore.repository;
+
+import jakarta.persistence.EntityManager;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Repository;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Set-based statements on the book-to-value mapping tables of authors, categories, moods and tags, used to
+ * merge or remove values across many books without loading their metadata.
+ */
+@Repository
+@RequiredArgsConstructor
+public class MetadataMappingRepository {
+
+    @Getter
+    public enum Mapping {
+        AUTHORS("book_metadata_author_mapping", "author_id"),
+        CATEGORIES("book_metadata_category_mapping", "category_id"),
+        MOODS("book_metadata_mood_mapping", "mood_id"),
+        TAGS("book_metadata_tag_mapping", "tag_id");
+
+        private final String table;
+        private final String valueColumn;
+
+        Mapping(String table, String valueColumn) {
+            this.table = table;
+            this.valueColumn = valueColumn;
+        }
+    }
+
+    private final EntityManager entityManager;
+
+    public List<Long> findBookIds(Mapping mapping, Collection<Long> valueIds) {
+        if (valueIds.isEmpty()) return List.of();
+        List<?> rows = entityManager.createNativeQuery(
+                        "SELECT DISTINCT book_id FROM " + mapping.getTable() + " WHERE " + mapping.getValueColumn() + " IN :valueIds")
+                .setParameter("valueIds", valueIds)
+                .getResultList();
+        return toLongs(rows);
+    }
+
+    /**
+     * Links every book that has one of the source values to the target value as well; books that already have
+     * the target are left alone.
+     */
+    public int copyMappings(Mapping mapping, Collection<Long> sourceValueIds, long targetValueId) {
+        if (sourceValueIds.isEmpty()) return 0;
+        entityManager.flush();
+        return entityManager.createNativeQuery(
+                        "INSERT IGNORE INTO " + mapping.getTable() + " (book_id, " + mapping.getValueColumn() + ") "
+                                + "SELECT DISTINCT book_id, :targetId FROM " + mapping.getTable() + " WHERE " + mapping.getValueColumn() + " IN :sourceIds")
+                .setParameter("targetId", targetValueId)
+                .setParameter("sourceIds", sourceValueIds)
+                .executeUpdate();
+    }
+
+    public int deleteMappings(Mapping mapping, Collection<Long> valueIds) {
+        if (valueIds.isEmpty()) return 0;
+        entityManager.flush();
+        return entityManager.createNativeQuery(
+                        "DELETE FROM " + mapping.getTable() + " WHERE " + mapping.getValueColumn() + " IN :valueIds")
+                .setParameter("valueIds", valueIds)
+                .executeUpdate();
+    }
+
+    /**
+     * Returns those of the given books that no longer have any value in the mapping.
+     */
+    public List<Long> findBookIdsWithoutMappings(Mapping mapping, Collection<Long> bookIds) {
+        if (bookIds.isEmpty()) return List.of();
+        List<?> rows = entityManager.createNativeQuery(
+                        "SELECT DISTINCT book_id FROM " + mapping.getTable() + " WHERE book_id IN :bookIds")
+                .setParameter("bookIds", bookIds)
+                .getResultList();
+        Set<Long> stillMapped = new HashSet<>(toLongs(rows));
+        List<Long> unmapped = new ArrayList<>();
+        for (Long bookId : bookIds) {
+            if (!stillMapped.contains(bookId)) {
+                unmapped.add(bookId);
+            }
+        }
+        return unmapped;
+    }
+
+    private static List<Long> toLongs(List<?> rows) {
+        List<Long> ids = new ArrayList<>(rows.size());
+        for (Object row : rows) {
+            ids.add(((Number) row).longValue());
+        }
+        return ids;
+    }
+}
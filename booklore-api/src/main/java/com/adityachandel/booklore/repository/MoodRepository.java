@@ -2,8 +2,12 @@ package com.adityachandel.booklore.repository;
 
 import com.adityachandel.booklore.model.entity.MoodEntity;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
@@ -12,4 +16,7 @@ public interface MoodRepository extends JpaRepository<MoodEntity, Long> {
     Optional<MoodEntity> findByName(String moodName);
 
     Optional<MoodEntity> findByNameIgnoreCase(String moodName);
+
+    @Query("SELECT m FROM MoodEntity m WHERE LOWER(m.name) IN :names")
+    List<MoodEntity> findAllByLowerCaseNameIn(@Param("names") Collection<String> lowerCaseNames);
 }
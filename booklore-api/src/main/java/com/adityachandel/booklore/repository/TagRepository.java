@@ -2,8 +2,12 @@ package com.adityachandel.booklore.repository;
 
 import com.adityachandel.booklore.model.entity.TagEntity;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
@@ -12,4 +16,7 @@ public interface TagRepository extends JpaRepository<TagEntity, Long> {
     Optional<TagEntity> findByName(String tagName);
 
     Optional<TagEntity> findByNameIgnoreCase(String tagName);
+
+    @Query("SELECT t FROM TagEntity t WHERE LOWER(t.name) IN :names")
+    List<TagEntity> findAllByLowerCaseNameIn(@Param("names") Collection<String> lowerCaseNames);
 }
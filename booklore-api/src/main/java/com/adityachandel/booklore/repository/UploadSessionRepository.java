@@ -0,0 +1,23 @@
+package com.adityachandel.booklore.repository;
+
+import com.adityachandel.booklore.model.entity.UploadSessionEntity;
+import jakarta.transaction.Transactional;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+import java.util.List;
+
+@Repository
+public interface UploadSessionRepository extends JpaRepository<UploadSessionEntity, String> {
+
+    List<UploadSessionEntity> findByLastActivityAtBefore(Instant cutoff);
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE UploadSessionEntity u SET u.lastActivityAt = :now WHERE u.id = :id")
+    int touch(@Param("id") String id, @Param("now") Instant now);
+}
@@ -1,22 +1,18 @@
 package com.adityachandel.booklore.service;
 
 import com.adityachandel.booklore.config.security.service.AuthenticationService;
-import com.adityachandel.booklore.model.entity.BookLoreUserEntity;
-import com.adityachandel.booklore.model.entity.UserPermissionsEntity;
 import com.adityachandel.booklore.model.enums.PermissionType;
 import com.adityachandel.booklore.model.websocket.Topic;
-import com.adityachandel.booklore.repository.UserRepository;
+import com.adityachandel.booklore.service.event.WebSocketEventCoalescer;
+import com.adityachandel.booklore.service.event.WebSocketUserRegistry;
 import lombok.AllArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.messaging.simp.SimpMessagingTemplate;
 import org.springframework.stereotype.Service;
 
 import java.util.EnumSet;
-import java.util.List;
 import java.util.Set;
 
-import static com.adityachandel.booklore.util.UserPermissionUtils.hasPermission;
-
 @Slf4j
 @Service
 @AllArgsConstructor
@@ -24,7 +20,8 @@ public class NotificationService {
 
     private final SimpMessagingTemplate messagingTemplate;
     private final AuthenticationService authenticationService;
-    private final UserRepository userRepository;
+    private final WebSocketUserRegistry webSocketUserRegistry;
+    private final WebSocketEventCoalescer webSocketEventCoalescer;
 
     public void sendMessage(Topic topic, Object message) {
         try {
@@ -33,13 +30,20 @@ public class NotificationService {
                 log.warn("No authenticated user found. Message not sent: {}", topic);
                 return;
             }
-            String username = user.getUsername();
-            messagingTemplate.convertAndSendToUser(username, topic.getPath(), message);
+            send(user.getUsername(), topic, message);
         } catch (Exception e) {
             log.error("Error sending message to topic {}: {}", topic, e.getMessage(), e);
         }
     }
 
+    public void sendMessageToUser(String username, Topic topic, Object message) {
+        try {
+            send(username, topic, message);
+        } catch (Exception e) {
+            log.error("Error sending message to user {} on topic {}: {}", username, topic, e.getMessage(), e);
+        }
+    }
+
     public void sendMessageToPermissions(Topic topic, Object message, Set<PermissionType> permissionTypes) {
         if (permissionTypes == null || permissionTypes.isEmpty()) return;
 
@@ -47,20 +51,19 @@ public class NotificationService {
         permissionSet.addAll(permissionTypes);
 
         try {
-            List<BookLoreUserEntity> users = userRepository.findAll();
-            for (BookLoreUserEntity user : users) {
-                UserPermissionsEntity perms = user.getPermissions();
-                if (perms != null) {
-                    for (PermissionType p : permissionSet) {
-                        if (hasPermission(perms, p)) {
-                            messagingTemplate.convertAndSendToUser(user.getUsername(), topic.getPath(), message);
-                            break;
-                        }
-                    }
-                }
+            for (String username : webSocketUserRegistry.getConnectedUsernamesWithAnyPermission(permissionSet)) {
+                send(username, topic, message);
             }
         } catch (Exception e) {
             log.error("Error sending message to users with permissions {}: {}", permissionSet, e.getMessage(), e);
         }
     }
-}
\ No newline at end of file
+
+    private void send(String username, Topic topic, Object message) {
+        if (WebSocketEventCoalescer.isCoalesced(topic, message)) {
+            webSocketEventCoalescer.enqueue(username, topic, message);
+        } else {
+            messagingTemplate.convertAndSendToUser(username, topic.getPath(), message);
+        }
+    }
+}
@@ -3,14 +3,19 @@ package com.adityachandel.booklore.service.book;
 import com.adityachandel.booklore.model.dto.settings.LibraryFile;
 import com.adityachandel.booklore.model.entity.*;
 import com.adityachandel.booklore.model.enums.BookFileType;
-import com.adityachandel.booklore.repository.*;
+import com.adityachandel.booklore.repository.AuthorRepository;
+import com.adityachandel.booklore.repository.BookRepository;
+import com.adityachandel.booklore.repository.CategoryRepository;
+import com.adityachandel.booklore.service.book.MetadataNameDictionary.Kind;
 import com.adityachandel.booklore.util.FileUtils;
 import lombok.AllArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Service;
 
 import java.time.Instant;
 import java.util.*;
+import java.util.function.Function;
 
 @Slf4j
 @Service
@@ -20,7 +25,7 @@ public class BookCreatorService {
     private final AuthorRepository authorRepository;
     private final CategoryRepository categoryRepository;
     private final BookRepository bookRepository;
-    private final BookMetadataRepository bookMetadataRepository;
+    private final MetadataNameDictionary nameDictionary;
 
     public BookEntity createShellBook(LibraryFile libraryFile, BookFileType bookFileType) {
         long fileSizeKb = FileUtils.getFileSizeInKb(libraryFile.getFullPath());
@@ -42,22 +47,43 @@ public class BookCreatorService {
         if (bookEntity.getMetadata().getCategories() == null) {
             bookEntity.getMetadata().setCategories(new HashSet<>());
         }
-        categories.stream()
-                .map(cat -> truncate(cat, 255))
-                .map(truncated -> categoryRepository.findByName(truncated)
-                        .orElseGet(() -> categoryRepository.save(CategoryEntity.builder().name(truncated).build())))
-                .forEach(catEntity -> bookEntity.getMetadata().getCategories().add(catEntity));
+        bookEntity.getMetadata().getCategories().addAll(resolveEntities(Kind.CATEGORY, categories, categoryRepository,
+                categoryRepository::findByName, name -> CategoryEntity.builder().name(name).build(), CategoryEntity::getId));
     }
 
     public void addAuthorsToBook(Set<String> authors, BookEntity bookEntity) {
         if (bookEntity.getMetadata().getAuthors() == null) {
             bookEntity.getMetadata().setAuthors(new HashSet<>());
         }
-        authors.stream()
-                .map(authorName -> truncate(authorName, 255))
-                .map(authorName -> authorRepository.findByName(authorName)
-                        .orElseGet(() -> authorRepository.save(AuthorEntity.builder().name(authorName).build())))
-                .forEach(authorEntity -> bookEntity.getMetadata().getAuthors().add(authorEntity));
+        bookEntity.getMetadata().getAuthors().addAll(resolveEntities(Kind.AUTHOR, authors, authorRepository,
+                authorRepository::findByName, name -> AuthorEntity.builder().name(name).build(), AuthorEntity::getId));
+    }
+
+    /**
+     * Looks the names up in the scan dictionary and loads the matching entities with one query. Names the
+     * dictionary could not resolve, or whose cached id no longer exists, go through the single-name lookup.
+     */
+    private <E> List<E> resolveEntities(Kind kind, Set<String> names, JpaRepository<E, Long> repository,
+                                        Function<String, Optional<E>> findByName, Function<String, E> create, Function<E, Long> idOf) {
+        if (names == null || names.isEmpty()) return List.of();
+        Set<String> truncated = new LinkedHashSet<>();
+        names.stream().filter(Objects::nonNull).map(name -> truncate(name, 255)).forEach(truncated::add);
+
+        Map<String, Long> ids = nameDictionary.resolve(kind, truncated);
+        List<E> entities = new ArrayList<>(repository.findAllById(new HashSet<>(ids.values())));
+        Set<Long> loadedIds = new HashSet<>();
+        entities.forEach(entity -> loadedIds.add(idOf.apply(entity)));
+
+        List<String> unresolved = truncated.stream()
+                .filter(name -> !loadedIds.contains(ids.get(name)))
+                .toList();
+        if (!unresolved.isEmpty()) {
+            nameDictionary.evict(kind, unresolved);
+            for (String name : unresolved) {
+                entities.add(findByName.apply(name).orElseGet(() -> repository.save(create.apply(name))));
+            }
+        }
+        return entities;
     }
 
     private String truncate(String input, int maxLength) {
@@ -66,11 +92,11 @@ public class BookCreatorService {
         return input.length() <= maxLength ? input : input.substring(0, maxLength);
     }
 
+    /**
+     * Authors and categories are already managed, so saving the book (which cascades to its metadata) is enough;
+     * the mapping rows go out in Hibernate's JDBC insert batches on flush.
+     */
     public void saveConnections(BookEntity bookEntity) {
-        if (bookEntity.getMetadata().getAuthors() != null && !bookEntity.getMetadata().getAuthors().isEmpty()) {
-            authorRepository.saveAll(bookEntity.getMetadata().getAuthors());
-        }
         bookRepository.save(bookEntity);
-        bookMetadataRepository.save(bookEntity.getMetadata());
     }
 }
\ No newline at end of file
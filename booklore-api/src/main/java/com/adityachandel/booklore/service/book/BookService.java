@@ -15,6 +15,8 @@ import com.adityachandel.booklore.model.enums.BookFileType;
 import com.adityachandel.booklore.model.enums.ReadStatus;
 import com.adityachandel.booklore.model.enums.ResetProgressType;
 import com.adityachandel.booklore.repository.*;
+import com.adityachandel.booklore.service.user.ReadingProgressBuffer;
+import com.adityachandel.booklore.service.user.ReadingProgressBuffer.Field;
 import com.adityachandel.booklore.service.user.UserProgressService;
 import com.adityachandel.booklore.service.monitoring.MonitoringRegistrationService;
 import com.adityachandel.booklore.util.FileService;
@@ -26,7 +28,6 @@ import org.springframework.core.io.*;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -52,13 +53,14 @@ public class BookService {
     private final CbxViewerPreferencesRepository cbxViewerPreferencesRepository;
     private final NewPdfViewerPreferencesRepository newPdfViewerPreferencesRepository;
     private final ShelfRepository shelfRepository;
+    private final BookMetadataRepository bookMetadataRepository;
     private final FileService fileService;
     private final BookMapper bookMapper;
     private final UserRepository userRepository;
-    private final UserBookProgressRepository userBookProgressRepository;
     private final AuthenticationService authenticationService;
     private final BookQueryService bookQueryService;
     private final UserProgressService userProgressService;
+    private final ReadingProgressBuffer readingProgressBuffer;
     private final BookDownloadService bookDownloadService;
     private final MonitoringRegistrationService monitoringRegistrationService;
 
@@ -143,7 +145,7 @@ public class BookService {
         BookLoreUser user = authenticationService.getAuthenticatedUser();
         BookEntity bookEntity = bookRepository.findById(bookId).orElseThrow(() -> ApiError.BOOK_NOT_FOUND.createException(bookId));
 
-        UserBookProgressEntity userProgress = userBookProgressRepository.findByUserIdAndBookId(user.getId(), bookId).orElse(new UserBookProgressEntity());
+        UserBookProgressEntity userProgress = userProgressService.findUserProgress(user.getId(), bookId).orElse(new UserBookProgressEntity());
 
         Book book = bookMapper.toBook(bookEntity);
         book.setShelves(filterShelvesByUserId(book.getShelves(), user.getId()));
@@ -309,64 +311,55 @@ public class BookService {
         }
     }
 
-    @Transactional
     public void updateReadProgress(ReadProgressRequest request) {
-        BookEntity book = bookRepository.findById(request.getBookId())
+        BookFileType bookType = bookRepository.findBookTypeById(request.getBookId())
                 .orElseThrow(() -> ApiError.BOOK_NOT_FOUND.createException(request.getBookId()));
 
         BookLoreUser user = authenticationService.getAuthenticatedUser();
 
-        UserBookProgressEntity progress = userBookProgressRepository
-                .findByUserIdAndBookId(user.getId(), book.getId())
-                .orElseGet(UserBookProgressEntity::new);
-
-        BookLoreUserEntity userEntity = userRepository.findById(user.getId())
-                .orElseThrow(() -> new UsernameNotFoundException("User not found"));
-        progress.setUser(userEntity);
-
-        progress.setBook(book);
-        progress.setLastReadTime(Instant.now());
+        ReadingProgressBuffer.Patch progress = new ReadingProgressBuffer.Patch()
+                .set(Field.LAST_READ_TIME, Instant.now());
 
         Float percentage = null;
-        switch (book.getBookType()) {
+        switch (bookType) {
             case EPUB -> {
                 if (request.getEpubProgress() != null) {
-                    progress.setEpubProgress(request.getEpubProgress().getCfi());
+                    progress.set(Field.EPUB_PROGRESS, request.getEpubProgress().getCfi());
                     percentage = request.getEpubProgress().getPercentage();
                 }
             }
             case PDF -> {
                 if (request.getPdfProgress() != null) {
-                    progress.setPdfProgress(request.getPdfProgress().getPage());
+                    progress.set(Field.PDF_PROGRESS, request.getPdfProgress().getPage());
                     percentage = request.getPdfProgress().getPercentage();
                 }
             }
             case CBX -> {
                 if (request.getCbxProgress() != null) {
-                    progress.setCbxProgress(request.getCbxProgress().getPage());
+                    progress.set(Field.CBX_PROGRESS, request.getCbxProgress().getPage());
                     percentage = request.getCbxProgress().getPercentage();
                 }
             }
         }
 
         if (percentage != null) {
-            progress.setReadStatus(getStatus(percentage));
-            setProgressPercent(progress, book.getBookType(), percentage);
+            progress.set(Field.READ_STATUS, getStatus(percentage));
+            progress.set(progressPercentField(bookType), percentage);
         }
 
         if (request.getDateFinished() != null) {
-            progress.setDateFinished(request.getDateFinished());
+            progress.set(Field.DATE_FINISHED, request.getDateFinished());
         }
 
-        userBookProgressRepository.save(progress);
+        readingProgressBuffer.update(user.getId(), request.getBookId(), progress);
     }
 
-    private void setProgressPercent(UserBookProgressEntity progress, BookFileType type, Float percentage) {
-        switch (type) {
-            case EPUB -> progress.setEpubProgressPercent(percentage);
-            case PDF -> progress.setPdfProgressPercent(percentage);
-            case CBX -> progress.setCbxProgressPercent(percentage);
-        }
+    private Field progressPercentField(BookFileType type) {
+        return switch (type) {
+            case EPUB -> Field.EPUB_PROGRESS_PERCENT;
+            case PDF -> Field.PDF_PROGRESS_PERCENT;
+            case CBX -> Field.CBX_PROGRESS_PERCENT;
+        };
     }
 
     private ReadStatus getStatus(Float percentage) {
@@ -385,42 +378,21 @@ public class BookService {
             throw ApiError.BOOK_NOT_FOUND.createException("One or more books not found");
         }
 
-        BookLoreUserEntity userEntity = userRepository.findById(user.getId()).orElseThrow(() -> new UsernameNotFoundException("User not found"));
         for (BookEntity book : books) {
-            UserBookProgressEntity progress = userBookProgressRepository
-                    .findByUserIdAndBookId(user.getId(), book.getId())
-                    .orElse(new UserBookProgressEntity());
-
-            progress.setUser(userEntity);
-            progress.setBook(book);
-            progress.setReadStatus(readStatus);
-
             // Set dateFinished when status is READ, clear it otherwise
-            if (readStatus == ReadStatus.READ) {
-                progress.setDateFinished(Instant.now());
-            } else {
-                progress.setDateFinished(null);
-            }
-
-            userBookProgressRepository.save(progress);
+            readingProgressBuffer.update(user.getId(), book.getId(), new ReadingProgressBuffer.Patch()
+                    .set(Field.READ_STATUS, readStatus)
+                    .set(Field.DATE_FINISHED, readStatus == ReadStatus.READ ? Instant.now() : null));
         }
 
+        Map<Long, UserBookProgressEntity> progressMap = userProgressService.fetchUserProgress(
+                user.getId(), books.stream().map(BookEntity::getId).collect(Collectors.toSet()));
+
         return books.stream()
                 .map(bookEntity -> {
                     Book book = bookMapper.toBook(bookEntity);
                     book.setFilePath(FileUtils.getBookFullPath(bookEntity));
-
-                    UserBookProgressEntity progress = userBookProgressRepository
-                            .findByUserIdAndBookId(user.getId(), bookEntity.getId())
-                            .orElse(null);
-
-                    if (progress != null) {
-                        setBookProgress(book, progress);
-                        book.setLastReadTime(progress.getLastReadTime());
-                        book.setReadStatus(String.valueOf(progress.getReadStatus()));
-                        book.setDateFinished(progress.getDateFinished());
-                    }
-
+                    enrichBookWithProgress(book, progressMap.get(bookEntity.getId()));
                     return book;
                 })
                 .collect(Collectors.toList());
@@ -429,35 +401,29 @@ public class BookService {
     public List<Book> resetProgress(List<Long> bookIds, ResetProgressType type) {
         BookLoreUser user = authenticationService.getAuthenticatedUser();
         List<Book> updatedBooks = new ArrayList<>();
-        Optional<BookLoreUserEntity> userEntity = userRepository.findById(user.getId());
 
         for (Long bookId : bookIds) {
             BookEntity bookEntity = bookRepository.findById(bookId).orElseThrow(() -> ApiError.BOOK_NOT_FOUND.createException(bookId));
 
-            UserBookProgressEntity progress = userBookProgressRepository
-                    .findByUserIdAndBookId(user.getId(), bookId)
-                    .orElse(new UserBookProgressEntity());
-
-            progress.setBook(bookEntity);
-            progress.setUser(userEntity.orElseThrow());
-            progress.setReadStatus(null);
-            progress.setLastReadTime(null);
-            progress.setDateFinished(null);
+            ReadingProgressBuffer.Patch progress = new ReadingProgressBuffer.Patch()
+                    .set(Field.READ_STATUS, null)
+                    .set(Field.LAST_READ_TIME, null)
+                    .set(Field.DATE_FINISHED, null);
             if (type == ResetProgressType.BOOKLORE) {
-                progress.setPdfProgress(null);
-                progress.setPdfProgressPercent(null);
-                progress.setEpubProgress(null);
-                progress.setEpubProgressPercent(null);
-                progress.setCbxProgress(null);
-                progress.setCbxProgressPercent(null);
+                progress.set(Field.PDF_PROGRESS, null)
+                        .set(Field.PDF_PROGRESS_PERCENT, null)
+                        .set(Field.EPUB_PROGRESS, null)
+                        .set(Field.EPUB_PROGRESS_PERCENT, null)
+                        .set(Field.CBX_PROGRESS, null)
+                        .set(Field.CBX_PROGRESS_PERCENT, null);
             } else if (type == ResetProgressType.KOREADER) {
-                progress.setKoreaderProgress(null);
-                progress.setKoreaderProgressPercent(null);
-                progress.setKoreaderDeviceId(null);
-                progress.setKoreaderDevice(null);
-                progress.setKoreaderLastSyncTime(null);
+                progress.set(Field.KOREADER_PROGRESS, null)
+                        .set(Field.KOREADER_PROGRESS_PERCENT, null)
+                        .set(Field.KOREADER_DEVICE_ID, null)
+                        .set(Field.KOREADER_DEVICE, null)
+                        .set(Field.KOREADER_LAST_SYNC_TIME, null);
             }
-            userBookProgressRepository.save(progress);
+            readingProgressBuffer.update(user.getId(), bookId, progress);
             updatedBooks.add(bookMapper.toBook(bookEntity));
         }
 
@@ -489,6 +455,9 @@ public class BookService {
             }
         }
         bookRepository.saveAll(bookEntities);
+        if (!bookEntities.isEmpty()) {
+            bookMetadataRepository.touchUpdatedAt(bookEntities.stream().map(BookEntity::getId).toList());
+        }
 
         Map<Long, UserBookProgressEntity> progressMap = userProgressService.fetchUserProgress(
                 user.getId(), bookEntities.stream().map(BookEntity::getId).collect(Collectors.toSet()));
@@ -0,0 +1,150 @@
+package com.adityachandel.booklore.service.book;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Resolves author and category names to ids while books are imported. Within a scan scope the whole table is
+ * read once and kept until the last open scan ends; names not known yet are created with a batched
+ * {@code INSERT IGNORE} and read back in one query. Outside a scan every call looks its names up directly.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class MetadataNameDictionary {
+
+    static final int BATCH_SIZE = 500;
+
+    @Getter
+    public enum Kind {
+        AUTHOR("author"),
+        CATEGORY("category");
+
+        private final String table;
+
+        Kind(String table) {
+            this.table = table;
+        }
+    }
+
+    /**
+     * An open scan; closing it releases the preloaded names once no other scan is running.
+     */
+    public interface Scope extends AutoCloseable {
+        @Override
+        void close();
+    }
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final AtomicInteger openScans = new AtomicInteger();
+    private final Map<Kind, Map<String, Long>> preloaded = new ConcurrentHashMap<>();
+
+    public Scope openScan() {
+        openScans.incrementAndGet();
+        return () -> {
+            if (openScans.decrementAndGet() == 0) {
+                preloaded.clear();
+            }
+        };
+    }
+
+    /**
+     * Returns the ids of the given names, inserting the ones that do not exist yet. Names the database matched to
+     * a differently spelled row (e.g. under an accent-insensitive collation) are left out of the result.
+     */
+    public Map<String, Long> resolve(Kind kind, Collection<String> names) {
+        Map<String, Long> known = openScans.get() > 0 ? preloaded.computeIfAbsent(kind, this::loadAll) : null;
+        Map<String, Long> ids = new LinkedHashMap<>();
+        Set<String> missing = new LinkedHashSet<>();
+        for (String name : names) {
+            Long id = known != null ? known.get(key(name)) : null;
+            if (id != null) {
+                ids.put(name, id);
+            } else {
+                missing.add(name);
+            }
+        }
+        if (missing.isEmpty()) return ids;
+
+        Map<String, Long> found = findIds(kind, missing);
+        List<String> unknown = missing.stream().filter(name -> !found.containsKey(key(name))).toList();
+        if (!unknown.isEmpty()) {
+            insertIgnore(kind, unknown);
+            found.putAll(findIds(kind, unknown));
+        }
+        for (String name : missing) {
+            Long id = found.get(key(name));
+            if (id != null) {
+                ids.put(name, id);
+                if (known != null) {
+                    known.put(key(name), id);
+                }
+            }
+        }
+        return ids;
+    }
+
+    /**
+     * Forgets names whose cached ids turned out to be gone, e.g. after a rolled back import or a merge.
+     */
+    public void evict(Kind kind, Collection<String> names) {
+        Map<String, Long> known = preloaded.get(kind);
+        if (known != null) {
+            names.forEach(name -> known.remove(key(name)));
+        }
+    }
+
+    private Map<String, Long> loadAll(Kind kind) {
+        Map<String, Long> ids = new ConcurrentHashMap<>();
+        jdbcTemplate.query("SELECT id, name FROM " + kind.getTable() + " WHERE name IS NOT NULL",
+                rs -> {
+                    ids.putIfAbsent(key(rs.getString("name")), rs.getLong("id"));
+                });
+        log.info("Preloaded {} {} names for library scan", ids.size(), kind.getTable());
+        return ids;
+    }
+
+    private Map<String, Long> findIds(Kind kind, Collection<String> names) {
+        Map<String, Long> ids = new HashMap<>();
+        for (List<String> chunk : chunks(names)) {
+            jdbcTemplate.query("SELECT id, name FROM " + kind.getTable() + " WHERE name IN (:names)",
+                    new MapSqlParameterSource("names", chunk),
+                    rs -> {
+                        ids.putIfAbsent(key(rs.getString("name")), rs.getLong("id"));
+                    });
+        }
+        return ids;
+    }
+
+    private void insertIgnore(Kind kind, List<String> names) {
+        for (List<String> chunk : chunks(names)) {
+            SqlParameterSource[] batch = chunk.stream()
+                    .map(name -> new MapSqlParameterSource("name", name))
+                    .toArray(SqlParameterSource[]::new);
+            jdbcTemplate.batchUpdate("INSERT IGNORE INTO " + kind.getTable() + " (name) VALUES (:name)", batch);
+        }
+    }
+
+    private static List<List<String>> chunks(Collection<String> names) {
+        List<String> list = List.copyOf(names);
+        List<List<String>> chunks = new ArrayList<>();
+        for (int i = 0; i < list.size(); i += BATCH_SIZE) {
+            chunks.add(list.subList(i, Math.min(i + BATCH_SIZE, list.size())));
+        }
+        return chunks;
+    }
+
+    // Matches the case-insensitive, trailing-space-insensitive comparison of the name columns
+    private static String key(String name) {
+        return name.stripTrailing().toLowerCase(Locale.ROOT);
+    }
+}
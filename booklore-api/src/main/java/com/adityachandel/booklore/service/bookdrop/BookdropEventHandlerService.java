@@ -9,6 +9,7 @@ import com.adityachandel.booklore.model.websocket.Topic;
 import com.adityachandel.booklore.repository.BookdropFileRepository;
 import com.adityachandel.booklore.service.NotificationService;
 import com.adityachandel.booklore.service.appsettings.AppSettingService;
+import com.adityachandel.booklore.service.metrics.BookloreMetrics;
 import jakarta.annotation.PostConstruct;
 import jakarta.annotation.PreDestroy;
 import lombok.RequiredArgsConstructor;
@@ -20,9 +21,13 @@ import java.nio.file.Path;
 import java.nio.file.StandardWatchEventKinds;
 import java.nio.file.WatchEvent;
 import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Set;
 import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.atomic.AtomicInteger;
 
 @Slf4j
 @Service
@@ -34,39 +39,96 @@ public class BookdropEventHandlerService {
     private final BookdropNotificationService bookdropNotificationService;
     private final AppSettingService appSettingService;
     private final BookdropMetadataService bookdropMetadataService;
+    private final BookloreMetrics bookloreMetrics;
 
-    private final BlockingQueue<BookDropFileEvent> fileQueue = new LinkedBlockingQueue<>();
+    private static final int WORKER_COUNT = Math.max(2, Math.min(4, Runtime.getRuntime().availableProcessors()));
+
+    private final List<BlockingQueue<BookDropFileEvent>> workerQueues = createWorkerQueues();
+    private final Set<BookDropFileEvent> queuedEvents = ConcurrentHashMap.newKeySet();
+    private final BlockingQueue<Long> metadataFetchQueue = new LinkedBlockingQueue<>();
+    private final AtomicInteger remainingFiles = new AtomicInteger();
     private volatile boolean running = true;
-    private Thread workerThread;
+    private final List<Thread> workerThreads = new ArrayList<>();
+
+    private static List<BlockingQueue<BookDropFileEvent>> createWorkerQueues() {
+        List<BlockingQueue<BookDropFileEvent>> queues = new ArrayList<>(WORKER_COUNT);
+        for (int i = 0; i < WORKER_COUNT; i++) {
+            queues.add(new LinkedBlockingQueue<>());
+        }
+        return queues;
+    }
 
     @PostConstruct
     public void init() {
-        workerThread = new Thread(this::processQueue, "BookdropFileProcessor");
-        workerThread.start();
+        bookloreMetrics.registerQueueDepth("bookdrop_files", remainingFiles, AtomicInteger::get);
+        bookloreMetrics.registerQueueDepth("bookdrop_metadata", metadataFetchQueue, BlockingQueue::size);
+        for (int i = 0; i < WORKER_COUNT; i++) {
+            BlockingQueue<BookDropFileEvent> queue = workerQueues.get(i);
+            workerThreads.add(startThread(() -> processQueue(queue), "BookdropFileProcessor-" + i));
+        }
+        workerThreads.add(startThread(this::processMetadataFetchQueue, "BookdropMetadataFetcher"));
     }
 
     @PreDestroy
     public void shutdown() {
         running = false;
-        if (workerThread != null) {
-            workerThread.interrupt();
-        }
+        workerThreads.forEach(Thread::interrupt);
     }
 
+    /**
+     * Events are deduplicated against everything still queued, and all events for one path go to the same
+     * worker so a create and a later delete of that file are never handled out of order.
+     */
     public void enqueueFile(Path file, WatchEvent.Kind<?> kind) {
         BookDropFileEvent event = new BookDropFileEvent(file, kind);
-        if (!fileQueue.contains(event)) {
-            fileQueue.offer(event);
+        if (queuedEvents.add(event)) {
+            remainingFiles.incrementAndGet();
+            workerQueues.get(Math.floorMod(file.hashCode(), WORKER_COUNT)).offer(event);
         }
     }
 
-    private void processQueue() {
+    private Thread startThread(Runnable task, String name) {
+        Thread thread = new Thread(task, name);
+        thread.start();
+        return thread;
+    }
+
+    private void processQueue(BlockingQueue<BookDropFileEvent> queue) {
         while (running) {
             try {
-                processFile(fileQueue.take());
+                BookDropFileEvent event = queue.take();
+                queuedEvents.remove(event);
+                try {
+                    processFile(event);
+                } finally {
+                    remainingFiles.decrementAndGet();
+                }
             } catch (InterruptedException e) {
                 Thread.currentThread().interrupt();
                 log.info("File processing thread interrupted, shutting down.");
+                return;
+            } catch (Exception e) {
+                log.error("Error in bookdrop file processing thread", e);
+            }
+        }
+    }
+
+    /**
+     * Online providers are queried here, one file at a time, so provider latency and rate limiting never
+     * hold up the local extraction done by the file workers.
+     */
+    private void processMetadataFetchQueue() {
+        while (running) {
+            try {
+                Long bookdropFileId = metadataFetchQueue.take();
+                bookdropMetadataService.attachFetchedMetadata(bookdropFileId);
+                bookdropNotificationService.sendBookdropFileSummaryNotification();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                log.info("Bookdrop metadata fetch thread interrupted, shutting down.");
+                return;
+            } catch (Exception e) {
+                log.error("Error fetching metadata for bookdrop file", e);
             }
         }
     }
@@ -102,7 +164,7 @@ public class BookdropEventHandlerService {
 
                 log.info("Handling new bookdrop file: {}", file);
 
-                int queueSize = fileQueue.size();
+                int queueSize = Math.max(0, remainingFiles.get() - 1);
                 notificationService.sendMessageToPermissions(
                         Topic.LOG,
                         LogNotification.info("Processing bookdrop file: " + fileName + " (" + queueSize + " files remaining)"),
@@ -120,17 +182,17 @@ public class BookdropEventHandlerService {
 
                 bookdropFileEntity = bookdropFileRepository.save(bookdropFileEntity);
 
+                bookdropMetadataService.attachInitialMetadata(bookdropFileEntity.getId());
                 if (appSettingService.getAppSettings().isMetadataDownloadOnBookdrop()) {
-                    bookdropMetadataService.attachInitialMetadata(bookdropFileEntity.getId());
-                    bookdropMetadataService.attachFetchedMetadata(bookdropFileEntity.getId());
+                    metadataFetchQueue.offer(bookdropFileEntity.getId());
                 } else {
-                    bookdropMetadataService.attachInitialMetadata(bookdropFileEntity.getId());
                     log.info("Metadata download is disabled. Only initial metadata extracted for file: {}", bookdropFileEntity.getFileName());
                 }
 
                 bookdropNotificationService.sendBookdropFileSummaryNotification();
 
-                if (fileQueue.isEmpty()) {
+                int remaining = remainingFiles.get() - 1;
+                if (remaining <= 0) {
                     notificationService.sendMessageToPermissions(
                             Topic.LOG,
                             LogNotification.info("All bookdrop files have finished processing"),
@@ -139,7 +201,7 @@ public class BookdropEventHandlerService {
                 } else {
                     notificationService.sendMessageToPermissions(
                             Topic.LOG,
-                            LogNotification.info("Finished processing bookdrop file: " + fileName + " (" + fileQueue.size() + " files remaining)"),
+                            LogNotification.info("Finished processing bookdrop file: " + fileName + " (" + remaining + " files remaining)"),
                             Set.of(PermissionType.ADMIN, PermissionType.MANIPULATE_LIBRARY)
                     );
                 }
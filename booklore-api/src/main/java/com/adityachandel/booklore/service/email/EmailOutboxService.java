@@ -0,0 +1,219 @@
+package com.adityachandel.booklore.service.email;
+
+import com.adityachandel.booklore.model.entity.BookEntity;
+import com.adityachandel.booklore.model.entity.BookLoreUserEntity;
+import com.adityachandel.booklore.model.entity.EmailOutboxEntity;
+import com.adityachandel.booklore.model.entity.EmailProviderV2Entity;
+import com.adityachandel.booklore.model.websocket.LogNotification;
+import com.adityachandel.booklore.model.websocket.Topic;
+import com.adityachandel.booklore.repository.BookRepository;
+import com.adityachandel.booklore.repository.EmailOutboxRepository;
+import com.adityachandel.booklore.repository.EmailProviderV2Repository;
+import com.adityachandel.booklore.repository.UserRepository;
+import com.adityachandel.booklore.service.NotificationService;
+import com.adityachandel.booklore.util.FileUtils;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.mail.MessagingException;
+import jakarta.mail.SendFailedException;
+import jakarta.mail.internet.MimeMessage;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.mail.javamail.MimeMessageHelper;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Persistent queue of outgoing book emails. Requests are stored in {@code email_outbox} and picked up every
+ * {@value #POLL_INTERVAL_MS} ms as far as each provider's limits in {@link EmailTransportPool} allow. Failed sends are
+ * retried with exponential backoff up to {@value #MAX_ATTEMPTS} attempts, except when the book is gone or the server
+ * rejects a recipient. Sends interrupted by a shutdown are picked up again on the next start, and failed emails are
+ * kept for {@link #FAILED_RETENTION} before they are purged.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class EmailOutboxService {
+
+    static final long POLL_INTERVAL_MS = 2_000;
+    static final int MAX_ATTEMPTS = 5;
+    static final Duration INITIAL_BACKOFF = Duration.ofSeconds(30);
+    static final Duration MAX_BACKOFF = Duration.ofMinutes(30);
+    static final int DISPATCH_BATCH_SIZE = 100;
+    static final Duration FAILED_RETENTION = Duration.ofDays(30);
+    static final long PURGE_INTERVAL_MS = 24 * 60 * 60 * 1000L;
+
+    private final EmailOutboxRepository outboxRepository;
+    private final EmailProviderV2Repository providerRepository;
+    private final BookRepository bookRepository;
+    private final UserRepository userRepository;
+    private final EmailTransportPool transportPool;
+    private final NotificationService notificationService;
+    private final ExecutorService senders = Executors.newVirtualThreadPerTaskExecutor();
+
+    public void enqueue(EmailProviderV2Entity provider, Long userId, BookEntity book, String recipientEmail) {
+        outboxRepository.save(EmailOutboxEntity.builder()
+                .providerId(provider.getId())
+                .userId(userId)
+                .bookId(book.getId())
+                .recipientEmail(recipientEmail)
+                .status(EmailOutboxEntity.Status.PENDING)
+                .nextAttemptAt(Instant.now())
+                .build());
+    }
+
+    // Runs before scheduled tasks are started, so no dispatch can have claimed a row yet
+    @PostConstruct
+    public void releaseInterruptedSends() {
+        int released = outboxRepository.releaseInFlight();
+        if (released > 0) {
+            log.info("Re-queued {} emails that were being sent during the last shutdown", released);
+        }
+    }
+
+    @Scheduled(fixedDelay = POLL_INTERVAL_MS)
+    public void dispatch() {
+        List<EmailOutboxEntity> due = outboxRepository.findDue(Instant.now(), PageRequest.of(0, DISPATCH_BATCH_SIZE));
+        if (due.isEmpty()) {
+            return;
+        }
+        Map<Long, EmailProviderV2Entity> providers = providerRepository.findAllById(
+                        due.stream().map(EmailOutboxEntity::getProviderId).collect(Collectors.toSet())).stream()
+                .collect(Collectors.toMap(EmailProviderV2Entity::getId, Function.identity()));
+
+        for (EmailOutboxEntity email : due) {
+            EmailProviderV2Entity provider = providers.get(email.getProviderId());
+            if (provider == null) {
+                continue;
+            }
+            Optional<EmailTransportPool.Lease> lease = transportPool.tryAcquire(provider);
+            if (lease.isEmpty()) {
+                continue;
+            }
+            if (outboxRepository.claim(email.getId()) == 0) {
+                lease.get().close();
+                continue;
+            }
+            senders.execute(() -> deliver(email, provider, lease.get()));
+        }
+    }
+
+    @Scheduled(fixedDelay = PURGE_INTERVAL_MS)
+    public void purgeFailed() {
+        int purged = outboxRepository.deleteFailedCreatedBefore(Instant.now().minus(FAILED_RETENTION));
+        if (purged > 0) {
+            log.info("Purged {} failed emails older than {} days", purged, FAILED_RETENTION.toDays());
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        senders.shutdown();
+        senders.awaitTermination(10, TimeUnit.SECONDS);
+    }
+
+    void deliver(EmailOutboxEntity email, EmailProviderV2Entity provider, EmailTransportPool.Lease lease) {
+        String bookTitle = "#" + email.getBookId();
+        try (lease) {
+            BookEntity book = bookRepository.findAllWithMetadataByIds(Set.of(email.getBookId())).stream()
+                    .findFirst()
+                    .orElseThrow(() -> new FileNotFoundException("Book not found: " + email.getBookId()));
+            bookTitle = book.getMetadata().getTitle();
+
+            lease.send(createMessage(lease, provider, email.getRecipientEmail(), book));
+            outboxRepository.deleteById(email.getId());
+
+            String successMessage = "The book: " + bookTitle + " has been successfully sent to " + email.getRecipientEmail();
+            notifyRequester(email, LogNotification.info(successMessage));
+            log.info(successMessage);
+        } catch (Exception e) {
+            handleFailure(email, bookTitle, e);
+        }
+    }
+
+    private MimeMessage createMessage(EmailTransportPool.Lease lease, EmailProviderV2Entity provider, String recipientEmail, BookEntity book)
+            throws MessagingException, FileNotFoundException {
+        File bookFile = new File(FileUtils.getBookFullPath(book));
+        if (!bookFile.isFile()) {
+            throw new FileNotFoundException("Book file not found: " + bookFile);
+        }
+        MimeMessage message = lease.createMimeMessage();
+        MimeMessageHelper helper = new MimeMessageHelper(message, true);
+        helper.setFrom(StringUtils.firstNonEmpty(provider.getFromAddress(), provider.getUsername()));
+        helper.setTo(recipientEmail);
+        helper.setSubject("Your Book from Booklore: " + book.getMetadata().getTitle());
+        helper.setText(generateEmailBody(book.getMetadata().getTitle()));
+        helper.addAttachment(bookFile.getName(), bookFile);
+        return message;
+    }
+
+    private void handleFailure(EmailOutboxEntity email, String bookTitle, Exception e) {
+        int attempts = email.getAttempts() + 1;
+        email.setAttempts(attempts);
+        email.setLastError(StringUtils.abbreviate(e.getMessage(), 1000));
+
+        if (isPermanent(e) || attempts >= MAX_ATTEMPTS) {
+            email.setStatus(EmailOutboxEntity.Status.FAILED);
+            outboxRepository.save(email);
+            String errorMessage = "An error occurred while sending the book: " + bookTitle + " to " + email.getRecipientEmail() + ". Error: " + e.getMessage();
+            notifyRequester(email, LogNotification.error(errorMessage));
+            log.error(errorMessage, e);
+        } else {
+            Duration backoff = backoff(attempts);
+            email.setStatus(EmailOutboxEntity.Status.PENDING);
+            email.setNextAttemptAt(Instant.now().plus(backoff));
+            outboxRepository.save(email);
+            log.warn("Sending book {} to {} failed (attempt {}/{}), retrying in {}s: {}",
+                    bookTitle, email.getRecipientEmail(), attempts, MAX_ATTEMPTS, backoff.toSeconds(), e.getMessage());
+        }
+    }
+
+    static Duration backoff(int attempts) {
+        Duration backoff = INITIAL_BACKOFF.multipliedBy(1L << Math.min(attempts - 1, 16));
+        return backoff.compareTo(MAX_BACKOFF) > 0 ? MAX_BACKOFF : backoff;
+    }
+
+    // Retrying cannot help when the book or its file is gone, or the server rejected the recipient address.
+    // Everything else, including authentication errors, may be a hiccup on the provider's side and is retried.
+    private static boolean isPermanent(Exception e) {
+        if (e instanceof FileNotFoundException) {
+            return true;
+        }
+        if (e instanceof SendFailedException sendFailed) {
+            return sendFailed.getInvalidAddresses() != null && sendFailed.getInvalidAddresses().length > 0;
+        }
+        return false;
+    }
+
+    private void notifyRequester(EmailOutboxEntity email, LogNotification notification) {
+        userRepository.findById(email.getUserId())
+                .map(BookLoreUserEntity::getUsername)
+                .ifPresent(username -> notificationService.sendMessageToUser(username, Topic.LOG, notification));
+    }
+
+    private String generateEmailBody(String bookTitle) {
+        return String.format("""
+                Hello,
+
+                You have received a book from Booklore. Please find the attached file titled '%s' for your reading pleasure.
+
+                Thank you for using Booklore! Hope you enjoy your book.
+                """, bookTitle);
+    }
+}
@@ -27,6 +27,7 @@ public class EmailProviderV2Service {
     private final UserEmailProviderPreferenceRepository preferenceRepository;
     private final EmailProviderV2Mapper mapper;
     private final AuthenticationService authService;
+    private final EmailTransportPool transportPool;
 
     public List<EmailProviderV2> getEmailProviders() {
         BookLoreUser user = authService.getAuthenticatedUser();
@@ -118,6 +119,7 @@ public class EmailProviderV2Service {
         }
 
         repository.deleteById(id);
+        transportPool.evict(id);
     }
 
     private Long getDefaultProviderIdForUser(Long userId) {
@@ -0,0 +1,270 @@
+package com.adityachandel.booklore.service.email;
+
+import com.adityachandel.booklore.model.entity.EmailProviderV2Entity;
+import jakarta.annotation.PreDestroy;
+import jakarta.mail.MessagingException;
+import jakarta.mail.Session;
+import jakarta.mail.Transport;
+import jakarta.mail.internet.MimeMessage;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Keeps connected SMTP transports per email provider and enforces the provider's concurrency and rate limits. A send
+ * first takes a {@link Lease}, which holds one of the provider's {@code maxConcurrentSends} permits and one of its
+ * {@code maxSendsPerMinute} slots; the message then goes over an idle connection of that provider, or a new one.
+ * Connections idle for longer than {@value #IDLE_TIMEOUT_MS} ms are closed, and editing a provider's settings
+ * replaces its connections.
+ */
+@Slf4j
+@Component
+public class EmailTransportPool {
+
+    static final long IDLE_TIMEOUT_MS = 60_000;
+
+    private final Map<Long, ProviderChannel> channels = new ConcurrentHashMap<>();
+
+    /**
+     * Reserves a send slot for the provider without blocking.
+     *
+     * @return the lease, or empty if the provider is at its concurrency limit or its next rate slot has not come up
+     */
+    public Optional<Lease> tryAcquire(EmailProviderV2Entity provider) {
+        ProviderConfig config = ProviderConfig.of(provider);
+        ProviderChannel channel = channels.compute(provider.getId(), (id, existing) -> {
+            if (existing != null && existing.config.equals(config)) {
+                return existing;
+            }
+            if (existing != null) {
+                existing.retire();
+            }
+            return new ProviderChannel(config);
+        });
+        return channel.tryReserve() ? Optional.of(new Lease(channel)) : Optional.empty();
+    }
+
+    public void evict(Long providerId) {
+        ProviderChannel channel = channels.remove(providerId);
+        if (channel != null) {
+            channel.retire();
+        }
+    }
+
+    @Scheduled(fixedDelay = IDLE_TIMEOUT_MS / 2)
+    public void closeIdleTransports() {
+        channels.values().forEach(channel -> channel.closeIdle(IDLE_TIMEOUT_MS));
+    }
+
+    @PreDestroy
+    public void closeAll() {
+        channels.values().forEach(ProviderChannel::retire);
+        channels.clear();
+    }
+
+    int idleTransports(Long providerId) {
+        ProviderChannel channel = channels.get(providerId);
+        return channel == null ? 0 : channel.idleCount();
+    }
+
+    /**
+     * One reserved send on a provider; closing it gives the concurrency permit back.
+     */
+    public static final class Lease implements AutoCloseable {
+
+        private final ProviderChannel channel;
+        private boolean released;
+
+        private Lease(ProviderChannel channel) {
+            this.channel = channel;
+        }
+
+        public MimeMessage createMimeMessage() {
+            return new MimeMessage(channel.session);
+        }
+
+        public void send(MimeMessage message) throws MessagingException {
+            message.saveChanges();
+            Transport transport = channel.borrow();
+            try {
+                transport.sendMessage(message, message.getAllRecipients());
+            } catch (MessagingException e) {
+                closeQuietly(transport);
+                throw e;
+            }
+            channel.giveBack(transport);
+        }
+
+        @Override
+        public void close() {
+            if (!released) {
+                released = true;
+                channel.permits.release();
+            }
+        }
+    }
+
+    private record ProviderConfig(String host, int port, String username, String password, boolean auth, boolean startTls,
+                                  int maxConcurrentSends, int maxSendsPerMinute) {
+
+        static ProviderConfig of(EmailProviderV2Entity provider) {
+            return new ProviderConfig(provider.getHost(), provider.getPort(), provider.getUsername(), provider.getPassword(),
+                    provider.isAuth(), provider.isStartTls(),
+                    Math.max(1, provider.getMaxConcurrentSends()), Math.max(1, provider.getMaxSendsPerMinute()));
+        }
+
+        ConnectionType connectionType() {
+            if (port == 465) {
+                return ConnectionType.SSL;
+            } else if (startTls) {
+                return ConnectionType.STARTTLS;
+            } else {
+                return ConnectionType.PLAIN;
+            }
+        }
+    }
+
+    private static final class ProviderChannel {
+
+        private record IdleTransport(Transport transport, long idleSinceNanos) {
+        }
+
+        private final ProviderConfig config;
+        private final Session session;
+        private final Semaphore permits;
+        private final long slotIntervalNanos;
+        private final Deque<IdleTransport> idle = new ArrayDeque<>();
+        private long nextSlotNanos = System.nanoTime();
+        private boolean retired;
+
+        ProviderChannel(ProviderConfig config) {
+            this.config = config;
+            this.session = Session.getInstance(mailProperties(config));
+            this.permits = new Semaphore(config.maxConcurrentSends());
+            this.slotIntervalNanos = TimeUnit.MINUTES.toNanos(1) / config.maxSendsPerMinute();
+        }
+
+        synchronized boolean tryReserve() {
+            long now = System.nanoTime();
+            if (now - nextSlotNanos < 0 || !permits.tryAcquire()) {
+                return false;
+            }
+            nextSlotNanos = now + slotIntervalNanos;
+            return true;
+        }
+
+        Transport borrow() throws MessagingException {
+            IdleTransport candidate;
+            while ((candidate = pollIdle()) != null) {
+                // SMTP transports answer isConnected() with a NOOP, which also catches connections the server dropped
+                if (candidate.transport().isConnected()) {
+                    return candidate.transport();
+                }
+                closeQuietly(candidate.transport());
+            }
+            Transport transport = session.getTransport();
+            transport.connect(config.host(), config.port(), config.username(), config.password());
+            log.info("Opened SMTP connection: Host={}, Port={}, Type={}", config.host(), config.port(), config.connectionType());
+            return transport;
+        }
+
+        void giveBack(Transport transport) {
+            synchronized (this) {
+                if (!retired) {
+                    idle.push(new IdleTransport(transport, System.nanoTime()));
+                    return;
+                }
+            }
+            closeQuietly(transport);
+        }
+
+        // Connections still in use are closed when they come back
+        void retire() {
+            synchronized (this) {
+                retired = true;
+            }
+            closeIdle(0);
+        }
+
+        synchronized int idleCount() {
+            return idle.size();
+        }
+
+        void closeIdle(long idleLongerThanMs) {
+            long cutoff = System.nanoTime() - TimeUnit.MILLISECONDS.toNanos(idleLongerThanMs);
+            Deque<IdleTransport> expired = new ArrayDeque<>();
+            synchronized (this) {
+                idle.removeIf(entry -> {
+                    boolean stale = entry.idleSinceNanos() - cutoff <= 0;
+                    if (stale) {
+                        expired.add(entry);
+                    }
+                    return stale;
+                });
+            }
+            expired.forEach(entry -> closeQuietly(entry.transport()));
+        }
+
+        private synchronized IdleTransport pollIdle() {
+            return idle.poll();
+        }
+    }
+
+    private static Properties mailProperties(ProviderConfig config) {
+        Properties mailProps = new Properties();
+        mailProps.put("mail.smtp.auth", String.valueOf(config.auth()));
+
+        switch (config.connectionType()) {
+            case SSL -> {
+                mailProps.put("mail.transport.protocol", "smtps");
+                mailProps.put("mail.smtp.ssl.enable", "true");
+                mailProps.put("mail.smtp.ssl.trust", config.host());
+                mailProps.put("mail.smtp.starttls.enable", "false");
+                mailProps.put("mail.smtp.ssl.protocols", "TLSv1.2,TLSv1.3");
+                mailProps.put("mail.smtp.ssl.checkserveridentity", "false");
+                mailProps.put("mail.smtp.ssl.socketFactory.class", "javax.net.ssl.SSLSocketFactory");
+                mailProps.put("mail.smtp.ssl.socketFactory.fallback", "false");
+            }
+            case STARTTLS -> {
+                mailProps.put("mail.transport.protocol", "smtp");
+                mailProps.put("mail.smtp.starttls.enable", "true");
+                mailProps.put("mail.smtp.starttls.required", "true");
+                mailProps.put("mail.smtp.ssl.enable", "false");
+            }
+            case PLAIN -> {
+                mailProps.put("mail.transport.protocol", "smtp");
+                mailProps.put("mail.smtp.starttls.enable", "false");
+                mailProps.put("mail.smtp.ssl.enable", "false");
+            }
+        }
+
+        mailProps.put("mail.smtp.connectiontimeout", System.getProperty("mail.smtp.connectiontimeout", "60000"));
+        mailProps.put("mail.smtp.timeout", System.getProperty("mail.smtp.timeout", "60000"));
+        mailProps.put("mail.smtp.writetimeout", System.getProperty("mail.smtp.writetimeout", "60000"));
+        mailProps.put("mail.debug", System.getProperty("mail.debug", "false"));
+        return mailProps;
+    }
+
+    private static void closeQuietly(Transport transport) {
+        try {
+            transport.close();
+        } catch (MessagingException e) {
+            log.debug("Error closing SMTP connection: {}", e.getMessage());
+        }
+    }
+
+    private enum ConnectionType {
+        SSL,
+        STARTTLS,
+        PLAIN
+    }
+}
@@ -1,16 +1,11 @@
 package com.adityachandel.booklore.service.event;
 
-import com.adityachandel.booklore.model.dto.BookLoreUser;
 import com.adityachandel.booklore.model.websocket.LogNotification;
 import com.adityachandel.booklore.model.websocket.Topic;
-import com.adityachandel.booklore.service.user.UserService;
 import lombok.AllArgsConstructor;
 import org.springframework.messaging.simp.SimpMessagingTemplate;
 import org.springframework.stereotype.Service;
 
-import java.util.List;
-import java.util.stream.Collectors;
-
 import static com.adityachandel.booklore.model.websocket.LogNotification.createLogNotification;
 
 @AllArgsConstructor
@@ -18,14 +13,11 @@ import static com.adityachandel.booklore.model.websocket.LogNotification.createL
 public class AdminEventBroadcaster {
 
     private final SimpMessagingTemplate messagingTemplate;
-    private final UserService userService;
+    private final WebSocketUserRegistry webSocketUserRegistry;
 
     public void broadcastAdminEvent(String message) {
-        List<BookLoreUser> admins = userService.getBookLoreUsers().stream()
-                .filter(u -> u.getPermissions().isAdmin())
-                .toList();
-        for (BookLoreUser admin : admins) {
-            messagingTemplate.convertAndSendToUser(admin.getUsername(), Topic.LOG.getPath(), LogNotification.info(message));
+        for (String admin : webSocketUserRegistry.getConnectedAdmins()) {
+            messagingTemplate.convertAndSendToUser(admin, Topic.LOG.getPath(), LogNotification.info(message));
         }
     }
 }
@@ -3,7 +3,6 @@ package com.adityachandel.booklore.service.event;
 import com.adityachandel.booklore.model.dto.Book;
 import com.adityachandel.booklore.model.websocket.LogNotification;
 import com.adityachandel.booklore.model.websocket.Topic;
-import com.adityachandel.booklore.service.user.UserService;
 import lombok.AllArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.messaging.simp.SimpMessagingTemplate;
@@ -17,17 +16,14 @@ import static com.adityachandel.booklore.model.websocket.LogNotification.createL
 public class BookEventBroadcaster {
 
     private final SimpMessagingTemplate messagingTemplate;
-    private final UserService userService;
+    private final WebSocketUserRegistry webSocketUserRegistry;
+    private final WebSocketEventCoalescer webSocketEventCoalescer;
 
     public void broadcastBookAddEvent(Book book) {
         Long libraryId = book.getLibraryId();
-        userService.getBookLoreUsers().stream()
-                .filter(u -> u.getPermissions().isAdmin() || u.getAssignedLibraries().stream()
-                        .anyMatch(lib -> lib.getId().equals(libraryId)))
-                .forEach(u -> {
-                    String username = u.getUsername();
-                    messagingTemplate.convertAndSendToUser(username, Topic.BOOK_ADD.getPath(), book);
-                    messagingTemplate.convertAndSendToUser(username, Topic.LOG.getPath(), LogNotification.info("Book added: " + book.getFileName()));
-                });
+        for (String username : webSocketUserRegistry.getConnectedUsernamesWithLibraryAccess(libraryId)) {
+            webSocketEventCoalescer.enqueue(username, Topic.BOOK_ADD, book);
+            messagingTemplate.convertAndSendToUser(username, Topic.LOG.getPath(), LogNotification.info("Book added: " + book.getFileName()));
+        }
     }
 }
@@ -0,0 +1,175 @@
+package com.adityachandel.booklore.service.event;
+
+import com.adityachandel.booklore.model.dto.Book;
+import com.adityachandel.booklore.model.websocket.Topic;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Buffers per-book websocket events per user and sends them as one array message per topic,
+ * either every {@value #FLUSH_INTERVAL_MS} ms or as soon as a user has {@value #MAX_PENDING_EVENTS}
+ * pending events. Later events for the same book replace earlier ones, and a removal cancels a
+ * pending add/update, so a bulk scan turns into a handful of messages instead of one per book. Batches are split
+ * into messages of at most {@value #MAX_BATCH_MESSAGE_SIZE} books to stay well within the websocket send buffer.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class WebSocketEventCoalescer {
+
+    static final long FLUSH_INTERVAL_MS = 250;
+    static final int MAX_PENDING_EVENTS = 500;
+    static final int MAX_BATCH_MESSAGE_SIZE = 100;
+
+    private static final Set<Topic> COALESCED_TOPICS = EnumSet.of(
+            Topic.BOOK_ADD,
+            Topic.BOOK_UPDATE,
+            Topic.BOOK_METADATA_UPDATE,
+            Topic.BOOKS_REMOVE
+    );
+
+    private final SimpMessagingTemplate messagingTemplate;
+    private final Map<String, PendingEvents> pendingByUser = new ConcurrentHashMap<>();
+
+    public static boolean isCoalesced(Topic topic, Object payload) {
+        if (!COALESCED_TOPICS.contains(topic)) {
+            return false;
+        }
+        return topic == Topic.BOOKS_REMOVE ? payload instanceof Collection<?> : payload instanceof Book;
+    }
+
+    public void enqueue(String username, Topic topic, Object payload) {
+        while (true) {
+            PendingEvents pending = pendingByUser.computeIfAbsent(username, u -> new PendingEvents());
+            int size;
+            synchronized (pending) {
+                if (pending.retired) {
+                    // flushed and dropped from the map since we looked it up
+                    continue;
+                }
+                switch (topic) {
+                    case BOOK_ADD -> pending.add((Book) payload);
+                    case BOOK_UPDATE, BOOK_METADATA_UPDATE -> pending.update(topic, (Book) payload);
+                    case BOOKS_REMOVE -> pending.remove((Collection<?>) payload);
+                    default -> throw new IllegalArgumentException("Topic is not coalesced: " + topic);
+                }
+                size = pending.size();
+            }
+            if (size >= MAX_PENDING_EVENTS) {
+                flushUser(username, pending);
+            }
+            return;
+        }
+    }
+
+    @Scheduled(fixedDelay = FLUSH_INTERVAL_MS)
+    public void flush() {
+        pendingByUser.forEach(this::flushUser);
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        flush();
+    }
+
+    int pendingUserCount() {
+        return pendingByUser.size();
+    }
+
+    private void flushUser(String username, PendingEvents pending) {
+        List<Book> added;
+        List<PendingUpdate> updated;
+        Set<Long> removed;
+        synchronized (pending) {
+            if (pending.retired) {
+                return;
+            }
+            added = new ArrayList<>(pending.added.values());
+            updated = new ArrayList<>(pending.updated.values());
+            removed = new LinkedHashSet<>(pending.removed);
+            pending.clear();
+            pending.retired = true;
+            pendingByUser.remove(username, pending);
+        }
+        if (added.isEmpty() && updated.isEmpty() && removed.isEmpty()) {
+            return;
+        }
+        try {
+            if (added.size() == 1) {
+                messagingTemplate.convertAndSendToUser(username, Topic.BOOK_ADD.getPath(), added.getFirst());
+            } else if (!added.isEmpty()) {
+                sendBatches(username, Topic.BOOK_ADD_BATCH, added);
+            }
+            if (updated.size() == 1) {
+                PendingUpdate update = updated.getFirst();
+                messagingTemplate.convertAndSendToUser(username, update.topic().getPath(), update.book());
+            } else if (!updated.isEmpty()) {
+                sendBatches(username, Topic.BOOK_METADATA_BATCH_UPDATE, updated.stream().map(PendingUpdate::book).toList());
+            }
+            if (!removed.isEmpty()) {
+                messagingTemplate.convertAndSendToUser(username, Topic.BOOKS_REMOVE.getPath(), removed);
+            }
+        } catch (Exception e) {
+            log.error("Error flushing websocket events for user {}: {}", username, e.getMessage(), e);
+        }
+    }
+
+    private void sendBatches(String username, Topic topic, List<Book> books) {
+        for (int from = 0; from < books.size(); from += MAX_BATCH_MESSAGE_SIZE) {
+            List<Book> batch = books.subList(from, Math.min(from + MAX_BATCH_MESSAGE_SIZE, books.size()));
+            messagingTemplate.convertAndSendToUser(username, topic.getPath(), new ArrayList<>(batch));
+        }
+    }
+
+    private record PendingUpdate(Topic topic, Book book) {
+    }
+
+    private static class PendingEvents {
+        private final Map<Long, Book> added = new LinkedHashMap<>();
+        private final Map<Long, PendingUpdate> updated = new LinkedHashMap<>();
+        private final Set<Long> removed = new LinkedHashSet<>();
+        private boolean retired;
+
+        void add(Book book) {
+            removed.remove(book.getId());
+            updated.remove(book.getId());
+            added.put(book.getId(), book);
+        }
+
+        void update(Topic topic, Book book) {
+            if (added.containsKey(book.getId())) {
+                added.put(book.getId(), book);
+            } else {
+                updated.put(book.getId(), new PendingUpdate(topic, book));
+            }
+        }
+
+        void remove(Collection<?> bookIds) {
+            for (Object id : bookIds) {
+                if (id instanceof Number number) {
+                    Long bookId = number.longValue();
+                    added.remove(bookId);
+                    updated.remove(bookId);
+                    removed.add(bookId);
+                }
+            }
+        }
+
+        int size() {
+            return added.size() + updated.size() + removed.size();
+        }
+
+        void clear() {
+            added.clear();
+            updated.clear();
+            removed.clear();
+        }
+    }
+}
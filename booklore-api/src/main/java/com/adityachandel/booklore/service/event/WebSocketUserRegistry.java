@@ -0,0 +1,172 @@
+package com.adityachandel.booklore.service.event;
+
+import com.adityachandel.booklore.model.entity.BookLoreUserEntity;
+import com.adityachandel.booklore.model.entity.LibraryEntity;
+import com.adityachandel.booklore.model.entity.UserPermissionsEntity;
+import com.adityachandel.booklore.model.enums.PermissionType;
+import com.adityachandel.booklore.repository.UserRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.messaging.SessionConnectedEvent;
+import org.springframework.web.socket.messaging.SessionDisconnectEvent;
+
+import java.security.Principal;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static com.adityachandel.booklore.util.UserPermissionUtils.hasPermission;
+
+/**
+ * Keeps the permissions and library assignments of every user in memory, indexed over the users that
+ * currently hold a websocket session, so notification fan-out never has to touch the user table.
+ * User CRUD updates the registry directly; STOMP connect/disconnect events maintain the session set.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class WebSocketUserRegistry {
+
+    private final UserRepository userRepository;
+
+    private final Map<String, UserAccess> users = new ConcurrentHashMap<>();
+    private final Map<String, String> sessionUsernames = new ConcurrentHashMap<>();
+    private volatile Index index = Index.EMPTY;
+
+    record UserAccess(String username, Set<PermissionType> permissions, Set<Long> libraryIds) {
+
+        boolean isAdmin() {
+            return permissions.contains(PermissionType.ADMIN);
+        }
+    }
+
+    private record Index(Map<PermissionType, Set<String>> byPermission, Map<Long, Set<String>> byLibrary, Set<String> admins) {
+        static final Index EMPTY = new Index(Map.of(), Map.of(), Set.of());
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadUsers() {
+        userRepository.findAll().forEach(this::putUser);
+        rebuildIndex();
+        log.info("WebSocket user registry initialized with {} users", users.size());
+    }
+
+    @EventListener
+    public void onSessionConnected(SessionConnectedEvent event) {
+        Principal principal = event.getUser();
+        String sessionId = StompHeaderAccessor.wrap(event.getMessage()).getSessionId();
+        if (principal == null || sessionId == null) {
+            return;
+        }
+        String username = principal.getName();
+        if (!users.containsKey(username)) {
+            userRepository.findByUsername(username).ifPresent(this::putUser);
+        }
+        sessionUsernames.put(sessionId, username);
+        rebuildIndex();
+    }
+
+    @EventListener
+    public void onSessionDisconnect(SessionDisconnectEvent event) {
+        if (sessionUsernames.remove(event.getSessionId()) != null) {
+            rebuildIndex();
+        }
+    }
+
+    public void upsertUser(BookLoreUserEntity user) {
+        if (user == null || user.getUsername() == null) {
+            return;
+        }
+        putUser(user);
+        rebuildIndex();
+    }
+
+    public void removeUser(String username) {
+        if (username == null) {
+            return;
+        }
+        users.remove(username);
+        sessionUsernames.values().removeIf(username::equals);
+        rebuildIndex();
+    }
+
+    public void removeLibrary(Long libraryId) {
+        users.replaceAll((username, access) -> {
+            if (!access.libraryIds().contains(libraryId)) {
+                return access;
+            }
+            Set<Long> libraryIds = new HashSet<>(access.libraryIds());
+            libraryIds.remove(libraryId);
+            return new UserAccess(username, access.permissions(), Set.copyOf(libraryIds));
+        });
+        rebuildIndex();
+    }
+
+    public Set<String> getConnectedUsernamesWithAnyPermission(Set<PermissionType> permissionTypes) {
+        Index current = index;
+        Set<String> usernames = new HashSet<>();
+        for (PermissionType permissionType : permissionTypes) {
+            usernames.addAll(current.byPermission().getOrDefault(permissionType, Set.of()));
+        }
+        return usernames;
+    }
+
+    public Set<String> getConnectedUsernamesWithLibraryAccess(Long libraryId) {
+        Index current = index;
+        Set<String> usernames = new HashSet<>(current.admins());
+        usernames.addAll(current.byLibrary().getOrDefault(libraryId, Set.of()));
+        return usernames;
+    }
+
+    public Set<String> getConnectedAdmins() {
+        return index.admins();
+    }
+
+    private void putUser(BookLoreUserEntity user) {
+        Set<PermissionType> permissions = EnumSet.noneOf(PermissionType.class);
+        UserPermissionsEntity perms = user.getPermissions();
+        if (perms != null) {
+            for (PermissionType permissionType : PermissionType.values()) {
+                if (hasPermission(perms, permissionType)) {
+                    permissions.add(permissionType);
+                }
+            }
+        }
+        Set<Long> libraryIds = new HashSet<>();
+        if (user.getLibraries() != null) {
+            for (LibraryEntity library : user.getLibraries()) {
+                libraryIds.add(library.getId());
+            }
+        }
+        users.put(user.getUsername(), new UserAccess(user.getUsername(), Collections.unmodifiableSet(permissions), Set.copyOf(libraryIds)));
+    }
+
+    private synchronized void rebuildIndex() {
+        Map<PermissionType, Set<String>> byPermission = new EnumMap<>(PermissionType.class);
+        Map<Long, Set<String>> byLibrary = new HashMap<>();
+        Set<String> admins = new HashSet<>();
+
+        for (String username : new HashSet<>(sessionUsernames.values())) {
+            UserAccess access = users.get(username);
+            if (access == null) {
+                continue;
+            }
+            for (PermissionType permissionType : access.permissions()) {
+                byPermission.computeIfAbsent(permissionType, p -> new HashSet<>()).add(username);
+            }
+            for (Long libraryId : access.libraryIds()) {
+                byLibrary.computeIfAbsent(libraryId, id -> new HashSet<>()).add(username);
+            }
+            if (access.isAdmin()) {
+                admins.add(username);
+            }
+        }
+
+        byPermission.replaceAll((permissionType, usernames) -> Set.copyOf(usernames));
+        byLibrary.replaceAll((libraryId, usernames) -> Set.copyOf(usernames));
+        index = new Index(Collections.unmodifiableMap(byPermission), Map.copyOf(byLibrary), Set.copyOf(admins));
+    }
+}
@@ -8,16 +8,18 @@ import java.security.NoSuchAlgorithmException;
 
 public class FileFingerprint {
 
-    public static String generateHash(Path filePath) {
-        final long base = 1024L;
-        final int blockSize = 1024;
+    private static final long BASE = 1024L;
+    private static final int BLOCK_SIZE = 1024;
+    private static final int FIRST_SAMPLE = -1;
+    private static final int LAST_SAMPLE = 10;
 
+    public static String generateHash(Path filePath) {
         try (RandomAccessFile raf = new RandomAccessFile(filePath.toFile(), "r")) {
             MessageDigest md5 = MessageDigest.getInstance("MD5");
-            byte[] buffer = new byte[blockSize];
+            byte[] buffer = new byte[BLOCK_SIZE];
 
-            for (int i = -1; i <= 10; i++) {
-                long position = base << (2 * i);
+            for (int i = FIRST_SAMPLE; i <= LAST_SAMPLE; i++) {
+                long position = samplePosition(i);
                 if (position >= raf.length()) break;
 
                 raf.seek(position);
@@ -27,15 +29,73 @@ public class FileFingerprint {
                 }
             }
 
-            byte[] hash = md5.digest();
-            StringBuilder result = new StringBuilder(hash.length * 2);
-            for (byte b : hash) {
-                result.append(String.format("%02x", b));
-            }
-            return result.toString();
+            return toHex(md5.digest());
 
         } catch (IOException | NoSuchAlgorithmException e) {
             throw new RuntimeException("Failed to compute partial MD5 hash for: " + filePath, e);
         }
     }
+
+    /**
+     * Starts a fingerprint that is fed the file content in order as it is written, e.g. while an upload is
+     * received. The result is identical to {@link #generateHash(Path)} on the finished file.
+     */
+    public static Incremental incremental() {
+        return new Incremental();
+    }
+
+    private static long samplePosition(int i) {
+        return BASE << (2 * i);
+    }
+
+    private static String toHex(byte[] hash) {
+        StringBuilder result = new StringBuilder(hash.length * 2);
+        for (byte b : hash) {
+            result.append(String.format("%02x", b));
+        }
+        return result.toString();
+    }
+
+    public static final class Incremental {
+
+        private final long[] positions = new long[LAST_SAMPLE - FIRST_SAMPLE + 1];
+        private final byte[][] samples = new byte[positions.length][BLOCK_SIZE];
+        private long length;
+
+        private Incremental() {
+            for (int i = FIRST_SAMPLE; i <= LAST_SAMPLE; i++) {
+                positions[i - FIRST_SAMPLE] = samplePosition(i);
+            }
+        }
+
+        public void update(byte[] buffer, int offset, int count) {
+            long start = length;
+            long end = start + count;
+            for (int s = 0; s < positions.length; s++) {
+                long from = Math.max(start, positions[s]);
+                long to = Math.min(end, positions[s] + BLOCK_SIZE);
+                if (from < to) {
+                    System.arraycopy(buffer, offset + (int) (from - start), samples[s], (int) (from - positions[s]), (int) (to - from));
+                }
+            }
+            length = end;
+        }
+
+        public long length() {
+            return length;
+        }
+
+        public String digest() {
+            try {
+                MessageDigest md5 = MessageDigest.getInstance("MD5");
+                for (int s = 0; s < positions.length; s++) {
+                    if (positions[s] >= length) break;
+                    md5.update(samples[s], 0, (int) Math.min(BLOCK_SIZE, length - positions[s]));
+                }
+                return toHex(md5.digest());
+            } catch (NoSuchAlgorithmException e) {
+                throw new IllegalStateException("MD5 is not available", e);
+            }
+        }
+    }
 }
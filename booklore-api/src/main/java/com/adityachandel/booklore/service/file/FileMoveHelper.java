@@ -4,7 +4,7 @@ import com.adityachandel.booklore.model.entity.BookEntity;
 import com.adityachandel.booklore.model.entity.LibraryEntity;
 import com.adityachandel.booklore.model.entity.LibraryPathEntity;
 import com.adityachandel.booklore.service.appsettings.AppSettingService;
-import com.adityachandel.booklore.service.monitoring.MonitoringRegistrationService;
+import com.adityachandel.booklore.service.monitoring.ExpectedChangeLedger;
 import com.adityachandel.booklore.util.PathPatternResolver;
 import lombok.AllArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -24,10 +24,11 @@ import java.util.Set;
 @AllArgsConstructor
 public class FileMoveHelper {
 
-    private final MonitoringRegistrationService monitoringRegistrationService;
+    private final ExpectedChangeLedger expectedChangeLedger;
     private final AppSettingService appSettingService;
 
     public void moveFile(Path source, Path target) throws IOException {
+        expectedChangeLedger.expect(source, target);
         if (target.getParent() != null) {
             Files.createDirectories(target.getParent());
         }
@@ -42,14 +43,6 @@ public class FileMoveHelper {
         return relativeSubPath.toString().replace('\\', '/');
     }
 
-    public void unregisterLibrary(Long libraryId) {
-        monitoringRegistrationService.unregisterLibrary(libraryId);
-    }
-
-    public void registerLibraryPaths(Long libraryId, Path libraryRoot) {
-        monitoringRegistrationService.registerLibraryPaths(libraryId, libraryRoot);
-    }
-
     public String getFileNamingPattern(LibraryEntity library) {
         String pattern = library.getFileNamingPattern();
         if (pattern == null || pattern.trim().isEmpty()) {
@@ -0,0 +1,63 @@
+package com.adityachandel.booklore.service.file;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.time.Duration;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Fingerprints computed while a file was being written into a library, kept until the watcher picks the
+ * file up so it does not have to read it again. An entry is only handed out while the file still has the
+ * size and modification time it had when it was registered.
+ */
+@Slf4j
+@Component
+public class PrecomputedFileHashes {
+
+    private static final Duration MAX_AGE = Duration.ofMinutes(10);
+
+    private final Map<Path, Entry> entries = new ConcurrentHashMap<>();
+
+    /**
+     * Registers the hash of a file that is about to appear at {@code path}, typically right before it is
+     * renamed into place. Size and modification time are those of the content being moved.
+     */
+    public void register(Path path, String hash, long size, long lastModifiedMillis) {
+        long now = System.nanoTime();
+        entries.values().removeIf(entry -> entry.isExpired(now));
+        entries.put(key(path), new Entry(hash, size, lastModifiedMillis, now));
+    }
+
+    public Optional<String> take(Path path) {
+        Entry entry = entries.remove(key(path));
+        if (entry == null || entry.isExpired(System.nanoTime())) {
+            return Optional.empty();
+        }
+        try {
+            BasicFileAttributes attributes = Files.readAttributes(path, BasicFileAttributes.class);
+            if (attributes.size() == entry.size() && attributes.lastModifiedTime().toMillis() == entry.lastModified()) {
+                return Optional.of(entry.hash());
+            }
+        } catch (IOException e) {
+            log.debug("Discarding precomputed hash for '{}': {}", path, e.getMessage());
+        }
+        return Optional.empty();
+    }
+
+    private static Path key(Path path) {
+        return path.toAbsolutePath().normalize();
+    }
+
+    private record Entry(String hash, long size, long lastModified, long registeredAtNanos) {
+        boolean isExpired(long now) {
+            return now - registeredAtNanos > MAX_AGE.toNanos();
+        }
+    }
+}
@@ -12,6 +12,7 @@ import com.adityachandel.booklore.repository.BookRepository;
 import com.adityachandel.booklore.service.book.BookCreatorService;
 import com.adityachandel.booklore.service.file.FileFingerprint;
 import com.adityachandel.booklore.service.metadata.MetadataMatchService;
+import com.adityachandel.booklore.service.metrics.BookloreMetrics;
 import com.adityachandel.booklore.util.FileService;
 import jakarta.persistence.EntityManager;
 import jakarta.persistence.PersistenceContext;
@@ -32,6 +33,7 @@ public abstract class AbstractFileProcessor implements BookFileProcessor {
     protected final BookMapper bookMapper;
     protected final MetadataMatchService metadataMatchService;
     protected final FileService fileService;
+    protected final BookloreMetrics bookloreMetrics;
     @PersistenceContext
     private EntityManager entityManager;
 
@@ -41,21 +43,35 @@ public abstract class AbstractFileProcessor implements BookFileProcessor {
                                     BookCreatorService bookCreatorService,
                                     BookMapper bookMapper,
                                     FileService fileService,
-                                    MetadataMatchService metadataMatchService) {
+                                    MetadataMatchService metadataMatchService,
+                                    BookloreMetrics bookloreMetrics) {
         this.bookRepository = bookRepository;
         this.bookAdditionalFileRepository = bookAdditionalFileRepository;
         this.bookCreatorService = bookCreatorService;
         this.bookMapper = bookMapper;
         this.metadataMatchService = metadataMatchService;
         this.fileService = fileService;
+        this.bookloreMetrics = bookloreMetrics;
     }
 
     @Transactional(propagation = Propagation.REQUIRES_NEW)
     @Override
     public FileProcessResult processFile(LibraryFile libraryFile) {
+        long start = System.nanoTime();
+        String outcome = "ERROR";
+        try {
+            FileProcessResult result = importFile(libraryFile);
+            outcome = result.getStatus().name();
+            return result;
+        } finally {
+            bookloreMetrics.recordFileProcessed(libraryFile.getLibraryEntity().getId(), libraryFile.getBookFileType(), outcome, start);
+        }
+    }
+
+    private FileProcessResult importFile(LibraryFile libraryFile) {
         Path path = libraryFile.getFullPath();
         String fileName = path.getFileName().toString();
-        String hash = FileFingerprint.generateHash(path);
+        String hash = libraryFile.getCurrentHash() != null ? libraryFile.getCurrentHash() : FileFingerprint.generateHash(path);
 
         Optional<Book> duplicate = fileService.checkForDuplicateAndUpdateMetadataIfNeeded(libraryFile, hash, bookRepository, bookAdditionalFileRepository, bookMapper);
 
@@ -148,7 +164,7 @@ public abstract class AbstractFileProcessor implements BookFileProcessor {
     private Book createAndMapBook(LibraryFile libraryFile, String hash) {
         BookEntity entity = processNewFile(libraryFile);
         entity.setCurrentHash(hash);
-        entity.setMetadataMatchScore(metadataMatchService.calculateMatchScore(entity));
+        metadataMatchService.updateMatchScore(entity);
         bookCreatorService.saveConnections(entity);
         return bookMapper.toBook(entity);
     }
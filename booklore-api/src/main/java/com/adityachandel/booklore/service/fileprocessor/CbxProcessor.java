@@ -12,6 +12,7 @@ import com.adityachandel.booklore.repository.BookRepository;
 import com.adityachandel.booklore.service.book.BookCreatorService;
 import com.adityachandel.booklore.service.metadata.extractor.CbxMetadataExtractor;
 import com.adityachandel.booklore.service.metadata.MetadataMatchService;
+import com.adityachandel.booklore.service.metrics.BookloreMetrics;
 import com.adityachandel.booklore.util.FileService;
 import com.adityachandel.booklore.util.FileUtils;
 import com.github.junrar.Archive;
@@ -29,6 +30,7 @@ import java.io.*;
 import java.time.Instant;
 import java.util.*;
 import java.util.regex.Pattern;
+import java.util.stream.StreamSupport;
 
 import static com.adityachandel.booklore.util.FileService.truncate;
 
@@ -51,8 +53,9 @@ public class CbxProcessor extends AbstractFileProcessor implements BookFileProce
                         FileService fileService,
                         BookMetadataRepository bookMetadataRepository,
                         MetadataMatchService metadataMatchService, 
-                        CbxMetadataExtractor cbxMetadataExtractor) {
-        super(bookRepository, bookAdditionalFileRepository, bookCreatorService, bookMapper, fileService, metadataMatchService);
+                        CbxMetadataExtractor cbxMetadataExtractor,
+                        BookloreMetrics bookloreMetrics) {
+        super(bookRepository, bookAdditionalFileRepository, bookCreatorService, bookMapper, fileService, metadataMatchService, bookloreMetrics);
         this.bookMetadataRepository = bookMetadataRepository;
          this.cbxMetadataExtractor = cbxMetadataExtractor;
     }
@@ -127,30 +130,12 @@ public class CbxProcessor extends AbstractFileProcessor implements BookFileProce
 
     private Optional<BufferedImage> extractFirstImageFrom7z(File file) {
         try (SevenZFile sevenZFile = SevenZFile.builder().setFile(file).get()) {
-            List<SevenZArchiveEntry> imageEntries = new ArrayList<>();
-            SevenZArchiveEntry entry;
-            while ((entry = sevenZFile.getNextEntry()) != null) {
-                if (!entry.isDirectory() && IMAGE_EXTENSION_CASE_INSENSITIVE_PATTERN.matcher(entry.getName()).matches()) {
-                    imageEntries.add(entry);
-                }
-            }
-            imageEntries.sort(Comparator.comparing(SevenZArchiveEntry::getName));
-
-            try (SevenZFile sevenZFileReset = SevenZFile.builder().setFile(file).get()) {
-                for (SevenZArchiveEntry imgEntry : imageEntries) {
-                    SevenZArchiveEntry current;
-                    while ((current = sevenZFileReset.getNextEntry()) != null) {
-                        if (current.equals(imgEntry)) {
-                            byte[] content = new byte[(int) current.getSize()];
-                            int offset = 0;
-                            while (offset < content.length) {
-                                int bytesRead = sevenZFileReset.read(content, offset, content.length - offset);
-                                if (bytesRead < 0) break;
-                                offset += bytesRead;
-                            }
-                            return Optional.ofNullable(ImageIO.read(new ByteArrayInputStream(content)));
-                        }
-                    }
+            Optional<SevenZArchiveEntry> cover = StreamSupport.stream(sevenZFile.getEntries().spliterator(), false)
+                    .filter(e -> !e.isDirectory() && e.hasStream() && IMAGE_EXTENSION_CASE_INSENSITIVE_PATTERN.matcher(e.getName()).matches())
+                    .min(Comparator.comparing(SevenZArchiveEntry::getName));
+            if (cover.isPresent()) {
+                try (InputStream is = sevenZFile.getInputStream(cover.get())) {
+                    return Optional.ofNullable(ImageIO.read(is));
                 }
             }
         } catch (Exception e) {
@@ -11,17 +11,19 @@ import com.adityachandel.booklore.repository.BookMetadataRepository;
 import com.adityachandel.booklore.repository.BookRepository;
 import com.adityachandel.booklore.service.book.BookCreatorService;
 import com.adityachandel.booklore.service.metadata.MetadataMatchService;
+import com.adityachandel.booklore.service.metrics.BookloreMetrics;
 import com.adityachandel.booklore.service.metadata.extractor.EpubMetadataExtractor;
+import com.adityachandel.booklore.service.metadata.extractor.EpubParseContext;
 import com.adityachandel.booklore.util.FileService;
 import com.adityachandel.booklore.util.FileUtils;
-import io.documentnode.epub4j.domain.Resource;
-import io.documentnode.epub4j.epub.EpubReader;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 
 import javax.imageio.ImageIO;
 import java.awt.image.BufferedImage;
-import java.io.*;
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
 import java.time.Instant;
 import java.util.List;
 import java.util.Set;
@@ -43,8 +45,9 @@ public class EpubProcessor extends AbstractFileProcessor implements BookFileProc
                          FileService fileService,
                          BookMetadataRepository bookMetadataRepository,
                          MetadataMatchService metadataMatchService,
-                         EpubMetadataExtractor epubMetadataExtractor) {
-        super(bookRepository, bookAdditionalFileRepository, bookCreatorService, bookMapper, fileService, metadataMatchService);
+                         EpubMetadataExtractor epubMetadataExtractor,
+                         BookloreMetrics bookloreMetrics) {
+        super(bookRepository, bookAdditionalFileRepository, bookCreatorService, bookMapper, fileService, metadataMatchService, bookloreMetrics);
         this.epubMetadataExtractor = epubMetadataExtractor;
         this.bookMetadataRepository = bookMetadataRepository;
     }
@@ -52,34 +55,32 @@ public class EpubProcessor extends AbstractFileProcessor implements BookFileProc
     @Override
     public BookEntity processNewFile(LibraryFile libraryFile) {
         BookEntity bookEntity = bookCreatorService.createShellBook(libraryFile, BookFileType.EPUB);
-        setBookMetadata(bookEntity);
-        if (generateCover(bookEntity)) {
-            fileService.setBookCoverPath(bookEntity.getMetadata());
+        File epubFile = new File(bookEntity.getFullFilePath().toUri());
+        try (EpubParseContext context = EpubParseContext.open(epubFile)) {
+            setBookMetadata(bookEntity, context);
+            if (generateCover(bookEntity, context)) {
+                fileService.setBookCoverPath(bookEntity.getMetadata());
+            }
+        } catch (Exception e) {
+            log.error("Error reading EPUB '{}': {}", bookEntity.getFileName(), e.getMessage(), e);
         }
         return bookEntity;
     }
 
     @Override
     public boolean generateCover(BookEntity bookEntity) {
-        try {
-            File epubFile = new File(FileUtils.getBookFullPath(bookEntity));
-            io.documentnode.epub4j.domain.Book epub = new EpubReader().readEpub(new FileInputStream(epubFile));
-            Resource coverImage = epub.getCoverImage();
-
-            if (coverImage == null) {
-                for (Resource res : epub.getResources().getAll()) {
-                    String id = res.getId();
-                    String href = res.getHref();
-                    if ((id != null && id.toLowerCase().contains("cover")) ||
-                            (href != null && href.toLowerCase().contains("cover"))) {
-                        if (res.getMediaType() != null && res.getMediaType().getName().startsWith("image")) {
-                            coverImage = res;
-                            break;
-                        }
-                    }
-                }
-            }
+        File epubFile = new File(FileUtils.getBookFullPath(bookEntity));
+        try (EpubParseContext context = EpubParseContext.open(epubFile)) {
+            return generateCover(bookEntity, context);
+        } catch (Exception e) {
+            log.error("Error generating cover for EPUB '{}': {}", bookEntity.getFileName(), e.getMessage(), e);
+            return false;
+        }
+    }
 
+    private boolean generateCover(BookEntity bookEntity, EpubParseContext context) {
+        try {
+            byte[] coverImage = epubMetadataExtractor.extractCover(context);
             if (coverImage == null) {
                 log.warn("No cover image found in EPUB '{}'", bookEntity.getFileName());
                 return false;
@@ -101,9 +102,8 @@ public class EpubProcessor extends AbstractFileProcessor implements BookFileProc
         return List.of(BookFileType.EPUB);
     }
 
-    private void setBookMetadata(BookEntity bookEntity) {
-        File bookFile = new File(bookEntity.getFullFilePath().toUri());
-        BookMetadata epubMetadata = epubMetadataExtractor.extractMetadata(bookFile);
+    private void setBookMetadata(BookEntity bookEntity, EpubParseContext context) {
+        BookMetadata epubMetadata = epubMetadataExtractor.extractMetadata(context);
         if (epubMetadata == null) return;
 
         BookMetadataEntity metadata = bookEntity.getMetadata();
@@ -146,8 +146,8 @@ public class EpubProcessor extends AbstractFileProcessor implements BookFileProc
         }
     }
 
-    private boolean saveCoverImage(Resource coverImage, long bookId) throws IOException {
-        BufferedImage originalImage = ImageIO.read(new ByteArrayInputStream(coverImage.getData()));
+    private boolean saveCoverImage(byte[] coverImage, long bookId) throws IOException {
+        BufferedImage originalImage = ImageIO.read(new ByteArrayInputStream(coverImage));
         return fileService.saveCoverImages(originalImage, bookId);
     }
 }
\ No newline at end of file
@@ -1,5 +1,6 @@
 package com.adityachandel.booklore.service.kobo;
 
+import com.adityachandel.booklore.service.metrics.BookloreMetrics;
 import com.adityachandel.booklore.util.FileService;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -19,6 +20,9 @@ public class KepubConversionService {
     @Autowired
     private FileService fileService;
 
+    @Autowired
+    private BookloreMetrics bookloreMetrics;
+
     private static final String KEPUBIFY_GITHUB_BASE_URL = "https://github.com/booklore-app/booklore-tools/raw/main/kepubify/";
 
     private static final String BIN_DARWIN_ARM64 = "kepubify-darwin-arm64";
@@ -31,11 +35,18 @@ public class KepubConversionService {
     public File convertEpubToKepub(File epubFile, File tempDir) throws IOException, InterruptedException {
         validateInputs(epubFile);
 
-        Path kepubifyBinary = setupKepubifyBinary();
-        File outputFile = executeKepubifyConversion(epubFile, tempDir, kepubifyBinary);
-
-        log.info("Successfully converted {} to {} (size: {} bytes)", epubFile.getName(), outputFile.getName(), outputFile.length());
-        return outputFile;
+        long start = System.nanoTime();
+        boolean success = false;
+        try {
+            Path kepubifyBinary = setupKepubifyBinary();
+            File outputFile = executeKepubifyConversion(epubFile, tempDir, kepubifyBinary);
+            success = true;
+
+            log.info("Successfully converted {} to {} (size: {} bytes)", epubFile.getName(), outputFile.getName(), outputFile.length());
+            return outputFile;
+        } finally {
+            bookloreMetrics.recordKepubConversion(success, start);
+        }
     }
 
     private void validateInputs(File epubFile) {
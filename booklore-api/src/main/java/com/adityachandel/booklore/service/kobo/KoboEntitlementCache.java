@@ -0,0 +1,80 @@
+package com.adityachandel.booklore.service.kobo;
+
+import com.adityachandel.booklore.model.dto.kobo.KoboBookMetadata;
+import com.adityachandel.booklore.model.dto.kobo.KoboBookVersion;
+import com.adityachandel.booklore.model.enums.KoboBookFormat;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Rendered Kobo metadata per book, shared by every device and user. Entries hold only token-independent
+ * fields (the download URL is filled in per request) and are valid for as long as the book's metadata
+ * timestamp, file size and the configured download format stay the same. Changes that do not touch the
+ * metadata row, such as author or category edits, evict the affected books explicitly.
+ */
+@Slf4j
+@Component
+public class KoboEntitlementCache {
+
+    static final int MAX_ENTRIES = 20_000;
+
+    private final Map<Long, Entry> entries = new ConcurrentHashMap<>();
+
+    private record Entry(Instant metadataUpdatedAt, Long fileSizeKb, KoboBookFormat format, KoboBookMetadata metadata) {
+
+        boolean matches(KoboBookVersion version, KoboBookFormat format) {
+            return Objects.equals(metadataUpdatedAt, version.metadataUpdatedAt())
+                    && Objects.equals(fileSizeKb, version.fileSizeKb())
+                    && this.format == format;
+        }
+    }
+
+    /**
+     * @return the rendered metadata, or {@code null} if there is none for this version of the book
+     */
+    public KoboBookMetadata get(KoboBookVersion version, KoboBookFormat format) {
+        Entry entry = entries.get(version.bookId());
+        if (entry == null) {
+            return null;
+        }
+        if (!entry.matches(version, format)) {
+            entries.remove(version.bookId(), entry);
+            return null;
+        }
+        return entry.metadata();
+    }
+
+    public void put(KoboBookVersion version, KoboBookFormat format, KoboBookMetadata metadata) {
+        if (entries.size() >= MAX_ENTRIES && !entries.containsKey(version.bookId())) {
+            log.debug("Kobo entitlement cache full ({} entries), clearing", entries.size());
+            entries.clear();
+        }
+        entries.put(version.bookId(), new Entry(version.metadataUpdatedAt(), version.fileSizeKb(), format, metadata));
+    }
+
+    /**
+     * Drops the books now and again once the current transaction commits, so a sync running in between cannot
+     * leave the old rendering behind.
+     */
+    public void evict(Collection<Long> bookIds) {
+        List<Long> ids = List.copyOf(bookIds);
+        ids.forEach(entries::remove);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    ids.forEach(entries::remove);
+                }
+            });
+        }
+    }
+}
@@ -17,10 +17,7 @@ import org.springframework.stereotype.Service;
 
 import java.time.OffsetDateTime;
 import java.time.ZoneOffset;
-import java.util.Collections;
-import java.util.List;
-import java.util.Optional;
-import java.util.Set;
+import java.util.*;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 
@@ -32,16 +29,19 @@ public class KoboEntitlementService {
     private final KoboUrlBuilder koboUrlBuilder;
     private final BookQueryService bookQueryService;
     private final AppSettingService appSettingService;
+    private final KoboEntitlementCache entitlementCache;
 
     public List<NewEntitlement> generateNewEntitlements(Set<Long> bookIds, String token, boolean removed) {
-        List<BookEntity> books = bookQueryService.findAllWithMetadataByIds(bookIds);
+        List<KoboBookVersion> books = findEpubVersions(bookIds);
+        Map<Long, KoboBookMetadata> rendered = renderMetadata(books);
+        String downloadUrlTemplate = books.isEmpty() ? null : koboUrlBuilder.downloadUrlTemplate(token);
 
         return books.stream()
-                .filter(bookEntity -> bookEntity.getBookType() == BookFileType.EPUB)
+                .filter(book -> rendered.containsKey(book.bookId()))
                 .map(book -> NewEntitlement.builder()
                         .newEntitlement(BookEntitlementContainer.builder()
                                 .bookEntitlement(buildBookEntitlement(book, removed))
-                                .bookMetadata(mapToKoboMetadata(book, token))
+                                .bookMetadata(withDownloadUrl(rendered.get(book.bookId()), book, downloadUrlTemplate))
                                 .readingState(createInitialReadingState(book))
                                 .build())
                         .build())
@@ -49,22 +49,25 @@ public class KoboEntitlementService {
     }
 
     public List<ChangedEntitlement> generateChangedEntitlements(Set<Long> bookIds, String token, boolean removed) {
-        List<BookEntity> books = bookQueryService.findAllWithMetadataByIds(bookIds);
+        List<KoboBookVersion> books = findEpubVersions(bookIds);
+        Map<Long, KoboBookMetadata> rendered = removed ? Map.of() : renderMetadata(books);
+        String downloadUrlTemplate = removed || books.isEmpty() ? null : koboUrlBuilder.downloadUrlTemplate(token);
+
         return books.stream()
-                .filter(bookEntity -> bookEntity.getBookType() == BookFileType.EPUB)
+                .filter(book -> removed || rendered.containsKey(book.bookId()))
                 .map(book -> {
                     KoboBookMetadata metadata;
                     if (removed) {
                         metadata = KoboBookMetadata.builder()
-                                .coverImageId(String.valueOf(book.getId()))
-                                .crossRevisionId(String.valueOf(book.getId()))
-                                .entitlementId(String.valueOf(book.getId()))
-                                .revisionId(String.valueOf(book.getId()))
-                                .workId(String.valueOf(book.getId()))
-                                .title(String.valueOf(book.getId()))
+                                .coverImageId(String.valueOf(book.bookId()))
+                                .crossRevisionId(String.valueOf(book.bookId()))
+                                .entitlementId(String.valueOf(book.bookId()))
+                                .revisionId(String.valueOf(book.bookId()))
+                                .workId(String.valueOf(book.bookId()))
+                                .title(String.valueOf(book.bookId()))
                                 .build();
                     } else {
-                        metadata = mapToKoboMetadata(book, token);
+                        metadata = withDownloadUrl(rendered.get(book.bookId()), book, downloadUrlTemplate);
                     }
                     return ChangedEntitlement.builder()
                             .changedEntitlement(BookEntitlementContainer.builder()
@@ -76,12 +79,12 @@ public class KoboEntitlementService {
                 .collect(Collectors.toList());
     }
 
-    private KoboReadingState createInitialReadingState(BookEntity book) {
+    private KoboReadingState createInitialReadingState(KoboBookVersion book) {
         OffsetDateTime now = getCurrentUtc();
         OffsetDateTime createdOn = getCreatedOn(book);
 
         return KoboReadingState.builder()
-                .entitlementId(String.valueOf(book.getId()))
+                .entitlementId(String.valueOf(book.bookId()))
                 .created(createdOn.toString())
                 .lastModified(now.toString())
                 .statusInfo(KoboReadingState.StatusInfo.builder()
@@ -99,7 +102,7 @@ public class KoboEntitlementService {
                 .build();
     }
 
-    private BookEntitlement buildBookEntitlement(BookEntity book, boolean removed) {
+    private BookEntitlement buildBookEntitlement(KoboBookVersion book, boolean removed) {
         OffsetDateTime now = getCurrentUtc();
         OffsetDateTime createdOn = getCreatedOn(book);
 
@@ -109,23 +112,75 @@ public class KoboEntitlementService {
                         .build())
                 .isRemoved(removed)
                 .status("Active")
-                .crossRevisionId(String.valueOf(book.getId()))
-                .revisionId(String.valueOf(book.getId()))
-                .id(String.valueOf(book.getId()))
+                .crossRevisionId(String.valueOf(book.bookId()))
+                .revisionId(String.valueOf(book.bookId()))
+                .id(String.valueOf(book.bookId()))
                 .created(createdOn.toString())
                 .lastModified(now.toString())
                 .build();
     }
 
     public KoboBookMetadata getMetadataForBook(long bookId, String token) {
-        List<BookEntity> books = bookQueryService.findAllWithMetadataByIds(Set.of(bookId))
-                .stream()
-                .filter(bookEntity -> bookEntity.getBookType() == BookFileType.EPUB)
+        List<KoboBookVersion> books = findEpubVersions(Set.of(bookId));
+        KoboBookVersion book = books.getFirst();
+        return withDownloadUrl(renderMetadata(books).get(bookId), book, koboUrlBuilder.downloadUrlTemplate(token));
+    }
+
+    private List<KoboBookVersion> findEpubVersions(Set<Long> bookIds) {
+        if (bookIds.isEmpty()) return List.of();
+        return bookQueryService.findKoboBookVersionsByIds(bookIds).stream()
+                .filter(book -> book.bookType() == BookFileType.EPUB)
                 .toList();
-        return mapToKoboMetadata(books.getFirst(), token);
     }
 
-    private KoboBookMetadata mapToKoboMetadata(BookEntity book, String token) {
+    /**
+     * Returns the token-independent metadata of the books, loading and mapping only those not cached for their
+     * current version.
+     */
+    private Map<Long, KoboBookMetadata> renderMetadata(List<KoboBookVersion> books) {
+        KoboBookFormat bookFormat = currentBookFormat();
+        Map<Long, KoboBookMetadata> rendered = new HashMap<>();
+        Map<Long, KoboBookVersion> missing = new HashMap<>();
+        for (KoboBookVersion book : books) {
+            KoboBookMetadata cached = entitlementCache.get(book, bookFormat);
+            if (cached != null) {
+                rendered.put(book.bookId(), cached);
+            } else {
+                missing.put(book.bookId(), book);
+            }
+        }
+        if (!missing.isEmpty()) {
+            for (BookEntity book : bookQueryService.findAllWithMetadataByIds(missing.keySet())) {
+                KoboBookMetadata metadata = mapToKoboMetadata(book, bookFormat);
+                entitlementCache.put(missing.get(book.getId()), bookFormat, metadata);
+                rendered.put(book.getId(), metadata);
+            }
+        }
+        return rendered;
+    }
+
+    private KoboBookMetadata withDownloadUrl(KoboBookMetadata metadata, KoboBookVersion book, String downloadUrlTemplate) {
+        if (metadata == null) return null;
+        KoboBookMetadata.DownloadUrl download = metadata.getDownloadUrls().getFirst();
+        return metadata.toBuilder()
+                .downloadUrls(List.of(KoboBookMetadata.DownloadUrl.builder()
+                        .url(downloadUrlTemplate.replace("{bookId}", String.valueOf(book.bookId())))
+                        .format(download.getFormat())
+                        .size(download.getSize())
+                        .build()))
+                .build();
+    }
+
+    private KoboBookFormat currentBookFormat() {
+        KoboSettings koboSettings = appSettingService.getAppSettings().getKoboSettings();
+        if (koboSettings != null && koboSettings.isConvertToKepub()) {
+            return KoboBookFormat.KEPUB;
+        }
+        return KoboBookFormat.EPUB3;
+    }
+
+    // Everything but the download URL, which carries the device token and is added per request
+    private KoboBookMetadata mapToKoboMetadata(BookEntity book, KoboBookFormat bookFormat) {
         BookMetadataEntity metadata = book.getMetadata();
 
         KoboBookMetadata.Publisher publisher = KoboBookMetadata.Publisher.builder()
@@ -151,14 +206,6 @@ public class KoboEntitlementService {
                     .build();
         }
 
-        String downloadUrl = koboUrlBuilder.downloadUrl(token, book.getId());
-
-        KoboBookFormat bookFormat = KoboBookFormat.EPUB3;
-        KoboSettings koboSettings = appSettingService.getAppSettings().getKoboSettings();
-        if (koboSettings != null && koboSettings.isConvertToKepub()) {
-            bookFormat = KoboBookFormat.KEPUB;
-        }
-
         return KoboBookMetadata.builder()
                 .crossRevisionId(String.valueOf(book.getId()))
                 .revisionId(String.valueOf(book.getId()))
@@ -182,7 +229,6 @@ public class KoboEntitlementService {
                 .series(series)
                 .downloadUrls(List.of(
                         KoboBookMetadata.DownloadUrl.builder()
-                                .url(downloadUrl)
                                 .format(bookFormat.toString())
                                 .size(book.getFileSizeKb() * 1024)
                                 .build()
@@ -194,7 +240,7 @@ public class KoboEntitlementService {
         return OffsetDateTime.now(ZoneOffset.UTC);
     }
 
-    private OffsetDateTime getCreatedOn(BookEntity book) {
-        return book.getAddedOn() != null ? book.getAddedOn().atOffset(ZoneOffset.UTC) : getCurrentUtc();
+    private OffsetDateTime getCreatedOn(KoboBookVersion book) {
+        return book.addedOn() != null ? book.addedOn().atOffset(ZoneOffset.UTC) : getCurrentUtc();
     }
 }
\ No newline at end of file
@@ -12,8 +12,9 @@ import com.adityachandel.booklore.repository.ShelfRepository;
 import com.adityachandel.booklore.repository.KoboSnapshotBookRepository;
 import com.adityachandel.booklore.repository.KoboLibrarySnapshotRepository;
 import lombok.AllArgsConstructor;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -48,64 +49,44 @@ public class KoboLibrarySnapshotService {
         return koboLibrarySnapshotRepository.save(snapshot);
     }
 
+    /**
+     * Computes the difference to the previous snapshot once per sync session: books present in both are
+     * marked synced and books that disappeared are queued as removals, so every page of the session is a
+     * plain read of the remaining unsynced rows.
+     */
     @Transactional
-    public Page<KoboSnapshotBookEntity> getUnsyncedBooks(String snapshotId, Pageable pageable) {
-        Page<KoboSnapshotBookEntity> page = koboSnapshotBookRepository.findBySnapshot_IdAndSyncedFalse(snapshotId, pageable);
-        List<Long> bookIds = page.getContent().stream()
-                .map(KoboSnapshotBookEntity::getBookId)
-                .toList();
-        if (!bookIds.isEmpty()) {
-            koboSnapshotBookRepository.markBooksSynced(snapshotId, bookIds);
-        }
-        return page;
+    public void computeDiff(String previousSnapshotId, String currentSnapshotId, Long userId) {
+        koboSnapshotBookRepository.markExistingBooksSynced(previousSnapshotId, currentSnapshotId);
+        koboSnapshotBookRepository.insertRemovedBooks(previousSnapshotId, currentSnapshotId, userId);
     }
 
     @Transactional
-    public void updateSyncedStatusForExistingBooks(String previousSnapshotId, String currentSnapshotId) {
-        List<KoboSnapshotBookEntity> list = koboSnapshotBookRepository.findExistingBooksBetweenSnapshots(previousSnapshotId, currentSnapshotId);
-        List<Long> existingBooks = list.stream()
+    public Slice<KoboSnapshotBookEntity> getUnsyncedBooks(String snapshotId, int limit) {
+        Slice<KoboSnapshotBookEntity> slice = koboSnapshotBookRepository.findBySnapshot_IdAndSyncedFalse(snapshotId, PageRequest.of(0, limit, Sort.by("id")));
+        List<Long> bookIds = slice.getContent().stream()
                 .map(KoboSnapshotBookEntity::getBookId)
                 .toList();
-
-        if (!existingBooks.isEmpty()) {
-            koboSnapshotBookRepository.markBooksSynced(currentSnapshotId, existingBooks);
+        if (!bookIds.isEmpty()) {
+            koboSnapshotBookRepository.markBooksSynced(snapshotId, bookIds);
         }
+        return slice;
     }
 
     @Transactional
-    public Page<KoboSnapshotBookEntity> getNewlyAddedBooks(String previousSnapshotId, String currentSnapshotId, Pageable pageable, Long userId) {
-        Page<KoboSnapshotBookEntity> page = koboSnapshotBookRepository.findNewlyAddedBooks(previousSnapshotId, currentSnapshotId, true, pageable);
-        List<Long> newlyAddedBookIds = page.getContent().stream()
-                .map(KoboSnapshotBookEntity::getBookId)
+    public Slice<KoboDeletedBookProgressEntity> getUnsyncedRemovedBooks(String snapshotId, Long userId, int limit) {
+        Slice<KoboDeletedBookProgressEntity> slice = koboDeletedBookProgressRepository.findBySnapshotIdAndUserIdAndSyncedFalse(snapshotId, userId, PageRequest.of(0, limit, Sort.by("id")));
+        List<Long> ids = slice.getContent().stream()
+                .map(KoboDeletedBookProgressEntity::getId)
                 .toList();
-
-        if (!newlyAddedBookIds.isEmpty()) {
-            koboSnapshotBookRepository.markBooksSynced(currentSnapshotId, newlyAddedBookIds);
+        if (!ids.isEmpty()) {
+            koboDeletedBookProgressRepository.markSynced(ids);
         }
-
-        return page;
+        return slice;
     }
 
-    @Transactional
-    public Page<KoboSnapshotBookEntity> getRemovedBooks(String previousSnapshotId, String currentSnapshotId, Long userId, Pageable pageable) {
-        Page<KoboSnapshotBookEntity> page = koboSnapshotBookRepository.findRemovedBooks(previousSnapshotId, currentSnapshotId, pageable);
-
-        List<Long> bookIds = page.getContent().stream()
-                .map(KoboSnapshotBookEntity::getBookId)
-                .toList();
-
-        if (!bookIds.isEmpty()) {
-            List<KoboDeletedBookProgressEntity> progressEntities = bookIds.stream()
-                    .map(bookId -> KoboDeletedBookProgressEntity.builder()
-                            .bookIdSynced(bookId)
-                            .snapshotId(currentSnapshotId)
-                            .userId(userId)
-                            .build())
-                    .toList();
-
-            koboDeletedBookProgressRepository.saveAll(progressEntities);
-        }
-        return page;
+    @Transactional(readOnly = true)
+    public boolean hasUnsyncedRemovedBooks(String snapshotId, Long userId) {
+        return koboDeletedBookProgressRepository.existsBySnapshotIdAndUserIdAndSyncedFalse(snapshotId, userId);
     }
 
     private ShelfEntity getKoboShelf(Long userId) {
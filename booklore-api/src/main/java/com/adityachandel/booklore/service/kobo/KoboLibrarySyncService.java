@@ -4,17 +4,19 @@ import com.adityachandel.booklore.model.dto.kobo.KoboHeaders;
 import com.adityachandel.booklore.model.dto.BookLoreUser;
 import com.adityachandel.booklore.model.dto.BookloreSyncToken;
 import com.adityachandel.booklore.model.dto.kobo.*;
+import com.adityachandel.booklore.model.entity.KoboDeletedBookProgressEntity;
 import com.adityachandel.booklore.model.entity.KoboSnapshotBookEntity;
 import com.adityachandel.booklore.model.entity.KoboLibrarySnapshotEntity;
 import com.adityachandel.booklore.repository.KoboDeletedBookProgressRepository;
 import com.adityachandel.booklore.util.RequestUtils;
 import com.adityachandel.booklore.util.kobo.BookloreSyncTokenGenerator;
+import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.AllArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
 
@@ -34,53 +36,39 @@ public class KoboLibrarySyncService {
     private final KoboDeletedBookProgressRepository koboDeletedBookProgressRepository;
     private final KoboServerProxy koboServerProxy;
     private final ObjectMapper objectMapper;
+    private final KoboSyncBatchSizer batchSizer;
 
     public ResponseEntity<?> syncLibrary(BookLoreUser user, String token) {
         HttpServletRequest request = RequestUtils.getCurrentRequest();
         BookloreSyncToken syncToken = Optional.ofNullable(tokenGenerator.fromRequestHeaders(request)).orElse(new BookloreSyncToken());
 
-        KoboLibrarySnapshotEntity currSnapshot = koboLibrarySnapshotService.findByIdAndUserId(syncToken.getOngoingSyncPointId(), user.getId()).orElseGet(() -> koboLibrarySnapshotService.create(user.getId()));
         Optional<KoboLibrarySnapshotEntity> prevSnapshot = koboLibrarySnapshotService.findByIdAndUserId(syncToken.getLastSuccessfulSyncPointId(), user.getId());
+        KoboLibrarySnapshotEntity currSnapshot = koboLibrarySnapshotService.findByIdAndUserId(syncToken.getOngoingSyncPointId(), user.getId())
+                .orElseGet(() -> startSession(user.getId(), prevSnapshot));
 
+        int batchSize = batchSizer.resolve(syncToken.getBatchSize());
         List<Entitlement> entitlements = new ArrayList<>();
-        boolean shouldContinueSync = false;
 
-        if (prevSnapshot.isPresent()) {
-            int maxRemaining = 5;
-            List<KoboSnapshotBookEntity> addedAll = new ArrayList<>();
-            List<KoboSnapshotBookEntity> removedAll = new ArrayList<>();
-
-            koboLibrarySnapshotService.updateSyncedStatusForExistingBooks(prevSnapshot.get().getId(), currSnapshot.getId());
-
-            Page<KoboSnapshotBookEntity> addedPage = koboLibrarySnapshotService.getNewlyAddedBooks(prevSnapshot.get().getId(), currSnapshot.getId(), PageRequest.of(0, maxRemaining), user.getId());
-            addedAll.addAll(addedPage.getContent());
-            maxRemaining -= addedPage.getNumberOfElements();
-            shouldContinueSync = addedPage.hasNext();
-
-            Page<KoboSnapshotBookEntity> removedPage = Page.empty();
-            if (addedPage.isLast() && maxRemaining > 0) {
-                removedPage = koboLibrarySnapshotService.getRemovedBooks(prevSnapshot.get().getId(), currSnapshot.getId(), user.getId(), PageRequest.of(0, maxRemaining));
-                removedAll.addAll(removedPage.getContent());
-                shouldContinueSync = shouldContinueSync || removedPage.hasNext();
+        Slice<KoboSnapshotBookEntity> addedSlice = koboLibrarySnapshotService.getUnsyncedBooks(currSnapshot.getId(), batchSize);
+        int remaining = batchSize - addedSlice.getNumberOfElements();
+        boolean shouldContinueSync = addedSlice.hasNext();
+
+        Set<Long> removedIds = Set.of();
+        if (prevSnapshot.isPresent() && !addedSlice.hasNext()) {
+            if (remaining > 0) {
+                Slice<KoboDeletedBookProgressEntity> removedSlice = koboLibrarySnapshotService.getUnsyncedRemovedBooks(currSnapshot.getId(), user.getId(), remaining);
+                removedIds = removedSlice.getContent().stream().map(KoboDeletedBookProgressEntity::getBookIdSynced).collect(Collectors.toSet());
+                shouldContinueSync = removedSlice.hasNext();
+            } else {
+                // The additions filled this page exactly, so pending removals go out on the next one
+                shouldContinueSync = koboLibrarySnapshotService.hasUnsyncedRemovedBooks(currSnapshot.getId(), user.getId());
             }
+        }
 
-            Set<Long> addedIds = addedAll.stream().map(KoboSnapshotBookEntity::getBookId).collect(Collectors.toSet());
-            Set<Long> removedIds = removedAll.stream().map(KoboSnapshotBookEntity::getBookId).collect(Collectors.toSet());
-
-            entitlements.addAll(entitlementService.generateNewEntitlements(addedIds, token, false));
+        Set<Long> addedIds = addedSlice.getContent().stream().map(KoboSnapshotBookEntity::getBookId).collect(Collectors.toSet());
+        entitlements.addAll(entitlementService.generateNewEntitlements(addedIds, token, false));
+        if (!removedIds.isEmpty()) {
             entitlements.addAll(entitlementService.generateChangedEntitlements(removedIds, token, true));
-        } else {
-            int maxRemaining = 5;
-            List<KoboSnapshotBookEntity> all = new ArrayList<>();
-            while (maxRemaining > 0) {
-                var page = koboLibrarySnapshotService.getUnsyncedBooks(currSnapshot.getId(), PageRequest.of(0, maxRemaining));
-                all.addAll(page.getContent());
-                maxRemaining -= page.getNumberOfElements();
-                shouldContinueSync = page.hasNext();
-                if (!shouldContinueSync || page.getNumberOfElements() == 0) break;
-            }
-            Set<Long> ids = all.stream().map(KoboSnapshotBookEntity::getBookId).collect(Collectors.toSet());
-            entitlements.addAll(entitlementService.generateNewEntitlements(ids, token, false));
         }
 
         if (!shouldContinueSync) {
@@ -115,7 +103,11 @@ public class KoboLibrarySyncService {
             );
 
             String koboSyncTokenHeader = koboStoreResponse.getHeaders().getFirst(KoboHeaders.X_KOBO_SYNCTOKEN);
-            syncToken = koboSyncTokenHeader != null ? tokenGenerator.fromBase64(koboSyncTokenHeader) : syncToken;
+            if (koboSyncTokenHeader != null) {
+                Integer carriedBatchSize = syncToken.getBatchSize();
+                syncToken = tokenGenerator.fromBase64(koboSyncTokenHeader);
+                syncToken.setBatchSize(carriedBatchSize);
+            }
         }
 
         if (shouldContinueSync) {
@@ -127,9 +119,28 @@ public class KoboLibrarySyncService {
             syncToken.setLastSuccessfulSyncPointId(currSnapshot.getId());
         }
 
+        byte[] payload;
+        try {
+            payload = objectMapper.writeValueAsBytes(entitlements);
+        } catch (JsonProcessingException e) {
+            log.error("Failed to serialize Kobo sync response", e);
+            return ResponseEntity.ok()
+                    .header(KoboHeaders.X_KOBO_SYNC, shouldContinueSync ? "continue" : "")
+                    .header(KoboHeaders.X_KOBO_SYNCTOKEN, tokenGenerator.toBase64(syncToken))
+                    .body(entitlements);
+        }
+        syncToken.setBatchSize(batchSizer.next(batchSize, payload.length, entitlements.size()));
+
         return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
                 .header(KoboHeaders.X_KOBO_SYNC, shouldContinueSync ? "continue" : "")
                 .header(KoboHeaders.X_KOBO_SYNCTOKEN, tokenGenerator.toBase64(syncToken))
-                .body(entitlements);
+                .body(payload);
+    }
+
+    private KoboLibrarySnapshotEntity startSession(Long userId, Optional<KoboLibrarySnapshotEntity> prevSnapshot) {
+        KoboLibrarySnapshotEntity snapshot = koboLibrarySnapshotService.create(userId);
+        prevSnapshot.ifPresent(prev -> koboLibrarySnapshotService.computeDiff(prev.getId(), snapshot.getId(), userId));
+        return snapshot;
     }
 }
\ No newline at end of file
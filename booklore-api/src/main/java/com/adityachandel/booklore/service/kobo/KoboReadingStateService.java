@@ -6,9 +6,11 @@ import com.adityachandel.booklore.model.dto.kobo.KoboReadingStateWrapper;
 import com.adityachandel.booklore.model.dto.response.kobo.KoboReadingStateResponse;
 import com.adityachandel.booklore.model.entity.KoboReadingStateEntity;
 import com.adityachandel.booklore.repository.KoboReadingStateRepository;
+import com.adityachandel.booklore.service.user.ReadingProgressBuffer;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 
+import java.time.Instant;
 import java.util.List;
 import java.util.Optional;
 import java.util.stream.Collectors;
@@ -19,6 +21,7 @@ public class KoboReadingStateService {
 
     private final KoboReadingStateRepository repository;
     private final KoboReadingStateMapper mapper;
+    private final ReadingProgressBuffer readingProgressBuffer;
 
     public KoboReadingStateResponse saveReadingState(List<KoboReadingState> readingStates) {
         List<KoboReadingState> koboReadingStates = saveAll(readingStates);
@@ -41,30 +44,40 @@ public class KoboReadingStateService {
     private List<KoboReadingState> saveAll(List<KoboReadingState> dtos) {
         return dtos.stream()
                 .map(dto -> {
-                    KoboReadingStateEntity entity = repository.findByEntitlementId(dto.getEntitlementId())
-                            .map(existing -> {
-                                existing.setCurrentBookmarkJson(mapper.toJson(dto.getCurrentBookmark()));
-                                existing.setStatisticsJson(mapper.toJson(dto.getStatistics()));
-                                existing.setStatusInfoJson(mapper.toJson(dto.getStatusInfo()));
-                                existing.setLastModifiedString(mapper.cleanString(String.valueOf(dto.getLastModified())));
-                                return existing;
-                            })
-                            .orElseGet(() -> {
-                                KoboReadingStateEntity newEntity = mapper.toEntity(dto);
-                                newEntity.setCreated(mapper.cleanString(String.valueOf(dto.getCreated())));
-                                return newEntity;
-                            });
-
-                    return repository.save(entity);
+                    KoboReadingStateEntity entity = mapper.toEntity(dto);
+                    entity.setCreated(mapper.cleanString(String.valueOf(dto.getCreated())));
+                    entity.setLastModified(Instant.now().toString());
+                    entity.setLastModifiedString(mapper.cleanString(String.valueOf(dto.getLastModified())));
+                    readingProgressBuffer.updateKoboState(entity);
+                    return entity;
                 })
                 .map(mapper::toDto)
                 .collect(Collectors.toList());
     }
 
     public KoboReadingStateWrapper getReadingState(String entitlementId) {
-        Optional<KoboReadingState> readingState = repository.findByEntitlementId(entitlementId).map(mapper::toDto);
+        KoboReadingStateEntity pending = readingProgressBuffer.pendingKoboState(entitlementId);
+        Optional<KoboReadingState> readingState = repository.findByEntitlementId(entitlementId)
+                .map(stored -> pending != null ? withPendingState(stored, pending) : stored)
+                .or(() -> Optional.ofNullable(pending))
+                .map(mapper::toDto);
         return readingState.map(state -> KoboReadingStateWrapper.builder()
                 .readingStates(List.of(state))
                 .build()).orElse(null);
     }
+
+    // Keeps the stored creation and priority timestamps, like the buffered upsert does for an existing row
+    private KoboReadingStateEntity withPendingState(KoboReadingStateEntity stored, KoboReadingStateEntity pending) {
+        return KoboReadingStateEntity.builder()
+                .id(stored.getId())
+                .entitlementId(stored.getEntitlementId())
+                .created(stored.getCreated())
+                .priorityTimestamp(stored.getPriorityTimestamp())
+                .lastModified(pending.getLastModified())
+                .currentBookmarkJson(pending.getCurrentBookmarkJson())
+                .statisticsJson(pending.getStatisticsJson())
+                .statusInfoJson(pending.getStatusInfoJson())
+                .lastModifiedString(pending.getLastModifiedString())
+                .build();
+    }
 }
\ No newline at end of file
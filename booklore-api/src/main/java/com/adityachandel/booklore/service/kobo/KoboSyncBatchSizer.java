@@ -0,0 +1,38 @@
+package com.adityachandel.booklore.service.kobo;
+
+import com.adityachandel.booklore.config.AppProperties;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+/**
+ * Picks how many books go into one Kobo sync response. A session starts at the configured batch size and each
+ * response resizes the next one so its payload lands near the configured target, which keeps round-trips low
+ * for lean entitlements without producing oversized responses for metadata-heavy ones.
+ */
+@Component
+@RequiredArgsConstructor
+public class KoboSyncBatchSizer {
+
+    private final AppProperties appProperties;
+
+    public int resolve(Integer tokenBatchSize) {
+        AppProperties.Kobo kobo = appProperties.getKobo();
+        return clamp(tokenBatchSize != null ? tokenBatchSize : kobo.getSyncBatchSize());
+    }
+
+    public int next(int currentBatchSize, long payloadBytes, int entitlementCount) {
+        if (entitlementCount <= 0 || payloadBytes <= 0) {
+            return clamp(currentBatchSize);
+        }
+        long bytesPerEntitlement = Math.max(1, payloadBytes / entitlementCount);
+        long targetBytes = appProperties.getKobo().getSyncTargetPayloadKb() * 1024L;
+        return clamp((int) Math.min(Integer.MAX_VALUE, targetBytes / bytesPerEntitlement));
+    }
+
+    private int clamp(int batchSize) {
+        AppProperties.Kobo kobo = appProperties.getKobo();
+        int min = Math.max(1, kobo.getSyncMinBatchSize());
+        int max = Math.max(min, kobo.getSyncMaxBatchSize());
+        return Math.clamp(batchSize, min, max);
+    }
+}
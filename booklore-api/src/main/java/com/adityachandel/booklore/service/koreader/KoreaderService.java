@@ -13,24 +13,23 @@ import lombok.extern.slf4j.Slf4j;
 import com.adityachandel.booklore.config.security.userdetails.KoreaderUserDetails;
 import com.adityachandel.booklore.exception.ApiError;
 import com.adityachandel.booklore.model.dto.progress.KoreaderProgress;
-import com.adityachandel.booklore.model.entity.BookEntity;
-import com.adityachandel.booklore.model.entity.BookLoreUserEntity;
 import com.adityachandel.booklore.model.entity.KoreaderUserEntity;
 import com.adityachandel.booklore.model.entity.UserBookProgressEntity;
 import com.adityachandel.booklore.model.enums.ReadStatus;
 import com.adityachandel.booklore.repository.BookRepository;
 import com.adityachandel.booklore.repository.KoreaderUserRepository;
-import com.adityachandel.booklore.repository.UserBookProgressRepository;
-import com.adityachandel.booklore.repository.UserRepository;
+import com.adityachandel.booklore.service.user.ReadingProgressBuffer;
+import com.adityachandel.booklore.service.user.ReadingProgressBuffer.Field;
+import com.adityachandel.booklore.service.user.UserProgressService;
 
 @Slf4j
 @AllArgsConstructor
 @Service
 public class KoreaderService {
 
-    private final UserBookProgressRepository progressRepository;
+    private final UserProgressService userProgressService;
+    private final ReadingProgressBuffer readingProgressBuffer;
     private final BookRepository bookRepository;
-    private final UserRepository userRepository;
     private final KoreaderUserRepository koreaderUserRepository;
 
     public ResponseEntity<Map<String, String>> authorizeUser() {
@@ -44,8 +43,8 @@ public class KoreaderService {
 
     public KoreaderProgress getProgress(String bookHash) {
         KoreaderUserDetails authDetails = getAuthDetailsWithSyncCheck();
-        BookEntity book = findBookByHash(bookHash);
-        UserBookProgressEntity progress = findUserProgress(authDetails.getBookLoreUserId(), book.getId());
+        Long bookId = findBookIdByHash(bookHash);
+        UserBookProgressEntity progress = findUserProgress(authDetails.getBookLoreUserId(), bookId);
 
         log.info("getProgress: fetched progress='{}' percentage={} for userId={} bookHash={}",
                 progress.getKoreaderProgress(), progress.getKoreaderProgressPercent(),
@@ -62,37 +61,36 @@ public class KoreaderService {
 
     public void saveProgress(String bookHash, KoreaderProgress koProgress) {
         KoreaderUserDetails authDetails = getAuthDetailsWithSyncCheck();
-        BookEntity book = findBookByHash(bookHash);
-        BookLoreUserEntity user = findBookLoreUser(authDetails.getBookLoreUserId());
+        Long bookId = findBookIdByHash(bookHash);
 
-        UserBookProgressEntity userProgress = getOrCreateUserProgress(user, book);
-        updateProgressData(userProgress, koProgress);
-
-        progressRepository.save(userProgress);
+        readingProgressBuffer.update(authDetails.getBookLoreUserId(), bookId, toProgressPatch(koProgress));
 
         log.info("saveProgress: saved progress='{}' percentage={} for userId={} bookHash={}", koProgress.getProgress(), koProgress.getPercentage(), authDetails.getBookLoreUserId(), bookHash);
     }
 
-    private void updateProgressData(UserBookProgressEntity userProgress, KoreaderProgress koProgress) {
-        userProgress.setKoreaderProgress(koProgress.getProgress());
-        userProgress.setKoreaderProgressPercent(koProgress.getPercentage());
-        userProgress.setKoreaderDevice(koProgress.getDevice());
-        userProgress.setKoreaderDeviceId(koProgress.getDevice_id());
-        userProgress.setKoreaderLastSyncTime(Instant.now());
-        userProgress.setLastReadTime(Instant.now());
-
-        updateReadStatus(userProgress, koProgress.getPercentage());
+    private ReadingProgressBuffer.Patch toProgressPatch(KoreaderProgress koProgress) {
+        Instant now = Instant.now();
+        ReadingProgressBuffer.Patch patch = new ReadingProgressBuffer.Patch()
+                .set(Field.KOREADER_PROGRESS, koProgress.getProgress())
+                .set(Field.KOREADER_PROGRESS_PERCENT, koProgress.getPercentage())
+                .set(Field.KOREADER_DEVICE, koProgress.getDevice())
+                .set(Field.KOREADER_DEVICE_ID, koProgress.getDevice_id())
+                .set(Field.KOREADER_LAST_SYNC_TIME, now)
+                .set(Field.LAST_READ_TIME, now);
+
+        updateReadStatus(patch, koProgress.getPercentage(), now);
+        return patch;
     }
 
-    private void updateReadStatus(UserBookProgressEntity userProgress, double progressFraction) {
+    private void updateReadStatus(ReadingProgressBuffer.Patch patch, double progressFraction, Instant now) {
         double progressPercent = progressFraction * 100.0;
         if (progressPercent >= 99.5) {
-            userProgress.setReadStatus(ReadStatus.READ);
-            userProgress.setDateFinished(Instant.now());
+            patch.set(Field.READ_STATUS, ReadStatus.READ);
+            patch.set(Field.DATE_FINISHED, now);
         } else if (progressPercent >= 0.25) {
-            userProgress.setReadStatus(ReadStatus.READING);
+            patch.set(Field.READ_STATUS, ReadStatus.READING);
         } else {
-            userProgress.setReadStatus(ReadStatus.UNREAD);
+            patch.set(Field.READ_STATUS, ReadStatus.UNREAD);
         }
     }
 
@@ -127,31 +125,16 @@ public class KoreaderService {
         }
     }
 
-    private BookEntity findBookByHash(String bookHash) {
-        return bookRepository.findByCurrentHash(bookHash)
+    private Long findBookIdByHash(String bookHash) {
+        return bookRepository.findIdByCurrentHash(bookHash)
                 .orElseThrow(() -> ApiError.GENERIC_NOT_FOUND.createException("Book not found for hash " + bookHash));
     }
 
-    private BookLoreUserEntity findBookLoreUser(long userId) {
-        return userRepository.findById(userId)
-                .orElseThrow(() -> ApiError.GENERIC_NOT_FOUND.createException("User not found with id " + userId));
-    }
-
     private UserBookProgressEntity findUserProgress(long userId, Long bookId) {
-        return progressRepository.findByUserIdAndBookId(userId, bookId)
+        return userProgressService.findUserProgress(userId, bookId)
                 .orElseThrow(() -> ApiError.GENERIC_NOT_FOUND.createException("No progress found for user and book"));
     }
 
-    private UserBookProgressEntity getOrCreateUserProgress(BookLoreUserEntity user, BookEntity book) {
-        return progressRepository.findByUserIdAndBookId(user.getId(), book.getId())
-                .orElseGet(() -> {
-                    UserBookProgressEntity newProgress = new UserBookProgressEntity();
-                    newProgress.setUser(user);
-                    newProgress.setBook(book);
-                    return newProgress;
-                });
-    }
-
     private void ensureSyncEnabled(KoreaderUserDetails details) {
         if (!details.isSyncEnabled()) {
             log.warn("Sync is disabled for user '{}'", details.getUsername());
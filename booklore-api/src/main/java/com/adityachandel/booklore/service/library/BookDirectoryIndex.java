@@ -0,0 +1,45 @@
+package com.adityachandel.booklore.service.library;
+
+import com.adityachandel.booklore.model.entity.BookEntity;
+import lombok.extern.slf4j.Slf4j;
+
+import java.nio.file.Path;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Scan-scoped lookup of the book that owns each directory, per library path. Loaded once from the
+ * repository at the start of a folder-as-book scan and kept current as books are created, so the
+ * per-directory and ancestor lookups never go back to the database.
+ */
+@Slf4j
+class BookDirectoryIndex {
+
+    private final Map<Long, Map<Path, BookEntity>> booksByLibraryPath = new HashMap<>();
+
+    static BookDirectoryIndex of(Collection<BookEntity> books) {
+        BookDirectoryIndex index = new BookDirectoryIndex();
+        books.forEach(index::add);
+        return index;
+    }
+
+    void add(BookEntity book) {
+        if (book.getLibraryPath() == null || book.getLibraryPath().getId() == null) {
+            return;
+        }
+        try {
+            booksByLibraryPath
+                    .computeIfAbsent(book.getLibraryPath().getId(), id -> new HashMap<>())
+                    .putIfAbsent(book.getFullFilePath().getParent(), book);
+        } catch (IllegalStateException e) {
+            log.debug("Skipping book {} without a resolvable path: {}", book.getId(), e.getMessage());
+        }
+    }
+
+    Optional<BookEntity> find(Long libraryPathId, Path directory) {
+        Map<Path, BookEntity> books = booksByLibraryPath.get(libraryPathId);
+        return books == null ? Optional.empty() : Optional.ofNullable(books.get(directory));
+    }
+}
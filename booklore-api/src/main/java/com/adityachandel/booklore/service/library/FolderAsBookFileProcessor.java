@@ -52,6 +52,8 @@ public class FolderAsBookFileProcessor implements LibraryFileProcessor {
 
     @Override
     public void processLibraryFiles(List<LibraryFile> libraryFiles, LibraryEntity libraryEntity) {
+        BookDirectoryIndex bookIndex = loadBookDirectoryIndex(libraryEntity);
+
         Map<Path, List<LibraryFile>> filesByDirectory = libraryFiles.stream()
                 .collect(Collectors.groupingBy(libraryFile -> libraryFile.getFullPath().getParent()));
 
@@ -67,12 +69,19 @@ public class FolderAsBookFileProcessor implements LibraryFileProcessor {
             List<LibraryFile> filesInDirectory = entry.getValue();
 
             log.debug("Processing directory: {} with {} files", directoryPath, filesInDirectory.size());
-            processDirectory(directoryPath, filesInDirectory, libraryEntity);
+            processDirectory(directoryPath, filesInDirectory, libraryEntity, bookIndex);
         }
     }
 
-    private void processDirectory(Path directoryPath, List<LibraryFile> filesInDirectory, LibraryEntity libraryEntity) {
-        var bookCreationResult = getOrCreateBookInDirectory(directoryPath, filesInDirectory, libraryEntity);
+    private BookDirectoryIndex loadBookDirectoryIndex(LibraryEntity libraryEntity) {
+        List<Long> libraryPathIds = libraryEntity.getLibraryPaths().stream()
+                .map(LibraryPathEntity::getId)
+                .toList();
+        return BookDirectoryIndex.of(bookRepository.findAllWithLibraryPathByLibraryPathIdIn(libraryPathIds));
+    }
+
+    private void processDirectory(Path directoryPath, List<LibraryFile> filesInDirectory, LibraryEntity libraryEntity, BookDirectoryIndex bookIndex) {
+        var bookCreationResult = getOrCreateBookInDirectory(directoryPath, filesInDirectory, libraryEntity, bookIndex);
         if (bookCreationResult.bookEntity.isEmpty()) {
             log.warn("No book created for directory: {}", directoryPath);
             return;
@@ -81,14 +90,14 @@ public class FolderAsBookFileProcessor implements LibraryFileProcessor {
         processAdditionalFiles(bookCreationResult.bookEntity.get(), bookCreationResult.remainingFiles);
     }
 
-    private GetOrCreateBookResult getOrCreateBookInDirectory(Path directoryPath, List<LibraryFile> filesInDirectory, LibraryEntity libraryEntity) {
-        var existingBook = findExistingBookInDirectory(directoryPath, libraryEntity);
+    private GetOrCreateBookResult getOrCreateBookInDirectory(Path directoryPath, List<LibraryFile> filesInDirectory, LibraryEntity libraryEntity, BookDirectoryIndex bookIndex) {
+        var existingBook = findExistingBookInDirectory(directoryPath, libraryEntity, bookIndex);
         if (existingBook.isPresent()) {
             log.debug("Found existing book in directory {}: {}", directoryPath, existingBook.get().getFileName());
             return new GetOrCreateBookResult(existingBook, filesInDirectory);
         }
 
-        Optional<BookEntity> parentBook = findBookInParentDirectories(directoryPath, libraryEntity);
+        Optional<BookEntity> parentBook = findBookInParentDirectories(directoryPath, libraryEntity, bookIndex);
         if (parentBook.isPresent()) {
             log.debug("Found parent book for directory {}: {}", directoryPath, parentBook.get().getFileName());
             return new GetOrCreateBookResult(parentBook, filesInDirectory);
@@ -98,6 +107,7 @@ public class FolderAsBookFileProcessor implements LibraryFileProcessor {
         Optional<CreateBookResult> newBook = createNewBookFromDirectory(directoryPath, filesInDirectory, libraryEntity);
         if (newBook.isPresent()) {
             log.info("Created new book: {}", newBook.get().bookEntity.getFileName());
+            bookIndex.add(newBook.get().bookEntity);
             var remainingFiles = filesInDirectory.stream()
                     .filter(file -> !file.equals(newBook.get().libraryFile))
                     .toList();
@@ -108,40 +118,22 @@ public class FolderAsBookFileProcessor implements LibraryFileProcessor {
         }
     }
 
-    private Optional<BookEntity> findExistingBookInDirectory(Path directoryPath, LibraryEntity libraryEntity) {
+    private Optional<BookEntity> findExistingBookInDirectory(Path directoryPath, LibraryEntity libraryEntity, BookDirectoryIndex bookIndex) {
         return libraryEntity.getLibraryPaths().stream()
-                .flatMap(libPath -> {
-                    String filesSearchPath = Path.of(libPath.getPath())
-                            .relativize(directoryPath)
-                            .toString()
-                            .replace("\\", "/");
-                    return bookRepository
-                            .findAllByLibraryPathIdAndFileSubPathStartingWith(libPath.getId(), filesSearchPath)
-                            .stream();
-                })
-                .filter(book -> book.getFullFilePath().getParent().equals(directoryPath))
+                .map(libPath -> bookIndex.find(libPath.getId(), directoryPath))
+                .flatMap(Optional::stream)
                 .findFirst();
     }
 
-    private Optional<BookEntity> findBookInParentDirectories(Path directoryPath, LibraryEntity libraryEntity) {
+    private Optional<BookEntity> findBookInParentDirectories(Path directoryPath, LibraryEntity libraryEntity, BookDirectoryIndex bookIndex) {
         Path parent = directoryPath.getParent();
         LibraryPathEntity directoryLibraryPathEntity = libraryEntity.getLibraryPaths().stream()
                 .filter(libPath -> directoryPath.startsWith(libPath.getPath()))
                 .findFirst()
                 .orElseThrow(() -> new IllegalStateException("No library path found for directory: " + directoryPath));
-        Path directoryLibraryPath = Path.of(directoryLibraryPathEntity.getPath());
 
         while (parent != null) {
-            final String parentPath = directoryLibraryPath
-                    .relativize(parent)
-                    .toString()
-                    .replace("\\", "/");
-
-            Optional<BookEntity> parentBook =
-                    bookRepository.findAllByLibraryPathIdAndFileSubPathStartingWith(
-                                    directoryLibraryPathEntity.getId(), parentPath).stream()
-                            .filter(book -> book.getFileSubPath().equals(parentPath))
-                            .findFirst();
+            Optional<BookEntity> parentBook = bookIndex.find(directoryLibraryPathEntity.getId(), parent);
             if (parentBook.isPresent()) {
                 return parentBook;
             }
@@ -36,6 +36,9 @@ public class LibraryFileHelper {
             return stream.filter(Files::isRegularFile)
                     .map(fullPath -> {
                         String fileName = fullPath.getFileName().toString();
+                        if (FileUtils.isUploadStagingFile(fileName)) {
+                            return null;
+                        }
                         Optional<BookFileExtension> bookExtension = BookFileExtension.fromFileName(fileName);
 
                         if (bookExtension.isEmpty() && !supportsSupplementaryFiles) {
@@ -10,6 +10,8 @@ import com.adityachandel.booklore.model.websocket.Topic;
 import com.adityachandel.booklore.repository.BookAdditionalFileRepository;
 import com.adityachandel.booklore.repository.LibraryRepository;
 import com.adityachandel.booklore.service.NotificationService;
+import com.adityachandel.booklore.service.book.MetadataNameDictionary;
+import com.adityachandel.booklore.service.metrics.BookloreMetrics;
 import com.adityachandel.booklore.task.options.RescanLibraryContext;
 import jakarta.persistence.EntityManager;
 import jakarta.persistence.PersistenceContext;
@@ -35,6 +37,8 @@ public class LibraryProcessingService {
     private final BookRestorationService bookRestorationService;
     private final BookDeletionService bookDeletionService;
     private final LibraryFileHelper libraryFileHelper;
+    private final BookloreMetrics bookloreMetrics;
+    private final MetadataNameDictionary nameDictionary;
     @PersistenceContext
     private final EntityManager entityManager;
 
@@ -43,8 +47,14 @@ public class LibraryProcessingService {
         LibraryEntity libraryEntity = libraryRepository.findById(libraryId).orElseThrow(() -> ApiError.LIBRARY_NOT_FOUND.createException(libraryId));
         notificationService.sendMessage(Topic.LOG, LogNotification.info("Started processing library: " + libraryEntity.getName()));
         LibraryFileProcessor processor = fileProcessorRegistry.getProcessor(libraryEntity);
+        long start = System.nanoTime();
         List<LibraryFile> libraryFiles = libraryFileHelper.getLibraryFiles(libraryEntity, processor);
-        processor.processLibraryFiles(libraryFiles, libraryEntity);
+        bookloreMetrics.recordScanStage(libraryId, "discover", start);
+        start = System.nanoTime();
+        try (MetadataNameDictionary.Scope ignored = nameDictionary.openScan()) {
+            processor.processLibraryFiles(libraryFiles, libraryEntity);
+        }
+        bookloreMetrics.recordScanStage(libraryId, "import", start);
         notificationService.sendMessage(Topic.LOG, LogNotification.info("Finished processing library: " + libraryEntity.getName()));
     }
 
@@ -52,8 +62,12 @@ public class LibraryProcessingService {
     public void rescanLibrary(RescanLibraryContext context) throws IOException {
         LibraryEntity libraryEntity = libraryRepository.findById(context.getLibraryId()).orElseThrow(() -> ApiError.LIBRARY_NOT_FOUND.createException(context.getLibraryId()));
         notificationService.sendMessage(Topic.LOG, LogNotification.info("Started refreshing library: " + libraryEntity.getName()));
+        long libraryId = libraryEntity.getId();
         LibraryFileProcessor processor = fileProcessorRegistry.getProcessor(libraryEntity);
+        long start = System.nanoTime();
         List<LibraryFile> libraryFiles = libraryFileHelper.getLibraryFiles(libraryEntity, processor);
+        bookloreMetrics.recordScanStage(libraryId, "discover", start);
+        start = System.nanoTime();
         List<Long> additionalFileIds = detectDeletedAdditionalFiles(libraryFiles, libraryEntity);
         if (!additionalFileIds.isEmpty()) {
             log.info("Detected {} removed additional files in library: {}", additionalFileIds.size(), libraryEntity.getName());
@@ -64,9 +78,16 @@ public class LibraryProcessingService {
             log.info("Detected {} removed books in library: {}", bookIds.size(), libraryEntity.getName());
             bookDeletionService.processDeletedLibraryFiles(bookIds, libraryFiles);
         }
+        bookloreMetrics.recordScanStage(libraryId, "detect_deleted", start);
+        start = System.nanoTime();
         bookRestorationService.restoreDeletedBooks(libraryFiles);
         entityManager.clear();
-        processor.processLibraryFiles(detectNewBookPaths(libraryFiles, libraryEntity), libraryEntity);
+        bookloreMetrics.recordScanStage(libraryId, "restore", start);
+        start = System.nanoTime();
+        try (MetadataNameDictionary.Scope ignored = nameDictionary.openScan()) {
+            processor.processLibraryFiles(detectNewBookPaths(libraryFiles, libraryEntity), libraryEntity);
+        }
+        bookloreMetrics.recordScanStage(libraryId, "import", start);
 
         notificationService.sendMessage(Topic.LOG, LogNotification.info("Finished refreshing library: " + libraryEntity.getName()));
     }
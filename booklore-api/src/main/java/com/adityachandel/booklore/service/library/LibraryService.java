@@ -1,5 +1,6 @@
 package com.adityachandel.booklore.service.library;
 
+import com.adityachandel.booklore.config.security.service.AuthenticatedPrincipalCache;
 import com.adityachandel.booklore.config.security.service.AuthenticationService;
 import com.adityachandel.booklore.exception.ApiError;
 import com.adityachandel.booklore.mapper.BookMapper;
@@ -9,30 +10,31 @@ import com.adityachandel.booklore.model.dto.BookLoreUser;
 import com.adityachandel.booklore.model.dto.Library;
 import com.adityachandel.booklore.model.dto.LibraryPath;
 import com.adityachandel.booklore.model.dto.request.CreateLibraryRequest;
+import com.adityachandel.booklore.model.dto.request.TaskCreateRequest;
 import com.adityachandel.booklore.model.entity.BookEntity;
 import com.adityachandel.booklore.model.entity.BookLoreUserEntity;
 import com.adityachandel.booklore.model.entity.LibraryEntity;
 import com.adityachandel.booklore.model.entity.LibraryPathEntity;
 import com.adityachandel.booklore.model.enums.LibraryScanMode;
+import com.adityachandel.booklore.model.enums.TaskType;
 import com.adityachandel.booklore.model.websocket.Topic;
 import com.adityachandel.booklore.repository.BookRepository;
 import com.adityachandel.booklore.repository.LibraryPathRepository;
 import com.adityachandel.booklore.repository.LibraryRepository;
 import com.adityachandel.booklore.repository.UserRepository;
 import com.adityachandel.booklore.service.NotificationService;
+import com.adityachandel.booklore.service.event.WebSocketUserRegistry;
 import com.adityachandel.booklore.service.monitoring.MonitoringService;
-import com.adityachandel.booklore.task.options.RescanLibraryContext;
+import com.adityachandel.booklore.service.task.TaskService;
+import com.adityachandel.booklore.task.options.LibraryScanOptions;
 import com.adityachandel.booklore.util.FileService;
-import com.adityachandel.booklore.util.SecurityContextVirtualThread;
 import jakarta.annotation.PostConstruct;
 import jakarta.transaction.Transactional;
-import lombok.AllArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.dao.InvalidDataAccessApiUsageException;
+import org.springframework.context.annotation.Lazy;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
 
-import java.io.IOException;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.Collections;
@@ -42,13 +44,11 @@ import java.util.stream.Collectors;
 
 @Slf4j
 @Service
-@AllArgsConstructor
 public class LibraryService {
 
     private final LibraryRepository libraryRepository;
     private final LibraryPathRepository libraryPathRepository;
     private final BookRepository bookRepository;
-    private final LibraryProcessingService libraryProcessingService;
     private final BookMapper bookMapper;
     private final LibraryMapper libraryMapper;
     private final NotificationService notificationService;
@@ -56,6 +56,37 @@ public class LibraryService {
     private final MonitoringService monitoringService;
     private final AuthenticationService authenticationService;
     private final UserRepository userRepository;
+    private final AuthenticatedPrincipalCache principalCache;
+    private final WebSocketUserRegistry webSocketUserRegistry;
+    private final TaskService taskService;
+
+    public LibraryService(LibraryRepository libraryRepository,
+                          LibraryPathRepository libraryPathRepository,
+                          BookRepository bookRepository,
+                          BookMapper bookMapper,
+                          LibraryMapper libraryMapper,
+                          NotificationService notificationService,
+                          FileService fileService,
+                          MonitoringService monitoringService,
+                          AuthenticationService authenticationService,
+                          UserRepository userRepository,
+                          AuthenticatedPrincipalCache principalCache,
+                          WebSocketUserRegistry webSocketUserRegistry,
+                          @Lazy TaskService taskService) {
+        this.libraryRepository = libraryRepository;
+        this.libraryPathRepository = libraryPathRepository;
+        this.bookRepository = bookRepository;
+        this.bookMapper = bookMapper;
+        this.libraryMapper = libraryMapper;
+        this.notificationService = notificationService;
+        this.fileService = fileService;
+        this.monitoringService = monitoringService;
+        this.authenticationService = authenticationService;
+        this.userRepository = userRepository;
+        this.principalCache = principalCache;
+        this.webSocketUserRegistry = webSocketUserRegistry;
+        this.taskService = taskService;
+    }
 
     @Transactional
     @PostConstruct
@@ -117,6 +148,7 @@ public class LibraryService {
         }
 
         LibraryEntity savedLibrary = libraryRepository.save(library);
+        principalCache.evictAll();
 
         if (request.isWatch()) {
             monitoringService.registerLibraries(List.of(libraryMapper.toLibrary(savedLibrary)));
@@ -125,16 +157,7 @@ public class LibraryService {
         }
 
         if (!newPaths.isEmpty()) {
-            SecurityContextVirtualThread.runWithSecurityContext(() -> {
-                try {
-                    libraryProcessingService.processLibrary(libraryId);
-                } catch (InvalidDataAccessApiUsageException e) {
-                    log.debug("InvalidDataAccessApiUsageException - Library id: {}", libraryId);
-                } catch (IOException e) {
-                    log.error("Error while parsing library books", e);
-                }
-                log.info("Parsing task completed!");
-            });
+            scheduleScan(libraryId, false);
         }
 
         return libraryMapper.toLibrary(savedLibrary);
@@ -166,16 +189,7 @@ public class LibraryService {
             }
         }
 
-        SecurityContextVirtualThread.runWithSecurityContext(() -> {
-            try {
-                libraryProcessingService.processLibrary(libraryId);
-            } catch (InvalidDataAccessApiUsageException e) {
-                log.debug("InvalidDataAccessApiUsageException - Library id: {}", libraryId);
-            } catch (IOException e) {
-                log.error("Error while parsing library books", e);
-            }
-            log.info("Parsing task completed!");
-        });
+        scheduleScan(libraryId, false);
 
         return libraryMapper.toLibrary(libraryEntity);
     }
@@ -183,19 +197,14 @@ public class LibraryService {
     public void rescanLibrary(long libraryId) {
         libraryRepository.findById(libraryId).orElseThrow(() -> ApiError.LIBRARY_NOT_FOUND.createException(libraryId));
 
-        SecurityContextVirtualThread.runWithSecurityContext(() -> {
-            try {
-                RescanLibraryContext context = RescanLibraryContext.builder()
-                        .libraryId(libraryId)
-                        .build();
-                libraryProcessingService.rescanLibrary(context);
-            } catch (InvalidDataAccessApiUsageException e) {
-                log.debug("InvalidDataAccessApiUsageException - Library id: {}", libraryId);
-            } catch (IOException e) {
-                log.error("Error while parsing library books", e);
-            }
-            log.info("Parsing task completed!");
-        });
+        scheduleScan(libraryId, true);
+    }
+
+    private void scheduleScan(long libraryId, boolean rescan) {
+        taskService.runAsUser(TaskCreateRequest.builder()
+                .taskType(TaskType.SCAN_LIBRARY)
+                .options(new LibraryScanOptions(libraryId, rescan))
+                .build());
     }
 
     public Library getLibrary(long libraryId) {
@@ -230,6 +239,8 @@ public class LibraryService {
         Set<Long> bookIds = library.getBookEntities().stream().map(BookEntity::getId).collect(Collectors.toSet());
         fileService.deleteBookCovers(bookIds);
         libraryRepository.deleteById(id);
+        principalCache.evictAll();
+        webSocketUserRegistry.removeLibrary(id);
         log.info("Library deleted successfully: {}", id);
     }
 
@@ -11,6 +11,7 @@ import com.adityachandel.booklore.model.dto.Book;
 import com.adityachandel.booklore.model.dto.BookMetadata;
 import com.adityachandel.booklore.model.dto.request.BulkMetadataUpdateRequest;
 import com.adityachandel.booklore.model.dto.request.FetchMetadataRequest;
+import com.adityachandel.booklore.model.dto.request.TaskCreateRequest;
 import com.adityachandel.booklore.model.dto.request.ToggleAllLockRequest;
 import com.adityachandel.booklore.model.dto.settings.MetadataPersistenceSettings;
 import com.adityachandel.booklore.model.entity.BookEntity;
@@ -18,6 +19,7 @@ import com.adityachandel.booklore.model.entity.BookMetadataEntity;
 import com.adityachandel.booklore.model.enums.BookFileType;
 import com.adityachandel.booklore.model.enums.Lock;
 import com.adityachandel.booklore.model.enums.MetadataProvider;
+import com.adityachandel.booklore.model.enums.TaskType;
 import com.adityachandel.booklore.model.websocket.LogNotification;
 import com.adityachandel.booklore.model.websocket.Topic;
 import com.adityachandel.booklore.repository.BookMetadataRepository;
@@ -32,11 +34,11 @@ import com.adityachandel.booklore.service.metadata.extractor.CbxMetadataExtracto
 import com.adityachandel.booklore.service.metadata.parser.BookParser;
 import com.adityachandel.booklore.service.metadata.writer.MetadataWriter;
 import com.adityachandel.booklore.service.metadata.writer.MetadataWriterFactory;
+import com.adityachandel.booklore.service.task.TaskService;
 import com.adityachandel.booklore.util.FileService;
 import com.adityachandel.booklore.util.FileUtils;
-import com.adityachandel.booklore.util.SecurityContextVirtualThread;
-import lombok.AllArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.Lazy;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.multipart.MultipartFile;
@@ -54,7 +56,6 @@ import java.util.stream.Collectors;
 
 @Slf4j
 @Service
-@AllArgsConstructor
 public class BookMetadataService {
 
     private final BookRepository bookRepository;
@@ -71,6 +72,39 @@ public class BookMetadataService {
     private final CbxMetadataExtractor cbxMetadataExtractor;
     private final MetadataWriterFactory metadataWriterFactory;
     private final MetadataClearFlagsMapper metadataClearFlagsMapper;
+    private final TaskService taskService;
+
+    public BookMetadataService(BookRepository bookRepository,
+                               BookMapper bookMapper,
+                               BookMetadataMapper bookMetadataMapper,
+                               BookMetadataUpdater bookMetadataUpdater,
+                               NotificationService notificationService,
+                               AppSettingService appSettingService,
+                               BookMetadataRepository bookMetadataRepository,
+                               FileService fileService,
+                               BookFileProcessorRegistry processorRegistry,
+                               BookQueryService bookQueryService,
+                               Map<MetadataProvider, BookParser> parserMap,
+                               CbxMetadataExtractor cbxMetadataExtractor,
+                               MetadataWriterFactory metadataWriterFactory,
+                               MetadataClearFlagsMapper metadataClearFlagsMapper,
+                               @Lazy TaskService taskService) {
+        this.bookRepository = bookRepository;
+        this.bookMapper = bookMapper;
+        this.bookMetadataMapper = bookMetadataMapper;
+        this.bookMetadataUpdater = bookMetadataUpdater;
+        this.notificationService = notificationService;
+        this.appSettingService = appSettingService;
+        this.bookMetadataRepository = bookMetadataRepository;
+        this.fileService = fileService;
+        this.processorRegistry = processorRegistry;
+        this.bookQueryService = bookQueryService;
+        this.parserMap = parserMap;
+        this.cbxMetadataExtractor = cbxMetadataExtractor;
+        this.metadataWriterFactory = metadataWriterFactory;
+        this.metadataClearFlagsMapper = metadataClearFlagsMapper;
+        this.taskService = taskService;
+    }
 
     public List<BookMetadata> getProspectiveMetadataListForBookId(long bookId, FetchMetadataRequest request) {
         BookEntity bookEntity = bookRepository.findById(bookId).orElseThrow(() -> ApiError.BOOK_NOT_FOUND.createException(bookId));
@@ -191,30 +225,34 @@ public class BookMetadataService {
     }
 
     public void regenerateCovers() {
-        SecurityContextVirtualThread.runWithSecurityContext(() -> {
-            try {
-                List<BookEntity> books = bookQueryService.getAllFullBookEntities().stream()
-                        .filter(book -> book.getMetadata().getCoverLocked() == null || !book.getMetadata().getCoverLocked())
-                        .toList();
-                int total = books.size();
-                notificationService.sendMessage(Topic.LOG, LogNotification.info("Started regenerating covers for " + total + " books"));
-
-                int[] current = {1};
-                for (BookEntity book : books) {
-                    try {
-                        String progress = "(" + current[0] + "/" + total + ") ";
-                        regenerateCoverForBook(book, progress);
-                    } catch (Exception e) {
-                        log.error("Failed to regenerate cover for book ID {}: {}", book.getId(), e.getMessage());
-                    }
-                    current[0]++;
+        taskService.runAsUser(TaskCreateRequest.builder()
+                .taskType(TaskType.REGENERATE_COVERS)
+                .build());
+    }
+
+    public void regenerateAllCovers() {
+        try {
+            List<BookEntity> books = bookQueryService.getAllFullBookEntities().stream()
+                    .filter(book -> book.getMetadata().getCoverLocked() == null || !book.getMetadata().getCoverLocked())
+                    .toList();
+            int total = books.size();
+            notificationService.sendMessage(Topic.LOG, LogNotification.info("Started regenerating covers for " + total + " books"));
+
+            int[] current = {1};
+            for (BookEntity book : books) {
+                try {
+                    String progress = "(" + current[0] + "/" + total + ") ";
+                    regenerateCoverForBook(book, progress);
+                } catch (Exception e) {
+                    log.error("Failed to regenerate cover for book ID {}: {}", book.getId(), e.getMessage());
                 }
-                notificationService.sendMessage(Topic.LOG, LogNotification.info("Finished regenerating covers"));
-            } catch (Exception e) {
-                log.error("Error during cover regeneration: {}", e.getMessage(), e);
-                notificationService.sendMessage(Topic.LOG, LogNotification.error("Error occurred during cover regeneration"));
+                current[0]++;
             }
-        });
+            notificationService.sendMessage(Topic.LOG, LogNotification.info("Finished regenerating covers"));
+        } catch (Exception e) {
+            log.error("Error during cover regeneration: {}", e.getMessage(), e);
+            notificationService.sendMessage(Topic.LOG, LogNotification.error("Error occurred during cover regeneration"));
+        }
     }
 
     private void regenerateCoverForBook(BookEntity book, String progress) {
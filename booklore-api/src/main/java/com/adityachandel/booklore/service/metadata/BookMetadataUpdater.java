@@ -10,6 +10,7 @@ import com.adityachandel.booklore.model.entity.*;
 import com.adityachandel.booklore.model.enums.BookFileType;
 import com.adityachandel.booklore.model.enums.MetadataReplaceMode;
 import com.adityachandel.booklore.repository.AuthorRepository;
+import com.adityachandel.booklore.repository.BookMetadataRepository;
 import com.adityachandel.booklore.repository.BookRepository;
 import com.adityachandel.booklore.repository.CategoryRepository;
 import com.adityachandel.booklore.repository.MoodRepository;
@@ -17,6 +18,7 @@ import com.adityachandel.booklore.repository.TagRepository;
 import com.adityachandel.booklore.service.file.FileFingerprint;
 import com.adityachandel.booklore.service.appsettings.AppSettingService;
 import com.adityachandel.booklore.service.file.FileMoveService;
+import com.adityachandel.booklore.service.kobo.KoboEntitlementCache;
 import com.adityachandel.booklore.service.metadata.writer.MetadataWriterFactory;
 import com.adityachandel.booklore.util.FileService;
 import com.adityachandel.booklore.util.MetadataChangeDetector;
@@ -46,12 +48,14 @@ public class BookMetadataUpdater {
     private final MoodRepository moodRepository;
     private final TagRepository tagRepository;
     private final BookRepository bookRepository;
+    private final BookMetadataRepository bookMetadataRepository;
     private final FileService fileService;
     private final MetadataMatchService metadataMatchService;
     private final AppSettingService appSettingService;
     private final MetadataWriterFactory metadataWriterFactory;
     private final BookReviewUpdateService bookReviewUpdateService;
     private final FileMoveService fileMoveService;
+    private final KoboEntitlementCache koboEntitlementCache;
 
     @Transactional
     public void setBookMetadata(MetadataUpdateContext context) {
@@ -103,10 +107,11 @@ public class BookMetadataUpdater {
         updateThumbnailIfNeeded(bookId, newMetadata, metadata, updateThumbnail);
 
         bookRepository.save(bookEntity);
+        bookMetadataRepository.touchUpdatedAt(List.of(bookId));
+        koboEntitlementCache.evict(List.of(bookId));
 
         try {
-            Float score = metadataMatchService.calculateMatchScore(bookEntity);
-            bookEntity.setMetadataMatchScore(score);
+            metadataMatchService.updateMatchScore(bookEntity);
         } catch (Exception e) {
             log.warn("Failed to calculate metadata match score for book ID {}: {}", bookId, e.getMessage());
         }
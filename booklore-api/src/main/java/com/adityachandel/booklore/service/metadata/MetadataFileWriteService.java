@@ -0,0 +1,178 @@
+package com.adityachandel.booklore.service.metadata;
+
+import com.adityachandel.booklore.model.dto.FileMoveResult;
+import com.adityachandel.booklore.model.dto.request.TaskCreateRequest;
+import com.adityachandel.booklore.model.entity.BookEntity;
+import com.adityachandel.booklore.model.enums.TaskType;
+import com.adityachandel.booklore.model.websocket.TaskProgressPayload;
+import com.adityachandel.booklore.model.websocket.Topic;
+import com.adityachandel.booklore.repository.BookRepository;
+import com.adityachandel.booklore.service.NotificationService;
+import com.adityachandel.booklore.service.file.FileFingerprint;
+import com.adityachandel.booklore.service.file.FileMoveService;
+import com.adityachandel.booklore.service.metadata.writer.MetadataWriterFactory;
+import com.adityachandel.booklore.service.task.TaskService;
+import com.adityachandel.booklore.task.TaskCancellationManager;
+import com.adityachandel.booklore.task.TaskStatus;
+import com.adityachandel.booklore.task.options.MetadataFileWriteOptions;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.adityachandel.booklore.model.enums.PermissionType.ADMIN;
+import static com.adityachandel.booklore.model.enums.PermissionType.EDIT_METADATA;
+
+/**
+ * Writes metadata changed in bulk back into the book files. Files are rewritten by a background task with a
+ * small number of parallel workers, each book in its own short transaction, so a bulk change commits at once
+ * and the slow file work can be followed and cancelled from the task notifications.
+ */
+@Slf4j
+@Service
+public class MetadataFileWriteService {
+
+    static final int PARALLELISM = 4;
+    private static final int PROGRESS_INTERVAL = 25;
+
+    private final BookRepository bookRepository;
+    private final MetadataWriterFactory metadataWriterFactory;
+    private final FileMoveService fileMoveService;
+    private final TaskCancellationManager cancellationManager;
+    private final NotificationService notificationService;
+    private final TaskService taskService;
+    private final TransactionTemplate transactionTemplate;
+
+    public MetadataFileWriteService(BookRepository bookRepository,
+                                    MetadataWriterFactory metadataWriterFactory,
+                                    FileMoveService fileMoveService,
+                                    TaskCancellationManager cancellationManager,
+                                    NotificationService notificationService,
+                                    @Lazy TaskService taskService,
+                                    PlatformTransactionManager transactionManager) {
+        this.bookRepository = bookRepository;
+        this.metadataWriterFactory = metadataWriterFactory;
+        this.fileMoveService = fileMoveService;
+        this.cancellationManager = cancellationManager;
+        this.notificationService = notificationService;
+        this.taskService = taskService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Queues the books for a file rewrite once the current transaction has committed, so the task reads the
+     * new metadata.
+     */
+    public void scheduleWrite(Collection<Long> bookIds, boolean moveFiles) {
+        if (bookIds.isEmpty()) return;
+        List<Long> ids = List.copyOf(bookIds);
+        Runnable submit = () -> taskService.runAsUser(TaskCreateRequest.builder()
+                .taskType(TaskType.WRITE_METADATA_FILES)
+                .options(new MetadataFileWriteOptions(ids, moveFiles))
+                .build());
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    submit.run();
+                }
+            });
+        } else {
+            submit.run();
+        }
+    }
+
+    /**
+     * @return the number of books whose file was written or moved
+     */
+    public int writeFiles(List<Long> bookIds, boolean moveFiles, String taskId) {
+        int total = bookIds.size();
+        AtomicInteger processed = new AtomicInteger();
+        AtomicInteger written = new AtomicInteger();
+        List<Long> failed = new ArrayList<>();
+
+        try (ExecutorService workers = Executors.newFixedThreadPool(PARALLELISM, Thread.ofVirtual().name("metadata-file-write-", 0).factory())) {
+            for (Long bookId : bookIds) {
+                workers.execute(() -> {
+                    if (isCancelled(taskId)) return;
+                    try {
+                        Boolean changed = transactionTemplate.execute(status -> writeBook(bookId, moveFiles));
+                        if (Boolean.TRUE.equals(changed)) {
+                            written.incrementAndGet();
+                        }
+                    } catch (Exception e) {
+                        log.error("Failed to write metadata to file for book ID {}: {}", bookId, e.getMessage(), e);
+                        synchronized (failed) {
+                            failed.add(bookId);
+                        }
+                    }
+                    int count = processed.incrementAndGet();
+                    if (count % PROGRESS_INTERVAL == 0 && count < total) {
+                        sendProgress(taskId, count * 100 / total, String.format("Writing metadata to files: %d of %d books", count, total), TaskStatus.IN_PROGRESS);
+                    }
+                });
+            }
+        }
+
+        if (isCancelled(taskId)) {
+            sendProgress(taskId, processed.get() * 100 / Math.max(total, 1),
+                    String.format("Writing metadata to files cancelled after %d of %d books", processed.get(), total), TaskStatus.CANCELLED);
+        } else if (!failed.isEmpty()) {
+            sendProgress(taskId, 100, String.format("Metadata written to %d files, %d failed", written.get(), failed.size()), TaskStatus.FAILED);
+        } else {
+            sendProgress(taskId, 100, String.format("Metadata written to %d files", written.get()), TaskStatus.COMPLETED);
+        }
+        return written.get();
+    }
+
+    private boolean writeBook(Long bookId, boolean moveFiles) {
+        BookEntity book = bookRepository.findAllFullBooksByIds(List.of(bookId)).stream().findFirst().orElse(null);
+        if (book == null || book.getMetadata() == null) return false;
+
+        boolean modified = metadataWriterFactory.getWriter(book.getBookType()).map(writer -> {
+            writer.writeMetadataToFile(book.getFullFilePath().toFile(), book.getMetadata(), null, null);
+            book.setCurrentHash(FileFingerprint.generateHash(book.getFullFilePath()));
+            return true;
+        }).orElse(false);
+
+        if (moveFiles) {
+            FileMoveResult result = fileMoveService.moveSingleFile(book);
+            if (result.isMoved()) {
+                book.setFileName(result.getNewFileName());
+                book.setFileSubPath(result.getNewFileSubPath());
+                modified = true;
+            }
+        }
+        return modified;
+    }
+
+    private boolean isCancelled(String taskId) {
+        return taskId != null && cancellationManager.isTaskCancelled(taskId);
+    }
+
+    private void sendProgress(String taskId, int progress, String message, TaskStatus status) {
+        try {
+            TaskProgressPayload payload = TaskProgressPayload.builder()
+                    .taskId(taskId)
+                    .taskType(TaskType.WRITE_METADATA_FILES)
+                    .message(message)
+                    .progress(progress)
+                    .taskStatus(status)
+                    .build();
+            notificationService.sendMessageToPermissions(Topic.TASK_PROGRESS, payload, Set.of(ADMIN, EDIT_METADATA));
+        } catch (Exception e) {
+            log.error("Failed to send task progress notification for taskId={}: {}", taskId, e.getMessage(), e);
+        }
+    }
+}
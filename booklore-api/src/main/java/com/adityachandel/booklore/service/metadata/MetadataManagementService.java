@@ -1,24 +1,22 @@
 package com.adityachandel.booklore.service.metadata;
 
-import com.adityachandel.booklore.model.dto.FileMoveResult;
 import com.adityachandel.booklore.model.dto.settings.MetadataPersistenceSettings;
 import com.adityachandel.booklore.model.entity.*;
-import com.adityachandel.booklore.model.enums.BookFileType;
 import com.adityachandel.booklore.model.enums.MergeMetadataType;
 import com.adityachandel.booklore.repository.*;
+import com.adityachandel.booklore.repository.MetadataMappingRepository.Mapping;
 import com.adityachandel.booklore.service.appsettings.AppSettingService;
-import com.adityachandel.booklore.service.file.FileFingerprint;
-import com.adityachandel.booklore.service.file.FileMoveService;
-import com.adityachandel.booklore.service.metadata.writer.MetadataWriter;
-import com.adityachandel.booklore.service.metadata.writer.MetadataWriterFactory;
+import com.adityachandel.booklore.service.kobo.KoboEntitlementCache;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.io.File;
-import java.util.List;
-import java.util.Optional;
+import java.util.*;
+import java.util.function.BiConsumer;
+import java.util.function.BiFunction;
+import java.util.function.Function;
 
 @Slf4j
 @Service
@@ -30,11 +28,29 @@ public class MetadataManagementService {
     private final MoodRepository moodRepository;
     private final TagRepository tagRepository;
     private final BookMetadataRepository bookMetadataRepository;
+    private final MetadataMappingRepository metadataMappingRepository;
     private final AppSettingService appSettingService;
-    private final MetadataWriterFactory metadataWriterFactory;
-    private final FileMoveService fileMoveService;
-    private final BookRepository bookRepository;
-
+    private final MetadataMatchService metadataMatchService;
+    private final MetadataFileWriteService metadataFileWriteService;
+    private final KoboEntitlementCache koboEntitlementCache;
+
+    /**
+     * A value type kept in a book-to-value mapping table.
+     *
+     * @param ignoreCase whether names are matched ignoring case; matched targets then take the casing given
+     * @param presence   the score field that depends on books having at least one such value, if any
+     */
+    private record MappedValueType<E>(String label,
+                                      Mapping mapping,
+                                      JpaRepository<E, Long> repository,
+                                      Function<Collection<String>, List<E>> findAllByNames,
+                                      boolean ignoreCase,
+                                      Function<String, E> create,
+                                      Function<E, Long> idOf,
+                                      Function<E, String> nameOf,
+                                      BiConsumer<E, String> rename,
+                                      MetadataPresence presence) {
+    }
 
     @Transactional
     public void consolidateMetadata(MergeMetadataType metadataType, List<String> targetValues, List<String> valuesToMerge) {
@@ -43,478 +59,187 @@ public class MetadataManagementService {
         boolean moveFile = settings.isMoveFilesToLibraryPattern();
         boolean writeToFile = settings.isSaveToOriginalFile();
 
-        switch (metadataType) {
-            case authors -> consolidateAuthors(targetValues, valuesToMerge, writeToFile, moveFile);
-            case categories -> consolidateCategories(targetValues, valuesToMerge, writeToFile, moveFile);
-            case moods -> consolidateMoods(targetValues, valuesToMerge, writeToFile, moveFile);
-            case tags -> consolidateTags(targetValues, valuesToMerge, writeToFile, moveFile);
-            case series -> consolidateSeries(targetValues, valuesToMerge, writeToFile, moveFile);
-            case publishers -> consolidatePublishers(targetValues, valuesToMerge, writeToFile, moveFile);
-            case languages -> consolidateLanguages(targetValues, valuesToMerge, writeToFile, moveFile);
-        }
-    }
-
-    private void writeMetadataToFile(List<BookMetadataEntity> metadataList, boolean moveFile) {
-        for (BookMetadataEntity metadata : metadataList) {
-            if (metadata.getBook() != null) {
-                BookEntity book = metadata.getBook();
-                boolean bookModified = false;
-
-                BookFileType bookType = book.getBookType();
-                Optional<MetadataWriter> writerOpt = metadataWriterFactory.getWriter(bookType);
-                if (writerOpt.isPresent()) {
-                    File file = book.getFullFilePath().toFile();
-                    writerOpt.get().writeMetadataToFile(file, metadata, null, null);
-                    String newHash = FileFingerprint.generateHash(book.getFullFilePath());
-                    book.setCurrentHash(newHash);
-                    bookModified = true;
-                }
-
-                if (moveFile) {
-                    FileMoveResult result = fileMoveService.moveSingleFile(book);
-                    if (result.isMoved()) {
-                        book.setFileName(result.getNewFileName());
-                        book.setFileSubPath(result.getNewFileSubPath());
-                        bookModified = true;
-                    }
-                }
-
-                if (bookModified) {
-                    bookRepository.saveAndFlush(book);
-                }
-            }
-        }
-    }
-
-    private void consolidateAuthors(List<String> targetValues, List<String> valuesToMerge, boolean writeToFile, boolean moveFile) {
-        List<AuthorEntity> targetAuthors = targetValues.stream()
-                .map(name -> authorRepository.findByName(name)
-                        .orElseGet(() -> {
-                            AuthorEntity author = new AuthorEntity();
-                            author.setName(name);
-                            return authorRepository.save(author);
-                        }))
-                .toList();
-
-        List<AuthorEntity> authorsToMerge = valuesToMerge.stream()
-                .map(authorRepository::findByName)
-                .filter(java.util.Optional::isPresent)
-                .map(java.util.Optional::get)
-                .toList();
-
-        for (AuthorEntity oldAuthor : authorsToMerge) {
-            List<BookMetadataEntity> booksWithOldAuthor = bookMetadataRepository.findAllByAuthorsContaining(oldAuthor);
-
-            for (BookMetadataEntity metadata : booksWithOldAuthor) {
-                metadata.getAuthors().remove(oldAuthor);
-                for (AuthorEntity targetAuthor : targetAuthors) {
-                    if (!metadata.getAuthors().contains(targetAuthor)) {
-                        metadata.getAuthors().add(targetAuthor);
-                    }
-                }
-            }
-
-            bookMetadataRepository.saveAll(booksWithOldAuthor);
-            bookMetadataRepository.flush();
+        Collection<Long> changedBookIds = switch (metadataType) {
+            case authors -> consolidateValues(authors(), targetValues, valuesToMerge);
+            case categories -> consolidateValues(categories(), targetValues, valuesToMerge);
+            case moods -> consolidateValues(moods(), targetValues, valuesToMerge);
+            case tags -> consolidateValues(tags(), targetValues, valuesToMerge);
+            case series -> consolidateField("series", targetValues, valuesToMerge,
+                    bookMetadataRepository::findBookIdsBySeriesNames, bookMetadataRepository::updateSeriesName);
+            case publishers -> consolidateField("publishers", targetValues, valuesToMerge,
+                    bookMetadataRepository::findBookIdsByPublishers, bookMetadataRepository::updatePublisher);
+            case languages -> consolidateField("languages", targetValues, valuesToMerge,
+                    bookMetadataRepository::findBookIdsByLanguages, bookMetadataRepository::updateLanguage);
+        };
 
-            if (writeToFile) {
-                writeMetadataToFile(booksWithOldAuthor, moveFile);
-            }
-
-            authorRepository.delete(oldAuthor);
+        if (!changedBookIds.isEmpty()) {
+            bookMetadataRepository.touchUpdatedAt(changedBookIds);
         }
-
-        log.info("Consolidated {} authors into {}: {}", authorsToMerge.size(), targetValues, valuesToMerge);
-    }
-
-    private void consolidateCategories(List<String> targetValues, List<String> valuesToMerge, boolean writeToFile, boolean moveFile) {
-        List<CategoryEntity> targetCategories = targetValues.stream()
-                .map(name -> categoryRepository.findByNameIgnoreCase(name)
-                        .map(existing -> {
-                            existing.setName(name);
-                            return categoryRepository.save(existing);
-                        })
-                        .orElseGet(() -> {
-                            CategoryEntity category = new CategoryEntity();
-                            category.setName(name);
-                            return categoryRepository.save(category);
-                        }))
-                .toList();
-
-        List<CategoryEntity> categoriesToMerge = valuesToMerge.stream()
-                .map(categoryRepository::findByNameIgnoreCase)
-                .filter(java.util.Optional::isPresent)
-                .map(java.util.Optional::get)
-                .toList();
-
-        for (CategoryEntity oldCategory : categoriesToMerge) {
-            List<BookMetadataEntity> booksWithOldCategory = bookMetadataRepository.findAllByCategoriesContaining(oldCategory);
-
-            for (BookMetadataEntity metadata : booksWithOldCategory) {
-                metadata.getCategories().remove(oldCategory);
-                for (CategoryEntity targetCategory : targetCategories) {
-                    if (!metadata.getCategories().contains(targetCategory)) {
-                        metadata.getCategories().add(targetCategory);
-                    }
-                }
-            }
-
-            bookMetadataRepository.saveAll(booksWithOldCategory);
-            bookMetadataRepository.flush();
-
-            if (writeToFile) {
-                writeMetadataToFile(booksWithOldCategory, moveFile);
-            }
-
-            categoryRepository.delete(oldCategory);
+        koboEntitlementCache.evict(changedBookIds);
+        if (writeToFile) {
+            metadataFileWriteService.scheduleWrite(changedBookIds, moveFile);
         }
-
-        log.info("Consolidated {} categories into {}: {}", categoriesToMerge.size(), targetValues, valuesToMerge);
     }
 
-    private void consolidateMoods(List<String> targetValues, List<String> valuesToMerge, boolean writeToFile, boolean moveFile) {
-        List<MoodEntity> targetMoods = targetValues.stream()
-                .map(name -> moodRepository.findByNameIgnoreCase(name)
-                        .map(existing -> {
-                            existing.setName(name);
-                            return moodRepository.save(existing);
-                        })
-                        .orElseGet(() -> {
-                            MoodEntity mood = new MoodEntity();
-                            mood.setName(name);
-                            return moodRepository.save(mood);
-                        }))
-                .toList();
+    @Transactional
+    public void deleteMetadata(MergeMetadataType metadataType, List<String> valuesToDelete) {
+        MetadataPersistenceSettings settings = appSettingService.getAppSettings().getMetadataPersistenceSettings();
+        boolean moveFile = settings.isMoveFilesToLibraryPattern();
+        boolean writeToFile = settings.isSaveToOriginalFile();
 
-        List<MoodEntity> moodsToMerge = valuesToMerge.stream()
-                .map(moodRepository::findByNameIgnoreCase)
-                .filter(java.util.Optional::isPresent)
-                .map(java.util.Optional::get)
+        Collection<Long> changedBookIds = switch (metadataType) {
+            case authors -> consolidateValues(authors(), List.of(), valuesToDelete);
+            case categories -> consolidateValues(categories(), List.of(), valuesToDelete);
+            case moods -> consolidateValues(moods(), List.of(), valuesToDelete);
+            case tags -> consolidateValues(tags(), List.of(), valuesToDelete);
+            case series -> deleteField("series", valuesToDelete, bookMetadataRepository::findBookIdsBySeriesNames,
+                    bookMetadataRepository::clearSeries, MetadataPresence.SERIES_NAME, MetadataPresence.SERIES_NUMBER, MetadataPresence.SERIES_TOTAL);
+            case publishers -> deleteField("publishers", valuesToDelete, bookMetadataRepository::findBookIdsByPublishers,
+                    bookIds -> bookMetadataRepository.updatePublisher(bookIds, null), MetadataPresence.PUBLISHER);
+            case languages -> deleteField("languages", valuesToDelete, bookMetadataRepository::findBookIdsByLanguages,
+                    bookIds -> bookMetadataRepository.updateLanguage(bookIds, null), MetadataPresence.LANGUAGE);
+        };
+
+        if (!changedBookIds.isEmpty()) {
+            bookMetadataRepository.touchUpdatedAt(changedBookIds);
+        }
+        koboEntitlementCache.evict(changedBookIds);
+        if (writeToFile) {
+            metadataFileWriteService.scheduleWrite(changedBookIds, moveFile);
+        }
+    }
+
+    /**
+     * Moves every book from the merged values to all target values and deletes the merged values, using
+     * set-based statements on the mapping table. With no targets the values are simply removed.
+     *
+     * @return ids of the books that had one of the merged values
+     */
+    private <E> List<Long> consolidateValues(MappedValueType<E> type, List<String> targetValues, List<String> valuesToMerge) {
+        Map<String, E> existingTargets = findByNames(type, targetValues);
+        List<E> targets = new ArrayList<>();
+        List<E> toSave = new ArrayList<>();
+        for (String name : new LinkedHashSet<>(targetValues)) {
+            E target = existingTargets.get(key(name));
+            if (target == null) {
+                target = type.create().apply(name);
+                toSave.add(target);
+            } else if (type.ignoreCase() && !name.equals(type.nameOf().apply(target))) {
+                type.rename().accept(target, name);
+                toSave.add(target);
+            }
+            targets.add(target);
+        }
+        if (!toSave.isEmpty()) {
+            type.repository().saveAll(toSave);
+        }
+
+        Set<Long> targetIds = new LinkedHashSet<>();
+        targets.forEach(target -> targetIds.add(type.idOf().apply(target)));
+        List<Long> mergedIds = findByNames(type, valuesToMerge).values().stream()
+                .map(type.idOf())
+                .filter(id -> !targetIds.contains(id))
+                .distinct()
                 .toList();
-
-        for (MoodEntity oldMood : moodsToMerge) {
-            List<BookMetadataEntity> booksWithOldMood = bookMetadataRepository.findAllByMoodsContaining(oldMood);
-
-            for (BookMetadataEntity metadata : booksWithOldMood) {
-                metadata.getMoods().remove(oldMood);
-                for (MoodEntity targetMood : targetMoods) {
-                    if (!metadata.getMoods().contains(targetMood)) {
-                        metadata.getMoods().add(targetMood);
-                    }
-                }
-            }
-
-            bookMetadataRepository.saveAll(booksWithOldMood);
-            bookMetadataRepository.flush();
-
-            if (writeToFile) {
-                writeMetadataToFile(booksWithOldMood, moveFile);
-            }
-
-            moodRepository.delete(oldMood);
+        if (mergedIds.isEmpty()) {
+            return List.of();
         }
 
-        log.info("Consolidated {} moods into {}: {}", moodsToMerge.size(), targetValues, valuesToMerge);
-    }
-
-    private void consolidateTags(List<String> targetValues, List<String> valuesToMerge, boolean writeToFile, boolean moveFile) {
-        List<TagEntity> targetTags = targetValues.stream()
-                .map(name -> tagRepository.findByNameIgnoreCase(name)
-                        .map(existing -> {
-                            existing.setName(name);
-                            return tagRepository.save(existing);
-                        })
-                        .orElseGet(() -> {
-                            TagEntity tag = new TagEntity();
-                            tag.setName(name);
-                            return tagRepository.save(tag);
-                        }))
-                .toList();
-
-        List<TagEntity> tagsToMerge = valuesToMerge.stream()
-                .map(tagRepository::findByNameIgnoreCase)
-                .filter(java.util.Optional::isPresent)
-                .map(java.util.Optional::get)
-                .toList();
-
-        for (TagEntity oldTag : tagsToMerge) {
-            List<BookMetadataEntity> booksWithOldTag = bookMetadataRepository.findAllByTagsContaining(oldTag);
-
-            for (BookMetadataEntity metadata : booksWithOldTag) {
-                metadata.getTags().remove(oldTag);
-                for (TagEntity targetTag : targetTags) {
-                    if (!metadata.getTags().contains(targetTag)) {
-                        metadata.getTags().add(targetTag);
-                    }
-                }
-            }
-
-            bookMetadataRepository.saveAll(booksWithOldTag);
-            bookMetadataRepository.flush();
-
-            if (writeToFile) {
-                writeMetadataToFile(booksWithOldTag, moveFile);
-            }
-
-            tagRepository.delete(oldTag);
+        List<Long> bookIds = metadataMappingRepository.findBookIds(type.mapping(), mergedIds);
+        for (Long targetId : targetIds) {
+            metadataMappingRepository.copyMappings(type.mapping(), mergedIds, targetId);
         }
+        metadataMappingRepository.deleteMappings(type.mapping(), mergedIds);
+        type.repository().deleteAllByIdInBatch(mergedIds);
 
-        log.info("Consolidated {} tags into {}: {}", tagsToMerge.size(), targetValues, valuesToMerge);
-    }
-
-    private void consolidateSeries(List<String> targetValues, List<String> valuesToMerge, boolean writeToFile, boolean moveFile) {
-        if (targetValues.size() != 1) {
-            throw new IllegalArgumentException("Series merge requires exactly one target value");
+        if (type.presence() != null && targetIds.isEmpty()) {
+            metadataMatchService.clearPresence(metadataMappingRepository.findBookIdsWithoutMappings(type.mapping(), bookIds), type.presence());
         }
-        String targetSeriesName = targetValues.get(0);
-
-        for (String oldSeriesName : valuesToMerge) {
-            List<BookMetadataEntity> booksWithOldSeries = bookMetadataRepository.findAllBySeriesNameIgnoreCase(oldSeriesName);
-
-            for (BookMetadataEntity metadata : booksWithOldSeries) {
-                metadata.setSeriesName(targetSeriesName);
-            }
 
-            bookMetadataRepository.saveAll(booksWithOldSeries);
-
-            if (writeToFile) {
-                writeMetadataToFile(booksWithOldSeries, moveFile);
-            }
+        if (targetIds.isEmpty()) {
+            log.info("Deleted {} {} from {} books: {}", mergedIds.size(), type.label(), bookIds.size(), valuesToMerge);
+        } else {
+            log.info("Consolidated {} {} into {} across {} books: {}", mergedIds.size(), type.label(), targetValues, bookIds.size(), valuesToMerge);
         }
-
-        log.info("Consolidated {} series into '{}': {}", valuesToMerge.size(), targetSeriesName, valuesToMerge);
+        return bookIds;
     }
 
-    private void consolidatePublishers(List<String> targetValues, List<String> valuesToMerge, boolean writeToFile, boolean moveFile) {
+    private List<Long> consolidateField(String label, List<String> targetValues, List<String> valuesToMerge,
+                                        Function<Collection<String>, List<Long>> findBookIds,
+                                        BiFunction<Collection<Long>, String, Integer> update) {
         if (targetValues.size() != 1) {
-            throw new IllegalArgumentException("Publisher merge requires exactly one target value");
+            throw new IllegalArgumentException(capitalize(label) + " merge requires exactly one target value");
         }
-        String targetPublisher = targetValues.get(0);
+        String target = targetValues.getFirst();
 
-        for (String oldPublisher : valuesToMerge) {
-            List<BookMetadataEntity> booksWithOldPublisher = bookMetadataRepository.findAllByPublisherIgnoreCase(oldPublisher);
-
-            for (BookMetadataEntity metadata : booksWithOldPublisher) {
-                metadata.setPublisher(targetPublisher);
-            }
-
-            bookMetadataRepository.saveAll(booksWithOldPublisher);
-
-            if (writeToFile) {
-                writeMetadataToFile(booksWithOldPublisher, moveFile);
-            }
+        List<Long> bookIds = valuesToMerge.isEmpty() ? List.of() : findBookIds.apply(lowerCase(valuesToMerge));
+        if (!bookIds.isEmpty()) {
+            update.apply(bookIds, target);
         }
 
-        log.info("Consolidated {} publishers into '{}': {}", valuesToMerge.size(), targetPublisher, valuesToMerge);
+        log.info("Consolidated {} {} into '{}' across {} books: {}", valuesToMerge.size(), label, target, bookIds.size(), valuesToMerge);
+        return bookIds;
     }
 
-    private void consolidateLanguages(List<String> targetValues, List<String> valuesToMerge, boolean writeToFile, boolean moveFile) {
-        if (targetValues.size() != 1) {
-            throw new IllegalArgumentException("Language merge requires exactly one target value");
+    private List<Long> deleteField(String label, List<String> valuesToDelete,
+                                   Function<Collection<String>, List<Long>> findBookIds,
+                                   Function<Collection<Long>, Integer> clear,
+                                   MetadataPresence... clearedFields) {
+        List<Long> bookIds = valuesToDelete.isEmpty() ? List.of() : findBookIds.apply(lowerCase(valuesToDelete));
+        if (!bookIds.isEmpty()) {
+            clear.apply(bookIds);
+            metadataMatchService.clearPresence(bookIds, clearedFields);
         }
-        String targetLanguage = targetValues.get(0);
 
-        for (String oldLanguage : valuesToMerge) {
-            List<BookMetadataEntity> booksWithOldLanguage = bookMetadataRepository.findAllByLanguageIgnoreCase(oldLanguage);
-
-            for (BookMetadataEntity metadata : booksWithOldLanguage) {
-                metadata.setLanguage(targetLanguage);
-            }
-
-            bookMetadataRepository.saveAll(booksWithOldLanguage);
-
-            if (writeToFile) {
-                writeMetadataToFile(booksWithOldLanguage, moveFile);
-            }
-        }
-
-        log.info("Consolidated {} languages into '{}': {}", valuesToMerge.size(), targetLanguage, valuesToMerge);
+        log.info("Deleted {} {} from {} books: {}", valuesToDelete.size(), label, bookIds.size(), valuesToDelete);
+        return bookIds;
     }
 
-    @Transactional
-    public void deleteMetadata(MergeMetadataType metadataType, List<String> valuesToDelete) {
-        MetadataPersistenceSettings settings = appSettingService.getAppSettings().getMetadataPersistenceSettings();
-        boolean moveFile = settings.isMoveFilesToLibraryPattern();
-        boolean writeToFile = settings.isSaveToOriginalFile();
-
-        switch (metadataType) {
-            case authors -> deleteAuthors(valuesToDelete, writeToFile, moveFile);
-            case categories -> deleteCategories(valuesToDelete, writeToFile, moveFile);
-            case moods -> deleteMoods(valuesToDelete, writeToFile, moveFile);
-            case tags -> deleteTags(valuesToDelete, writeToFile, moveFile);
-            case series -> deleteSeries(valuesToDelete, writeToFile, moveFile);
-            case publishers -> deletePublishers(valuesToDelete, writeToFile, moveFile);
-            case languages -> deleteLanguages(valuesToDelete, writeToFile, moveFile);
+    private <E> Map<String, E> findByNames(MappedValueType<E> type, Collection<String> names) {
+        if (names.isEmpty()) return Map.of();
+        Collection<String> lookup = type.ignoreCase() ? lowerCase(names) : new LinkedHashSet<>(names);
+        Map<String, E> byKey = new HashMap<>();
+        for (E value : type.findAllByNames().apply(lookup)) {
+            byKey.putIfAbsent(key(type.nameOf().apply(value)), value);
         }
+        return byKey;
     }
 
-    private void deleteAuthors(List<String> valuesToDelete, boolean writeToFile, boolean moveFile) {
-        List<AuthorEntity> authorsToDelete = valuesToDelete.stream()
-                .map(authorRepository::findByName)
-                .filter(java.util.Optional::isPresent)
-                .map(java.util.Optional::get)
-                .toList();
-
-        for (AuthorEntity author : authorsToDelete) {
-            List<BookMetadataEntity> booksWithAuthor = bookMetadataRepository.findAllByAuthorsContaining(author);
-
-            for (BookMetadataEntity metadata : booksWithAuthor) {
-                metadata.getAuthors().remove(author);
-            }
-
-            bookMetadataRepository.saveAll(booksWithAuthor);
-            bookMetadataRepository.flush();
-
-            if (writeToFile) {
-                writeMetadataToFile(booksWithAuthor, moveFile);
-            }
-
-            authorRepository.delete(author);
-        }
-
-        log.info("Deleted {} authors: {}", authorsToDelete.size(), valuesToDelete);
+    private MappedValueType<AuthorEntity> authors() {
+        return new MappedValueType<>("authors", Mapping.AUTHORS, authorRepository, authorRepository::findAllByNameIn, false,
+                name -> AuthorEntity.builder().name(name).build(), AuthorEntity::getId, AuthorEntity::getName, AuthorEntity::setName,
+                MetadataPresence.AUTHORS);
     }
 
-    private void deleteCategories(List<String> valuesToDelete, boolean writeToFile, boolean moveFile) {
-        List<CategoryEntity> categoriesToDelete = valuesToDelete.stream()
-                .map(categoryRepository::findByNameIgnoreCase)
-                .filter(java.util.Optional::isPresent)
-                .map(java.util.Optional::get)
-                .toList();
-
-        for (CategoryEntity category : categoriesToDelete) {
-            List<BookMetadataEntity> booksWithCategory = bookMetadataRepository.findAllByCategoriesContaining(category);
-
-            for (BookMetadataEntity metadata : booksWithCategory) {
-                metadata.getCategories().remove(category);
-            }
-
-            bookMetadataRepository.saveAll(booksWithCategory);
-            bookMetadataRepository.flush();
-
-            if (writeToFile) {
-                writeMetadataToFile(booksWithCategory, moveFile);
-            }
-
-            categoryRepository.delete(category);
-        }
-
-        log.info("Deleted {} categories: {}", categoriesToDelete.size(), valuesToDelete);
+    private MappedValueType<CategoryEntity> categories() {
+        return new MappedValueType<>("categories", Mapping.CATEGORIES, categoryRepository, categoryRepository::findAllByLowerCaseNameIn, true,
+                name -> CategoryEntity.builder().name(name).build(), CategoryEntity::getId, CategoryEntity::getName, CategoryEntity::setName,
+                MetadataPresence.CATEGORIES);
     }
 
-    private void deleteMoods(List<String> valuesToDelete, boolean writeToFile, boolean moveFile) {
-        List<MoodEntity> moodsToDelete = valuesToDelete.stream()
-                .map(moodRepository::findByNameIgnoreCase)
-                .filter(java.util.Optional::isPresent)
-                .map(java.util.Optional::get)
-                .toList();
-
-        for (MoodEntity mood : moodsToDelete) {
-            List<BookMetadataEntity> booksWithMood = bookMetadataRepository.findAllByMoodsContaining(mood);
-
-            for (BookMetadataEntity metadata : booksWithMood) {
-                metadata.getMoods().remove(mood);
-            }
-
-            bookMetadataRepository.saveAll(booksWithMood);
-            bookMetadataRepository.flush();
-
-            if (writeToFile) {
-                writeMetadataToFile(booksWithMood, moveFile);
-            }
-
-            moodRepository.delete(mood);
-        }
-
-        log.info("Deleted {} moods: {}", moodsToDelete.size(), valuesToDelete);
+    private MappedValueType<MoodEntity> moods() {
+        return new MappedValueType<>("moods", Mapping.MOODS, moodRepository, moodRepository::findAllByLowerCaseNameIn, true,
+                name -> MoodEntity.builder().name(name).build(), MoodEntity::getId, MoodEntity::getName, MoodEntity::setName,
+                null);
     }
 
-    private void deleteTags(List<String> valuesToDelete, boolean writeToFile, boolean moveFile) {
-        List<TagEntity> tagsToDelete = valuesToDelete.stream()
-                .map(tagRepository::findByNameIgnoreCase)
-                .filter(java.util.Optional::isPresent)
-                .map(java.util.Optional::get)
-                .toList();
-
-        for (TagEntity tag : tagsToDelete) {
-            List<BookMetadataEntity> booksWithTag = bookMetadataRepository.findAllByTagsContaining(tag);
-
-            for (BookMetadataEntity metadata : booksWithTag) {
-                metadata.getTags().remove(tag);
-            }
-
-            bookMetadataRepository.saveAll(booksWithTag);
-            bookMetadataRepository.flush();
-
-            if (writeToFile) {
-                writeMetadataToFile(booksWithTag, moveFile);
-            }
-
-            tagRepository.delete(tag);
-        }
-
-        log.info("Deleted {} tags: {}", tagsToDelete.size(), valuesToDelete);
+    private MappedValueType<TagEntity> tags() {
+        return new MappedValueType<>("tags", Mapping.TAGS, tagRepository, tagRepository::findAllByLowerCaseNameIn, true,
+                name -> TagEntity.builder().name(name).build(), TagEntity::getId, TagEntity::getName, TagEntity::setName,
+                null);
     }
 
-    private void deleteSeries(List<String> valuesToDelete, boolean writeToFile, boolean moveFile) {
-        for (String seriesName : valuesToDelete) {
-            List<BookMetadataEntity> booksWithSeries = bookMetadataRepository.findAllBySeriesNameIgnoreCase(seriesName);
-
-            for (BookMetadataEntity metadata : booksWithSeries) {
-                metadata.setSeriesName(null);
-                metadata.setSeriesNumber(null);
-                metadata.setSeriesTotal(null);
-            }
-
-            if (!booksWithSeries.isEmpty()) {
-                bookMetadataRepository.saveAll(booksWithSeries);
-
-                if (writeToFile) {
-                    writeMetadataToFile(booksWithSeries, moveFile);
-                }
-            }
-        }
-
-        log.info("Deleted {} series: {}", valuesToDelete.size(), valuesToDelete);
+    private static Set<String> lowerCase(Collection<String> names) {
+        Set<String> lowered = new LinkedHashSet<>();
+        names.forEach(name -> lowered.add(key(name)));
+        return lowered;
     }
 
-    private void deletePublishers(List<String> valuesToDelete, boolean writeToFile, boolean moveFile) {
-        for (String publisher : valuesToDelete) {
-            List<BookMetadataEntity> booksWithPublisher = bookMetadataRepository.findAllByPublisherIgnoreCase(publisher);
-
-            for (BookMetadataEntity metadata : booksWithPublisher) {
-                metadata.setPublisher(null);
-            }
-
-            if (!booksWithPublisher.isEmpty()) {
-                bookMetadataRepository.saveAll(booksWithPublisher);
-
-                if (writeToFile) {
-                    writeMetadataToFile(booksWithPublisher, moveFile);
-                }
-            }
-        }
-
-        log.info("Deleted {} publishers: {}", valuesToDelete.size(), valuesToDelete);
+    private static String key(String name) {
+        return name.toLowerCase(Locale.ROOT);
     }
 
-    private void deleteLanguages(List<String> valuesToDelete, boolean writeToFile, boolean moveFile) {
-        for (String language : valuesToDelete) {
-            List<BookMetadataEntity> booksWithLanguage = bookMetadataRepository.findAllByLanguageIgnoreCase(language);
-
-            for (BookMetadataEntity metadata : booksWithLanguage) {
-                metadata.setLanguage(null);
-            }
-
-            if (!booksWithLanguage.isEmpty()) {
-                bookMetadataRepository.saveAll(booksWithLanguage);
-
-                if (writeToFile) {
-                    writeMetadataToFile(booksWithLanguage, moveFile);
-                }
-            }
-        }
-
-        log.info("Deleted {} languages: {}", valuesToDelete.size(), valuesToDelete);
+    private static String capitalize(String label) {
+        return Character.toUpperCase(label.charAt(0)) + label.substring(1);
     }
 }
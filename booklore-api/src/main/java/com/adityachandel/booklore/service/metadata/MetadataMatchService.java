@@ -3,77 +3,102 @@ package com.adityachandel.booklore.service.metadata;
 import com.adityachandel.booklore.model.dto.settings.AppSettings;
 import com.adityachandel.booklore.model.dto.settings.MetadataMatchWeights;
 import com.adityachandel.booklore.model.entity.BookEntity;
-import com.adityachandel.booklore.model.entity.BookMetadataEntity;
-import com.adityachandel.booklore.service.book.BookQueryService;
 import com.adityachandel.booklore.service.appsettings.AppSettingService;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.Query;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
-import java.util.List;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Objects;
+import java.util.stream.Collectors;
 
+@Slf4j
 @RequiredArgsConstructor
 @Service
 public class MetadataMatchService {
 
+    // Sums the weights of the fields whose presence bit is set, e.g. "((metadata_presence & 1) <> 0) * :w0 + ..."
+    private static final String RESCORE_SQL = "UPDATE book SET metadata_match_score = ("
+            + Arrays.stream(MetadataPresence.values())
+            .map(field -> "((metadata_presence & " + field.bit() + ") <> 0) * :" + parameterName(field))
+            .collect(Collectors.joining(" + "))
+            + ") * 100.0 / :totalWeight WHERE metadata_presence IS NOT NULL";
+
     private final AppSettingService appSettingsService;
-    private final BookQueryService bookQueryService;
+    private final EntityManager entityManager;
 
-    public void recalculateAllMatchScores() {
-        List<BookEntity> allBooks = bookQueryService.getAllFullBookEntities();
-        for (BookEntity book : allBooks) {
-            Float score = calculateMatchScore(book);
-            book.setMetadataMatchScore(score);
-        }
-        bookQueryService.saveAll(allBooks);
+    /**
+     * Re-scores every book for the current weights in one statement, using the stored presence bits instead of
+     * loading any metadata.
+     */
+    @Transactional
+    public int recalculateAllMatchScores() {
+        int updated = rescore(null);
+        log.info("Recalculated metadata match scores for {} books", updated);
+        return updated;
     }
 
-    public Float calculateMatchScore(BookEntity book) {
-        if (book == null || book.getMetadata() == null) return 0f;
-
-        BookMetadataEntity metadata = book.getMetadata();
-
-        AppSettings appSettings = appSettingsService.getAppSettings();
-        if (appSettings == null || appSettings.getMetadataMatchWeights() == null) return 0f;
-
-        MetadataMatchWeights weights = appSettings.getMetadataMatchWeights();
-        float totalWeight = weights.totalWeight();
-        if (totalWeight == 0) return 0f;
-
-        float score = 0f;
-
-        if (isPresent(metadata.getTitle())) score += weights.getTitle();
-        if (isPresent(metadata.getSubtitle())) score += weights.getSubtitle();
-        if (isPresent(metadata.getDescription())) score += weights.getDescription();
-        if (hasContent(metadata.getAuthors())) score += weights.getAuthors();
-        if (isPresent(metadata.getPublisher())) score += weights.getPublisher();
-        if (metadata.getPublishedDate() != null) score += weights.getPublishedDate();
-        if (isPresent(metadata.getSeriesName())) score += weights.getSeriesName();
-        if (metadata.getSeriesNumber() != null && metadata.getSeriesNumber() > 0) score += weights.getSeriesNumber();
-        if (metadata.getSeriesTotal() != null && metadata.getSeriesTotal() > 0) score += weights.getSeriesTotal();
-        if (isPresent(metadata.getIsbn13())) score += weights.getIsbn13();
-        if (isPresent(metadata.getIsbn10())) score += weights.getIsbn10();
-        if (isPresent(metadata.getLanguage())) score += weights.getLanguage();
-        if (metadata.getPageCount() != null && metadata.getPageCount() > 0) score += weights.getPageCount();
-        if (hasContent(metadata.getCategories())) score += weights.getCategories();
-        if (isPositive(metadata.getAmazonRating())) score += weights.getAmazonRating();
-        if (isPositive(metadata.getAmazonReviewCount())) score += weights.getAmazonReviewCount();
-        if (isPositive(metadata.getGoodreadsRating())) score += weights.getGoodreadsRating();
-        if (isPositive(metadata.getGoodreadsReviewCount())) score += weights.getGoodreadsReviewCount();
-        if (isPositive(metadata.getHardcoverRating())) score += weights.getHardcoverRating();
-        if (isPositive(metadata.getHardcoverReviewCount())) score += weights.getHardcoverReviewCount();
+    /**
+     * Clears the given presence bits of books whose fields were emptied by a bulk statement and re-scores them.
+     */
+    void clearPresence(Collection<Long> bookIds, MetadataPresence... fields) {
+        if (bookIds.isEmpty()) return;
+        int keep = (1 << MetadataPresence.values().length) - 1;
+        for (MetadataPresence field : fields) {
+            keep &= ~field.bit();
+        }
+        entityManager.createNativeQuery("UPDATE book SET metadata_presence = metadata_presence & :keep WHERE metadata_presence IS NOT NULL AND id IN :bookIds")
+                .setParameter("keep", keep)
+                .setParameter("bookIds", bookIds)
+                .executeUpdate();
+        rescore(bookIds);
+    }
 
-        return (score / totalWeight) * 100f;
+    private int rescore(Collection<Long> bookIds) {
+        String scope = bookIds == null ? "" : " AND id IN :bookIds";
+        MetadataMatchWeights weights = currentWeights();
+        Query query;
+        if (weights == null || weights.totalWeight() == 0) {
+            query = entityManager.createNativeQuery("UPDATE book SET metadata_match_score = 0 WHERE metadata_presence IS NOT NULL" + scope);
+        } else {
+            query = entityManager.createNativeQuery(RESCORE_SQL + scope);
+            for (MetadataPresence field : MetadataPresence.values()) {
+                query.setParameter(parameterName(field), field.weight(weights));
+            }
+            query.setParameter("totalWeight", weights.totalWeight());
+        }
+        if (bookIds != null) {
+            query.setParameter("bookIds", bookIds);
+        }
+        return query.executeUpdate();
     }
 
-    private boolean isPresent(String value) {
-        return value != null && !value.isBlank();
+    /**
+     * Stores the presence bits of the book's metadata and re-scores it if they changed.
+     *
+     * @return whether the book was re-scored
+     */
+    public boolean updateMatchScore(BookEntity book) {
+        int presence = MetadataPresence.maskOf(book.getMetadata());
+        if (book.getMetadataMatchScore() != null && Objects.equals(book.getMetadataPresence(), presence)) {
+            return false;
+        }
+        book.setMetadataPresence(presence);
+        MetadataMatchWeights weights = currentWeights();
+        book.setMetadataMatchScore(weights == null ? 0f : MetadataPresence.score(presence, weights));
+        return true;
     }
 
-    private boolean hasContent(Iterable<?> iterable) {
-        return iterable != null && iterable.iterator().hasNext();
+    private MetadataMatchWeights currentWeights() {
+        AppSettings appSettings = appSettingsService.getAppSettings();
+        return appSettings == null ? null : appSettings.getMetadataMatchWeights();
     }
 
-    private boolean isPositive(Number number) {
-        return number != null && number.doubleValue() > 0;
+    private static String parameterName(MetadataPresence field) {
+        return "w" + field.ordinal();
     }
-}
\ No newline at end of file
+}
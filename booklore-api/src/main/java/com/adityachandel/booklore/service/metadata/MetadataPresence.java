@@ -0,0 +1,87 @@
+package com.adityachandel.booklore.service.metadata;
+
+import com.adityachandel.booklore.model.dto.settings.MetadataMatchWeights;
+import com.adityachandel.booklore.model.entity.BookMetadataEntity;
+
+import java.util.function.Predicate;
+import java.util.function.ToIntFunction;
+
+/**
+ * The metadata fields that count towards the match score. Which of them a book has is stored as a bit mask in
+ * {@code book.metadata_presence}, bit {@code 1 << ordinal()} per field, so the score can be recomputed for new
+ * weights without loading any metadata. Constants must only ever be appended.
+ */
+enum MetadataPresence {
+
+    TITLE(m -> isPresent(m.getTitle()), MetadataMatchWeights::getTitle),
+    SUBTITLE(m -> isPresent(m.getSubtitle()), MetadataMatchWeights::getSubtitle),
+    DESCRIPTION(m -> isPresent(m.getDescription()), MetadataMatchWeights::getDescription),
+    AUTHORS(m -> hasContent(m.getAuthors()), MetadataMatchWeights::getAuthors),
+    PUBLISHER(m -> isPresent(m.getPublisher()), MetadataMatchWeights::getPublisher),
+    PUBLISHED_DATE(m -> m.getPublishedDate() != null, MetadataMatchWeights::getPublishedDate),
+    SERIES_NAME(m -> isPresent(m.getSeriesName()), MetadataMatchWeights::getSeriesName),
+    SERIES_NUMBER(m -> isPositive(m.getSeriesNumber()), MetadataMatchWeights::getSeriesNumber),
+    SERIES_TOTAL(m -> isPositive(m.getSeriesTotal()), MetadataMatchWeights::getSeriesTotal),
+    ISBN_13(m -> isPresent(m.getIsbn13()), MetadataMatchWeights::getIsbn13),
+    ISBN_10(m -> isPresent(m.getIsbn10()), MetadataMatchWeights::getIsbn10),
+    LANGUAGE(m -> isPresent(m.getLanguage()), MetadataMatchWeights::getLanguage),
+    PAGE_COUNT(m -> isPositive(m.getPageCount()), MetadataMatchWeights::getPageCount),
+    CATEGORIES(m -> hasContent(m.getCategories()), MetadataMatchWeights::getCategories),
+    AMAZON_RATING(m -> isPositive(m.getAmazonRating()), MetadataMatchWeights::getAmazonRating),
+    AMAZON_REVIEW_COUNT(m -> isPositive(m.getAmazonReviewCount()), MetadataMatchWeights::getAmazonReviewCount),
+    GOODREADS_RATING(m -> isPositive(m.getGoodreadsRating()), MetadataMatchWeights::getGoodreadsRating),
+    GOODREADS_REVIEW_COUNT(m -> isPositive(m.getGoodreadsReviewCount()), MetadataMatchWeights::getGoodreadsReviewCount),
+    HARDCOVER_RATING(m -> isPositive(m.getHardcoverRating()), MetadataMatchWeights::getHardcoverRating),
+    HARDCOVER_REVIEW_COUNT(m -> isPositive(m.getHardcoverReviewCount()), MetadataMatchWeights::getHardcoverReviewCount);
+
+    private final Predicate<BookMetadataEntity> present;
+    private final ToIntFunction<MetadataMatchWeights> weight;
+
+    MetadataPresence(Predicate<BookMetadataEntity> present, ToIntFunction<MetadataMatchWeights> weight) {
+        this.present = present;
+        this.weight = weight;
+    }
+
+    int bit() {
+        return 1 << ordinal();
+    }
+
+    int weight(MetadataMatchWeights weights) {
+        return weight.applyAsInt(weights);
+    }
+
+    static int maskOf(BookMetadataEntity metadata) {
+        if (metadata == null) return 0;
+        int mask = 0;
+        for (MetadataPresence field : values()) {
+            if (field.present.test(metadata)) {
+                mask |= field.bit();
+            }
+        }
+        return mask;
+    }
+
+    static float score(int mask, MetadataMatchWeights weights) {
+        float totalWeight = weights.totalWeight();
+        if (totalWeight == 0) return 0f;
+        float score = 0f;
+        for (MetadataPresence field : values()) {
+            if ((mask & field.bit()) != 0) {
+                score += field.weight(weights);
+            }
+        }
+        return (score / totalWeight) * 100f;
+    }
+
+    private static boolean isPresent(String value) {
+        return value != null && !value.isBlank();
+    }
+
+    private static boolean hasContent(Iterable<?> iterable) {
+        return iterable != null && iterable.iterator().hasNext();
+    }
+
+    private static boolean isPositive(Number number) {
+        return number != null && number.doubleValue() > 0;
+    }
+}
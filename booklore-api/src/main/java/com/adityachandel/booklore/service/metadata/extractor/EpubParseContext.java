@@ -0,0 +1,158 @@
+package com.adityachandel.booklore.service.metadata.extractor;
+
+import lombok.Getter;
+import org.apache.commons.compress.archivers.zip.ZipArchiveEntry;
+import org.apache.commons.compress.archivers.zip.ZipFile;
+import org.apache.commons.lang3.StringUtils;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.NodeList;
+
+import javax.xml.XMLConstants;
+import javax.xml.parsers.DocumentBuilder;
+import javax.xml.parsers.DocumentBuilderFactory;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+/**
+ * One open EPUB: the ZIP central directory, container.xml and the OPF are read once when the context is
+ * opened, and the cover is located from the OPF manifest so only that entry is ever inflated. Metadata
+ * extraction and cover generation during import share a single context instead of each re-reading the
+ * whole archive.
+ */
+public class EpubParseContext implements AutoCloseable {
+
+    private static final String CONTAINER_PATH = "META-INF/container.xml";
+
+    private final ZipFile zip;
+    @Getter
+    private final String opfPath;
+    @Getter
+    private final Document opfDocument;
+
+    private EpubParseContext(ZipFile zip, String opfPath, Document opfDocument) {
+        this.zip = zip;
+        this.opfPath = opfPath;
+        this.opfDocument = opfDocument;
+    }
+
+    public static EpubParseContext open(File epubFile) throws IOException {
+        ZipFile zip = ZipFile.builder().setFile(epubFile).get();
+        try {
+            DocumentBuilder builder = newDocumentBuilder();
+
+            ZipArchiveEntry container = zip.getEntry(CONTAINER_PATH);
+            if (container == null) throw new IOException("container.xml not found in " + epubFile.getName());
+            Element rootfile = (Element) parse(zip, container, builder).getElementsByTagNameNS("*", "rootfile").item(0);
+            if (rootfile == null) throw new IOException("No <rootfile> found in container.xml of " + epubFile.getName());
+
+            String opfPath = rootfile.getAttribute("full-path");
+            ZipArchiveEntry opf = StringUtils.isBlank(opfPath) ? null : zip.getEntry(opfPath);
+            if (opf == null) throw new IOException("OPF file '" + opfPath + "' not found in " + epubFile.getName());
+
+            return new EpubParseContext(zip, opfPath, parse(zip, opf, builder));
+        } catch (IOException e) {
+            zip.close();
+            throw e;
+        } catch (Exception e) {
+            zip.close();
+            throw new IOException("Failed to parse EPUB " + epubFile.getName() + ": " + e.getMessage(), e);
+        }
+    }
+
+    public Element getMetadataElement() {
+        return (Element) opfDocument.getElementsByTagNameNS("*", "metadata").item(0);
+    }
+
+    /**
+     * Reads the cover image declared by the OPF: the item referenced by {@code <meta name="cover">}, then an
+     * EPUB 3 {@code cover-image} item, then any image item whose id or href mentions "cover".
+     */
+    public byte[] readCoverImage() throws IOException {
+        Element coverItem = findCoverItem();
+        if (coverItem == null) {
+            return null;
+        }
+        ZipArchiveEntry entry = zip.getEntry(resolveHref(coverItem.getAttribute("href")));
+        if (entry == null) {
+            return null;
+        }
+        try (InputStream in = zip.getInputStream(entry)) {
+            return in.readAllBytes();
+        }
+    }
+
+    private Element findCoverItem() {
+        NodeList items = opfDocument.getElementsByTagNameNS("*", "item");
+
+        String coverId = null;
+        Element metadata = getMetadataElement();
+        if (metadata != null) {
+            NodeList metas = metadata.getElementsByTagNameNS("*", "meta");
+            for (int i = 0; i < metas.getLength() && coverId == null; i++) {
+                Element meta = (Element) metas.item(i);
+                if ("cover".equals(meta.getAttribute("name")) && StringUtils.isNotBlank(meta.getAttribute("content"))) {
+                    coverId = meta.getAttribute("content").trim();
+                }
+            }
+        }
+
+        Element byProperty = null;
+        Element byName = null;
+        for (int i = 0; i < items.getLength(); i++) {
+            Element item = (Element) items.item(i);
+            String id = item.getAttribute("id");
+            String href = item.getAttribute("href");
+            if (coverId != null && (coverId.equals(id) || coverId.equals(href)) && isImage(item)) {
+                return item;
+            }
+            if (byProperty == null && item.getAttribute("properties").contains("cover-image")) {
+                byProperty = item;
+            }
+            if (byName == null && isImage(item) && (id.toLowerCase().contains("cover") || href.toLowerCase().contains("cover"))) {
+                byName = item;
+            }
+        }
+        return byProperty != null ? byProperty : byName;
+    }
+
+    private boolean isImage(Element item) {
+        return item.getAttribute("media-type").startsWith("image");
+    }
+
+    private String resolveHref(String href) {
+        int slash = opfPath.lastIndexOf('/');
+        String relative = (slash >= 0 ? opfPath.substring(0, slash + 1) : "") + href;
+        Deque<String> parts = new ArrayDeque<>();
+        for (String part : relative.split("/")) {
+            if (part.isEmpty() || part.equals(".")) continue;
+            if (part.equals("..")) {
+                parts.pollLast();
+            } else {
+                parts.addLast(part);
+            }
+        }
+        return String.join("/", parts);
+    }
+
+    private static DocumentBuilder newDocumentBuilder() throws Exception {
+        DocumentBuilderFactory dbf = DocumentBuilderFactory.newInstance();
+        dbf.setNamespaceAware(true);
+        dbf.setFeature(XMLConstants.FEATURE_SECURE_PROCESSING, true);
+        return dbf.newDocumentBuilder();
+    }
+
+    private static Document parse(ZipFile zip, ZipArchiveEntry entry, DocumentBuilder builder) throws Exception {
+        try (InputStream in = zip.getInputStream(entry)) {
+            return builder.parse(in);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        zip.close();
+    }
+}
@@ -0,0 +1,48 @@
+package com.adityachandel.booklore.service.metadata.parser;
+
+import com.adityachandel.booklore.model.dto.Book;
+import com.adityachandel.booklore.model.dto.BookMetadata;
+import com.adityachandel.booklore.model.dto.request.FetchMetadataRequest;
+import com.adityachandel.booklore.model.enums.MetadataProvider;
+import com.adityachandel.booklore.service.metrics.BookloreMetrics;
+import lombok.RequiredArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Records latency and failures of a provider's parser. Parsers swallow most HTTP errors and return empty
+ * results, so only thrown exceptions count as errors here.
+ */
+@RequiredArgsConstructor
+public class TimedBookParser implements BookParser {
+
+    private final MetadataProvider provider;
+    private final BookParser delegate;
+    private final BookloreMetrics bookloreMetrics;
+
+    @Override
+    public List<BookMetadata> fetchMetadata(Book book, FetchMetadataRequest fetchMetadataRequest) {
+        long start = System.nanoTime();
+        boolean success = false;
+        try {
+            List<BookMetadata> result = delegate.fetchMetadata(book, fetchMetadataRequest);
+            success = true;
+            return result;
+        } finally {
+            bookloreMetrics.recordProviderRequest(provider, "fetchMetadata", success, start);
+        }
+    }
+
+    @Override
+    public BookMetadata fetchTopMetadata(Book book, FetchMetadataRequest fetchMetadataRequest) {
+        long start = System.nanoTime();
+        boolean success = false;
+        try {
+            BookMetadata result = delegate.fetchTopMetadata(book, fetchMetadataRequest);
+            success = true;
+            return result;
+        } finally {
+            bookloreMetrics.recordProviderRequest(provider, "fetchTopMetadata", success, start);
+        }
+    }
+}
@@ -5,8 +5,9 @@ import com.adityachandel.booklore.model.entity.BookEntity;
 import com.adityachandel.booklore.model.entity.BookMetadataEntity;
 import com.adityachandel.booklore.model.enums.BookFileType;
 import lombok.extern.slf4j.Slf4j;
-import net.lingala.zip4j.ZipFile;
-import net.lingala.zip4j.model.ZipParameters;
+import org.apache.commons.compress.archivers.zip.ZipArchiveEntry;
+import org.apache.commons.compress.archivers.zip.ZipArchiveOutputStream;
+import org.apache.commons.compress.archivers.zip.ZipFile;
 import org.apache.commons.lang3.StringUtils;
 import org.springframework.stereotype.Component;
 import org.springframework.web.multipart.MultipartFile;
@@ -16,26 +17,26 @@ import org.w3c.dom.Node;
 import org.w3c.dom.NodeList;
 import org.xml.sax.SAXException;
 
-import javax.xml.parsers.DocumentBuilder;
 import javax.xml.parsers.DocumentBuilderFactory;
 import javax.xml.parsers.ParserConfigurationException;
 import javax.xml.transform.OutputKeys;
 import javax.xml.transform.Transformer;
+import javax.xml.transform.TransformerException;
 import javax.xml.transform.TransformerFactory;
 import javax.xml.transform.dom.DOMSource;
 import javax.xml.transform.stream.StreamResult;
+import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.net.URI;
+import java.nio.file.AtomicMoveNotSupportedException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.StandardCopyOption;
-import java.util.Comparator;
-import java.util.List;
-import java.util.Objects;
-import java.util.UUID;
+import java.util.*;
+import java.util.zip.ZipEntry;
 
 @Slf4j
 @Component
@@ -45,166 +46,107 @@ public class EpubMetadataWriter implements MetadataWriter {
 
     @Override
     public void writeMetadataToFile(File epubFile, BookMetadataEntity metadata, String thumbnailUrl, MetadataClearFlags clear) {
-        File backupFile = new File(epubFile.getParentFile(), epubFile.getName() + ".bak");
         try {
-            Files.copy(epubFile.toPath(), backupFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
-        } catch (IOException ex) {
-            log.warn("Failed to create backup of EPUB {}: {}", epubFile.getName(), ex.getMessage());
-            return;
-        }
-        Path tempDir = null;
-        try {
-            tempDir = Files.createTempDirectory("epub_edit_" + UUID.randomUUID());
-            try (ZipFile zipFile = new ZipFile(epubFile)) {
-                zipFile.extractAll(tempDir.toString());
-            }
-
-            File opfFile = findOpfFile(tempDir.toFile());
-            if (opfFile == null) {
-                log.warn("Could not locate OPF file in EPUB");
-                return;
-            }
-
-            DocumentBuilderFactory dbf = DocumentBuilderFactory.newInstance();
-            dbf.setNamespaceAware(true);
-            DocumentBuilder builder = dbf.newDocumentBuilder();
-            Document opfDoc = builder.parse(opfFile);
-
-            NodeList metadataList = opfDoc.getElementsByTagNameNS(OPF_NS, "metadata");
-            Element metadataElement = (Element) metadataList.item(0);
-            final String DC_NS = "http://purl.org/dc/elements/1.1/";
-
-            boolean[] hasChanges = {false};
-            MetadataCopyHelper helper = new MetadataCopyHelper(metadata);
-
-            helper.copyTitle(clear != null && clear.isTitle(), val -> replaceAndTrackChange(opfDoc, metadataElement, "title", DC_NS, val, hasChanges));
-            helper.copyDescription(clear != null && clear.isDescription(), val -> replaceAndTrackChange(opfDoc, metadataElement, "description", DC_NS, val, hasChanges));
-            helper.copyPublisher(clear != null && clear.isPublisher(), val -> replaceAndTrackChange(opfDoc, metadataElement, "publisher", DC_NS, val, hasChanges));
-            helper.copyPublishedDate(clear != null && clear.isPublishedDate(), val -> replaceAndTrackChange(opfDoc, metadataElement, "date", DC_NS, val != null ? val.toString() : null, hasChanges));
-            helper.copyLanguage(clear != null && clear.isLanguage(), val -> replaceAndTrackChange(opfDoc, metadataElement, "language", DC_NS, val, hasChanges));
-
-            helper.copyAuthors(clear != null && clear.isAuthors(), names -> {
-                removeElementsByTagNameNS(metadataElement, DC_NS, "creator");
-                if (names != null) {
-                    for (String name : names) {
-                        String[] parts = name.split(" ", 2);
-                        String first = parts.length > 1 ? parts[0] : "";
-                        String last = parts.length > 1 ? parts[1] : parts[0];
-                        String fileAs = last + ", " + first;
-                        metadataElement.appendChild(createCreatorElement(opfDoc, name, fileAs, "aut"));
-                    }
-                }
-                hasChanges[0] = true;
-            });
-
-            helper.copyCategories(clear != null && clear.isCategories(), categories -> {
-                removeElementsByTagNameNS(metadataElement, DC_NS, "subject");
-                if (categories != null) {
-                    for (String cat : categories.stream().map(String::trim).distinct().toList()) {
-                        metadataElement.appendChild(createSubjectElement(opfDoc, cat));
-                    }
-                }
-                hasChanges[0] = true;
-            });
-
-            helper.copySeriesName(clear != null && clear.isSeriesName(), val -> {
-                replaceMetaElement(metadataElement, opfDoc, "calibre:series", val, hasChanges);
-            });
-
-            helper.copySeriesNumber(clear != null && clear.isSeriesNumber(), val -> {
-                String formatted = val != null ? String.format("%.1f", val) : null;
-                replaceMetaElement(metadataElement, opfDoc, "calibre:series_index", formatted, hasChanges);
-            });
-
-            helper.copyPersonalRating(clear != null && clear.isPersonalRating(), val -> {
-                String formatted = val != null ? String.format("%.1f", val) : null;
-                replaceMetaElement(metadataElement, opfDoc, "calibre:rating", formatted, hasChanges);
-            });
-
-            List<String> schemes = List.of("AMAZON", "GOOGLE", "GOODREADS", "HARDCOVER", "ISBN");
-
-            for (String scheme : schemes) {
-
-                boolean clearFlag = clear != null && switch (scheme) {
-                    case "AMAZON" -> clear.isAsin();
-                    case "GOOGLE" -> clear.isGoogleId();
-                    case "COMICVINE" -> clear.isComicvineId();
-                    case "GOODREADS" -> clear.isGoodreadsId();
-                    case "HARDCOVER" -> clear.isHardcoverId();
-                    case "ISBN" -> clear.isIsbn10();
-                    default -> false;
-                };
-
-                switch (scheme) {
-                    case "AMAZON" -> helper.copyAsin(clearFlag, idValue -> {
-                        updateIdentifier(metadataElement, opfDoc, scheme, idValue, hasChanges);
-                    });
-                    case "GOOGLE" -> helper.copyGoogleId(clearFlag, idValue -> {
-                        updateIdentifier(metadataElement, opfDoc, scheme, idValue, hasChanges);
-                    });
-                    case "GOODREADS" -> helper.copyGoodreadsId(clearFlag, idValue -> {
-                        updateIdentifier(metadataElement, opfDoc, scheme, idValue, hasChanges);
-                    });
-                    case "COMICVINE" -> helper.copyComicvineId(clearFlag, idValue -> {
-                        updateIdentifier(metadataElement, opfDoc, scheme, idValue, hasChanges);
-                    });
-                    case "HARDCOVER" -> helper.copyHardcoverId(clearFlag, idValue -> {
-                        updateIdentifier(metadataElement, opfDoc, scheme, idValue, hasChanges);
-                    });
-                    case "ISBN" -> helper.copyIsbn13(clearFlag, idValue -> {
-                        updateIdentifier(metadataElement, opfDoc, scheme, idValue, hasChanges);
-                    });
-                }
-            }
-
-            if (StringUtils.isNotBlank(thumbnailUrl)) {
-                byte[] coverData = loadImage(thumbnailUrl);
-                if (coverData != null) {
-                    applyCoverImageToEpub(tempDir, opfDoc, coverData);
-                    hasChanges[0] = true;
-                }
-            }
-
-            if (hasChanges[0]) {
-                Transformer transformer = TransformerFactory.newInstance().newTransformer();
-                transformer.setOutputProperty(OutputKeys.INDENT, "yes");
-                transformer.setOutputProperty(OutputKeys.ENCODING, "UTF-8");
-                transformer.transform(new DOMSource(opfDoc), new StreamResult(opfFile));
-
-                File tempEpub = new File(epubFile.getParentFile(), epubFile.getName() + ".tmp");
-                try (ZipFile tempZipFile = new ZipFile(tempEpub)) {
-                    addFolderContentsToZip(tempZipFile, tempDir.toFile(), tempDir.toFile());
-                }
-
-                if (!epubFile.delete()) throw new IOException("Could not delete original EPUB");
-                if (!tempEpub.renameTo(epubFile)) throw new IOException("Could not rename temp EPUB");
-
+            byte[] coverData = StringUtils.isNotBlank(thumbnailUrl) ? loadImage(thumbnailUrl) : null;
+            if (rewriteEpub(epubFile, opfDoc -> applyMetadata(opfDoc, metadata, clear), coverData)) {
                 log.info("Metadata updated in EPUB: {}", epubFile.getName());
             } else {
                 log.info("No changes detected. Skipping EPUB write for: {}", epubFile.getName());
             }
         } catch (Exception e) {
             log.warn("Failed to write metadata to EPUB file {}: {}", epubFile.getName(), e.getMessage(), e);
-            if (backupFile.exists()) {
-                try {
-                    Files.copy(backupFile.toPath(), epubFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
-                    log.info("Restored EPUB from backup: {}", epubFile.getName());
-                } catch (IOException io) {
-                    log.error("Failed to restore EPUB from backup for {}: {}", epubFile.getName(), io.getMessage(), io);
+        }
+    }
+
+    private boolean applyMetadata(Document opfDoc, BookMetadataEntity metadata, MetadataClearFlags clear) {
+        NodeList metadataList = opfDoc.getElementsByTagNameNS(OPF_NS, "metadata");
+        Element metadataElement = (Element) metadataList.item(0);
+        final String DC_NS = "http://purl.org/dc/elements/1.1/";
+
+        boolean[] hasChanges = {false};
+        MetadataCopyHelper helper = new MetadataCopyHelper(metadata);
+
+        helper.copyTitle(clear != null && clear.isTitle(), val -> replaceAndTrackChange(opfDoc, metadataElement, "title", DC_NS, val, hasChanges));
+        helper.copyDescription(clear != null && clear.isDescription(), val -> replaceAndTrackChange(opfDoc, metadataElement, "description", DC_NS, val, hasChanges));
+        helper.copyPublisher(clear != null && clear.isPublisher(), val -> replaceAndTrackChange(opfDoc, metadataElement, "publisher", DC_NS, val, hasChanges));
+        helper.copyPublishedDate(clear != null && clear.isPublishedDate(), val -> replaceAndTrackChange(opfDoc, metadataElement, "date", DC_NS, val != null ? val.toString() : null, hasChanges));
+        helper.copyLanguage(clear != null && clear.isLanguage(), val -> replaceAndTrackChange(opfDoc, metadataElement, "language", DC_NS, val, hasChanges));
+
+        helper.copyAuthors(clear != null && clear.isAuthors(), names -> {
+            removeElementsByTagNameNS(metadataElement, DC_NS, "creator");
+            if (names != null) {
+                for (String name : names) {
+                    String[] parts = name.split(" ", 2);
+                    String first = parts.length > 1 ? parts[0] : "";
+                    String last = parts.length > 1 ? parts[1] : parts[0];
+                    String fileAs = last + ", " + first;
+                    metadataElement.appendChild(createCreatorElement(opfDoc, name, fileAs, "aut"));
                 }
             }
-        } finally {
-            if (tempDir != null) {
-                deleteDirectoryRecursively(tempDir);
-            }
-            if (backupFile.exists()) {
-                try {
-                    Files.delete(backupFile.toPath());
-                } catch (IOException ex) {
-                    log.warn("Failed to delete backup for {}: {}", epubFile.getName(), ex.getMessage());
+            hasChanges[0] = true;
+        });
+
+        helper.copyCategories(clear != null && clear.isCategories(), categories -> {
+            removeElementsByTagNameNS(metadataElement, DC_NS, "subject");
+            if (categories != null) {
+                for (String cat : categories.stream().map(String::trim).distinct().toList()) {
+                    metadataElement.appendChild(createSubjectElement(opfDoc, cat));
                 }
             }
+            hasChanges[0] = true;
+        });
+
+        helper.copySeriesName(clear != null && clear.isSeriesName(), val -> {
+            replaceMetaElement(metadataElement, opfDoc, "calibre:series", val, hasChanges);
+        });
+
+        helper.copySeriesNumber(clear != null && clear.isSeriesNumber(), val -> {
+            String formatted = val != null ? String.format("%.1f", val) : null;
+            replaceMetaElement(metadataElement, opfDoc, "calibre:series_index", formatted, hasChanges);
+        });
+
+        helper.copyPersonalRating(clear != null && clear.isPersonalRating(), val -> {
+            String formatted = val != null ? String.format("%.1f", val) : null;
+            replaceMetaElement(metadataElement, opfDoc, "calibre:rating", formatted, hasChanges);
+        });
+
+        List<String> schemes = List.of("AMAZON", "GOOGLE", "GOODREADS", "HARDCOVER", "ISBN");
+
+        for (String scheme : schemes) {
+
+            boolean clearFlag = clear != null && switch (scheme) {
+                case "AMAZON" -> clear.isAsin();
+                case "GOOGLE" -> clear.isGoogleId();
+                case "COMICVINE" -> clear.isComicvineId();
+                case "GOODREADS" -> clear.isGoodreadsId();
+                case "HARDCOVER" -> clear.isHardcoverId();
+                case "ISBN" -> clear.isIsbn10();
+                default -> false;
+            };
+
+            switch (scheme) {
+                case "AMAZON" -> helper.copyAsin(clearFlag, idValue -> {
+                    updateIdentifier(metadataElement, opfDoc, scheme, idValue, hasChanges);
+                });
+                case "GOOGLE" -> helper.copyGoogleId(clearFlag, idValue -> {
+                    updateIdentifier(metadataElement, opfDoc, scheme, idValue, hasChanges);
+                });
+                case "GOODREADS" -> helper.copyGoodreadsId(clearFlag, idValue -> {
+                    updateIdentifier(metadataElement, opfDoc, scheme, idValue, hasChanges);
+                });
+                case "COMICVINE" -> helper.copyComicvineId(clearFlag, idValue -> {
+                    updateIdentifier(metadataElement, opfDoc, scheme, idValue, hasChanges);
+                });
+                case "HARDCOVER" -> helper.copyHardcoverId(clearFlag, idValue -> {
+                    updateIdentifier(metadataElement, opfDoc, scheme, idValue, hasChanges);
+                });
+                case "ISBN" -> helper.copyIsbn13(clearFlag, idValue -> {
+                    updateIdentifier(metadataElement, opfDoc, scheme, idValue, hasChanges);
+                });
+            }
         }
+
+        return hasChanges[0];
     }
 
     private void updateIdentifier(Element metadataElement, Document opfDoc, String scheme, String idValue, boolean[] hasChanges) {
@@ -259,49 +201,12 @@ public class EpubMetadataWriter implements MetadataWriter {
             return;
         }
 
-        Path tempDir = null;
         try {
             File epubFile = new File(bookEntity.getFullFilePath().toUri());
-            tempDir = Files.createTempDirectory("epub_cover_" + UUID.randomUUID());
-            try (ZipFile zipFile = new ZipFile(epubFile)) {
-                zipFile.extractAll(tempDir.toString());
-            }
-
-            File opfFile = findOpfFile(tempDir.toFile());
-            if (opfFile == null) {
-                log.warn("OPF file not found in EPUB: {}", epubFile.getName());
-                return;
-            }
-
-            DocumentBuilderFactory dbf = DocumentBuilderFactory.newInstance();
-            dbf.setNamespaceAware(true);
-            DocumentBuilder builder = dbf.newDocumentBuilder();
-            Document opfDoc = builder.parse(opfFile);
-
-            byte[] coverData = multipartFile.getBytes();
-            applyCoverImageToEpub(tempDir, opfDoc, coverData);
-
-            Transformer transformer = TransformerFactory.newInstance().newTransformer();
-            transformer.setOutputProperty(OutputKeys.INDENT, "yes");
-            transformer.setOutputProperty(OutputKeys.ENCODING, "UTF-8");
-            transformer.transform(new DOMSource(opfDoc), new StreamResult(opfFile));
-
-            File tempEpub = new File(epubFile.getParentFile(), epubFile.getName() + ".tmp");
-            try (ZipFile tempZipFile = new ZipFile(tempEpub)) {
-                addFolderContentsToZip(tempZipFile, tempDir.toFile(), tempDir.toFile());
-            }
-
-            if (!epubFile.delete()) throw new IOException("Could not delete original EPUB");
-            if (!tempEpub.renameTo(epubFile)) throw new IOException("Could not rename temp EPUB");
-
+            rewriteEpub(epubFile, opfDoc -> false, multipartFile.getBytes());
             log.info("Cover image updated in EPUB: {}", epubFile.getName());
-
         } catch (Exception e) {
             log.warn("Failed to update EPUB with uploaded cover image: {}", e.getMessage(), e);
-        } finally {
-            if (tempDir != null) {
-                deleteDirectoryRecursively(tempDir);
-            }
         }
     }
 
@@ -311,53 +216,18 @@ public class EpubMetadataWriter implements MetadataWriter {
             log.warn("Cover update via URL failed: empty or null URL.");
             return;
         }
-        Path tempDir = null;
         try {
             File epubFile = new File(bookEntity.getFullFilePath().toUri());
-            tempDir = Files.createTempDirectory("epub_cover_url_" + UUID.randomUUID());
-            try (ZipFile zipFile = new ZipFile(epubFile)) {
-                zipFile.extractAll(tempDir.toString());
-            }
-
-            File opfFile = findOpfFile(tempDir.toFile());
-            if (opfFile == null) {
-                log.warn("OPF file not found in EPUB: {}", epubFile.getName());
-                return;
-            }
-
-            DocumentBuilderFactory dbf = DocumentBuilderFactory.newInstance();
-            dbf.setNamespaceAware(true);
-            DocumentBuilder builder = dbf.newDocumentBuilder();
-            Document opfDoc = builder.parse(opfFile);
-
             byte[] coverData = loadImage(url);
             if (coverData == null) {
                 log.warn("Failed to load image from URL: {}", url);
                 return;
             }
 
-            applyCoverImageToEpub(tempDir, opfDoc, coverData);
-
-            Transformer transformer = TransformerFactory.newInstance().newTransformer();
-            transformer.setOutputProperty(OutputKeys.INDENT, "yes");
-            transformer.setOutputProperty(OutputKeys.ENCODING, "UTF-8");
-            transformer.transform(new DOMSource(opfDoc), new StreamResult(opfFile));
-
-            File tempEpub = new File(epubFile.getParentFile(), epubFile.getName() + ".tmp");
-            try (ZipFile tempZipFile = new ZipFile(tempEpub)) {
-                addFolderContentsToZip(tempZipFile, tempDir.toFile(), tempDir.toFile());
-            }
-
-            if (!epubFile.delete()) throw new IOException("Could not delete original EPUB");
-            if (!tempEpub.renameTo(epubFile)) throw new IOException("Could not rename temp EPUB");
-
+            rewriteEpub(epubFile, opfDoc -> false, coverData);
             log.info("Cover image updated in EPUB via URL: {}", epubFile.getName());
         } catch (Exception e) {
             log.warn("Failed to update EPUB with cover from URL: {}", e.getMessage(), e);
-        } finally {
-            if (tempDir != null) {
-                deleteDirectoryRecursively(tempDir);
-            }
         }
     }
 
@@ -366,7 +236,58 @@ public class EpubMetadataWriter implements MetadataWriter {
         return BookFileType.EPUB;
     }
 
-    private void applyCoverImageToEpub(Path tempDir, Document opfDoc, byte[] coverData) throws IOException {
+    /**
+     * Streams the EPUB into a sibling temp file and swaps it in atomically. Every entry except the OPF and the
+     * cover image is copied raw, without inflating or recompressing it, so the cost is one sequential copy of
+     * the archive regardless of how many images it holds.
+     *
+     * @return false when the OPF was left unchanged and no cover was given, in which case nothing is written
+     */
+    private boolean rewriteEpub(File epubFile, OpfEditor opfEditor, byte[] coverData) throws Exception {
+        Path target = epubFile.toPath();
+        Path tempEpub = target.resolveSibling(epubFile.getName() + ".tmp");
+        try (ZipFile zip = ZipFile.builder().setFile(epubFile).get()) {
+            String opfPath = findOpfPath(zip);
+            Document opfDoc = parseXml(zip, zip.getEntry(opfPath));
+
+            boolean changed = opfEditor.apply(opfDoc);
+            String coverPath = null;
+            if (coverData != null) {
+                coverPath = resolveEntryName(opfPath, findCoverHref(opfDoc));
+                changed = true;
+            }
+            if (!changed) {
+                return false;
+            }
+
+            byte[] opfData = serializeXml(opfDoc);
+            boolean coverWritten = false;
+            try (ZipArchiveOutputStream out = new ZipArchiveOutputStream(tempEpub)) {
+                Enumeration<ZipArchiveEntry> entries = zip.getEntriesInPhysicalOrder();
+                while (entries.hasMoreElements()) {
+                    ZipArchiveEntry entry = entries.nextElement();
+                    if (entry.getName().equals(opfPath)) {
+                        writeEntry(out, opfPath, opfData);
+                    } else if (entry.getName().equals(coverPath)) {
+                        writeEntry(out, coverPath, coverData);
+                        coverWritten = true;
+                    } else {
+                        out.addRawArchiveEntry(entry, zip.getRawInputStream(entry));
+                    }
+                }
+                if (coverPath != null && !coverWritten) {
+                    writeEntry(out, coverPath, coverData);
+                }
+            }
+        } catch (Exception e) {
+            Files.deleteIfExists(tempEpub);
+            throw e;
+        }
+        atomicReplace(tempEpub, target);
+        return true;
+    }
+
+    private String findCoverHref(Document opfDoc) throws IOException {
         NodeList manifestList = opfDoc.getElementsByTagNameNS(OPF_NS, "manifest");
         if (manifestList.getLength() == 0) {
             throw new IOException("No <manifest> element found in OPF document.");
@@ -429,50 +350,82 @@ public class EpubMetadataWriter implements MetadataWriter {
             throw new IOException("Cover item has no href attribute");
         }
 
-        Path opfPath;
-        try {
-            opfPath = findOpfPath(tempDir);
-        } catch (ParserConfigurationException | SAXException e) {
-            throw new IOException("Failed to parse container.xml to locate OPF path", e);
-        }
+        return coverHref;
+    }
 
-        Path opfDir = opfPath.getParent();
-        Path coverFilePath = opfDir.resolve(coverHref).normalize();
+    private String findOpfPath(ZipFile zip) throws IOException, ParserConfigurationException, SAXException {
+        ZipArchiveEntry containerXml = zip.getEntry("META-INF/container.xml");
+        if (containerXml != null) {
+            Node rootfile = parseXml(zip, containerXml).getElementsByTagNameNS("*", "rootfile").item(0);
+            if (rootfile != null) {
+                String opfPath = ((Element) rootfile).getAttribute("full-path");
+                if (!opfPath.isBlank() && zip.getEntry(opfPath) != null) {
+                    return opfPath;
+                }
+            }
+        }
 
-        Files.createDirectories(coverFilePath.getParent());
-        Files.write(coverFilePath, coverData);
+        Enumeration<ZipArchiveEntry> entries = zip.getEntries();
+        while (entries.hasMoreElements()) {
+            ZipArchiveEntry entry = entries.nextElement();
+            if (!entry.isDirectory() && entry.getName().endsWith(".opf")) {
+                return entry.getName();
+            }
+        }
+        throw new IOException("Could not locate OPF file in EPUB");
     }
 
-    private Path findOpfPath(Path tempDir) throws IOException, ParserConfigurationException, SAXException {
-        Path containerXml = tempDir.resolve("META-INF/container.xml");
-        if (!Files.exists(containerXml)) {
-            throw new IOException("container.xml not found at expected location: " + containerXml);
+    private String resolveEntryName(String opfPath, String href) {
+        int slash = opfPath.lastIndexOf('/');
+        String relative = (slash >= 0 ? opfPath.substring(0, slash + 1) : "") + href;
+        Deque<String> parts = new ArrayDeque<>();
+        for (String part : relative.split("/")) {
+            if (part.isEmpty() || part.equals(".")) continue;
+            if (part.equals("..")) {
+                parts.pollLast();
+            } else {
+                parts.addLast(part);
+            }
         }
+        return String.join("/", parts);
+    }
 
-        Document containerDoc = DocumentBuilderFactory.newInstance().newDocumentBuilder().parse(containerXml.toFile());
-        Node rootfile = containerDoc.getElementsByTagName("rootfile").item(0);
-        if (rootfile == null) {
-            throw new IOException("No <rootfile> found in container.xml");
+    private Document parseXml(ZipFile zip, ZipArchiveEntry entry) throws IOException, ParserConfigurationException, SAXException {
+        DocumentBuilderFactory dbf = DocumentBuilderFactory.newInstance();
+        dbf.setNamespaceAware(true);
+        try (InputStream in = zip.getInputStream(entry)) {
+            return dbf.newDocumentBuilder().parse(in);
         }
+    }
 
-        String opfPath = ((Element) rootfile).getAttribute("full-path");
-        if (opfPath.isBlank()) {
-            throw new IOException("Missing or empty 'full-path' attribute in <rootfile>");
-        }
+    private byte[] serializeXml(Document doc) throws TransformerException {
+        Transformer transformer = TransformerFactory.newInstance().newTransformer();
+        transformer.setOutputProperty(OutputKeys.INDENT, "yes");
+        transformer.setOutputProperty(OutputKeys.ENCODING, "UTF-8");
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        transformer.transform(new DOMSource(doc), new StreamResult(out));
+        return out.toByteArray();
+    }
 
-        return tempDir.resolve(opfPath).normalize();
+    private void writeEntry(ZipArchiveOutputStream out, String name, byte[] data) throws IOException {
+        ZipArchiveEntry entry = new ZipArchiveEntry(name);
+        entry.setMethod(ZipEntry.DEFLATED);
+        out.putArchiveEntry(entry);
+        out.write(data);
+        out.closeArchiveEntry();
     }
 
-    private File findOpfFile(File rootDir) {
-        File[] matches = rootDir.listFiles(path -> path.isFile() && path.getName().endsWith(".opf"));
-        if (matches != null && matches.length > 0) return matches[0];
-        for (File file : Objects.requireNonNull(rootDir.listFiles())) {
-            if (file.isDirectory()) {
-                File child = findOpfFile(file);
-                if (child != null) return child;
-            }
+    private static void atomicReplace(Path temp, Path target) throws IOException {
+        try {
+            Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
         }
-        return null;
+    }
+
+    @FunctionalInterface
+    private interface OpfEditor {
+        boolean apply(Document opfDoc) throws IOException;
     }
 
     private byte[] loadImage(String pathOrUrl) {
@@ -484,19 +437,6 @@ public class EpubMetadataWriter implements MetadataWriter {
         }
     }
 
-    private void addFolderContentsToZip(ZipFile zipFile, File baseDir, File currentDir) throws IOException {
-        File[] files = Objects.requireNonNull(currentDir.listFiles());
-        for (File file : files) {
-            if (file.isDirectory()) {
-                addFolderContentsToZip(zipFile, baseDir, file);
-            } else {
-                ZipParameters params = new ZipParameters();
-                params.setFileNameInZip(baseDir.toPath().relativize(file.toPath()).toString().replace(File.separatorChar, '/'));
-                zipFile.addFile(file, params);
-            }
-        }
-    }
-
     private void removeMetaByName(Element metadataElement, String name) {
         NodeList metas = metadataElement.getElementsByTagNameNS("*", "meta");
         for (int i = metas.getLength() - 1; i >= 0; i--) {
@@ -569,20 +509,4 @@ public class EpubMetadataWriter implements MetadataWriter {
         }
         return null;
     }
-
-    private void deleteDirectoryRecursively(Path dir) {
-        try (var pathStream = Files.walk(dir)) {
-            pathStream
-                    .sorted(Comparator.reverseOrder())
-                    .forEach(path -> {
-                        try {
-                            Files.delete(path);
-                        } catch (IOException e) {
-                            log.warn("Failed to delete temp file/directory: {}", path, e);
-                        }
-                    });
-        } catch (IOException e) {
-            log.warn("Failed to clean up temporary directory: {}", dir, e);
-        }
-    }
 }
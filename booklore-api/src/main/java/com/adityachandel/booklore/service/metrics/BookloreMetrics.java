@@ -0,0 +1,90 @@
+package com.adityachandel.booklore.service.metrics;
+
+import com.adityachandel.booklore.model.enums.BookFileType;
+import com.adityachandel.booklore.model.enums.MetadataProvider;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Meters for the stages that dominate import, reading and metadata fetching. Every recorder takes the
+ * {@link System#nanoTime()} captured when the measured work started, so call sites only need one extra line
+ * before and after the work. Timers publish histograms (see management.metrics in application.yaml), and the
+ * Prometheus endpoint exposes them as {@code booklore_*}.
+ */
+@Component
+@RequiredArgsConstructor
+public class BookloreMetrics {
+
+    public static final String SCAN_STAGE = "booklore.scan.stage";
+    public static final String FILE_PROCESS = "booklore.file.process";
+    public static final String READER_CACHE = "booklore.reader.cache";
+    public static final String PROVIDER_REQUEST = "booklore.provider.request";
+    public static final String KEPUB_CONVERSION = "booklore.kepub.conversion";
+    public static final String QUEUE_DEPTH = "booklore.queue.depth";
+
+    private final MeterRegistry registry;
+
+    public void recordScanStage(long libraryId, String stage, long startNanos) {
+        Timer.builder(SCAN_STAGE)
+                .description("Time spent in one stage of a library scan or rescan")
+                .tag("library", String.valueOf(libraryId))
+                .tag("stage", stage)
+                .register(registry)
+                .record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void recordFileProcessed(Long libraryId, BookFileType fileType, String outcome, long startNanos) {
+        Timer.builder(FILE_PROCESS)
+                .description("Time to fingerprint, deduplicate and import a single book file")
+                .tag("library", String.valueOf(libraryId))
+                .tag("file_type", fileType != null ? fileType.name() : "UNKNOWN")
+                .tag("outcome", outcome)
+                .register(registry)
+                .record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void recordReaderCache(String reader, boolean hit) {
+        Counter.builder(READER_CACHE)
+                .description("Reader page cache lookups; hit ratio is hit / (hit + miss)")
+                .tag("reader", reader)
+                .tag("result", hit ? "hit" : "miss")
+                .register(registry)
+                .increment();
+    }
+
+    public void recordProviderRequest(MetadataProvider provider, String operation, boolean success, long startNanos) {
+        Timer.builder(PROVIDER_REQUEST)
+                .description("Latency of metadata provider lookups")
+                .tag("provider", provider.name())
+                .tag("operation", operation)
+                .tag("outcome", success ? "success" : "error")
+                .register(registry)
+                .record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void recordKepubConversion(boolean success, long startNanos) {
+        Timer.builder(KEPUB_CONVERSION)
+                .description("Duration of kepubify runs")
+                .tag("outcome", success ? "success" : "error")
+                .register(registry)
+                .record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Registers a gauge sampling the depth of a work queue at scrape time. The gauge holds only a weak
+     * reference to {@code owner}, so it must be a long-lived object such as the owning service.
+     */
+    public <T> void registerQueueDepth(String queue, T owner, ToDoubleFunction<T> depth) {
+        Gauge.builder(QUEUE_DEPTH, owner, depth)
+                .description("Items waiting in an internal work queue")
+                .tag("queue", queue)
+                .register(registry);
+    }
+}
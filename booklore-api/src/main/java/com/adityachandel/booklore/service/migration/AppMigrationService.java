@@ -3,186 +3,264 @@ package com.adityachandel.booklore.service.migration;
 import com.adityachandel.booklore.config.AppProperties;
 import com.adityachandel.booklore.model.entity.AppMigrationEntity;
 import com.adityachandel.booklore.model.entity.BookEntity;
+import com.adityachandel.booklore.model.enums.TaskType;
+import com.adityachandel.booklore.model.websocket.TaskProgressPayload;
+import com.adityachandel.booklore.model.websocket.Topic;
 import com.adityachandel.booklore.repository.AppMigrationRepository;
 import com.adityachandel.booklore.repository.BookRepository;
-import com.adityachandel.booklore.service.book.BookQueryService;
+import com.adityachandel.booklore.service.NotificationService;
 import com.adityachandel.booklore.service.file.FileFingerprint;
 import com.adityachandel.booklore.service.metadata.MetadataMatchService;
+import com.adityachandel.booklore.task.TaskStatus;
 import com.adityachandel.booklore.util.FileService;
 import com.adityachandel.booklore.util.FileUtils;
-import jakarta.transaction.Transactional;
-import lombok.AllArgsConstructor;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
 
 import javax.imageio.ImageIO;
 import java.awt.image.BufferedImage;
-import java.io.File;
 import java.io.IOException;
 import java.io.UncheckedIOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.time.LocalDateTime;
-import java.util.Comparator;
-import java.util.List;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+
+import static com.adityachandel.booklore.model.enums.PermissionType.ADMIN;
 
 @Slf4j
-@AllArgsConstructor
+@RequiredArgsConstructor
 @Service
 public class AppMigrationService {
 
-    private AppMigrationRepository migrationRepository;
-    private BookRepository bookRepository;
-    private BookQueryService bookQueryService;
-    private MetadataMatchService metadataMatchService;
-    private AppProperties appProperties;
-    private FileService fileService;
+    private static final int FILE_PARALLELISM = Math.max(2, Math.min(8, Runtime.getRuntime().availableProcessors()));
 
-    @Transactional
-    public void populateMissingFileSizesOnce() {
-        if (migrationRepository.existsById("populateFileSizes")) {
-            return;
-        }
+    private final AppMigrationRepository migrationRepository;
+    private final BookRepository bookRepository;
+    private final MetadataMatchService metadataMatchService;
+    private final AppProperties appProperties;
+    private final FileService fileService;
+    private final ChunkedMigrationRunner migrationRunner;
+    private final NotificationService notificationService;
 
-        List<BookEntity> books = bookRepository.findAllWithMetadataByFileSizeKbIsNull();
-        for (BookEntity book : books) {
-            Long sizeInKb = FileUtils.getFileSizeInKb(book);
-            if (sizeInKb != null) {
-                book.setFileSizeKb(sizeInKb);
-            }
-        }
-        bookRepository.saveAll(books);
-
-        log.info("Starting migration 'populateFileSizes' for {} books.", books.size());
-        AppMigrationEntity migration = new AppMigrationEntity();
-        migration.setKey("populateFileSizes");
-        migration.setExecutedAt(LocalDateTime.now());
-        migration.setDescription("Populate file size for existing books");
-        migrationRepository.save(migration);
-        log.info("Migration 'populateFileSizes' executed successfully.");
-    }
+    private final ExecutorService fileWorkers = Executors.newFixedThreadPool(FILE_PARALLELISM, Thread.ofVirtual().name("app-migration-", 0).factory());
 
-    @Transactional
-    public void populateMetadataScoresOnce() {
-        if (migrationRepository.existsById("populateMetadataScores_v2")) return;
+    @PreDestroy
+    public void shutdown() {
+        fileWorkers.shutdownNow();
+    }
 
-        List<BookEntity> books = bookQueryService.getAllFullBookEntities();
-        for (BookEntity book : books) {
-            Float score = metadataMatchService.calculateMatchScore(book);
-            book.setMetadataMatchScore(score);
+    /**
+     * Runs the migrations that have to read every book file. They are resumable, so they run after startup
+     * instead of delaying it, and report their progress as task notifications.
+     */
+    @Async
+    public void runFileMigrationsInBackground() {
+        try {
+            populateMissingFileSizesOnce();
+            populateFileHashesOnce();
+            populateCoversAndResizeThumbnails();
+        } catch (Exception e) {
+            log.error("Background data migration stopped, it will resume on the next start", e);
         }
-        bookRepository.saveAll(books);
-
-        log.info("Migration 'populateMetadataScores_v2' applied to {} books.", books.size());
-        migrationRepository.save(new AppMigrationEntity("populateMetadataScores_v2", LocalDateTime.now(), "Calculate and store metadata match score for all books"));
     }
 
-    @Transactional
-    public void populateFileHashesOnce() {
-        if (migrationRepository.existsById("populateFileHashesV2")) return;
-
-        List<BookEntity> books = bookRepository.findAll();
-        int updated = 0;
+    public void populateMissingFileSizesOnce() {
+        runFileMigration("populateFileSizes", "Populate file size for existing books",
+                new ChunkedMigrationRunner.IdSource(bookRepository::findIdsWithoutFileSizeAfter, bookRepository::countIdsWithoutFileSizeAfter),
+                FileUtils::getFileSizeInKb, BookEntity::setFileSizeKb);
+    }
 
-        for (BookEntity book : books) {
-            Path path = book.getFullFilePath();
-            if (path == null || !Files.exists(path)) {
-                log.warn("Skipping hashing for book ID {} — file not found at path: {}", book.getId(), path);
-                continue;
-            }
+    public void populateMetadataPresenceOnce() {
+        migrationRunner.run("populateMetadataPresence", "Store metadata presence bits and match score for all books",
+                new ChunkedMigrationRunner.IdSource(bookRepository::findIdsWithoutMetadataPresenceAfter, bookRepository::countIdsWithoutMetadataPresenceAfter),
+                bookIds -> {
+                    List<BookEntity> books = bookRepository.findAllFullBooksByIds(bookIds);
+                    for (BookEntity book : books) {
+                        metadataMatchService.updateMatchScore(book);
+                    }
+                    bookRepository.saveAll(books);
+                },
+                (processed, total) -> log.debug("Metadata presence stored for {} of {} books", processed, total));
+    }
 
+    public void populateFileHashesOnce() {
+        runFileMigration("populateFileHashesV2", "Calculate and store initialHash and currentHash for all books",
+                new ChunkedMigrationRunner.IdSource(bookRepository::findIdsAfter, bookRepository::countIdsAfter), path -> {
             try {
-                String hash = FileFingerprint.generateHash(path);
-                if (book.getInitialHash() == null) {
-                    book.setInitialHash(hash);
-                }
-                book.setCurrentHash(hash);
-                updated++;
+                return FileFingerprint.generateHash(path);
             } catch (Exception e) {
                 log.error("Failed to compute hash for file: {}", path, e);
+                return null;
             }
-        }
-
-        bookRepository.saveAll(books);
-
-        log.info("Migration 'populateFileHashesV2' applied to {} books.", updated);
-        migrationRepository.save(new AppMigrationEntity(
-                "populateFileHashesV2",
-                LocalDateTime.now(),
-                "Calculate and store initialHash and currentHash for all books"
-        ));
+        }, (book, hash) -> {
+            if (book.getInitialHash() == null) {
+                book.setInitialHash(hash);
+            }
+            book.setCurrentHash(hash);
+        });
     }
 
-    @Transactional
     public void populateCoversAndResizeThumbnails() {
-        if (migrationRepository.existsById("populateCoversAndResizeThumbnails")) return;
+        String key = "populateCoversAndResizeThumbnails";
+        if (migrationRunner.isCompleted(key)) return;
 
         long start = System.nanoTime();
-        log.info("Starting migration: populateCoversAndResizeThumbnails");
+        log.info("Starting migration: {}", key);
 
         String dataFolder = appProperties.getPathConfig();
         Path thumbsDir = Paths.get(dataFolder, "thumbs");
         Path imagesDir = Paths.get(dataFolder, "images");
 
-        try {
-            if (Files.exists(thumbsDir)) {
-                try (var stream = Files.walk(thumbsDir)) {
-                    stream.filter(Files::isRegularFile)
-                            .forEach(path -> {
-                                try {
-                                    // Load original image
-                                    BufferedImage originalImage = ImageIO.read(path.toFile());
-                                    if (originalImage == null) {
-                                        log.warn("Skipping non-image file: {}", path);
-                                        return;
-                                    }
-
-                                    // Extract bookId from folder structure
-                                    Path relative = thumbsDir.relativize(path);       // e.g., "11/f.jpg"
-                                    String bookId = relative.getParent().toString();  // "11"
-
-                                    Path bookDir = imagesDir.resolve(bookId);
-                                    Files.createDirectories(bookDir);
-
-                                    // Copy original to cover.jpg
-                                    Path coverFile = bookDir.resolve("cover.jpg");
-                                    ImageIO.write(originalImage, "jpg", coverFile.toFile());
-
-                                    // Resize and save thumbnail.jpg
-                                    BufferedImage resized = fileService.resizeImage(originalImage, 250, 350);
-                                    Path thumbnailFile = bookDir.resolve("thumbnail.jpg");
-                                    ImageIO.write(resized, "jpg", thumbnailFile.toFile());
-
-                                    log.debug("Processed book {}: cover={} thumbnail={}", bookId, coverFile, thumbnailFile);
-                                } catch (IOException e) {
-                                    log.error("Error processing file {}", path, e);
-                                    throw new UncheckedIOException(e);
-                                }
-                            });
-                }
-
-                // Delete old thumbs directory
-                log.info("Deleting old thumbs directory: {}", thumbsDir);
-                try (var stream = Files.walk(thumbsDir)) {
-                    stream.sorted(Comparator.reverseOrder())
-                            .map(Path::toFile)
-                            .forEach(File::delete);
-                }
+        if (Files.exists(thumbsDir)) {
+            List<Path> bookDirs;
+            try (var stream = Files.list(thumbsDir)) {
+                bookDirs = stream.filter(Files::isDirectory).toList();
+            } catch (IOException e) {
+                log.error("Error during migration {}", key, e);
+                throw new UncheckedIOException(e);
+            }
+
+            // Each book folder is removed once it is converted, so an interrupted run only redoes what is left.
+            AtomicInteger done = new AtomicInteger();
+            AtomicInteger failed = new AtomicInteger();
+            List<CompletableFuture<Void>> futures = bookDirs.stream()
+                    .map(bookDir -> CompletableFuture.runAsync(() -> {
+                        try {
+                            convertThumbnails(bookDir, imagesDir.resolve(bookDir.getFileName().toString()));
+                            FileUtils.deleteDirectoryRecursively(bookDir);
+                        } catch (IOException | RuntimeException e) {
+                            log.error("Error processing thumbnails in {}", bookDir, e);
+                            failed.incrementAndGet();
+                        }
+                        int count = done.incrementAndGet();
+                        if (count % ChunkedMigrationRunner.CHUNK_SIZE == 0) {
+                            sendProgress(key, count, bookDirs.size(), TaskStatus.IN_PROGRESS);
+                        }
+                    }, fileWorkers))
+                    .toList();
+            CompletableFuture.allOf(futures.toArray(CompletableFuture[]::new)).join();
+
+            if (failed.get() > 0) {
+                sendProgress(key, done.get(), bookDirs.size(), TaskStatus.FAILED);
+                throw new IllegalStateException(failed.get() + " thumbnail folders could not be migrated");
             }
-        } catch (IOException e) {
-            log.error("Error during migration populateCoversAndResizeThumbnails", e);
-            throw new UncheckedIOException(e);
+
+            log.info("Deleting old thumbs directory: {}", thumbsDir);
+            try {
+                FileUtils.deleteDirectoryRecursively(thumbsDir);
+            } catch (IOException e) {
+                log.warn("Could not delete old thumbs directory {}: {}", thumbsDir, e.getMessage());
+            }
+            sendProgress(key, bookDirs.size(), bookDirs.size(), TaskStatus.COMPLETED);
         }
 
         migrationRepository.save(new AppMigrationEntity(
-                "populateCoversAndResizeThumbnails",
+                key,
                 LocalDateTime.now(),
                 "Copy thumbnails to images/{bookId}/cover.jpg and create resized 250x350 images as thumbnail.jpg"
         ));
 
         long elapsedMs = (System.nanoTime() - start) / 1_000_000;
-        log.info("Completed migration: populateCoversAndResizeThumbnails in {} ms", elapsedMs);
+        log.info("Completed migration: {} in {} ms", key, elapsedMs);
+    }
+
+    private void convertThumbnails(Path bookThumbsDir, Path bookImagesDir) throws IOException {
+        List<Path> files;
+        try (var stream = Files.list(bookThumbsDir)) {
+            files = stream.filter(Files::isRegularFile).toList();
+        }
+        for (Path path : files) {
+            BufferedImage originalImage = ImageIO.read(path.toFile());
+            if (originalImage == null) {
+                log.warn("Skipping non-image file: {}", path);
+                continue;
+            }
+
+            Files.createDirectories(bookImagesDir);
+
+            Path coverFile = bookImagesDir.resolve("cover.jpg");
+            ImageIO.write(originalImage, "jpg", coverFile.toFile());
+
+            BufferedImage resized = fileService.resizeImage(originalImage, 250, 350);
+            Path thumbnailFile = bookImagesDir.resolve("thumbnail.jpg");
+            ImageIO.write(resized, "jpg", thumbnailFile.toFile());
+
+            log.debug("Processed book {}: cover={} thumbnail={}", bookImagesDir.getFileName(), coverFile, thumbnailFile);
+        }
     }
 
+    /**
+     * Reads a value from each book's file on the worker pool and stores it on the book. Books whose file is
+     * missing or whose value cannot be read are left unchanged.
+     */
+    private <T> void runFileMigration(String key, String description, ChunkedMigrationRunner.IdSource ids,
+                                      Function<Path, T> readFile, BiConsumer<BookEntity, T> apply) {
+        if (migrationRunner.isCompleted(key)) return;
+        try {
+            migrationRunner.run(key, description, ids, bookIds -> {
+                        List<BookEntity> books = bookRepository.findAllWithLibraryPathByIdIn(bookIds);
+                        Map<BookEntity, CompletableFuture<T>> results = new LinkedHashMap<>();
+                        for (BookEntity book : books) {
+                            Path path = filePathOf(book);
+                            if (path == null || !Files.exists(path)) {
+                                log.warn("Skipping book ID {} in migration '{}' — file not found at path: {}", book.getId(), key, path);
+                                continue;
+                            }
+                            results.put(book, CompletableFuture.supplyAsync(() -> readFile.apply(path), fileWorkers));
+                        }
+                        results.forEach((book, result) -> {
+                            T value = result.join();
+                            if (value != null) {
+                                apply.accept(book, value);
+                            }
+                        });
+                        bookRepository.saveAll(books);
+                    },
+                    (processed, total) -> sendProgress(key, processed, total, TaskStatus.IN_PROGRESS));
+            sendProgress(key, 1, 1, TaskStatus.COMPLETED);
+        } catch (RuntimeException e) {
+            sendProgress(key, 0, 1, TaskStatus.FAILED);
+            throw e;
+        }
+    }
+
+    private static Path filePathOf(BookEntity book) {
+        try {
+            return book.getFullFilePath();
+        } catch (IllegalStateException e) {
+            return null;
+        }
+    }
+
+    private void sendProgress(String key, long processed, long total, TaskStatus status) {
+        try {
+            int progress = total == 0 ? 100 : (int) Math.min(100, processed * 100 / total);
+            String message = switch (status) {
+                case COMPLETED -> "Data migration '" + key + "' completed";
+                case FAILED -> "Data migration '" + key + "' failed, it will resume on the next start";
+                default -> String.format("Data migration '%s': %d of %d books", key, processed, total);
+            };
+            TaskProgressPayload payload = TaskProgressPayload.builder()
+                    .taskId(key)
+                    .taskType(TaskType.APP_MIGRATION)
+                    .message(message)
+                    .progress(progress)
+                    .taskStatus(status)
+                    .build();
+            notificationService.sendMessageToPermissions(Topic.TASK_PROGRESS, payload, Set.of(ADMIN));
+        } catch (Exception e) {
+            log.error("Failed to send migration progress for {}: {}", key, e.getMessage(), e);
+        }
+    }
 }
@@ -13,9 +13,7 @@ public class AppMigrationStartup {
 
     @EventListener(ApplicationReadyEvent.class)
     public void runMigrationsOnce() {
-        appMigrationService.populateMissingFileSizesOnce();
-        appMigrationService.populateMetadataScoresOnce();
-        appMigrationService.populateFileHashesOnce();
-        appMigrationService.populateCoversAndResizeThumbnails();
+        appMigrationService.populateMetadataPresenceOnce();
+        appMigrationService.runFileMigrationsInBackground();
     }
 }
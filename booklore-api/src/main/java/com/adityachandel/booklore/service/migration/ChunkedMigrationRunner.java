@@ -0,0 +1,105 @@
+package com.adityachandel.booklore.service.migration;
+
+import com.adityachandel.booklore.model.entity.AppMigrationEntity;
+import com.adityachandel.booklore.repository.AppMigrationRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.function.BiFunction;
+import java.util.function.LongUnaryOperator;
+
+/**
+ * Runs a one-time migration over books in id order, a fixed number of books at a time. Each chunk is handled
+ * in its own transaction that also stores the id of its last book in {@code app_migration}, so a migration
+ * interrupted by a restart continues after the last committed chunk instead of starting over.
+ */
+@Slf4j
+@Component
+public class ChunkedMigrationRunner {
+
+    static final int CHUNK_SIZE = 200;
+
+    private final AppMigrationRepository migrationRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    public ChunkedMigrationRunner(AppMigrationRepository migrationRepository, PlatformTransactionManager transactionManager) {
+        this.migrationRepository = migrationRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * @param idsAfter   returns ids greater than the given one in ascending order, at most a page of them
+     * @param countAfter counts the ids greater than the given one, for progress reporting
+     */
+    public record IdSource(BiFunction<Long, Pageable, List<Long>> idsAfter, LongUnaryOperator countAfter) {
+    }
+
+    @FunctionalInterface
+    public interface ChunkHandler {
+        /** Migrates the books with the given ids; called inside the chunk's transaction. */
+        void handle(List<Long> bookIds);
+    }
+
+    @FunctionalInterface
+    public interface ProgressListener {
+        void onProgress(long processed, long total);
+    }
+
+    public boolean isCompleted(String key) {
+        return migrationRepository.findById(key).map(AppMigrationEntity::isCompleted).orElse(false);
+    }
+
+    /**
+     * Runs the migration unless it has already completed. Throws if a chunk fails; the chunks committed
+     * before it are kept and the next run resumes from there.
+     */
+    public void run(String key, String description, IdSource ids, ChunkHandler handler, ProgressListener listener) {
+        AppMigrationEntity state = migrationRepository.findById(key).orElse(null);
+        if (state != null && state.isCompleted()) {
+            return;
+        }
+
+        long cursor = state != null && state.getLastProcessedId() != null ? state.getLastProcessedId() : 0L;
+        long processed = state != null ? state.getProcessedCount() : 0L;
+        long total = processed + ids.countAfter().applyAsLong(cursor);
+        if (cursor > 0) {
+            log.info("Resuming migration '{}' after book id {} ({} of {} books done).", key, cursor, processed, total);
+        } else {
+            log.info("Starting migration '{}' for {} books.", key, total);
+        }
+
+        long start = System.nanoTime();
+        Pageable chunk = PageRequest.of(0, CHUNK_SIZE);
+        while (true) {
+            List<Long> chunkIds = ids.idsAfter().apply(cursor, chunk);
+            if (chunkIds.isEmpty()) {
+                break;
+            }
+            long lastId = chunkIds.getLast();
+            long processedAfter = processed + chunkIds.size();
+            transactionTemplate.executeWithoutResult(status -> {
+                handler.handle(chunkIds);
+                migrationRepository.save(progressEntity(key, description, lastId, processedAfter, null));
+            });
+            cursor = lastId;
+            processed = processedAfter;
+            listener.onProgress(processed, Math.max(total, processed));
+        }
+
+        migrationRepository.save(progressEntity(key, description, cursor, processed, LocalDateTime.now()));
+        log.info("Migration '{}' applied to {} books in {} ms.", key, processed, (System.nanoTime() - start) / 1_000_000);
+    }
+
+    private static AppMigrationEntity progressEntity(String key, String description, Long lastProcessedId, long processed, LocalDateTime completedAt) {
+        AppMigrationEntity entity = new AppMigrationEntity(key, completedAt, description);
+        entity.setLastProcessedId(lastProcessedId);
+        entity.setProcessedCount(processed);
+        return entity;
+    }
+}
@@ -0,0 +1,67 @@
+package com.adityachandel.booklore.service.monitoring;
+
+import org.springframework.stereotype.Component;
+
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongSupplier;
+
+/**
+ * Paths Booklore is about to change itself, such as the source and target of a file move. The watcher drops
+ * events for these paths, and directory events for their parent folders, for a short while instead of the
+ * library being unregistered and walked again around every operation.
+ */
+@Component
+public class ExpectedChangeLedger {
+
+    static final long EXPECTATION_TTL_MS = 30_000L;
+
+    private final Map<Path, Long> expiryByPath = new ConcurrentHashMap<>();
+    private final LongSupplier clock;
+
+    public ExpectedChangeLedger() {
+        this(System::currentTimeMillis);
+    }
+
+    ExpectedChangeLedger(LongSupplier clock) {
+        this.clock = clock;
+    }
+
+    public void expect(Path... paths) {
+        long now = clock.getAsLong();
+        expiryByPath.values().removeIf(expiry -> expiry <= now);
+        for (Path path : paths) {
+            expiryByPath.put(normalize(path), now + EXPECTATION_TTL_MS);
+        }
+    }
+
+    /**
+     * @param directory whether the event is for a directory; those also match when they contain an expected
+     *                  path, which covers folders created for a move target or removed after a move source
+     */
+    public boolean isExpected(Path path, boolean directory) {
+        if (expiryByPath.isEmpty()) {
+            return false;
+        }
+        long now = clock.getAsLong();
+        Path normalized = normalize(path);
+        Long expiry = expiryByPath.get(normalized);
+        if (expiry != null && expiry > now) {
+            return true;
+        }
+        if (!directory) {
+            return false;
+        }
+        for (Map.Entry<Path, Long> entry : expiryByPath.entrySet()) {
+            if (entry.getValue() > now && entry.getKey().startsWith(normalized)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static Path normalize(Path path) {
+        return path.toAbsolutePath().normalize();
+    }
+}
@@ -0,0 +1,107 @@
+package com.adityachandel.booklore.service.monitoring;
+
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.util.*;
+
+/**
+ * Collapses bursts of watch events into one pending change per path and library, and only releases a
+ * change once its path has been quiet for the configured period. A file being copied produces a CREATE
+ * followed by many MODIFY events; it is released once, after the copy settles. A CREATE followed by a DELETE
+ * of the same path inside the window cancel out; a DELETE followed by a CREATE means the file was replaced,
+ * so only the CREATE is kept and the new content gets imported. An OVERFLOW absorbs every pending change below the
+ * directory it was reported for, since that directory is rescanned as a whole. An OVERFLOW below a directory
+ * that is already pending a rescan only pushes that rescan back.
+ */
+class FileChangeCoalescer {
+
+    private final long quietPeriodMs;
+    private final Map<Long, LinkedHashMap<Path, PendingChange>> pendingByLibrary = new HashMap<>();
+
+    record PendingChange(long libraryId, WatchEvent.Kind<?> kind, Path path, Path watchedFolder, long lastEventAt) {
+
+        PendingChange touchedAt(long now) {
+            return new PendingChange(libraryId, kind, path, watchedFolder, now);
+        }
+
+        boolean isRescan() {
+            return kind == StandardWatchEventKinds.OVERFLOW;
+        }
+    }
+
+    FileChangeCoalescer(long quietPeriodMs) {
+        this.quietPeriodMs = quietPeriodMs;
+    }
+
+    synchronized int pendingCount() {
+        return pendingByLibrary.values().stream().mapToInt(Map::size).sum();
+    }
+
+    synchronized void add(long libraryId, WatchEvent.Kind<?> kind, Path path, Path watchedFolder, long now) {
+        LinkedHashMap<Path, PendingChange> pending = pendingByLibrary.computeIfAbsent(libraryId, id -> new LinkedHashMap<>());
+
+        PendingChange rescan = findPendingRescan(pending, path);
+        if (rescan != null) {
+            refresh(pending, rescan, now);
+            return;
+        }
+
+        if (kind == StandardWatchEventKinds.OVERFLOW) {
+            pending.keySet().removeIf(p -> p.startsWith(path));
+            pending.put(path, new PendingChange(libraryId, kind, path, watchedFolder, now));
+            return;
+        }
+
+        if (kind == StandardWatchEventKinds.ENTRY_MODIFY) {
+            PendingChange existing = pending.get(path);
+            if (existing != null) {
+                refresh(pending, existing, now);
+            }
+            return;
+        }
+
+        PendingChange previous = pending.remove(path);
+        if (previous != null && previous.kind() == StandardWatchEventKinds.ENTRY_CREATE && kind == StandardWatchEventKinds.ENTRY_DELETE) {
+            return;
+        }
+        pending.put(path, new PendingChange(libraryId, kind, path, watchedFolder, now));
+    }
+
+    synchronized List<PendingChange> drainSettled(long now) {
+        List<PendingChange> settled = new ArrayList<>();
+        Iterator<LinkedHashMap<Path, PendingChange>> libraries = pendingByLibrary.values().iterator();
+        while (libraries.hasNext()) {
+            LinkedHashMap<Path, PendingChange> pending = libraries.next();
+            Iterator<PendingChange> changes = pending.values().iterator();
+            while (changes.hasNext()) {
+                PendingChange change = changes.next();
+                if (now - change.lastEventAt() < quietPeriodMs) {
+                    break;
+                }
+                settled.add(change);
+                changes.remove();
+            }
+            if (pending.isEmpty()) {
+                libraries.remove();
+            }
+        }
+        return settled;
+    }
+
+    private PendingChange findPendingRescan(Map<Path, PendingChange> pending, Path path) {
+        for (Path dir = path; dir != null; dir = dir.getParent()) {
+            PendingChange change = pending.get(dir);
+            if (change != null && change.isRescan()) {
+                return change;
+            }
+        }
+        return null;
+    }
+
+    // Re-inserting keeps each library's map ordered by last event time, so draining can stop at the first unsettled entry
+    private void refresh(LinkedHashMap<Path, PendingChange> pending, PendingChange change, long now) {
+        pending.remove(change.path());
+        pending.put(change.path(), change.touchedAt(now));
+    }
+}
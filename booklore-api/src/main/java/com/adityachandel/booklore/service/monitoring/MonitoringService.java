@@ -2,7 +2,9 @@ package com.adityachandel.booklore.service.monitoring;
 
 import com.adityachandel.booklore.model.dto.Library;
 import com.adityachandel.booklore.model.enums.BookFileExtension;
+import com.adityachandel.booklore.service.metrics.BookloreMetrics;
 import com.adityachandel.booklore.service.watcher.LibraryFileEventProcessor;
+import com.adityachandel.booklore.util.FileUtils;
 import jakarta.annotation.PostConstruct;
 import jakarta.annotation.PreDestroy;
 import lombok.extern.slf4j.Slf4j;
@@ -24,9 +26,14 @@ public class MonitoringService {
     private final LibraryFileEventProcessor libraryFileEventProcessor;
     private final WatchService watchService;
     private final MonitoringTask monitoringTask;
+    private final BookloreMetrics bookloreMetrics;
+    private final ExpectedChangeLedger expectedChangeLedger;
 
-    private final BlockingQueue<FileChangeEvent> eventQueue = new LinkedBlockingQueue<>();
-    private final ExecutorService singleThreadExecutor = Executors.newSingleThreadExecutor();
+    static final long QUIET_PERIOD_MS = 500L;
+    private static final long FLUSH_INTERVAL_MS = 250L;
+
+    private final FileChangeCoalescer changeCoalescer = new FileChangeCoalescer(QUIET_PERIOD_MS);
+    private final ScheduledExecutorService flushScheduler = Executors.newSingleThreadScheduledExecutor();
 
     private final Set<Path> monitoredPaths = ConcurrentHashMap.newKeySet();
     private final Map<Path, WatchKey> registeredWatchKeys = new ConcurrentHashMap<>();
@@ -34,14 +41,17 @@ public class MonitoringService {
     private final Map<Long, Boolean> libraryWatchStatusMap = new ConcurrentHashMap<>();
     private final Map<Long, List<Path>> libraryIdToPaths = new ConcurrentHashMap<>();
 
-    public MonitoringService(LibraryFileEventProcessor libraryFileEventProcessor, WatchService watchService, MonitoringTask monitoringTask) {
+    public MonitoringService(LibraryFileEventProcessor libraryFileEventProcessor, WatchService watchService, MonitoringTask monitoringTask, BookloreMetrics bookloreMetrics, ExpectedChangeLedger expectedChangeLedger) {
         this.libraryFileEventProcessor = libraryFileEventProcessor;
         this.watchService = watchService;
         this.monitoringTask = monitoringTask;
+        this.bookloreMetrics = bookloreMetrics;
+        this.expectedChangeLedger = expectedChangeLedger;
     }
 
     @PostConstruct
     public void initializeMonitoring() {
+        bookloreMetrics.registerQueueDepth("watcher_pending", changeCoalescer, FileChangeCoalescer::pendingCount);
         monitoringTask.monitor();
         startProcessingThread();
     }
@@ -49,7 +59,7 @@ public class MonitoringService {
     @PreDestroy
     public void stopMonitoring() {
         log.info("Shutting down monitoring service...");
-        singleThreadExecutor.shutdownNow();
+        flushScheduler.shutdownNow();
         try {
             watchService.close();
         } catch (IOException e) {
@@ -152,6 +162,21 @@ public class MonitoringService {
         Path fullPath = event.getFilePath();
         WatchEvent.Kind<?> kind = event.getEventKind();
 
+        if (kind == StandardWatchEventKinds.OVERFLOW) {
+            log.warn("Watch events overflowed for '{}', scheduling a rescan of the directory", fullPath);
+            // Folders created while events were dropped have no watch key yet
+            if (Files.isDirectory(fullPath)) {
+                registerDirectoryTree(event, fullPath);
+            }
+            queueEvent(event, fullPath, kind);
+            return;
+        }
+
+        if (kind == StandardWatchEventKinds.ENTRY_MODIFY) {
+            if (isRelevantBookFile(fullPath) && !expectedChangeLedger.isExpected(fullPath, false)) queueEvent(event, fullPath, kind);
+            return;
+        }
+
         if (kind != StandardWatchEventKinds.ENTRY_CREATE && kind != StandardWatchEventKinds.ENTRY_DELETE) return;
 
         boolean isDir = kind == StandardWatchEventKinds.ENTRY_CREATE
@@ -162,6 +187,10 @@ public class MonitoringService {
         if (!(isDir || isRelevantFile)) return;
 
         handleDirectoryEvents(event, fullPath, kind, isDir);
+        if (expectedChangeLedger.isExpected(fullPath, isDir)) {
+            log.debug("Ignoring self-initiated change: {} [{}]", fullPath, kind.name());
+            return;
+        }
         queueEvent(event, fullPath, kind);
     }
 
@@ -178,47 +207,30 @@ public class MonitoringService {
 
     private void startProcessingThread() {
         log.info("Starting file change processor...");
-        singleThreadExecutor.submit(() -> {
-            while (!Thread.currentThread().isInterrupted()) {
-                try {
-                    FileChangeEvent event = eventQueue.take();
-                    processFileChangeEvent(event);
-                } catch (InterruptedException e) {
-                    Thread.currentThread().interrupt();
-                    break;
-                } catch (Exception e) {
-                    log.error("Error in processing thread", e);
-                }
-            }
-        });
+        flushScheduler.scheduleWithFixedDelay(this::flushSettledChanges, FLUSH_INTERVAL_MS, FLUSH_INTERVAL_MS, TimeUnit.MILLISECONDS);
     }
 
-    private void processFileChangeEvent(FileChangeEvent event) {
-        Path filePath = event.getFilePath();
-        Path watchedFolder = event.getWatchedFolder();
-        Long libraryId = pathToLibraryIdMap.get(watchedFolder);
-
-        if (libraryId != null) {
-            try {
-                libraryFileEventProcessor.processFile(event.getEventKind(), libraryId, watchedFolder.toString(), filePath.toString());
-            } catch (InvalidDataAccessApiUsageException e) {
-                log.debug("InvalidDataAccessApiUsageException for libraryId={}", libraryId);
+    private void flushSettledChanges() {
+        try {
+            for (FileChangeCoalescer.PendingChange change : changeCoalescer.drainSettled(System.currentTimeMillis())) {
+                processFileChange(change);
             }
-        } else {
-            log.warn("No library ID found for folder: {}", watchedFolder);
+        } catch (Exception e) {
+            log.error("Error in processing thread", e);
+        }
+    }
+
+    private void processFileChange(FileChangeCoalescer.PendingChange change) {
+        try {
+            libraryFileEventProcessor.processFile(change.kind(), change.libraryId(), change.watchedFolder().toString(), change.path().toString());
+        } catch (InvalidDataAccessApiUsageException e) {
+            log.debug("InvalidDataAccessApiUsageException for libraryId={}", change.libraryId());
         }
     }
 
     private void handleDirectoryEvents(FileChangeEvent event, Path fullPath, WatchEvent.Kind<?> kind, boolean isDir) {
         if (isDir && kind == StandardWatchEventKinds.ENTRY_CREATE) {
-            Long parentLibraryId = pathToLibraryIdMap.get(event.getWatchedFolder());
-            if (parentLibraryId != null) {
-                try (Stream<Path> stream = Files.walk(fullPath)) {
-                    stream.filter(Files::isDirectory).forEach(path -> registerPath(path, parentLibraryId));
-                } catch (IOException e) {
-                    log.warn("Failed to register nested paths: {}", fullPath, e);
-                }
-            }
+            registerDirectoryTree(event, fullPath);
         }
 
         if (isDir && kind == StandardWatchEventKinds.ENTRY_DELETE) {
@@ -226,16 +238,31 @@ public class MonitoringService {
         }
     }
 
+    private void registerDirectoryTree(FileChangeEvent event, Path fullPath) {
+        Long parentLibraryId = pathToLibraryIdMap.get(event.getWatchedFolder());
+        if (parentLibraryId == null) {
+            return;
+        }
+        try (Stream<Path> stream = Files.walk(fullPath)) {
+            stream.filter(Files::isDirectory).forEach(path -> registerPath(path, parentLibraryId));
+        } catch (IOException e) {
+            log.warn("Failed to register nested paths: {}", fullPath, e);
+        }
+    }
+
     private void queueEvent(FileChangeEvent event, Path fullPath, WatchEvent.Kind<?> kind) {
-        if (!eventQueue.offer(event)) {
-            log.warn("Event queue full, dropping: {}", fullPath);
-        } else {
-            log.debug("Queued: {} [{}]", fullPath, kind.name());
+        Long libraryId = pathToLibraryIdMap.get(event.getWatchedFolder());
+        if (libraryId == null) {
+            log.warn("No library ID found for folder: {}", event.getWatchedFolder());
+            return;
         }
+        changeCoalescer.add(libraryId, kind, fullPath, event.getWatchedFolder(), System.currentTimeMillis());
+        log.debug("Queued: {} [{}]", fullPath, kind.name());
     }
 
     public boolean isRelevantBookFile(Path path) {
-        return BookFileExtension.fromFileName(path.getFileName().toString()).isPresent();
+        String fileName = path.getFileName().toString();
+        return !FileUtils.isUploadStagingFile(fileName) && BookFileExtension.fromFileName(fileName).isPresent();
     }
 
     public boolean isPathMonitored(Path path) {
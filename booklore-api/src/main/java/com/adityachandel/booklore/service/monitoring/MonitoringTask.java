@@ -34,7 +34,11 @@ public class MonitoringTask {
 
                 for (WatchEvent<?> event : key.pollEvents()) {
                     WatchEvent.Kind<?> kind = event.kind();
-                    if (kind == StandardWatchEventKinds.OVERFLOW) continue;
+                    if (kind == StandardWatchEventKinds.OVERFLOW) {
+                        // Events for this directory were dropped by the kernel, so it has to be rescanned
+                        eventPublisher.publishEvent(new FileChangeEvent(this, directory, kind, directory));
+                        continue;
+                    }
 
                     Path fileName = (Path) event.context();
                     Path fullPath = directory.resolve(fileName);
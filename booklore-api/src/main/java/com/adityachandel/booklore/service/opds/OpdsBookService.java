@@ -35,6 +35,7 @@ public class OpdsBookService {
     private final BookLoreUserTransformer bookLoreUserTransformer;
     private final ShelfRepository shelfRepository;
     private final LibraryService libraryService;
+    private final RandomBookSampler randomBookSampler;
 
     public List<Library> getAccessibleLibraries(OpdsUserDetails details) {
         if (details == null || details.getOpdsUserV2() == null) {
@@ -90,6 +91,52 @@ public class OpdsBookService {
         return applyBookFilters(books, v2.getUserId());
     }
 
+    /**
+     * Version of the scope {@link #getBooksPage} reads from, applying the same access checks. It changes whenever
+     * a book in that scope is added, removed or edited, and costs one aggregate query.
+     */
+    public String getBooksFeedVersion(OpdsUserDetails details, Long libraryId, Long shelfId) {
+        if (details.getOpdsUser() != null) {
+            if (shelfId != null) {
+                return describe(bookOpdsRepository.findFeedVersionByShelfId(shelfId));
+            }
+            if (libraryId != null) {
+                return describe(bookOpdsRepository.findFeedVersionByLibraryIds(Set.of(libraryId)));
+            }
+            return describe(bookOpdsRepository.findFeedVersion());
+        }
+
+        BookLoreUser user = loadOpdsEnabledUser(details.getOpdsUserV2());
+        boolean isAdmin = user.getPermissions().isAdmin();
+
+        if (shelfId != null) {
+            validateShelfAccess(shelfId, user.getId(), isAdmin);
+            return describe(bookOpdsRepository.findFeedVersionByShelfId(shelfId));
+        }
+        if (libraryId != null) {
+            validateLibraryAccess(libraryId, assignedLibraryIds(user), isAdmin);
+            return describe(bookOpdsRepository.findFeedVersionByLibraryIds(Set.of(libraryId)));
+        }
+        return describe(isAdmin
+                ? bookOpdsRepository.findFeedVersion()
+                : bookOpdsRepository.findFeedVersionByLibraryIds(assignedLibraryIds(user)));
+    }
+
+    public String getRecentFeedVersion(OpdsUserDetails details) {
+        if (details == null || details.getOpdsUser() != null) {
+            return describe(bookOpdsRepository.findFeedVersion());
+        }
+
+        OpdsUserV2 v2 = details.getOpdsUserV2();
+        BookLoreUserEntity entity = userRepository.findById(v2.getUserId())
+                .orElseThrow(() -> ApiError.USER_NOT_FOUND.createException(v2.getUserId()));
+        BookLoreUser user = bookLoreUserTransformer.toDTO(entity);
+
+        return describe(user.getPermissions().isAdmin()
+                ? bookOpdsRepository.findFeedVersion()
+                : bookOpdsRepository.findFeedVersionByLibraryIds(assignedLibraryIds(user)));
+    }
+
     public String getLibraryName(Long libraryId) {
         try {
             List<Library> libraries = libraryService.getAllLibraries();
@@ -129,19 +176,9 @@ public class OpdsBookService {
     }
 
     private Page<Book> getBooksPageForV2User(OpdsUserV2 opdsUserV2, String query, Long libraryId, Long shelfId, int page, int size) {
-        BookLoreUserEntity entity = userRepository.findById(opdsUserV2.getUserId())
-                .orElseThrow(() -> ApiError.USER_NOT_FOUND.createException(opdsUserV2.getUserId()));
-
-        if (entity.getPermissions() == null ||
-                (!entity.getPermissions().isPermissionAccessOpds() && !entity.getPermissions().isPermissionAdmin())) {
-            throw ApiError.FORBIDDEN.createException("You are not allowed to access this resource");
-        }
-
-        BookLoreUser user = bookLoreUserTransformer.toDTO(entity);
+        BookLoreUser user = loadOpdsEnabledUser(opdsUserV2);
         boolean isAdmin = user.getPermissions().isAdmin();
-        Set<Long> userLibraryIds = user.getAssignedLibraries().stream()
-                .map(Library::getId)
-                .collect(Collectors.toSet());
+        Set<Long> userLibraryIds = assignedLibraryIds(user);
 
         if (shelfId != null) {
             validateShelfAccess(shelfId, user.getId(), isAdmin);
@@ -168,6 +205,28 @@ public class OpdsBookService {
         return applyBookFilters(books, opdsUserV2.getUserId());
     }
 
+    private BookLoreUser loadOpdsEnabledUser(OpdsUserV2 opdsUserV2) {
+        BookLoreUserEntity entity = userRepository.findById(opdsUserV2.getUserId())
+                .orElseThrow(() -> ApiError.USER_NOT_FOUND.createException(opdsUserV2.getUserId()));
+
+        if (entity.getPermissions() == null ||
+                (!entity.getPermissions().isPermissionAccessOpds() && !entity.getPermissions().isPermissionAdmin())) {
+            throw ApiError.FORBIDDEN.createException("You are not allowed to access this resource");
+        }
+
+        return bookLoreUserTransformer.toDTO(entity);
+    }
+
+    private Set<Long> assignedLibraryIds(BookLoreUser user) {
+        return user.getAssignedLibraries().stream()
+                .map(Library::getId)
+                .collect(Collectors.toSet());
+    }
+
+    private String describe(BookOpdsRepository.FeedVersion version) {
+        return version.getBookCount() + ":" + version.getBooksUpdatedAt() + ":" + version.getMetadataUpdatedAt();
+    }
+
     private Page<Book> getAllBooksPageInternal(int page, int size) {
         Pageable pageable = PageRequest.of(Math.max(page, 0), size);
 
@@ -296,22 +355,19 @@ public class OpdsBookService {
     }
 
     public List<Book> getRandomBooks(OpdsUserDetails details, int count) {
-        List<Long> ids;
         List<Library> accessibleLibraries = getAccessibleLibraries(details);
         if (accessibleLibraries == null || accessibleLibraries.isEmpty()) {
             return List.of();
         }
         List<Long> libraryIds = accessibleLibraries.stream().map(Library::getId).toList();
 
-        if (libraryIds.size() == 1 && libraryIds.getFirst() == null) {
-            ids = bookOpdsRepository.findRandomBookIds();
-        } else {
-            ids = bookOpdsRepository.findRandomBookIdsByLibraryIds(libraryIds);
-        }
+        List<Long> ids = libraryIds.size() == 1 && libraryIds.getFirst() == null
+                ? randomBookSampler.sampleIds(null, count)
+                : randomBookSampler.sampleIds(libraryIds, count);
         if (ids.isEmpty()) {
             return List.of();
         }
-        List<BookEntity> books = bookOpdsRepository.findAllWithMetadataByIds(ids.stream().limit(count).toList());
+        List<BookEntity> books = bookOpdsRepository.findAllWithMetadataByIds(ids);
         return books.stream().map(bookMapper::toBook).toList();
     }
 }
@@ -9,10 +9,24 @@ import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
 import org.springframework.stereotype.Service;
+import org.springframework.util.DigestUtils;
 
+import javax.xml.stream.XMLStreamException;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
 import java.time.format.DateTimeFormatter;
 import java.util.List;
 
+import static com.adityachandel.booklore.service.opds.OpdsFeedWriter.ACQUISITION_TYPE;
+import static com.adityachandel.booklore.service.opds.OpdsFeedWriter.NAVIGATION_TYPE;
+
+/**
+ * Streams OPDS feeds to the response. Everything a feed needs is loaded before the first byte is written, so
+ * lookup and access errors still produce a proper error response. Acquisition feeds also expose a weak ETag
+ * derived from the feed's scope version, the request URL and the user, which lets clients revalidate with
+ * a single aggregate query instead of a full page load.
+ */
 @Slf4j
 @Service
 @RequiredArgsConstructor
@@ -20,156 +34,72 @@ public class OpdsFeedService {
 
     private static final int DEFAULT_PAGE_SIZE = 50;
     private static final int MAX_PAGE_SIZE = 100;
+    private static final int SURPRISE_COUNT = 25;
 
     private final AuthenticationService authenticationService;
     private final OpdsBookService opdsBookService;
 
-    public String generateRootNavigation(HttpServletRequest request) {
-        var feed = new StringBuilder("""
-                <?xml version="1.0" encoding="UTF-8"?>
-                <feed xmlns="http://www.w3.org/2005/Atom" xmlns:opds="http://opds-spec.org/2010/catalog">
-                  <id>urn:booklore:root</id>
-                  <title>Booklore Catalog</title>
-                  <updated>%s</updated>
-                  <link rel="self" href="/api/v1/opds" type="application/atom+xml;profile=opds-catalog;kind=navigation"/>
-                  <link rel="start" href="/api/v1/opds" type="application/atom+xml;profile=opds-catalog;kind=navigation"/>
-                  <link rel="search" type="application/opensearchdescription+xml" title="Search" href="/api/v1/opds/search.opds"/>
-                """.formatted(now()));
-
-        feed.append("""
-                  <entry>
-                    <title>All Books</title>
-                    <id>urn:booklore:catalog:all</id>
-                    <updated>%s</updated>
-                    <link rel="subsection" href="%s" type="application/atom+xml;profile=opds-catalog;kind=acquisition"/>
-                    <content type="text">Browse all available books</content>
-                  </entry>
-                """.formatted(now(), escapeXml("/api/v1/opds/catalog?page=1&size=" + DEFAULT_PAGE_SIZE)));
-
-        feed.append("""
-                  <entry>
-                    <title>Recently Added</title>
-                    <id>urn:booklore:catalog:recent</id>
-                    <updated>%s</updated>
-                    <link rel="subsection" href="%s" type="application/atom+xml;profile=opds-catalog;kind=acquisition"/>
-                    <content type="text">Recently added books</content>
-                  </entry>
-                """.formatted(now(), escapeXml("/api/v1/opds/recent?page=1&size=" + DEFAULT_PAGE_SIZE)));
-
-        feed.append("""
-                  <entry>
-                    <title>Libraries</title>
-                    <id>urn:booklore:navigation:libraries</id>
-                    <updated>%s</updated>
-                    <link rel="subsection" href="/api/v1/opds/libraries" type="application/atom+xml;profile=opds-catalog;kind=navigation"/>
-                    <content type="text">Browse books by library</content>
-                  </entry>
-                """.formatted(now()));
-
-        feed.append("""
-                  <entry>
-                    <title>Shelves</title>
-                    <id>urn:booklore:navigation:shelves</id>
-                    <updated>%s</updated>
-                    <link rel="subsection" href="/api/v1/opds/shelves" type="application/atom+xml;profile=opds-catalog;kind=navigation"/>
-                    <content type="text">Browse your personal shelves</content>
-                  </entry>
-                """.formatted(now()));
-
-        feed.append("""
-                  <entry>
-                    <title>Surprise Me</title>
-                    <id>urn:booklore:catalog:surprise</id>
-                    <updated>%s</updated>
-                    <link rel="subsection" href="/api/v1/opds/surprise" type="application/atom+xml;profile=opds-catalog;kind=acquisition"/>
-                    <content type="text">25 random books from the catalog</content>
-                  </entry>
-                """.formatted(now()));
-
-        feed.append("</feed>");
-        return feed.toString();
-    }
-
-    public String generateLibrariesNavigation(HttpServletRequest request) {
+    public void writeRootNavigation(HttpServletRequest request, OutputStream out) throws IOException {
+        String now = now();
+        write(out, feed -> {
+            feed.startFeed("urn:booklore:root", "Booklore Catalog", now, false);
+            feed.catalogLinks("/api/v1/opds", NAVIGATION_TYPE);
+            feed.navigationEntry("All Books", "urn:booklore:catalog:all", now,
+                    "/api/v1/opds/catalog?page=1&size=" + DEFAULT_PAGE_SIZE, ACQUISITION_TYPE, "Browse all available books");
+            feed.navigationEntry("Recently Added", "urn:booklore:catalog:recent", now,
+                    "/api/v1/opds/recent?page=1&size=" + DEFAULT_PAGE_SIZE, ACQUISITION_TYPE, "Recently added books");
+            feed.navigationEntry("Libraries", "urn:booklore:navigation:libraries", now,
+                    "/api/v1/opds/libraries", NAVIGATION_TYPE, "Browse books by library");
+            feed.navigationEntry("Shelves", "urn:booklore:navigation:shelves", now,
+                    "/api/v1/opds/shelves", NAVIGATION_TYPE, "Browse your personal shelves");
+            feed.navigationEntry("Surprise Me", "urn:booklore:catalog:surprise", now,
+                    "/api/v1/opds/surprise", ACQUISITION_TYPE, SURPRISE_COUNT + " random books from the catalog");
+        });
+    }
+
+    public void writeLibrariesNavigation(HttpServletRequest request, OutputStream out) throws IOException {
         OpdsUserDetails details = authenticationService.getOpdsUser();
         List<Library> libraries = opdsBookService.getAccessibleLibraries(details);
 
-        var feed = new StringBuilder("""
-                <?xml version="1.0" encoding="UTF-8"?>
-                <feed xmlns="http://www.w3.org/2005/Atom" xmlns:opds="http://opds-spec.org/2010/catalog">
-                  <id>urn:booklore:navigation:libraries</id>
-                  <title>Libraries</title>
-                  <updated>%s</updated>
-                  <link rel="self" href="/api/v1/opds/libraries" type="application/atom+xml;profile=opds-catalog;kind=navigation"/>
-                  <link rel="start" href="/api/v1/opds" type="application/atom+xml;profile=opds-catalog;kind=navigation"/>
-                  <link rel="search" type="application/opensearchdescription+xml" title="Search" href="/api/v1/opds/search.opds"/>
-                """.formatted(now()));
-
-        for (Library library : libraries) {
-            feed.append("""
-                      <entry>
-                        <title>%s</title>
-                        <id>urn:booklore:library:%d</id>
-                        <updated>%s</updated>
-                        <link rel="subsection" href="%s" type="application/atom+xml;profile=opds-catalog;kind=acquisition"/>
-                        <content type="text">%s</content>
-                      </entry>
-                    """.formatted(
-                    escapeXml(library.getName()),
-                    library.getId(),
-                    now(),
-                    escapeXml("/api/v1/opds/catalog?libraryId=" + library.getId()),
-                    escapeXml(library.getName() != null ? library.getName() : "Library collection")
-            ));
-        }
-
-        feed.append("</feed>");
-        return feed.toString();
+        String now = now();
+        write(out, feed -> {
+            feed.startFeed("urn:booklore:navigation:libraries", "Libraries", now, false);
+            feed.catalogLinks("/api/v1/opds/libraries", NAVIGATION_TYPE);
+            for (Library library : libraries) {
+                feed.navigationEntry(library.getName(), "urn:booklore:library:" + library.getId(), now,
+                        "/api/v1/opds/catalog?libraryId=" + library.getId(), ACQUISITION_TYPE,
+                        library.getName() != null ? library.getName() : "Library collection");
+            }
+        });
     }
 
-    public String generateShelvesNavigation(HttpServletRequest request) {
+    public void writeShelvesNavigation(HttpServletRequest request, OutputStream out) throws IOException {
         OpdsUserDetails details = authenticationService.getOpdsUser();
-
-        var feed = new StringBuilder("""
-                <?xml version="1.0" encoding="UTF-8"?>
-                <feed xmlns="http://www.w3.org/2005/Atom" xmlns:opds="http://opds-spec.org/2010/catalog">
-                  <id>urn:booklore:navigation:shelves</id>
-                  <title>Shelves</title>
-                  <updated>%s</updated>
-                  <link rel="self" href="/api/v1/opds/shelves" type="application/atom+xml;profile=opds-catalog;kind=navigation"/>
-                  <link rel="start" href="/api/v1/opds" type="application/atom+xml;profile=opds-catalog;kind=navigation"/>
-                  <link rel="search" type="application/opensearchdescription+xml" title="Search" href="/api/v1/opds/search.opds"/>
-                """.formatted(now()));
-
-        if (details != null && details.getOpdsUserV2() != null) {
-            Long userId = details.getOpdsUserV2().getUserId();
-            var shelves = opdsBookService.getUserShelves(userId);
-
+        var shelves = details != null && details.getOpdsUserV2() != null
+                ? opdsBookService.getUserShelves(details.getOpdsUserV2().getUserId())
+                : null;
+
+        String now = now();
+        write(out, feed -> {
+            feed.startFeed("urn:booklore:navigation:shelves", "Shelves", now, false);
+            feed.catalogLinks("/api/v1/opds/shelves", NAVIGATION_TYPE);
             if (shelves != null) {
                 for (var shelf : shelves) {
-                    feed.append("""
-                              <entry>
-                                <title>%s</title>
-                                <id>urn:booklore:shelf:%d</id>
-                                <updated>%s</updated>
-                                <link rel="subsection" href="%s" type="application/atom+xml;profile=opds-catalog;kind=acquisition"/>
-                                <content type="text">Personal shelf collection</content>
-                              </entry>
-                            """.formatted(
-                            escapeXml(shelf.getName()),
-                            shelf.getId(),
-                            now(),
-                            escapeXml("/api/v1/opds/catalog?shelfId=" + shelf.getId())
-                    ));
+                    feed.navigationEntry(shelf.getName(), "urn:booklore:shelf:" + shelf.getId(), now,
+                            "/api/v1/opds/catalog?shelfId=" + shelf.getId(), ACQUISITION_TYPE, "Personal shelf collection");
                 }
             }
-        }
+        });
+    }
 
-        feed.append("</feed>");
-        return feed.toString();
+    public String getCatalogFeedETag(HttpServletRequest request) {
+        Long libraryId = parseLongParam(request, "libraryId", null);
+        Long shelfId = parseLongParam(request, "shelfId", null);
+        OpdsUserDetails details = authenticationService.getOpdsUser();
+        return weakETag(request, details, opdsBookService.getBooksFeedVersion(details, libraryId, shelfId));
     }
 
-    public String generateCatalogFeed(HttpServletRequest request) {
+    public void writeCatalogFeed(HttpServletRequest request, OutputStream out) throws IOException {
         Long libraryId = parseLongParam(request, "libraryId", null);
         Long shelfId = parseLongParam(request, "shelfId", null);
         String query = request.getParameter("q");
@@ -179,91 +109,37 @@ public class OpdsFeedService {
         OpdsUserDetails details = authenticationService.getOpdsUser();
         Page<Book> booksPage = opdsBookService.getBooksPage(details, query, libraryId, shelfId, page - 1, size);
 
-        String feedTitle = determineFeedTitle(libraryId, shelfId);
-        String feedId = determineFeedId(libraryId, shelfId);
+        writeAcquisitionFeed(out, request, determineFeedId(libraryId, shelfId), determineFeedTitle(libraryId, shelfId), booksPage, page, size);
+    }
 
-        var feed = new StringBuilder("""
-                <?xml version="1.0" encoding="UTF-8"?>
-                <feed xmlns="http://www.w3.org/2005/Atom" xmlns:dc="http://purl.org/dc/terms/" xmlns:opds="http://opds-spec.org/2010/catalog" xmlns:opensearch="http://a9.com/-/spec/opensearch/1.1/">
-                  <id>%s</id>
-                  <title>%s</title>
-                  <updated>%s</updated>
-                  <opensearch:totalResults>%d</opensearch:totalResults>
-                  <opensearch:startIndex>%d</opensearch:startIndex>
-                  <opensearch:itemsPerPage>%d</opensearch:itemsPerPage>
-                  <link rel="self" href="%s" type="application/atom+xml;profile=opds-catalog;kind=acquisition"/>
-                  <link rel="start" href="/api/v1/opds" type="application/atom+xml;profile=opds-catalog;kind=navigation"/>
-                  <link rel="search" type="application/opensearchdescription+xml" title="Search" href="/api/v1/opds/search.opds"/>
-                """.formatted(
-                feedId,
-                escapeXml(feedTitle),
-                now(),
-                booksPage.getTotalElements(),
-                ((page - 1) * size) + 1,
-                size,
-                escapeXml(buildCurrentUrl(request, page, size))
-        ));
-
-        appendPaginationLinks(feed, request, page, booksPage.getTotalPages(), size);
-
-        booksPage.getContent().forEach(book -> appendBookEntry(feed, book));
-
-        feed.append("</feed>");
-        return feed.toString();
+    public String getRecentFeedETag(HttpServletRequest request) {
+        OpdsUserDetails details = authenticationService.getOpdsUser();
+        return weakETag(request, details, opdsBookService.getRecentFeedVersion(details));
     }
 
-    public String generateRecentFeed(HttpServletRequest request) {
+    public void writeRecentFeed(HttpServletRequest request, OutputStream out) throws IOException {
         OpdsUserDetails details = authenticationService.getOpdsUser();
         int page = Math.max(1, parseLongParam(request, "page", 1L).intValue());
         int size = Math.min(parseLongParam(request, "size", (long) DEFAULT_PAGE_SIZE).intValue(), MAX_PAGE_SIZE);
 
         Page<Book> booksPage = opdsBookService.getRecentBooksPage(details, page - 1, size);
 
-        var feed = new StringBuilder("""
-                <?xml version="1.0" encoding="UTF-8"?>
-                <feed xmlns="http://www.w3.org/2005/Atom" xmlns:dc="http://purl.org/dc/terms/" xmlns:opds="http://opds-spec.org/2010/catalog" xmlns:opensearch="http://a9.com/-/spec/opensearch/1.1/">
-                  <id>urn:booklore:catalog:recent</id>
-                  <title>Recently Added Books</title>
-                  <updated>%s</updated>
-                  <opensearch:totalResults>%d</opensearch:totalResults>
-                  <opensearch:startIndex>%d</opensearch:startIndex>
-                  <opensearch:itemsPerPage>%d</opensearch:itemsPerPage>
-                  <link rel="self" href="%s" type="application/atom+xml;profile=opds-catalog;kind=acquisition"/>
-                  <link rel="start" href="/api/v1/opds" type="application/atom+xml;profile=opds-catalog;kind=navigation"/>
-                  <link rel="search" type="application/opensearchdescription+xml" title="Search" href="/api/v1/opds/search.opds"/>
-                """.formatted(now(), booksPage.getTotalElements(), ((page - 1) * size) + 1, size, escapeXml(buildCurrentUrl(request, page, size))));
-
-        appendPaginationLinks(feed, request, page, booksPage.getTotalPages(), size);
-
-        booksPage.getContent().forEach(book -> appendBookEntry(feed, book));
-
-        feed.append("</feed>");
-        return feed.toString();
+        writeAcquisitionFeed(out, request, "urn:booklore:catalog:recent", "Recently Added Books", booksPage, page, size);
     }
 
-    public String generateSurpriseFeed(HttpServletRequest request) {
+    public void writeSurpriseFeed(HttpServletRequest request, OutputStream out) throws IOException {
         OpdsUserDetails details = authenticationService.getOpdsUser();
-        int count = 25;
-        List<Book> books = opdsBookService.getRandomBooks(details, count);
-
-        var feed = new StringBuilder("""
-                <?xml version="1.0" encoding="UTF-8"?>
-                <feed xmlns="http://www.w3.org/2005/Atom" xmlns:dc="http://purl.org/dc/terms/" xmlns:opds="http://opds-spec.org/2010/catalog" xmlns:opensearch="http://a9.com/-/spec/opensearch/1.1/">
-                  <id>urn:booklore:catalog:surprise</id>
-                  <title>Surprise Me</title>
-                  <updated>%s</updated>
-                  <opensearch:totalResults>%d</opensearch:totalResults>
-                  <opensearch:startIndex>1</opensearch:startIndex>
-                  <opensearch:itemsPerPage>%d</opensearch:itemsPerPage>
-                  <link rel="self" href="/api/v1/opds/surprise" type="application/atom+xml;profile=opds-catalog;kind=acquisition"/>
-                  <link rel="start" href="/api/v1/opds" type="application/atom+xml;profile=opds-catalog;kind=navigation"/>
-                  <link rel="search" type="application/opensearchdescription+xml" title="Search" href="/api/v1/opds/search.opds"/>
-                """.formatted(now(), books.size(), count));
-
-        books.forEach(book -> appendBookEntry(feed, book));
-
-        feed.append("</feed>");
-        return feed.toString();
+        List<Book> books = opdsBookService.getRandomBooks(details, SURPRISE_COUNT);
+
+        String now = now();
+        write(out, feed -> {
+            feed.startFeed("urn:booklore:catalog:surprise", "Surprise Me", now, true);
+            feed.openSearch(books.size(), 1, SURPRISE_COUNT);
+            feed.catalogLinks("/api/v1/opds/surprise", ACQUISITION_TYPE);
+            for (Book book : books) {
+                feed.bookEntry(book, now);
+            }
+        });
     }
 
     public String getOpenSearchDescription() {
@@ -278,29 +154,55 @@ public class OpdsFeedService {
                 """;
     }
 
-    private void appendPaginationLinks(StringBuilder feed, HttpServletRequest request, int currentPage, int totalPages, int size) {
-        if (totalPages > 0) {
-            feed.append("  <link rel=\"first\" href=\"")
-                    .append(escapeXml(buildPaginationUrl(request, 1, size)))
-                    .append("\" type=\"application/atom+xml;profile=opds-catalog;kind=acquisition\"/>\n");
-        }
-        if (currentPage > 1) {
-            feed.append("  <link rel=\"previous\" href=\"")
-                    .append(escapeXml(buildPaginationUrl(request, currentPage - 1, size)))
-                    .append("\" type=\"application/atom+xml;profile=opds-catalog;kind=acquisition\"/>\n");
-        }
-        if (currentPage < totalPages) {
-            feed.append("  <link rel=\"next\" href=\"")
-                    .append(escapeXml(buildPaginationUrl(request, currentPage + 1, size)))
-                    .append("\" type=\"application/atom+xml;profile=opds-catalog;kind=acquisition\"/>\n");
-        }
-        if (totalPages > 0) {
-            feed.append("  <link rel=\"last\" href=\"")
-                    .append(escapeXml(buildPaginationUrl(request, totalPages, size)))
-                    .append("\" type=\"application/atom+xml;profile=opds-catalog;kind=acquisition\"/>\n");
+    private void writeAcquisitionFeed(OutputStream out, HttpServletRequest request, String feedId, String feedTitle,
+                                      Page<Book> booksPage, int page, int size) throws IOException {
+        String now = now();
+        int totalPages = booksPage.getTotalPages();
+        write(out, feed -> {
+            feed.startFeed(feedId, feedTitle, now, true);
+            feed.openSearch(booksPage.getTotalElements(), ((long) (page - 1) * size) + 1, size);
+            feed.catalogLinks(buildPaginationUrl(request, page, size), ACQUISITION_TYPE);
+            if (totalPages > 0) {
+                feed.link("first", buildPaginationUrl(request, 1, size), ACQUISITION_TYPE);
+            }
+            if (page > 1) {
+                feed.link("previous", buildPaginationUrl(request, page - 1, size), ACQUISITION_TYPE);
+            }
+            if (page < totalPages) {
+                feed.link("next", buildPaginationUrl(request, page + 1, size), ACQUISITION_TYPE);
+            }
+            if (totalPages > 0) {
+                feed.link("last", buildPaginationUrl(request, totalPages, size), ACQUISITION_TYPE);
+            }
+            for (Book book : booksPage.getContent()) {
+                feed.bookEntry(book, now);
+            }
+        });
+    }
+
+    private void write(OutputStream out, FeedBody body) throws IOException {
+        try (OpdsFeedWriter feed = new OpdsFeedWriter(out)) {
+            body.writeTo(feed);
+            feed.endFeed();
+        } catch (XMLStreamException e) {
+            throw new IOException("Failed to write OPDS feed", e);
         }
     }
 
+    @FunctionalInterface
+    private interface FeedBody {
+        void writeTo(OpdsFeedWriter feed) throws XMLStreamException;
+    }
+
+    private String weakETag(HttpServletRequest request, OpdsUserDetails details, String version) {
+        String key = String.join("|",
+                request.getRequestURI(),
+                String.valueOf(request.getQueryString()),
+                details != null ? details.getUsername() : "",
+                version);
+        return "W/\"" + DigestUtils.md5DigestAsHex(key.getBytes(StandardCharsets.UTF_8)) + "\"";
+    }
+
     private String buildPaginationUrl(HttpServletRequest request, int page, int size) {
         String url = request.getRequestURI();
         StringBuilder result = new StringBuilder(url).append("?");
@@ -317,71 +219,6 @@ public class OpdsFeedService {
         return result.toString();
     }
 
-    private String buildCurrentUrl(HttpServletRequest request, int page, int size) {
-        return buildPaginationUrl(request, page, size);
-    }
-
-    private void appendBookEntry(StringBuilder feed, Book book) {
-        feed.append("""
-                  <entry>
-                    <title>%s</title>
-                    <id>urn:booklore:book:%d</id>
-                    <updated>%s</updated>
-                """.formatted(
-                escapeXml(book.getMetadata().getTitle()),
-                book.getId(),
-                book.getAddedOn() != null ? book.getAddedOn() : now()
-        ));
-
-        if (book.getMetadata().getAuthors() != null) {
-            book.getMetadata().getAuthors().forEach(author ->
-                    feed.append("    <author><name>").append(escapeXml(author)).append("</name></author>\n")
-            );
-        }
-
-        appendMetadata(feed, book);
-        appendLinks(feed, book);
-
-        feed.append("  </entry>\n");
-    }
-
-    private void appendMetadata(StringBuilder feed, Book book) {
-        var meta = book.getMetadata();
-        if (meta == null) return;
-
-        if (meta.getPublisher() != null) {
-            feed.append("    <dc:publisher>").append(escapeXml(meta.getPublisher())).append("</dc:publisher>\n");
-        }
-        if (meta.getLanguage() != null) {
-            feed.append("    <dc:language>").append(escapeXml(meta.getLanguage())).append("</dc:language>\n");
-        }
-        if (meta.getCategories() != null) {
-            meta.getCategories().forEach(cat ->
-                    feed.append("    <category term=\"").append(escapeXml(cat)).append("\"/>\n")
-            );
-        }
-        if (meta.getDescription() != null) {
-            feed.append("    <summary>").append(escapeXml(meta.getDescription())).append("</summary>\n");
-        }
-        if (meta.getIsbn10() != null) {
-            feed.append("    <dc:identifier>urn:isbn:").append(escapeXml(meta.getIsbn10())).append("</dc:identifier>\n");
-        }
-    }
-
-    private void appendLinks(StringBuilder feed, Book book) {
-        String mimeType = "application/" + fileMimeType(book);
-        feed.append("    <link href=\"/api/v1/opds/")
-                .append(book.getId()).append("/download\" rel=\"http://opds-spec.org/acquisition\" type=\"").append(mimeType).append("\"/>\n");
-
-        if (book.getMetadata() != null && book.getMetadata().getCoverUpdatedOn() != null) {
-            String coverUrl = "/api/v1/opds/" + book.getId() + "/cover?" + book.getMetadata().getCoverUpdatedOn();
-            feed.append("    <link rel=\"http://opds-spec.org/image\" href=\"")
-                    .append(escapeXml(coverUrl)).append("\" type=\"image/jpeg\"/>\n");
-            feed.append("    <link rel=\"http://opds-spec.org/image/thumbnail\" href=\"")
-                    .append(escapeXml(coverUrl)).append("\" type=\"image/jpeg\"/>\n");
-        }
-    }
-
     private String determineFeedTitle(Long libraryId, Long shelfId) {
         if (shelfId != null) {
             return opdsBookService.getShelfName(shelfId);
@@ -406,26 +243,6 @@ public class OpdsFeedService {
         return DateTimeFormatter.ISO_INSTANT.format(java.time.Instant.now());
     }
 
-    private String fileMimeType(Book book) {
-        if (book == null || book.getBookType() == null) {
-            return "octet-stream";
-        }
-        return switch (book.getBookType()) {
-            case PDF -> "pdf";
-            case EPUB -> "epub+zip";
-            default -> "octet-stream";
-        };
-    }
-
-    private String escapeXml(String input) {
-        return input == null ? "" :
-                input.replace("&", "&amp;")
-                        .replace("<", "&lt;")
-                        .replace(">", "&gt;")
-                        .replace("\"", "&quot;")
-                        .replace("'", "&apos;");
-    }
-
     private Long parseLongParam(HttpServletRequest request, String name, Long defaultValue) {
         try {
             String v = request.getParameter(name);
@@ -0,0 +1,171 @@
+package com.adityachandel.booklore.service.opds;
+
+import com.adityachandel.booklore.model.dto.Book;
+import com.adityachandel.booklore.model.dto.BookMetadata;
+
+import javax.xml.stream.XMLOutputFactory;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamWriter;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Writes an Atom/OPDS feed element by element straight to the response stream, so a feed never exists in
+ * memory as a whole. Text and attribute values are escaped by the underlying {@link XMLStreamWriter}.
+ */
+final class OpdsFeedWriter implements AutoCloseable {
+
+    static final String NAVIGATION_TYPE = "application/atom+xml;profile=opds-catalog;kind=navigation";
+    static final String ACQUISITION_TYPE = "application/atom+xml;profile=opds-catalog;kind=acquisition";
+
+    private static final String ATOM_NS = "http://www.w3.org/2005/Atom";
+    private static final String OPDS_NS = "http://opds-spec.org/2010/catalog";
+    private static final String DC_NS = "http://purl.org/dc/terms/";
+    private static final String OPENSEARCH_NS = "http://a9.com/-/spec/opensearch/1.1/";
+
+    private static final XMLOutputFactory OUTPUT_FACTORY = XMLOutputFactory.newFactory();
+
+    private final XMLStreamWriter xml;
+
+    OpdsFeedWriter(OutputStream out) throws XMLStreamException {
+        this.xml = OUTPUT_FACTORY.createXMLStreamWriter(out, StandardCharsets.UTF_8.name());
+    }
+
+    void startFeed(String id, String title, String updated, boolean acquisition) throws XMLStreamException {
+        xml.writeStartDocument(StandardCharsets.UTF_8.name(), "1.0");
+        xml.writeStartElement("feed");
+        xml.writeDefaultNamespace(ATOM_NS);
+        if (acquisition) {
+            xml.writeNamespace("dc", DC_NS);
+        }
+        xml.writeNamespace("opds", OPDS_NS);
+        if (acquisition) {
+            xml.writeNamespace("opensearch", OPENSEARCH_NS);
+        }
+        element("id", id);
+        element("title", title);
+        element("updated", updated);
+    }
+
+    void openSearch(long totalResults, long startIndex, int itemsPerPage) throws XMLStreamException {
+        prefixedElement("opensearch", "totalResults", OPENSEARCH_NS, String.valueOf(totalResults));
+        prefixedElement("opensearch", "startIndex", OPENSEARCH_NS, String.valueOf(startIndex));
+        prefixedElement("opensearch", "itemsPerPage", OPENSEARCH_NS, String.valueOf(itemsPerPage));
+    }
+
+    void link(String rel, String href, String type) throws XMLStreamException {
+        xml.writeEmptyElement("link");
+        xml.writeAttribute("rel", rel);
+        xml.writeAttribute("href", href);
+        xml.writeAttribute("type", type);
+    }
+
+    void catalogLinks(String selfHref, String selfType) throws XMLStreamException {
+        link("self", selfHref, selfType);
+        link("start", "/api/v1/opds", NAVIGATION_TYPE);
+        xml.writeEmptyElement("link");
+        xml.writeAttribute("rel", "search");
+        xml.writeAttribute("type", "application/opensearchdescription+xml");
+        xml.writeAttribute("title", "Search");
+        xml.writeAttribute("href", "/api/v1/opds/search.opds");
+    }
+
+    void navigationEntry(String title, String id, String updated, String href, String type, String content) throws XMLStreamException {
+        xml.writeStartElement("entry");
+        element("title", title);
+        element("id", id);
+        element("updated", updated);
+        link("subsection", href, type);
+        xml.writeStartElement("content");
+        xml.writeAttribute("type", "text");
+        xml.writeCharacters(nullToEmpty(content));
+        xml.writeEndElement();
+        xml.writeEndElement();
+    }
+
+    void bookEntry(Book book, String fallbackUpdated) throws XMLStreamException {
+        BookMetadata meta = book.getMetadata();
+        xml.writeStartElement("entry");
+        element("title", meta != null ? meta.getTitle() : null);
+        element("id", "urn:booklore:book:" + book.getId());
+        element("updated", book.getAddedOn() != null ? book.getAddedOn().toString() : fallbackUpdated);
+
+        if (meta != null) {
+            if (meta.getAuthors() != null) {
+                for (String author : meta.getAuthors()) {
+                    xml.writeStartElement("author");
+                    element("name", author);
+                    xml.writeEndElement();
+                }
+            }
+            if (meta.getPublisher() != null) {
+                prefixedElement("dc", "publisher", DC_NS, meta.getPublisher());
+            }
+            if (meta.getLanguage() != null) {
+                prefixedElement("dc", "language", DC_NS, meta.getLanguage());
+            }
+            if (meta.getCategories() != null) {
+                for (String category : meta.getCategories()) {
+                    xml.writeEmptyElement("category");
+                    xml.writeAttribute("term", nullToEmpty(category));
+                }
+            }
+            if (meta.getDescription() != null) {
+                element("summary", meta.getDescription());
+            }
+            if (meta.getIsbn10() != null) {
+                prefixedElement("dc", "identifier", DC_NS, "urn:isbn:" + meta.getIsbn10());
+            }
+        }
+
+        xml.writeEmptyElement("link");
+        xml.writeAttribute("href", "/api/v1/opds/" + book.getId() + "/download");
+        xml.writeAttribute("rel", "http://opds-spec.org/acquisition");
+        xml.writeAttribute("type", "application/" + fileMimeType(book));
+
+        if (meta != null && meta.getCoverUpdatedOn() != null) {
+            String coverUrl = "/api/v1/opds/" + book.getId() + "/cover?" + meta.getCoverUpdatedOn();
+            link("http://opds-spec.org/image", coverUrl, "image/jpeg");
+            link("http://opds-spec.org/image/thumbnail", coverUrl, "image/jpeg");
+        }
+        xml.writeEndElement();
+    }
+
+    void endFeed() throws XMLStreamException {
+        xml.writeEndElement();
+        xml.writeEndDocument();
+        xml.flush();
+    }
+
+    @Override
+    public void close() throws XMLStreamException {
+        xml.close();
+    }
+
+    private void element(String name, String text) throws XMLStreamException {
+        xml.writeStartElement(name);
+        xml.writeCharacters(nullToEmpty(text));
+        xml.writeEndElement();
+    }
+
+    private void prefixedElement(String prefix, String name, String namespace, String text) throws XMLStreamException {
+        xml.writeStartElement(prefix, name, namespace);
+        xml.writeCharacters(nullToEmpty(text));
+        xml.writeEndElement();
+    }
+
+    private static String fileMimeType(Book book) {
+        if (book.getBookType() == null) {
+            return "octet-stream";
+        }
+        return switch (book.getBookType()) {
+            case PDF -> "pdf";
+            case EPUB -> "epub+zip";
+            default -> "octet-stream";
+        };
+    }
+
+    private static String nullToEmpty(String value) {
+        return value == null ? "" : value;
+    }
+}
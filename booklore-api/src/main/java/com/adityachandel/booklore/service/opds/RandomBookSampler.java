@@ -0,0 +1,87 @@
+package com.adityachandel.booklore.service.opds;
+
+import com.adityachandel.booklore.repository.BookOpdsRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.random.RandomGenerator;
+
+/**
+ * Draws a uniform random sample of book ids without sorting or returning the whole table. Candidate ids are
+ * drawn uniformly from the [min, max] id range of the scope and rejected unless they belong to an eligible
+ * book, so every eligible book is equally likely and each round costs one indexed IN query sized to the
+ * request. When ids are too sparse for rejection to fill the sample within a few rounds, the remainder is
+ * picked by random offsets into the id index.
+ */
+@Component
+@RequiredArgsConstructor
+public class RandomBookSampler {
+
+    private static final int MAX_REJECTION_ROUNDS = 4;
+    private static final double OVERSAMPLING = 1.5;
+    private static final int MAX_CANDIDATES_PER_ROUND = 2000;
+
+    private final BookOpdsRepository bookOpdsRepository;
+
+    /**
+     * @param libraryIds libraries to sample from, or {@code null} for every library
+     * @param count      sample size; fewer ids are returned only if the scope holds fewer books
+     */
+    public List<Long> sampleIds(Collection<Long> libraryIds, int count) {
+        return sampleIds(libraryIds, count, ThreadLocalRandom.current());
+    }
+
+    List<Long> sampleIds(Collection<Long> libraryIds, int count, RandomGenerator random) {
+        BookOpdsRepository.IdRange range = libraryIds == null
+                ? bookOpdsRepository.findIdRange()
+                : bookOpdsRepository.findIdRangeByLibraryIds(libraryIds);
+        if (count <= 0 || range == null || range.getBookCount() == 0 || range.getMinId() == null) {
+            return List.of();
+        }
+
+        long minId = range.getMinId();
+        long span = range.getMaxId() - minId + 1;
+        int wanted = (int) Math.min(count, range.getBookCount());
+        double density = (double) range.getBookCount() / span;
+
+        Set<Long> picked = new LinkedHashSet<>();
+        for (int round = 0; round < MAX_REJECTION_ROUNDS && picked.size() < wanted; round++) {
+            int missing = wanted - picked.size();
+            int draws = (int) Math.min(MAX_CANDIDATES_PER_ROUND, Math.ceil(missing / density * OVERSAMPLING));
+            Set<Long> candidates = new HashSet<>();
+            for (int i = 0; i < draws; i++) {
+                long id = minId + random.nextLong(span);
+                if (!picked.contains(id)) {
+                    candidates.add(id);
+                }
+            }
+            if (candidates.isEmpty()) continue;
+            List<Long> hits = new ArrayList<>(libraryIds == null
+                    ? bookOpdsRepository.findExistingBookIds(candidates)
+                    : bookOpdsRepository.findExistingBookIdsByLibraryIds(candidates, libraryIds));
+            Collections.shuffle(hits, random);
+            for (Long id : hits) {
+                if (picked.size() == wanted) break;
+                picked.add(id);
+            }
+        }
+
+        if (picked.size() < wanted) {
+            fillByOffset(libraryIds, range.getBookCount(), wanted, picked, random);
+        }
+        return new ArrayList<>(picked);
+    }
+
+    private void fillByOffset(Collection<Long> libraryIds, long bookCount, int wanted, Set<Long> picked, RandomGenerator random) {
+        for (int attempts = 0; picked.size() < wanted && attempts < wanted * 4; attempts++) {
+            PageRequest offset = PageRequest.of((int) random.nextLong(bookCount), 1);
+            List<Long> ids = libraryIds == null
+                    ? bookOpdsRepository.findBookIdsOrderedById(offset)
+                    : bookOpdsRepository.findBookIdsByLibraryIdsOrderedById(libraryIds, offset);
+            picked.addAll(ids);
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package com.adityachandel.booklore.service.reader;
+
+import java.util.List;
+
+/**
+ * Persisted page layout of a comic archive, written next to the book's cbx cache on first open. For archives
+ * whose entries can be decompressed independently, each page request reads only its own entry; solid archives
+ * are decoded once into the cache and pages are served from there.
+ *
+ * @param archivePath         absolute path of the archive the index was built from
+ * @param archiveLastModified modification time of the archive, used to detect a stale index
+ * @param format              archive container
+ * @param solid               whether pages can only be decoded in archive order
+ * @param charset             entry name charset that successfully decoded a ZIP central directory
+ * @param pages               image entries in reading order
+ */
+record CbxPageIndex(String archivePath,
+                    long archiveLastModified,
+                    Format format,
+                    boolean solid,
+                    String charset,
+                    List<Page> pages) {
+
+    enum Format {
+        ZIP, RAR, SEVEN_Z
+    }
+
+    /**
+     * @param name     entry name inside the archive
+     * @param size     uncompressed size in bytes
+     * @param position local header offset (ZIP) or header position (RAR); -1 when the format exposes none
+     */
+    record Page(String name, long size, long position) {
+    }
+
+    long totalSize() {
+        return pages.stream().mapToLong(Page::size).sum();
+    }
+}
@@ -4,17 +4,18 @@ import com.adityachandel.booklore.exception.ApiError;
 import com.adityachandel.booklore.model.entity.BookEntity;
 import com.adityachandel.booklore.repository.BookRepository;
 import com.adityachandel.booklore.service.appsettings.AppSettingService;
+import com.adityachandel.booklore.service.metrics.BookloreMetrics;
 import com.adityachandel.booklore.util.FileService;
 import com.adityachandel.booklore.util.FileUtils;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.github.junrar.Archive;
-import com.github.junrar.exception.RarException;
 import com.github.junrar.rarfile.FileHeader;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.compress.archivers.sevenz.SevenZArchiveEntry;
 import org.apache.commons.compress.archivers.sevenz.SevenZFile;
 import org.apache.commons.compress.archivers.zip.ZipArchiveEntry;
-import org.apache.pdfbox.io.IOUtils;
+import org.apache.commons.compress.archivers.zip.ZipFile;
 import org.springframework.stereotype.Service;
 
 import java.io.FileNotFoundException;
@@ -22,17 +23,19 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.nio.charset.Charset;
-import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.StandardCopyOption;
 import java.nio.file.StandardOpenOption;
-import java.util.Comparator;
-import java.util.List;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 import java.util.stream.Stream;
-import java.util.zip.ZipEntry;
-import java.util.zip.ZipInputStream;
 
 @Slf4j
 @Service
@@ -40,145 +43,308 @@ import java.util.zip.ZipInputStream;
 public class CbxReaderService {
 
     private static final String CACHE_INFO_FILENAME = ".cache-info";
+    private static final String PAGE_INDEX_FILENAME = ".page-index.json";
     private static final String CBZ_EXTENSION = ".cbz";
     private static final String CBR_EXTENSION = ".cbr";
     private static final String CB7_EXTENSION = ".cb7";
     private static final String[] SUPPORTED_IMAGE_EXTENSIONS = {".jpg", ".jpeg", ".png", ".webp"};
+    private static final String[] ZIP_ENCODINGS = {"UTF-8", "Shift_JIS", "ISO-8859-1", "CP437", "MS932"};
+    private static final long PAGE_WAIT_TIMEOUT_SECONDS = 120;
 
     private final BookRepository bookRepository;
     private final AppSettingService appSettingService;
     private final FileService fileService;
+    private final ObjectMapper objectMapper;
+    private final BookloreMetrics bookloreMetrics;
+
+    private final Map<Long, SolidArchiveConversion> conversions = new ConcurrentHashMap<>();
 
     public List<Integer> getAvailablePages(Long bookId) {
         BookEntity bookEntity = bookRepository.findById(bookId).orElseThrow(() -> ApiError.BOOK_NOT_FOUND.createException(bookId));
-        String bookFullPath = FileUtils.getBookFullPath(bookEntity);
-
-        Path cbzPath = Path.of(bookFullPath);
-        Path cacheDir = Path.of(fileService.getCbxCachePath(), String.valueOf(bookId));
-        Path cacheInfoPath = cacheDir.resolve(CACHE_INFO_FILENAME);
+        Path cbxPath = Path.of(FileUtils.getBookFullPath(bookEntity));
+        Path cacheDir = getCacheDir(bookId);
 
         try {
-            long maxCacheSizeBytes = mbToBytes(appSettingService.getAppSettings().getCbxCacheSizeInMb());
-            long estimatedSize = estimateArchiveSize(cbzPath);
-            if (estimatedSize > maxCacheSizeBytes) {
-                log.warn("Cache skipped: Estimated archive size {} exceeds max cache size {}", estimatedSize, maxCacheSizeBytes);
-                throw ApiError.CACHE_TOO_LARGE.createException();
-            }
-            enforceCacheLimit();
-
-            if (needsCacheRefresh(cbzPath, cacheInfoPath)) {
-                log.info("Invalidating cache for book {}", bookId);
-                if (Files.exists(cacheDir)) FileUtils.deleteDirectoryRecursively(cacheDir);
-                Files.createDirectories(cacheDir);
-                extractCbxArchive(cbzPath, cacheDir);
-                writeCacheInfo(cbzPath, cacheInfoPath);
-                if (!Files.exists(cacheDir)) {
-                    log.warn("Cache for book {} was deleted during enforcement. Re-extracting.", bookId);
-                    Files.createDirectories(cacheDir);
-                    extractCbxArchive(cbzPath, cacheDir);
-                    writeCacheInfo(cbzPath, cacheInfoPath);
-                }
+            CbxPageIndex index = loadOrBuildIndex(cbxPath, cacheDir);
+            if (index.solid()) {
+                ensureConverted(bookId, index, cacheDir);
             }
-        } catch (IOException e) {
-            log.error("Failed to cache CBZ for book {}", bookId, e);
-            return List.of();
-        }
-
-        try (var stream = Files.list(cacheDir)) {
-            List<Path> imageFiles = stream
-                    .filter(p -> isImageFile(p.getFileName().toString()))
-                    .sorted(Comparator.comparing(Path::getFileName))
-                    .toList();
-
-            return java.util.stream.IntStream.rangeClosed(1, imageFiles.size())
+            return IntStream.rangeClosed(1, index.pages().size())
                     .boxed()
                     .collect(Collectors.toList());
         } catch (IOException e) {
-            log.error("Failed to list pages for book {}", bookId, e);
+            log.error("Failed to index CBX archive for book {}", bookId, e);
             return List.of();
         }
     }
 
     public void streamPageImage(Long bookId, int page, OutputStream outputStream) throws IOException {
-        Path bookDir = Path.of(fileService.getCbxCachePath(), String.valueOf(bookId));
-        List<Path> images;
-        try (Stream<Path> files = Files.list(bookDir)) {
-            images = files
-                    .filter(p -> isImageFile(p.getFileName().toString()))
-                    .sorted(Comparator.comparing(p -> p.getFileName().toString()))
-                    .toList();
+        Path cacheDir = getCacheDir(bookId);
+        CbxPageIndex index = readIndex(cacheDir);
+        if (index != null && !isStale(index, Path.of(index.archivePath()))) {
+            bookloreMetrics.recordReaderCache("cbx", true);
+        } else {
+            BookEntity bookEntity = bookRepository.findById(bookId).orElseThrow(() -> ApiError.BOOK_NOT_FOUND.createException(bookId));
+            index = loadOrBuildIndex(Path.of(FileUtils.getBookFullPath(bookEntity)), cacheDir);
         }
-        if (images.isEmpty()) {
+        if (index.pages().isEmpty()) {
             throw new FileNotFoundException("No image files found for book: " + bookId);
         }
-        if (page < 1 || page > images.size()) {
+        if (page < 1 || page > index.pages().size()) {
             throw new FileNotFoundException("Page out of range: " + page);
         }
-        Path pagePath = images.get(page - 1);
-        try (InputStream in = Files.newInputStream(pagePath)) {
-            IOUtils.copy(in, outputStream);
+
+        if (index.solid()) {
+            Path pagePath = awaitConvertedPage(bookId, index, cacheDir, page - 1);
+            try (InputStream in = Files.newInputStream(pagePath)) {
+                in.transferTo(outputStream);
+            }
+        } else {
+            copyEntry(index, index.pages().get(page - 1), outputStream);
         }
     }
 
-    private void extractCbxArchive(Path cbxPath, Path targetDir) throws IOException {
+    private Path getCacheDir(Long bookId) {
+        return Path.of(fileService.getCbxCachePath(), String.valueOf(bookId));
+    }
+
+    private CbxPageIndex loadOrBuildIndex(Path cbxPath, Path cacheDir) throws IOException {
+        CbxPageIndex index = readIndex(cacheDir);
+        if (index != null && !isStale(index, cbxPath)) {
+            bookloreMetrics.recordReaderCache("cbx", true);
+            return index;
+        }
+        bookloreMetrics.recordReaderCache("cbx", false);
+
+        log.info("Building page index for {}", cbxPath.getFileName());
+        index = buildIndex(cbxPath);
+        if (Files.exists(cacheDir)) FileUtils.deleteDirectoryRecursively(cacheDir);
+        Files.createDirectories(cacheDir);
+        Path tmp = cacheDir.resolve(PAGE_INDEX_FILENAME + ".tmp");
+        objectMapper.writeValue(tmp.toFile(), index);
+        Files.move(tmp, cacheDir.resolve(PAGE_INDEX_FILENAME), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        return index;
+    }
+
+    private CbxPageIndex readIndex(Path cacheDir) {
+        Path indexPath = cacheDir.resolve(PAGE_INDEX_FILENAME);
+        if (!Files.exists(indexPath)) return null;
+        try {
+            return objectMapper.readValue(indexPath.toFile(), CbxPageIndex.class);
+        } catch (IOException e) {
+            log.warn("Discarding unreadable page index {}: {}", indexPath, e.getMessage());
+            return null;
+        }
+    }
+
+    private boolean isStale(CbxPageIndex index, Path cbxPath) throws IOException {
+        if (!cbxPath.toAbsolutePath().toString().equals(index.archivePath()) || !Files.exists(cbxPath)) return true;
+        return Files.getLastModifiedTime(cbxPath).toMillis() != index.archiveLastModified();
+    }
+
+    private CbxPageIndex buildIndex(Path cbxPath) throws IOException {
         String filename = cbxPath.getFileName().toString().toLowerCase();
+        long lastModified = Files.getLastModifiedTime(cbxPath).toMillis();
+        String archivePath = cbxPath.toAbsolutePath().toString();
+
         if (filename.endsWith(CBZ_EXTENSION)) {
-            extractZipArchive(cbxPath, targetDir);
+            for (String encoding : ZIP_ENCODINGS) {
+                try {
+                    return new CbxPageIndex(archivePath, lastModified, CbxPageIndex.Format.ZIP, false, encoding,
+                            indexZipEntries(cbxPath, Charset.forName(encoding)));
+                } catch (IllegalArgumentException | java.util.zip.ZipException e) {
+                    log.debug("Failed to index with encoding {}: {}", encoding, e.getMessage());
+                }
+            }
+            throw new IOException("Unable to read ZIP archive with any supported encoding");
         } else if (filename.endsWith(CB7_EXTENSION)) {
-            extract7zArchive(cbxPath, targetDir);
+            // commons-compress does not expose how entries map onto 7z folders, so every page is assumed to
+            // share a solid block with its predecessors; 7-Zip creates solid archives by default.
+            return new CbxPageIndex(archivePath, lastModified, CbxPageIndex.Format.SEVEN_Z, true, null, index7zEntries(cbxPath));
         } else if (filename.endsWith(CBR_EXTENSION)) {
-            extractRarArchive(cbxPath, targetDir);
-        } else {
-            throw new IOException("Unsupported archive format: " + cbxPath.getFileName());
+            try (Archive archive = new Archive(cbxPath.toFile())) {
+                List<CbxPageIndex.Page> pages = archive.getFileHeaders().stream()
+                        .filter(h -> !h.isDirectory() && isImageFile(h.getFileName()))
+                        .map(h -> new CbxPageIndex.Page(h.getFileName(), h.getFullUnpackSize(), h.getPositionInFile()))
+                        .collect(Collectors.toList());
+                return new CbxPageIndex(archivePath, lastModified, CbxPageIndex.Format.RAR, archive.getMainHeader().isSolid(), null, sortPages(pages));
+            } catch (IOException e) {
+                throw e;
+            } catch (Exception e) {
+                throw new IOException("Failed to read CBR archive", e);
+            }
         }
+        throw new IOException("Unsupported archive format: " + cbxPath.getFileName());
     }
 
-    private void extractZipArchive(Path cbzPath, Path targetDir) throws IOException {
-        String[] encodingsToTry = {"UTF-8", "Shift_JIS", "ISO-8859-1", "CP437", "MS932"};
-
-        for (String encoding : encodingsToTry) {
-            try {
-                extractZipWithEncoding(cbzPath, targetDir, Charset.forName(encoding));
-                return;
-            } catch (IllegalArgumentException | java.util.zip.ZipException e) {
-                log.debug("Failed to extract with encoding {}: {}", encoding, e.getMessage());
+    private List<CbxPageIndex.Page> indexZipEntries(Path cbzPath, Charset charset) throws IOException {
+        try (ZipFile zipFile = ZipFile.builder().setPath(cbzPath).setCharset(charset).get()) {
+            List<CbxPageIndex.Page> pages = new ArrayList<>();
+            var entries = zipFile.getEntries();
+            while (entries.hasMoreElements()) {
+                ZipArchiveEntry entry = entries.nextElement();
+                if (!entry.isDirectory() && isImageFile(entry.getName())) {
+                    long size = entry.getSize();
+                    pages.add(new CbxPageIndex.Page(entry.getName(), size >= 0 ? size : entry.getCompressedSize(), entry.getLocalHeaderOffset()));
+                }
             }
+            return sortPages(pages);
         }
+    }
 
-        throw new IOException("Unable to extract ZIP archive with any supported encoding");
+    private List<CbxPageIndex.Page> index7zEntries(Path cb7Path) throws IOException {
+        try (SevenZFile sevenZFile = SevenZFile.builder().setPath(cb7Path).get()) {
+            List<CbxPageIndex.Page> pages = new ArrayList<>();
+            for (SevenZArchiveEntry entry : sevenZFile.getEntries()) {
+                if (!entry.isDirectory() && entry.hasStream() && isImageFile(entry.getName())) {
+                    pages.add(new CbxPageIndex.Page(entry.getName(), entry.getSize(), -1));
+                }
+            }
+            return sortPages(pages);
+        }
     }
 
-    private void extractZipWithEncoding(Path cbzPath, Path targetDir, Charset charset) throws IOException {
-        try (org.apache.commons.compress.archivers.zip.ZipFile zipFile =
-                     org.apache.commons.compress.archivers.zip.ZipFile.builder()
-                             .setPath(cbzPath)
-                             .setCharset(charset)
-                             .get()) {
+    private List<CbxPageIndex.Page> sortPages(List<CbxPageIndex.Page> pages) {
+        pages.sort(Comparator.comparing((CbxPageIndex.Page p) -> extractFileNameFromPath(p.name())).thenComparing(CbxPageIndex.Page::name));
+        return List.copyOf(pages);
+    }
 
-            var entries = zipFile.getEntries();
-            while (entries.hasMoreElements()) {
-                ZipArchiveEntry entry = entries.nextElement();
-                if (!entry.isDirectory() && isImageFile(entry.getName())) {
-                    String fileName = extractFileNameFromPath(entry.getName());
-                    Path target = targetDir.resolve(fileName);
+    private void copyEntry(CbxPageIndex index, CbxPageIndex.Page page, OutputStream out) throws IOException {
+        Path cbxPath = Path.of(index.archivePath());
+        switch (index.format()) {
+            case ZIP -> {
+                try (ZipFile zipFile = ZipFile.builder().setPath(cbxPath).setCharset(Charset.forName(index.charset())).get()) {
+                    ZipArchiveEntry entry = zipFile.getEntry(page.name());
+                    if (entry == null) throw new FileNotFoundException("Entry not found: " + page.name());
                     try (InputStream in = zipFile.getInputStream(entry)) {
-                        Files.copy(in, target, StandardCopyOption.REPLACE_EXISTING);
+                        in.transferTo(out);
                     }
                 }
             }
+            case RAR -> {
+                try (Archive archive = new Archive(cbxPath.toFile())) {
+                    FileHeader header = archive.getFileHeaders().stream()
+                            .filter(h -> h.getPositionInFile() == page.position())
+                            .findFirst()
+                            .orElseThrow(() -> new FileNotFoundException("Entry not found: " + page.name()));
+                    archive.extractFile(header, out);
+                } catch (IOException e) {
+                    throw e;
+                } catch (Exception e) {
+                    throw new IOException("Failed to read CBR entry " + page.name(), e);
+                }
+            }
+            case SEVEN_Z -> throw new IOException("7z archives are served from the decoded cache, not per entry");
         }
     }
 
-    private void extract7zArchive(Path cb7Path, Path targetDir) throws IOException {
-        try (SevenZFile sevenZFile = SevenZFile.builder().setPath(cb7Path).get()) {
-            SevenZArchiveEntry entry;
-            while ((entry = sevenZFile.getNextEntry()) != null) {
-                if (!entry.isDirectory() && isImageFile(entry.getName())) {
-                    String fileName = extractFileNameFromPath(entry.getName());
-                    Path target = targetDir.resolve(fileName);
-                    try (OutputStream out = Files.newOutputStream(target)) {
+    private void ensureConverted(long bookId, CbxPageIndex index, Path cacheDir) throws IOException {
+        if (conversions.containsKey(bookId) || isConverted(index, cacheDir)) {
+            return;
+        }
+        long maxCacheSizeBytes = mbToBytes(appSettingService.getAppSettings().getCbxCacheSizeInMb());
+        if (index.totalSize() > maxCacheSizeBytes) {
+            log.warn("Cache skipped: Estimated archive size {} exceeds max cache size {}", index.totalSize(), maxCacheSizeBytes);
+            throw ApiError.CACHE_TOO_LARGE.createException();
+        }
+        enforceCacheLimit(bookId);
+        Files.createDirectories(cacheDir);
+        startConversion(bookId, index, cacheDir);
+    }
+
+    private boolean isConverted(CbxPageIndex index, Path cacheDir) throws IOException {
+        Path cacheInfoPath = cacheDir.resolve(CACHE_INFO_FILENAME);
+        if (!Files.exists(cacheInfoPath)) return false;
+        try {
+            return Long.parseLong(Files.readString(cacheInfoPath).trim()) == index.archiveLastModified();
+        } catch (NumberFormatException e) {
+            return false;
+        }
+    }
+
+    private Path awaitConvertedPage(long bookId, CbxPageIndex index, Path cacheDir, int pageIndex) throws IOException {
+        Path pagePath = cacheDir.resolve(convertedPageName(index, pageIndex));
+        if (Files.exists(pagePath)) {
+            return pagePath;
+        }
+        if (!conversions.containsKey(bookId)) {
+            ensureConverted(bookId, index, cacheDir);
+        }
+        SolidArchiveConversion conversion = conversions.get(bookId);
+        if (conversion != null) {
+            try {
+                conversion.pages().get(pageIndex).get(PAGE_WAIT_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("Interrupted while waiting for page " + (pageIndex + 1), e);
+            } catch (ExecutionException | TimeoutException e) {
+                throw new IOException("Failed to decode page " + (pageIndex + 1) + " of book " + bookId, e);
+            }
+        }
+        if (!Files.exists(pagePath)) {
+            throw new FileNotFoundException("Page not found: " + (pageIndex + 1));
+        }
+        return pagePath;
+    }
+
+    /**
+     * Decodes a solid archive once, front to back, on a virtual thread. Each page's future completes as soon
+     * as that page is on disk, so the reader can show the first pages while the rest are still being decoded.
+     */
+    private void startConversion(long bookId, CbxPageIndex index, Path cacheDir) {
+        List<CompletableFuture<Void>> pages = index.pages().stream().map(p -> new CompletableFuture<Void>()).toList();
+        SolidArchiveConversion conversion = new SolidArchiveConversion(pages);
+        if (conversions.putIfAbsent(bookId, conversion) != null) {
+            return;
+        }
+
+        Thread.ofVirtual().name("cbx-convert-" + bookId).start(() -> {
+            try {
+                Map<String, Integer> pageByName = new HashMap<>();
+                for (int i = 0; i < index.pages().size(); i++) {
+                    pageByName.putIfAbsent(index.pages().get(i).name(), i);
+                }
+                decodeSequentially(index, cacheDir, pageByName, pages);
+                Files.writeString(cacheDir.resolve(CACHE_INFO_FILENAME), String.valueOf(index.archiveLastModified()),
+                        StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING);
+                pages.forEach(f -> f.complete(null));
+            } catch (Exception e) {
+                log.error("Failed to decode solid archive for book {}", bookId, e);
+                pages.forEach(f -> f.completeExceptionally(e));
+            } finally {
+                conversions.remove(bookId);
+            }
+        });
+    }
+
+    private void decodeSequentially(CbxPageIndex index, Path cacheDir, Map<String, Integer> pageByName,
+                                    List<CompletableFuture<Void>> pages) throws Exception {
+        Path cbxPath = Path.of(index.archivePath());
+        if (index.format() == CbxPageIndex.Format.SEVEN_Z) {
+            try (SevenZFile sevenZFile = SevenZFile.builder().setPath(cbxPath).get()) {
+                SevenZArchiveEntry entry;
+                while ((entry = sevenZFile.getNextEntry()) != null) {
+                    Integer pageIndex = pageByName.get(entry.getName());
+                    if (pageIndex == null || entry.isDirectory()) continue;
+                    Path tmp = convertedPageTmpPath(index, cacheDir, pageIndex);
+                    try (OutputStream out = Files.newOutputStream(tmp)) {
                         copySevenZEntry(sevenZFile, out, entry.getSize());
                     }
+                    commitConvertedPage(tmp);
+                    pages.get(pageIndex).complete(null);
+                }
+            }
+        } else {
+            try (Archive archive = new Archive(cbxPath.toFile())) {
+                for (FileHeader header : archive.getFileHeaders()) {
+                    Integer pageIndex = pageByName.get(header.getFileName());
+                    if (pageIndex == null || header.isDirectory()) continue;
+                    Path tmp = convertedPageTmpPath(index, cacheDir, pageIndex);
+                    try (OutputStream out = Files.newOutputStream(tmp)) {
+                        archive.extractFile(header, out);
+                    }
+                    commitConvertedPage(tmp);
+                    pages.get(pageIndex).complete(null);
                 }
             }
         }
@@ -196,21 +362,23 @@ public class CbxReaderService {
         }
     }
 
-    private void extractRarArchive(Path cbrPath, Path targetDir) throws IOException {
-        try (Archive archive = new Archive(cbrPath.toFile())) {
-            List<FileHeader> headers = archive.getFileHeaders();
-            for (FileHeader header : headers) {
-                if (!header.isDirectory() && isImageFile(header.getFileName())) {
-                    String fileName = extractFileNameFromPath(header.getFileName());
-                    Path target = targetDir.resolve(fileName);
-                    try (OutputStream out = Files.newOutputStream(target)) {
-                        archive.extractFile(header, out);
-                    }
-                }
-            }
-        } catch (Exception e) {
-            throw new IOException("Failed to extract CBR archive", e);
-        }
+    private Path convertedPageTmpPath(CbxPageIndex index, Path cacheDir, int pageIndex) {
+        return cacheDir.resolve(convertedPageName(index, pageIndex) + ".tmp");
+    }
+
+    // Pages appear under their final name only once fully written, so readers never see a partial image
+    private void commitConvertedPage(Path tmp) throws IOException {
+        String name = tmp.getFileName().toString();
+        Path target = tmp.resolveSibling(name.substring(0, name.length() - ".tmp".length()));
+        Files.move(tmp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private String convertedPageName(CbxPageIndex index, int pageIndex) {
+        String name = index.pages().get(pageIndex).name();
+        return String.format("%04d", pageIndex + 1) + name.substring(name.lastIndexOf('.')).toLowerCase();
+    }
+
+    private record SolidArchiveConversion(List<CompletableFuture<Void>> pages) {
     }
 
     private String extractFileNameFromPath(String fullPath) {
@@ -229,27 +397,7 @@ public class CbxReaderService {
         return false;
     }
 
-
-    private boolean needsCacheRefresh(Path cbzPath, Path cacheInfoPath) throws IOException {
-        if (!Files.exists(cacheInfoPath)) return true;
-
-        long currentLastModified = Files.getLastModifiedTime(cbzPath).toMillis();
-        String recordedTimestamp = Files.readString(cacheInfoPath).trim();
-
-        try {
-            long recordedLastModified = Long.parseLong(recordedTimestamp);
-            return recordedLastModified != currentLastModified;
-        } catch (NumberFormatException e) {
-            return true;
-        }
-    }
-
-    private void writeCacheInfo(Path cbzPath, Path cacheInfoPath) throws IOException {
-        long lastModified = Files.getLastModifiedTime(cbzPath).toMillis();
-        Files.writeString(cacheInfoPath, String.valueOf(lastModified), StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING);
-    }
-
-    private void enforceCacheLimit() {
+    private void enforceCacheLimit(long currentBookId) {
         try {
             Path cacheRoot = Path.of(fileService.getCbxCachePath());
             if (!Files.exists(cacheRoot) || !Files.isDirectory(cacheRoot)) {
@@ -258,7 +406,9 @@ public class CbxReaderService {
             long totalSize = 0L;
             List<Path> cacheDirs;
             try (Stream<Path> stream = Files.list(cacheRoot)) {
-                cacheDirs = stream.filter(Files::isDirectory).collect(Collectors.toList());
+                cacheDirs = stream.filter(Files::isDirectory)
+                        .filter(dir -> !dir.getFileName().toString().equals(String.valueOf(currentBookId)) && !isConverting(dir))
+                        .collect(Collectors.toList());
             }
 
             for (Path dir : cacheDirs) {
@@ -283,6 +433,14 @@ public class CbxReaderService {
         }
     }
 
+    private boolean isConverting(Path cacheDir) {
+        try {
+            return conversions.containsKey(Long.parseLong(cacheDir.getFileName().toString()));
+        } catch (NumberFormatException e) {
+            return false;
+        }
+    }
+
     private long getLastReadTime(Path cacheDir) {
         Path cacheInfoPath = cacheDir.resolve(CACHE_INFO_FILENAME);
         if (!Files.exists(cacheInfoPath)) {
@@ -313,82 +471,6 @@ public class CbxReaderService {
         }
     }
 
-    private long estimateArchiveSize(Path cbxPath) {
-        try {
-            String name = cbxPath.getFileName().toString().toLowerCase();
-            if (name.endsWith(CBZ_EXTENSION)) {
-                return estimateCbzArchiveSize(cbxPath);
-            } else if (name.endsWith(CB7_EXTENSION)) {
-                return estimateCb7ArchiveSize(cbxPath);
-            } else if (name.endsWith(CBR_EXTENSION)) {
-                return estimateCbrArchiveSize(cbxPath);
-            }
-        } catch (Exception e) {
-            log.warn("Failed to estimate archive size for {}", cbxPath, e);
-        }
-        return Long.MAX_VALUE;
-    }
-
-    private long estimateCbzArchiveSize(Path cbxPath) throws IOException {
-        String[] encodingsToTry = {"UTF-8", "Shift_JIS", "ISO-8859-1", "CP437", "MS932"};
-
-        for (String encoding : encodingsToTry) {
-            try {
-                return estimateCbzWithEncoding(cbxPath, Charset.forName(encoding));
-            } catch (IllegalArgumentException | java.util.zip.ZipException e) {
-                log.debug("Failed to estimate with encoding {}: {}", encoding, e.getMessage());
-            }
-        }
-
-        log.warn("Unable to estimate archive size for {} with any supported encoding", cbxPath);
-        return Long.MAX_VALUE;
-    }
-
-    private long estimateCbzWithEncoding(Path cbxPath, Charset charset) throws IOException {
-        try (org.apache.commons.compress.archivers.zip.ZipFile zipFile =
-                     org.apache.commons.compress.archivers.zip.ZipFile.builder()
-                             .setPath(cbxPath)
-                             .setCharset(charset)
-                             .get()) {
-
-            long total = 0;
-            var entries = zipFile.getEntries();
-            while (entries.hasMoreElements()) {
-                ZipArchiveEntry entry = entries.nextElement();
-                if (!entry.isDirectory() && isImageFile(entry.getName())) {
-                    long size = entry.getSize();
-                    total += (size >= 0) ? size : entry.getCompressedSize();
-                }
-            }
-            return total > 0 ? total : Long.MAX_VALUE;
-        }
-    }
-
-    private long estimateCb7ArchiveSize(Path cbxPath) throws IOException {
-        try (SevenZFile sevenZFile = SevenZFile.builder().setPath(cbxPath).get()) {
-            SevenZArchiveEntry entry;
-            long total = 0;
-            while ((entry = sevenZFile.getNextEntry()) != null) {
-                if (!entry.isDirectory() && isImageFile(entry.getName())) {
-                    total += entry.getSize();
-                }
-            }
-            return total;
-        }
-    }
-
-    private long estimateCbrArchiveSize(Path cbxPath) throws IOException, RarException {
-        try (Archive archive = new Archive(cbxPath.toFile())) {
-            long total = 0;
-            for (FileHeader header : archive.getFileHeaders()) {
-                if (!header.isDirectory() && isImageFile(header.getFileName())) {
-                    total += header.getFullUnpackSize();
-                }
-            }
-            return total;
-        }
-    }
-
     private long mbToBytes(int mb) {
         return mb * 1024L * 1024L;
     }
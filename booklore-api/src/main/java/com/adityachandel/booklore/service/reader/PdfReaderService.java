@@ -4,6 +4,7 @@ import com.adityachandel.booklore.exception.ApiError;
 import com.adityachandel.booklore.model.entity.BookEntity;
 import com.adityachandel.booklore.repository.BookRepository;
 import com.adityachandel.booklore.service.appsettings.AppSettingService;
+import com.adityachandel.booklore.service.metrics.BookloreMetrics;
 import com.adityachandel.booklore.util.FileService;
 import com.adityachandel.booklore.util.FileUtils;
 import lombok.RequiredArgsConstructor;
@@ -36,6 +37,7 @@ public class PdfReaderService {
     private final BookRepository bookRepository;
     private final AppSettingService appSettingService;
     private final FileService fileService;
+    private final BookloreMetrics bookloreMetrics;
 
     public List<Integer> getAvailablePages(Long bookId) throws IOException {
         BookEntity bookEntity = bookRepository.findById(bookId).orElseThrow(() -> ApiError.BOOK_NOT_FOUND.createException(bookId));
@@ -52,7 +54,9 @@ public class PdfReaderService {
         }
 
         try {
-            if (needsCacheRefresh(pdfPath, cacheInfoPath)) {
+            boolean refresh = needsCacheRefresh(pdfPath, cacheInfoPath);
+            bookloreMetrics.recordReaderCache("pdf", !refresh);
+            if (refresh) {
                 log.info("Invalidating cache for PDF book {}", bookId);
                 if (Files.exists(cacheDir)) FileUtils.deleteDirectoryRecursively(cacheDir);
                 Files.createDirectories(cacheDir);
@@ -0,0 +1,246 @@
+package com.adityachandel.booklore.service.task;
+
+import com.adityachandel.booklore.config.AppProperties;
+import com.adityachandel.booklore.exception.APIException;
+import com.adityachandel.booklore.model.dto.response.TaskQueueResponse;
+import com.adityachandel.booklore.model.enums.TaskPriority;
+import com.adityachandel.booklore.model.enums.TaskResourceClass;
+import com.adityachandel.booklore.model.enums.TaskType;
+import com.adityachandel.booklore.task.TaskStatus;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * Admission control for tasks. Every {@link TaskType} belongs to a {@link TaskResourceClass}, and each class only runs
+ * as many tasks at once as configured under {@code app.tasks}. Tasks beyond that wait in a per-class queue ordered by
+ * {@link TaskPriority}, then submission order, and start on the task executor as soon as a slot frees up.
+ */
+@Slf4j
+@Component
+public class TaskQueue {
+
+    private static final Comparator<Entry> START_ORDER = Comparator
+            .comparing((Entry entry) -> entry.priority)
+            .thenComparingLong(entry -> entry.sequence);
+
+    static final Duration SYNC_ADMISSION_TIMEOUT = Duration.ofSeconds(30);
+
+    private final Executor taskExecutor;
+    private final Duration syncAdmissionTimeout;
+    private final Map<TaskResourceClass, Integer> limits = new EnumMap<>(TaskResourceClass.class);
+    private final Map<TaskResourceClass, PriorityQueue<Entry>> queued = new EnumMap<>(TaskResourceClass.class);
+    private final Map<TaskResourceClass, Integer> runningCounts = new EnumMap<>(TaskResourceClass.class);
+    private final Map<String, Entry> running = new LinkedHashMap<>();
+    private long sequence;
+
+    public TaskQueue(@Qualifier("taskExecutor") Executor taskExecutor, AppProperties appProperties) {
+        this(taskExecutor, appProperties, SYNC_ADMISSION_TIMEOUT);
+    }
+
+    TaskQueue(Executor taskExecutor, AppProperties appProperties, Duration syncAdmissionTimeout) {
+        this.taskExecutor = taskExecutor;
+        this.syncAdmissionTimeout = syncAdmissionTimeout;
+        AppProperties.Tasks tasks = appProperties.getTasks();
+        limits.put(TaskResourceClass.DISK_HEAVY, Math.max(1, tasks.getDiskHeavyConcurrency()));
+        limits.put(TaskResourceClass.CPU_HEAVY, Math.max(1, tasks.getCpuHeavyConcurrency()));
+        limits.put(TaskResourceClass.NETWORK_BOUND, Math.max(1, tasks.getNetworkBoundConcurrency()));
+        for (TaskResourceClass resourceClass : TaskResourceClass.values()) {
+            queued.put(resourceClass, new PriorityQueue<>(START_ORDER));
+            runningCounts.put(resourceClass, 0);
+        }
+    }
+
+    /**
+     * Queues the task and starts it right away if its resource class has a free slot.
+     *
+     * @return the task's 1-based position in its class's queue, or 0 if it was started
+     */
+    public int submit(String taskId, TaskType taskType, TaskPriority priority, Runnable work) {
+        synchronized (this) {
+            queued.get(taskType.getResourceClass()).add(new Entry(taskId, taskType, priority, sequence++, work));
+        }
+        startAvailable();
+        return position(taskId);
+    }
+
+    /**
+     * Runs a synchronous task on the calling thread once its resource class has a free slot. A caller is waiting for
+     * the result, so it queues at {@link TaskPriority#HIGH}; if no slot frees up within {@link #SYNC_ADMISSION_TIMEOUT}
+     * the task is dropped and the caller gets a 503.
+     */
+    public <T> T runNow(String taskId, TaskType taskType, Supplier<T> work) {
+        CompletableFuture<Void> admitted = new CompletableFuture<>();
+        Entry entry;
+        synchronized (this) {
+            entry = new Entry(taskId, taskType, TaskPriority.HIGH, sequence++, () -> admitted.complete(null));
+            entry.inline = true;
+            queued.get(taskType.getResourceClass()).add(entry);
+        }
+        startAvailable();
+        awaitAdmission(entry, admitted);
+        try {
+            return work.get();
+        } finally {
+            finished(entry);
+        }
+    }
+
+    private void awaitAdmission(Entry entry, CompletableFuture<Void> admitted) {
+        try {
+            admitted.get(syncAdmissionTimeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            if (removeQueued(entry.taskId)) {
+                throw new APIException("All " + entry.taskType.getResourceClass() + " task slots are busy. Please try again later.",
+                        HttpStatus.SERVICE_UNAVAILABLE);
+            }
+            // Admitted just as the wait ran out
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            if (!removeQueued(entry.taskId)) {
+                finished(entry);
+            }
+            throw new APIException("Interrupted while waiting for a task slot", HttpStatus.SERVICE_UNAVAILABLE);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Drops a task that has not started yet.
+     *
+     * @return {@code false} if the task is running or unknown
+     */
+    public synchronized boolean removeQueued(String taskId) {
+        return queued.values().stream().anyMatch(queue -> queue.removeIf(entry -> entry.taskId.equals(taskId)));
+    }
+
+    public synchronized TaskQueueResponse snapshot() {
+        List<TaskQueueResponse.QueuedTask> tasks = new ArrayList<>();
+        running.values().forEach(entry -> tasks.add(entry.toQueuedTask(TaskStatus.IN_PROGRESS, null)));
+        for (PriorityQueue<Entry> queue : queued.values()) {
+            List<Entry> ordered = new ArrayList<>(queue);
+            ordered.sort(START_ORDER);
+            for (int i = 0; i < ordered.size(); i++) {
+                tasks.add(ordered.get(i).toQueuedTask(TaskStatus.ACCEPTED, i + 1));
+            }
+        }
+        return TaskQueueResponse.builder()
+                .concurrencyLimits(new EnumMap<>(limits))
+                .tasks(tasks)
+                .build();
+    }
+
+    private synchronized int position(String taskId) {
+        if (running.containsKey(taskId)) {
+            return 0;
+        }
+        for (PriorityQueue<Entry> queue : queued.values()) {
+            List<Entry> ordered = new ArrayList<>(queue);
+            ordered.sort(START_ORDER);
+            for (int i = 0; i < ordered.size(); i++) {
+                if (ordered.get(i).taskId.equals(taskId)) {
+                    return i + 1;
+                }
+            }
+        }
+        return 0;
+    }
+
+    private void startAvailable() {
+        List<Entry> toStart = new ArrayList<>();
+        synchronized (this) {
+            for (TaskResourceClass resourceClass : TaskResourceClass.values()) {
+                PriorityQueue<Entry> queue = queued.get(resourceClass);
+                while (!queue.isEmpty() && runningCounts.get(resourceClass) < limits.get(resourceClass)) {
+                    Entry entry = queue.poll();
+                    markRunning(entry);
+                    toStart.add(entry);
+                }
+            }
+        }
+        for (Entry entry : toStart) {
+            if (entry.inline) {
+                entry.work.run();
+                continue;
+            }
+            try {
+                taskExecutor.execute(() -> {
+                    try {
+                        entry.work.run();
+                    } finally {
+                        finished(entry);
+                    }
+                });
+            } catch (RejectedExecutionException e) {
+                log.error("Task {} of type {} could not be started", entry.taskId, entry.taskType, e);
+                finished(entry);
+            }
+        }
+    }
+
+    private void markRunning(Entry entry) {
+        entry.startedAt = LocalDateTime.now();
+        running.put(entry.taskId, entry);
+        runningCounts.merge(entry.taskType.getResourceClass(), 1, Integer::sum);
+    }
+
+    private void finished(Entry entry) {
+        synchronized (this) {
+            if (running.remove(entry.taskId, entry)) {
+                runningCounts.merge(entry.taskType.getResourceClass(), -1, Integer::sum);
+            }
+        }
+        startAvailable();
+    }
+
+    private static final class Entry {
+        private final String taskId;
+        private final TaskType taskType;
+        private final TaskPriority priority;
+        private final long sequence;
+        private final Runnable work;
+        private final LocalDateTime queuedAt = LocalDateTime.now();
+        private LocalDateTime startedAt;
+        private boolean inline;
+
+        private Entry(String taskId, TaskType taskType, TaskPriority priority, long sequence, Runnable work) {
+            this.taskId = taskId;
+            this.taskType = taskType;
+            this.priority = priority;
+            this.sequence = sequence;
+            this.work = work;
+        }
+
+        private TaskQueueResponse.QueuedTask toQueuedTask(TaskStatus status, Integer position) {
+            return TaskQueueResponse.QueuedTask.builder()
+                    .taskId(taskId)
+                    .taskType(taskType)
+                    .resourceClass(taskType.getResourceClass())
+                    .priority(priority)
+                    .status(status)
+                    .position(position)
+                    .queuedAt(queuedAt)
+                    .startedAt(startedAt)
+                    .build();
+        }
+    }
+}
@@ -7,12 +7,13 @@ import com.adityachandel.booklore.model.dto.TaskInfo;
 import com.adityachandel.booklore.model.dto.request.TaskCreateRequest;
 import com.adityachandel.booklore.model.dto.response.TaskCancelResponse;
 import com.adityachandel.booklore.model.dto.response.TaskCreateResponse;
+import com.adityachandel.booklore.model.dto.response.TaskQueueResponse;
 import com.adityachandel.booklore.model.entity.TaskCronConfigurationEntity;
+import com.adityachandel.booklore.model.enums.TaskPriority;
 import com.adityachandel.booklore.model.enums.TaskType;
 import com.adityachandel.booklore.task.tasks.Task;
 import com.adityachandel.booklore.task.TaskCancellationManager;
 import com.adityachandel.booklore.task.TaskStatus;
-import com.adityachandel.booklore.util.SecurityContextVirtualThread;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.context.annotation.Lazy;
@@ -27,10 +28,10 @@ import org.springframework.stereotype.Service;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
-import java.util.concurrent.Executor;
 import java.util.concurrent.ScheduledFuture;
 import java.util.function.Function;
 import java.util.stream.Collectors;
@@ -44,8 +45,9 @@ public class TaskService {
     private final TaskCronService taskCronService;
     private final Map<TaskType, Task> taskRegistry;
     private final ConcurrentMap<TaskType, String> runningTasks = new ConcurrentHashMap<>();
+    private final Set<String> runningParallelTasks = ConcurrentHashMap.newKeySet();
     private final TaskCancellationManager cancellationManager;
-    private final Executor taskExecutor;
+    private final TaskQueue taskQueue;
     private final ObjectMapper objectMapper;
     private final TaskScheduler taskScheduler;
     private final Map<TaskType, ScheduledFuture<?>> scheduledTasks = new ConcurrentHashMap<>();
@@ -56,7 +58,7 @@ public class TaskService {
             @Lazy TaskCronService taskCronService,
             List<Task> tasks,
             TaskCancellationManager cancellationManager,
-            Executor taskExecutor,
+            TaskQueue taskQueue,
             ObjectMapper objectMapper,
             TaskScheduler taskScheduler) {
         this.authenticationService = authenticationService;
@@ -64,7 +66,7 @@ public class TaskService {
         this.taskCronService = taskCronService;
         this.taskRegistry = tasks.stream().collect(Collectors.toMap(Task::getTaskType, Function.identity()));
         this.cancellationManager = cancellationManager;
-        this.taskExecutor = taskExecutor;
+        this.taskQueue = taskQueue;
         this.objectMapper = objectMapper;
         this.taskScheduler = taskScheduler;
     }
@@ -172,13 +174,8 @@ public class TaskService {
         if (request == null || request.getTaskType() == null) {
             throw new APIException("Task request and task type cannot be null", HttpStatus.BAD_REQUEST);
         }
-        BookLoreUser systemUser = authenticationService.getSystemUser();
-        TaskType taskType = request.getTaskType();
-        if (taskType.isAsync()) {
-            runAsync(request, systemUser, taskType);
-        } else {
-            runSync(request, systemUser, taskType);
-        }
+        // Nobody waits on a scheduled run, so even tasks that are synchronous for users go through the queue
+        runAsync(request, authenticationService.getSystemUser(), request.getTaskType());
     }
 
     private TaskCreateResponse runAsync(TaskCreateRequest request, BookLoreUser user, TaskType taskType) {
@@ -189,20 +186,37 @@ public class TaskService {
                 .status(TaskStatus.ACCEPTED)
                 .build();
         SecurityContext securityContext = SecurityContextHolder.getContext();
-        taskExecutor.execute(() ->
-                SecurityContextVirtualThread.runWithSecurityContext(securityContext, () ->
-                        executeAsyncTask(taskId, request, taskType)
-                )
+        TaskPriority priority = request.isTriggeredByCron() ? TaskPriority.LOW : taskType.getPriority();
+        int position = taskQueue.submit(taskId, taskType, priority, () ->
+                runWithSecurityContext(securityContext, () -> executeAsyncTask(taskId, request, taskType))
         );
+        if (position > 0) {
+            taskHistoryService.updateTaskStatus(taskId, TaskStatus.ACCEPTED,
+                    "Queued at position " + position + " for a free " + taskType.getResourceClass() + " slot");
+        }
         return response;
     }
 
+    public TaskQueueResponse getTaskQueue() {
+        return taskQueue.snapshot();
+    }
+
     public TaskCancelResponse cancelTask(String taskId) {
         BookLoreUser user = authenticationService.getAuthenticatedUser();
-        boolean isRunning = runningTasks.containsValue(taskId);
+        boolean isRunning = runningTasks.containsValue(taskId) || runningParallelTasks.contains(taskId);
         if (!isRunning) {
             throw new APIException("Task not found or not running: " + taskId, HttpStatus.NOT_FOUND);
         }
+        if (taskQueue.removeQueued(taskId)) {
+            releaseTask(taskId);
+            taskHistoryService.updateTaskStatus(taskId, TaskStatus.CANCELLED, "Task cancelled by user before it started");
+            log.info("Queued task {} cancelled by user {}", taskId, user.getUsername());
+            return TaskCancelResponse.builder()
+                    .taskId(taskId)
+                    .cancelled(true)
+                    .message("Task cancelled before it started.")
+                    .build();
+        }
         cancellationManager.cancelTask(taskId);
         taskHistoryService.updateTaskStatus(taskId, TaskStatus.CANCELLED, "Task cancellation requested by user");
         log.info("Task {} cancellation requested by user {}", taskId, user.getUsername());
@@ -233,9 +247,7 @@ public class TaskService {
             log.error("Async task {} of type {} failed", taskId, taskType, e);
             taskHistoryService.updateTaskError(taskId, e.getMessage());
         } finally {
-            if (!taskType.isParallel()) {
-                runningTasks.remove(taskType);
-            }
+            releaseTask(taskId);
             cancellationManager.clearCancellation(taskId);
         }
     }
@@ -243,9 +255,11 @@ public class TaskService {
     private TaskCreateResponse runSync(TaskCreateRequest request, BookLoreUser user, TaskType taskType) {
         String taskId = initializeTask(request, user, taskType);
         try {
-            taskHistoryService.updateTaskStatus(taskId, TaskStatus.IN_PROGRESS, "Task execution started");
             request.setTaskId(taskId);
-            TaskCreateResponse response = executeTask(request);
+            TaskCreateResponse response = taskQueue.runNow(taskId, taskType, () -> {
+                taskHistoryService.updateTaskStatus(taskId, TaskStatus.IN_PROGRESS, "Task execution started");
+                return executeTask(request);
+            });
             response.setTaskId(taskId);
             taskHistoryService.updateTaskStatus(taskId, TaskStatus.COMPLETED, "Task completed successfully");
             return response;
@@ -254,9 +268,23 @@ public class TaskService {
             taskHistoryService.updateTaskError(taskId, e.getMessage());
             throw e;
         } finally {
-            if (!taskType.isParallel()) {
-                runningTasks.remove(taskType);
-            }
+            releaseTask(taskId);
+        }
+    }
+
+    private void releaseTask(String taskId) {
+        runningTasks.values().remove(taskId);
+        runningParallelTasks.remove(taskId);
+    }
+
+    private static void runWithSecurityContext(SecurityContext parentContext, Runnable task) {
+        SecurityContext context = SecurityContextHolder.createEmptyContext();
+        context.setAuthentication(parentContext.getAuthentication());
+        SecurityContextHolder.setContext(context);
+        try {
+            task.run();
+        } finally {
+            SecurityContextHolder.clearContext();
         }
     }
 
@@ -264,13 +292,15 @@ public class TaskService {
         if (!taskType.isParallel()) {
             String existingTaskId = runningTasks.putIfAbsent(taskType, "");
             if (existingTaskId != null) {
-                log.warn("Task of type {} is already running, rejecting new request", taskType);
-                throw new APIException("A task of type " + taskType + " is already running. Please wait for it to complete.", HttpStatus.CONFLICT);
+                log.warn("Task of type {} is already queued or running, rejecting new request", taskType);
+                throw new APIException("A task of type " + taskType + " is already queued or running. Please wait for it to complete.", HttpStatus.CONFLICT);
             }
         }
         String taskId = UUID.randomUUID().toString();
         if (!taskType.isParallel()) {
             runningTasks.put(taskType, taskId);
+        } else {
+            runningParallelTasks.add(taskId);
         }
         Map<String, Object> options = convertOptionsToMap(request.getOptions());
         taskHistoryService.createTask(taskId, taskType, user.getId(), options);
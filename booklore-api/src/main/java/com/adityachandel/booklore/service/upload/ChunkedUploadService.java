@@ -0,0 +1,292 @@
+package com.adityachandel.booklore.service.upload;
+
+import com.adityachandel.booklore.config.security.service.AuthenticationService;
+import com.adityachandel.booklore.exception.ApiError;
+import com.adityachandel.booklore.model.dto.request.ChunkedUploadRequest;
+import com.adityachandel.booklore.model.dto.response.ChunkedUploadStatus;
+import com.adityachandel.booklore.model.entity.UploadSessionEntity;
+import com.adityachandel.booklore.repository.UploadSessionRepository;
+import com.adityachandel.booklore.service.file.FileFingerprint;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * Resumable uploads for large books. A client opens a session with the final size, then sends the file in
+ * chunks at increasing offsets. Every chunk is appended to a staging file in the target library and fed to
+ * the fingerprint, so a dropped connection only loses the bytes that were not yet written: the client asks
+ * for the session status and continues from {@code receivedBytes}. Once the last byte arrives the file is
+ * moved into the library like a regular upload.
+ * <p>
+ * Sessions are stored in {@code upload_session}, so an upload can also be resumed after a restart: the first
+ * request for a session that is not in memory reloads it and re-reads the staging file to rebuild the
+ * fingerprint.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ChunkedUploadService {
+
+    private static final Duration SESSION_IDLE_TIMEOUT = Duration.ofHours(24);
+    private static final long CLEANUP_INTERVAL_MS = 60 * 60 * 1000L;
+    private static final int RESTORE_BUFFER_SIZE = 64 * 1024;
+
+    private final FileUploadService fileUploadService;
+    private final AuthenticationService authenticationService;
+    private final UploadSessionRepository uploadSessionRepository;
+    private final Map<String, UploadSession> sessions = new ConcurrentHashMap<>();
+
+    /**
+     * Removes staging files that no session refers to anymore, e.g. because the session expired while the
+     * server was down. Runs before the web server accepts requests, so no upload can be starting meanwhile.
+     */
+    @PostConstruct
+    public void removeOrphanedStagingFiles() {
+        Set<Path> known = uploadSessionRepository.findAll().stream()
+                .map(entity -> Paths.get(entity.getStagingPath()))
+                .collect(Collectors.toSet());
+        for (Path stagingFile : fileUploadService.findStagingFiles()) {
+            if (!known.contains(stagingFile)) {
+                log.info("Removing orphaned upload staging file {}", stagingFile);
+                fileUploadService.cleanupTempFile(stagingFile);
+            }
+        }
+    }
+
+    public ChunkedUploadStatus startUpload(ChunkedUploadRequest request) {
+        if (request.getLibraryId() == null || request.getPathId() == null || request.getFileSize() == null || request.getFileSize() <= 0) {
+            throw ApiError.INVALID_INPUT.createException("libraryId, pathId and a positive fileSize are required");
+        }
+        fileUploadService.validateFileName(request.getFileName());
+        fileUploadService.validateFileSize(request.getFileSize());
+
+        String uploadId = UUID.randomUUID().toString();
+        Path stagingPath;
+        try {
+            stagingPath = fileUploadService.createStagingFile(fileUploadService.findUploadTarget(request.getLibraryId(), request.getPathId()), uploadId);
+        } catch (IOException e) {
+            log.error("Failed to create staging file for upload of {}", request.getFileName(), e);
+            throw ApiError.FILE_READ_ERROR.createException(e.getMessage());
+        }
+
+        UploadSession session = new UploadSession(
+                uploadId,
+                authenticationService.getAuthenticatedUser().getId(),
+                request.getLibraryId(),
+                request.getPathId(),
+                request.getFileName(),
+                request.getFileSize(),
+                stagingPath,
+                FileFingerprint.incremental());
+        try {
+            uploadSessionRepository.save(UploadSessionEntity.builder()
+                    .id(session.id)
+                    .userId(session.userId)
+                    .libraryId(session.libraryId)
+                    .libraryPathId(session.pathId)
+                    .fileName(session.fileName)
+                    .fileSize(session.fileSize)
+                    .stagingPath(stagingPath.toString())
+                    .lastActivityAt(Instant.now())
+                    .build());
+        } catch (RuntimeException e) {
+            fileUploadService.cleanupTempFile(stagingPath);
+            throw e;
+        }
+        sessions.put(session.id, session);
+        log.info("Started chunked upload {} for '{}' ({} bytes)", session.id, session.fileName, session.fileSize);
+        return toStatus(session, false);
+    }
+
+    public ChunkedUploadStatus getStatus(String uploadId) {
+        UploadSession session = findSession(uploadId);
+        synchronized (session) {
+            return toStatus(session, false);
+        }
+    }
+
+    public ChunkedUploadStatus appendChunk(String uploadId, long offset, InputStream in) {
+        UploadSession session = findSession(uploadId);
+        synchronized (session) {
+            if (session.closed) {
+                throw ApiError.UPLOAD_SESSION_NOT_FOUND.createException(uploadId);
+            }
+            long received = session.fingerprint.length();
+            if (offset != received) {
+                throw ApiError.UPLOAD_OFFSET_MISMATCH.createException(offset, received);
+            }
+            uploadSessionRepository.touch(session.id, Instant.now());
+
+            try (FileChannel channel = FileChannel.open(session.stagingPath, StandardOpenOption.WRITE)) {
+                // drop whatever a broken previous chunk left behind the last counted byte
+                channel.truncate(received);
+                channel.position(received);
+                FileUploadService.transfer(in, channel, session.fingerprint, session.fileSize - received,
+                        () -> ApiError.INVALID_INPUT.createException("Chunk exceeds the declared file size of " + session.fileSize + " bytes"));
+            } catch (IOException e) {
+                log.warn("Chunk for upload {} interrupted at {} of {} bytes: {}", uploadId, session.fingerprint.length(), session.fileSize, e.getMessage());
+                throw ApiError.FILE_READ_ERROR.createException(e.getMessage());
+            }
+
+            if (session.fingerprint.length() < session.fileSize) {
+                return toStatus(session, false);
+            }
+            return complete(session);
+        }
+    }
+
+    public void cancel(String uploadId) {
+        UploadSession session = findSession(uploadId);
+        synchronized (session) {
+            close(session);
+        }
+        log.info("Cancelled chunked upload {}", uploadId);
+    }
+
+    @Scheduled(fixedDelay = CLEANUP_INTERVAL_MS)
+    public void expireIdleSessions() {
+        for (UploadSessionEntity entity : uploadSessionRepository.findByLastActivityAtBefore(Instant.now().minus(SESSION_IDLE_TIMEOUT))) {
+            log.info("Expiring idle chunked upload {} for '{}'", entity.getId(), entity.getFileName());
+            UploadSession session = sessions.get(entity.getId());
+            if (session != null) {
+                synchronized (session) {
+                    close(session);
+                }
+            } else {
+                uploadSessionRepository.deleteById(entity.getId());
+                fileUploadService.cleanupTempFile(Paths.get(entity.getStagingPath()));
+            }
+        }
+    }
+
+    private ChunkedUploadStatus complete(UploadSession session) {
+        try {
+            fileUploadService.completeStagedUpload(session.libraryId, session.pathId, session.fileName, session.stagingPath, session.fingerprint.digest());
+            session.closed = true;
+            sessions.remove(session.id);
+            uploadSessionRepository.deleteById(session.id);
+            return toStatus(session, true);
+        } catch (IOException e) {
+            log.error("Failed to complete chunked upload {} for '{}'", session.id, session.fileName, e);
+            close(session);
+            throw ApiError.FILE_READ_ERROR.createException(e.getMessage());
+        } catch (RuntimeException e) {
+            close(session);
+            throw e;
+        }
+    }
+
+    private void close(UploadSession session) {
+        session.closed = true;
+        sessions.remove(session.id);
+        uploadSessionRepository.deleteById(session.id);
+        fileUploadService.cleanupTempFile(session.stagingPath);
+    }
+
+    private UploadSession findSession(String uploadId) {
+        UploadSession session = sessions.get(uploadId);
+        if (session == null) {
+            session = restoreSession(uploadId);
+        }
+        if (session == null || !Objects.equals(session.userId, authenticationService.getAuthenticatedUser().getId())) {
+            throw ApiError.UPLOAD_SESSION_NOT_FOUND.createException(uploadId);
+        }
+        return session;
+    }
+
+    /**
+     * Reloads a session that was started before a restart. Everything in the staging file was written at its
+     * final offset, so the file is read back once to rebuild the fingerprint and the upload continues from its
+     * current length.
+     */
+    private UploadSession restoreSession(String uploadId) {
+        UploadSessionEntity entity = uploadSessionRepository.findById(uploadId).orElse(null);
+        if (entity == null) {
+            return null;
+        }
+        Path stagingPath = Paths.get(entity.getStagingPath());
+        FileFingerprint.Incremental fingerprint = FileFingerprint.incremental();
+        try (InputStream in = Files.newInputStream(stagingPath)) {
+            byte[] buffer = new byte[RESTORE_BUFFER_SIZE];
+            long remaining = entity.getFileSize();
+            int read;
+            while (remaining > 0 && (read = in.read(buffer, 0, (int) Math.min(buffer.length, remaining))) != -1) {
+                fingerprint.update(buffer, 0, read);
+                remaining -= read;
+            }
+        } catch (IOException e) {
+            log.warn("Dropping chunked upload {}: staging file {} is not readable: {}", uploadId, stagingPath, e.getMessage());
+            uploadSessionRepository.deleteById(uploadId);
+            fileUploadService.cleanupTempFile(stagingPath);
+            return null;
+        }
+
+        UploadSession restored = new UploadSession(
+                entity.getId(),
+                entity.getUserId(),
+                entity.getLibraryId(),
+                entity.getLibraryPathId(),
+                entity.getFileName(),
+                entity.getFileSize(),
+                stagingPath,
+                fingerprint);
+        UploadSession existing = sessions.putIfAbsent(uploadId, restored);
+        if (existing != null) {
+            return existing;
+        }
+        log.info("Restored chunked upload {} for '{}' at {} of {} bytes", uploadId, restored.fileName, fingerprint.length(), restored.fileSize);
+        return restored;
+    }
+
+    private ChunkedUploadStatus toStatus(UploadSession session, boolean complete) {
+        return ChunkedUploadStatus.builder()
+                .uploadId(session.id)
+                .fileName(session.fileName)
+                .fileSize(session.fileSize)
+                .receivedBytes(session.fingerprint.length())
+                .complete(complete)
+                .build();
+    }
+
+    private static final class UploadSession {
+        private final String id;
+        private final Long userId;
+        private final long libraryId;
+        private final long pathId;
+        private final String fileName;
+        private final long fileSize;
+        private final Path stagingPath;
+        private final FileFingerprint.Incremental fingerprint;
+        private boolean closed;
+
+        private UploadSession(String id, Long userId, long libraryId, long pathId, String fileName, long fileSize, Path stagingPath,
+                              FileFingerprint.Incremental fingerprint) {
+            this.id = id;
+            this.userId = userId;
+            this.libraryId = libraryId;
+            this.pathId = pathId;
+            this.fileName = fileName;
+            this.fileSize = fileSize;
+            this.stagingPath = stagingPath;
+            this.fingerprint = fingerprint;
+        }
+    }
+}
@@ -1,6 +1,7 @@
 package com.adityachandel.booklore.service.upload;
 
 import com.adityachandel.booklore.config.AppProperties;
+import com.adityachandel.booklore.exception.APIException;
 import com.adityachandel.booklore.exception.ApiError;
 import com.adityachandel.booklore.mapper.AdditionalFileMapper;
 import com.adityachandel.booklore.model.dto.AdditionalFile;
@@ -18,7 +19,9 @@ import com.adityachandel.booklore.repository.LibraryRepository;
 import com.adityachandel.booklore.service.file.FileFingerprint;
 import com.adityachandel.booklore.service.appsettings.AppSettingService;
 import com.adityachandel.booklore.service.file.FileMovingHelper;
+import com.adityachandel.booklore.service.file.PrecomputedFileHashes;
 import com.adityachandel.booklore.service.metadata.extractor.MetadataExtractorFactory;
+import com.adityachandel.booklore.util.FileUtils;
 import com.adityachandel.booklore.util.PathPatternResolver;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -28,11 +31,17 @@ import org.springframework.web.multipart.MultipartFile;
 
 import java.io.File;
 import java.io.IOException;
-import java.nio.file.Files;
-import java.nio.file.Path;
-import java.nio.file.Paths;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.*;
+import java.nio.file.attribute.BasicFileAttributes;
 import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Optional;
+import java.util.UUID;
+import java.util.function.Supplier;
 
 @RequiredArgsConstructor
 @Service
@@ -43,6 +52,7 @@ public class FileUploadService {
     private static final String BOOKDROP_TEMP_PREFIX = "bookdrop-";
     private static final long BYTES_TO_KB_DIVISOR = 1024L;
     private static final long MB_TO_BYTES_MULTIPLIER = 1024L * 1024L;
+    private static final int TRANSFER_BUFFER_SIZE = 64 * 1024;
 
     private final LibraryRepository libraryRepository;
     private final BookRepository bookRepository;
@@ -52,6 +62,7 @@ public class FileUploadService {
     private final MetadataExtractorFactory metadataExtractorFactory;
     private final AdditionalFileMapper additionalFileMapper;
     private final FileMovingHelper fileMovingHelper;
+    private final PrecomputedFileHashes precomputedFileHashes;
 
     public void uploadFile(MultipartFile file, long libraryId, long pathId) {
         validateFile(file);
@@ -60,28 +71,150 @@ public class FileUploadService {
         final LibraryPathEntity libraryPathEntity = findLibraryPathById(libraryEntity, pathId);
         final String originalFileName = getValidatedFileName(file);
 
-        Path tempPath = null;
-        try {
-            tempPath = createTempFile(UPLOAD_TEMP_PREFIX, originalFileName);
-            file.transferTo(tempPath);
-
-            final BookFileExtension fileExtension = getFileExtension(originalFileName);
-            final BookMetadata metadata = extractMetadata(fileExtension, tempPath.toFile());
-            final String uploadPattern = fileMovingHelper.getFileNamingPattern(libraryEntity);
-
-            final String relativePath = PathPatternResolver.resolvePattern(metadata, uploadPattern, originalFileName);
-            final Path finalPath = Paths.get(libraryPathEntity.getPath(), relativePath);
+        try (InputStream in = file.getInputStream()) {
+            ingest(in, libraryEntity, libraryPathEntity, originalFileName);
+        } catch (IOException e) {
+            log.error("Failed to upload file: {}", originalFileName, e);
+            throw ApiError.FILE_READ_ERROR.createException(e.getMessage());
+        }
+    }
 
-            validateFinalPath(finalPath);
-            moveFileToFinalLocation(tempPath, finalPath);
+    /**
+     * Uploads a book sent as the raw request body. Nothing is spooled by the servlet container: the body is
+     * written straight into a staging file next to the library and fingerprinted while it arrives.
+     */
+    public void uploadFileStream(InputStream in, String fileName, long contentLength, long libraryId, long pathId) {
+        validateFileName(fileName);
+        if (contentLength > 0) {
+            validateFileSize(contentLength);
+        }
 
-            log.info("File uploaded to final location: {}", finalPath);
+        final LibraryEntity libraryEntity = findLibraryById(libraryId);
+        final LibraryPathEntity libraryPathEntity = findLibraryPathById(libraryEntity, pathId);
 
+        try {
+            ingest(in, libraryEntity, libraryPathEntity, fileName);
         } catch (IOException e) {
-            log.error("Failed to upload file: {}", originalFileName, e);
+            log.error("Failed to upload file: {}", fileName, e);
             throw ApiError.FILE_READ_ERROR.createException(e.getMessage());
+        }
+    }
+
+    private void ingest(InputStream in, LibraryEntity libraryEntity, LibraryPathEntity libraryPathEntity, String originalFileName) throws IOException {
+        Path stagingPath = null;
+        try {
+            stagingPath = createStagingFile(libraryPathEntity);
+            FileFingerprint.Incremental fingerprint = FileFingerprint.incremental();
+            try (FileChannel channel = FileChannel.open(stagingPath, StandardOpenOption.WRITE)) {
+                long maxBytes = getMaxUploadBytes();
+                transfer(in, channel, fingerprint, maxBytes, () -> ApiError.FILE_TOO_LARGE.createException(maxBytes / MB_TO_BYTES_MULTIPLIER));
+            }
+            completeStagedUpload(libraryEntity, libraryPathEntity, originalFileName, stagingPath, fingerprint.digest());
+            stagingPath = null;
         } finally {
-            cleanupTempFile(tempPath);
+            cleanupTempFile(stagingPath);
+        }
+    }
+
+    /**
+     * Moves a fully received staging file to its place in the library. The fingerprint computed during the
+     * upload is registered for the watcher, so the import that follows does not read the file again.
+     */
+    Path completeStagedUpload(LibraryEntity libraryEntity, LibraryPathEntity libraryPathEntity, String originalFileName, Path stagingPath, String fileHash) throws IOException {
+        final BookFileExtension fileExtension = getFileExtension(originalFileName);
+        final BookMetadata metadata = extractMetadata(fileExtension, stagingPath.toFile());
+        final String uploadPattern = fileMovingHelper.getFileNamingPattern(libraryEntity);
+
+        final String relativePath = PathPatternResolver.resolvePattern(metadata, uploadPattern, originalFileName);
+        final Path finalPath = Paths.get(libraryPathEntity.getPath(), relativePath);
+
+        validateFinalPath(finalPath);
+        BasicFileAttributes attributes = Files.readAttributes(stagingPath, BasicFileAttributes.class);
+        precomputedFileHashes.register(finalPath, fileHash, attributes.size(), attributes.lastModifiedTime().toMillis());
+        moveStagedFile(stagingPath, finalPath);
+
+        log.info("File uploaded to final location: {}", finalPath);
+        return finalPath;
+    }
+
+    /**
+     * Copies the stream into the channel at its current position, feeding every written byte to the
+     * fingerprint. Bytes are only counted once they are on disk, so after a failure the fingerprint length
+     * is the offset a client can resume from.
+     */
+    static long transfer(InputStream in, FileChannel channel, FileFingerprint.Incremental fingerprint, long maxBytes, Supplier<APIException> tooLarge) throws IOException {
+        byte[] buffer = new byte[TRANSFER_BUFFER_SIZE];
+        long total = 0;
+        int read;
+        while ((read = in.read(buffer)) != -1) {
+            if (total + read > maxBytes) {
+                throw tooLarge.get();
+            }
+            ByteBuffer chunk = ByteBuffer.wrap(buffer, 0, read);
+            while (chunk.hasRemaining()) {
+                channel.write(chunk);
+            }
+            fingerprint.update(buffer, 0, read);
+            total += read;
+        }
+        return total;
+    }
+
+    LibraryPathEntity findUploadTarget(long libraryId, long pathId) {
+        return findLibraryPathById(findLibraryById(libraryId), pathId);
+    }
+
+    Path completeStagedUpload(long libraryId, long pathId, String originalFileName, Path stagingPath, String fileHash) throws IOException {
+        final LibraryEntity libraryEntity = findLibraryById(libraryId);
+        return completeStagedUpload(libraryEntity, findLibraryPathById(libraryEntity, pathId), originalFileName, stagingPath, fileHash);
+    }
+
+    Path createStagingFile(LibraryPathEntity libraryPathEntity) throws IOException {
+        return createStagingFile(libraryPathEntity, UUID.randomUUID().toString());
+    }
+
+    Path createStagingFile(LibraryPathEntity libraryPathEntity, String uploadId) throws IOException {
+        Path root = Paths.get(libraryPathEntity.getPath());
+        Files.createDirectories(root);
+        return Files.createFile(root.resolve(FileUtils.uploadStagingFileName(uploadId)));
+    }
+
+    /**
+     * Lists the staging files currently sitting in the library roots, including ones left behind by uploads
+     * that were interrupted by a restart.
+     */
+    List<Path> findStagingFiles() {
+        List<Path> stagingFiles = new ArrayList<>();
+        for (LibraryEntity library : libraryRepository.findAll()) {
+            for (LibraryPathEntity libraryPath : library.getLibraryPaths()) {
+                Path root = Paths.get(libraryPath.getPath());
+                if (!Files.isDirectory(root)) {
+                    continue;
+                }
+                try (DirectoryStream<Path> stream = Files.newDirectoryStream(root, path -> FileUtils.isUploadStagingFile(path.getFileName().toString()))) {
+                    stream.forEach(stagingFiles::add);
+                } catch (IOException e) {
+                    log.warn("Failed to list staging files in {}: {}", root, e.getMessage());
+                }
+            }
+        }
+        return stagingFiles;
+    }
+
+    long getMaxUploadBytes() {
+        return appSettingService.getAppSettings().getMaxFileUploadSizeInMb() * MB_TO_BYTES_MULTIPLIER;
+    }
+
+    void validateFileName(String fileName) {
+        if (fileName == null || fileName.isBlank() || BookFileExtension.fromFileName(fileName).isEmpty()) {
+            throw ApiError.INVALID_FILE_FORMAT.createException("Unsupported file extension");
+        }
+    }
+
+    void validateFileSize(long size) {
+        final int maxSizeMb = appSettingService.getAppSettings().getMaxFileUploadSizeInMb();
+        if (size > maxSizeMb * MB_TO_BYTES_MULTIPLIER) {
+            throw ApiError.FILE_TOO_LARGE.createException(maxSizeMb);
         }
     }
 
@@ -188,6 +321,15 @@ public class FileUploadService {
         Files.move(sourcePath, targetPath);
     }
 
+    private void moveStagedFile(Path stagingPath, Path targetPath) throws IOException {
+        Files.createDirectories(targetPath.getParent());
+        try {
+            Files.move(stagingPath, targetPath, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(stagingPath, targetPath);
+        }
+    }
+
     private void validateAlternativeFormatDuplicate(AdditionalFileType additionalFileType, String fileHash) {
         if (additionalFileType == AdditionalFileType.ALTERNATIVE_FORMAT) {
             final Optional<BookAdditionalFileEntity> existingAltFormat = additionalFileRepository.findByAltFormatCurrentHash(fileHash);
@@ -215,7 +357,7 @@ public class FileUploadService {
                 .build();
     }
 
-    private void cleanupTempFile(Path tempPath) {
+    void cleanupTempFile(Path tempPath) {
         if (tempPath != null) {
             try {
                 Files.deleteIfExists(tempPath);
@@ -234,10 +376,6 @@ public class FileUploadService {
         if (originalFilename == null || BookFileExtension.fromFileName(originalFilename).isEmpty()) {
             throw ApiError.INVALID_FILE_FORMAT.createException("Unsupported file extension");
         }
-
-        final int maxSizeMb = appSettingService.getAppSettings().getMaxFileUploadSizeInMb();
-        if (file.getSize() > maxSizeMb * MB_TO_BYTES_MULTIPLIER) {
-            throw ApiError.FILE_TOO_LARGE.createException(maxSizeMb);
-        }
+        validateFileSize(file.getSize());
     }
 }
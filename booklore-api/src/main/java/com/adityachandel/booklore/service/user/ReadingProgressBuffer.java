@@ -0,0 +1,312 @@
+package com.adityachandel.booklore.service.user;
+
+import com.adityachandel.booklore.model.entity.KoboReadingStateEntity;
+import com.adityachandel.booklore.model.entity.UserBookProgressEntity;
+import com.adityachandel.booklore.model.enums.ReadStatus;
+import jakarta.annotation.PreDestroy;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Write-behind buffer for reading positions. Readers report progress every few page turns, so instead of a
+ * transaction per report the latest values per (user, book) and per Kobo entitlement are kept here and written
+ * with batched upserts every {@value #FLUSH_INTERVAL_MS} ms, when more than {@value #MAX_PENDING_ENTRIES}
+ * entries are pending, and on shutdown. Reads go through {@link #overlay} so pending values are visible
+ * right after they are posted.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ReadingProgressBuffer {
+
+    static final long FLUSH_INTERVAL_MS = 5_000;
+    static final int MAX_PENDING_ENTRIES = 10_000;
+    static final int BATCH_SIZE = 500;
+
+    @Getter
+    public enum Field {
+        LAST_READ_TIME("last_read_time", Instant.class, UserBookProgressEntity::setLastReadTime),
+        PDF_PROGRESS("pdf_progress", Integer.class, UserBookProgressEntity::setPdfProgress),
+        PDF_PROGRESS_PERCENT("pdf_progress_percent", Float.class, UserBookProgressEntity::setPdfProgressPercent),
+        EPUB_PROGRESS("epub_progress", String.class, UserBookProgressEntity::setEpubProgress),
+        EPUB_PROGRESS_PERCENT("epub_progress_percent", Float.class, UserBookProgressEntity::setEpubProgressPercent),
+        CBX_PROGRESS("cbx_progress", Integer.class, UserBookProgressEntity::setCbxProgress),
+        CBX_PROGRESS_PERCENT("cbx_progress_percent", Float.class, UserBookProgressEntity::setCbxProgressPercent),
+        KOREADER_PROGRESS("koreader_progress", String.class, UserBookProgressEntity::setKoreaderProgress),
+        KOREADER_PROGRESS_PERCENT("koreader_progress_percent", Float.class, UserBookProgressEntity::setKoreaderProgressPercent),
+        KOREADER_DEVICE("koreader_device", String.class, UserBookProgressEntity::setKoreaderDevice),
+        KOREADER_DEVICE_ID("koreader_device_id", String.class, UserBookProgressEntity::setKoreaderDeviceId),
+        KOREADER_LAST_SYNC_TIME("koreader_last_sync_time", Instant.class, UserBookProgressEntity::setKoreaderLastSyncTime),
+        READ_STATUS("read_status", ReadStatus.class, UserBookProgressEntity::setReadStatus),
+        DATE_FINISHED("date_finished", Instant.class, UserBookProgressEntity::setDateFinished);
+
+        private final String column;
+        private final Class<?> type;
+        private final BiConsumer<UserBookProgressEntity, Object> setter;
+
+        <T> Field(String column, Class<T> type, BiConsumer<UserBookProgressEntity, T> setter) {
+            this.column = column;
+            this.type = type;
+            this.setter = (progress, value) -> setter.accept(progress, type.cast(value));
+        }
+    }
+
+    /**
+     * Progress columns to set for one book; fields not set here keep their stored value. {@code null} clears a field.
+     */
+    public static final class Patch {
+        private final EnumMap<Field, Object> values;
+
+        public Patch() {
+            this.values = new EnumMap<>(Field.class);
+        }
+
+        private Patch(EnumMap<Field, Object> values) {
+            this.values = values;
+        }
+
+        public Patch set(Field field, Object value) {
+            values.put(field, value == null ? null : field.getType().cast(value));
+            return this;
+        }
+
+        public boolean isEmpty() {
+            return values.isEmpty();
+        }
+
+        Patch mergedWith(Patch newer) {
+            EnumMap<Field, Object> merged = new EnumMap<>(values);
+            merged.putAll(newer.values);
+            return new Patch(merged);
+        }
+
+        void applyTo(UserBookProgressEntity progress) {
+            values.forEach((field, value) -> field.getSetter().accept(progress, value));
+        }
+    }
+
+    private record Key(long userId, long bookId) {
+    }
+
+    private static final String KOBO_STATE_UPSERT = """
+            INSERT INTO kobo_reading_state (entitlement_id, created, last_modified, priority_timestamp,
+                                            current_bookmark_json, statistics_json, status_info_json, last_modified_string)
+            VALUES (:entitlementId, :created, :lastModified, :priorityTimestamp,
+                    :currentBookmarkJson, :statisticsJson, :statusInfoJson, :lastModifiedString)
+            ON DUPLICATE KEY UPDATE last_modified = VALUES(last_modified),
+                                    current_bookmark_json = VALUES(current_bookmark_json),
+                                    statistics_json = VALUES(statistics_json),
+                                    status_info_json = VALUES(status_info_json),
+                                    last_modified_string = VALUES(last_modified_string)
+            """;
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final Map<Key, Patch> pendingProgress = new ConcurrentHashMap<>();
+    private final Map<String, KoboReadingStateEntity> pendingKoboStates = new ConcurrentHashMap<>();
+
+    public void update(long userId, long bookId, Patch patch) {
+        if (patch.isEmpty()) {
+            return;
+        }
+        Patch copy = new Patch(new EnumMap<>(patch.values));
+        pendingProgress.merge(new Key(userId, bookId), copy, Patch::mergedWith);
+        flushIfFull();
+    }
+
+    /**
+     * Queues a Kobo reading state; the creation and priority timestamps are only written for new rows.
+     */
+    public void updateKoboState(KoboReadingStateEntity state) {
+        pendingKoboStates.put(state.getEntitlementId(), state);
+        flushIfFull();
+    }
+
+    /**
+     * Returns the pending values for the given books. Take this snapshot before reading the stored rows, so a flush
+     * in between can only make the stored rows newer, and pass both to {@link #overlay}.
+     */
+    public Map<Long, Patch> pending(long userId, Collection<Long> bookIds) {
+        if (pendingProgress.isEmpty()) {
+            return Map.of();
+        }
+        Map<Long, Patch> pending = new HashMap<>();
+        for (Long bookId : bookIds) {
+            Patch patch = pendingProgress.get(new Key(userId, bookId));
+            if (patch != null) {
+                pending.put(bookId, patch);
+            }
+        }
+        return pending;
+    }
+
+    /**
+     * Applies pending values on top of the stored progress rows, adding rows that exist only in the buffer. Stored
+     * rows with pending values are copied first, so managed entities are never changed.
+     */
+    public Map<Long, UserBookProgressEntity> overlay(Map<Long, UserBookProgressEntity> stored, Map<Long, Patch> pending) {
+        if (pending.isEmpty()) {
+            return stored;
+        }
+        Map<Long, UserBookProgressEntity> merged = new HashMap<>(stored);
+        pending.forEach((bookId, patch) -> {
+            UserBookProgressEntity progress = stored.get(bookId);
+            UserBookProgressEntity copy = progress != null ? copyOf(progress) : new UserBookProgressEntity();
+            patch.applyTo(copy);
+            merged.put(bookId, copy);
+        });
+        return merged;
+    }
+
+    public KoboReadingStateEntity pendingKoboState(String entitlementId) {
+        return pendingKoboStates.get(entitlementId);
+    }
+
+    @Scheduled(fixedDelay = FLUSH_INTERVAL_MS)
+    public synchronized void flush() {
+        flushProgress();
+        flushKoboStates();
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        flush();
+    }
+
+    private void flushIfFull() {
+        if (pendingProgress.size() + pendingKoboStates.size() >= MAX_PENDING_ENTRIES) {
+            flush();
+        }
+    }
+
+    private void flushProgress() {
+        if (pendingProgress.isEmpty()) {
+            return;
+        }
+        // One statement per distinct column set, so a web reader update never overwrites KOReader columns and vice versa
+        Map<Set<Field>, List<Map.Entry<Key, Patch>>> byFields = pendingProgress.entrySet().stream()
+                .map(entry -> Map.entry(entry.getKey(), entry.getValue()))
+                .collect(Collectors.groupingBy(entry -> EnumSet.copyOf(entry.getValue().values.keySet()), LinkedHashMap::new, Collectors.toList()));
+        byFields.forEach((fields, entries) -> write(progressUpsert(fields), entries, ReadingProgressBuffer::progressParameters,
+                pendingProgress, "reading progress"));
+    }
+
+    private void flushKoboStates() {
+        if (pendingKoboStates.isEmpty()) {
+            return;
+        }
+        List<Map.Entry<String, KoboReadingStateEntity>> entries = pendingKoboStates.entrySet().stream()
+                .map(entry -> Map.entry(entry.getKey(), entry.getValue()))
+                .toList();
+        write(KOBO_STATE_UPSERT, entries, entry -> koboStateParameters(entry.getValue()), pendingKoboStates, "Kobo reading state");
+    }
+
+    /**
+     * Upserts the entries in batches and removes each written entry unless it was replaced in the meantime. Rows the
+     * database rejects (e.g. a book deleted since) are dropped; other failures keep the entries for the next flush.
+     */
+    private <K, V> void write(String sql, List<Map.Entry<K, V>> entries, Function<Map.Entry<K, V>, SqlParameterSource> parameters,
+                              Map<K, V> pending, String label) {
+        for (int i = 0; i < entries.size(); i += BATCH_SIZE) {
+            List<Map.Entry<K, V>> chunk = entries.subList(i, Math.min(i + BATCH_SIZE, entries.size()));
+            try {
+                jdbcTemplate.batchUpdate(sql, chunk.stream().map(parameters).toArray(SqlParameterSource[]::new));
+                chunk.forEach(entry -> pending.remove(entry.getKey(), entry.getValue()));
+            } catch (DataIntegrityViolationException e) {
+                log.warn("Batched {} write failed, retrying row by row: {}", label, e.getMessage());
+                writeOneByOne(sql, chunk, parameters, pending, label);
+            } catch (DataAccessException e) {
+                log.error("Failed to write {} pending {} entries, will retry: {}", chunk.size(), label, e.getMessage(), e);
+                return;
+            }
+        }
+    }
+
+    private <K, V> void writeOneByOne(String sql, List<Map.Entry<K, V>> chunk, Function<Map.Entry<K, V>, SqlParameterSource> parameters,
+                                      Map<K, V> pending, String label) {
+        for (Map.Entry<K, V> entry : chunk) {
+            try {
+                jdbcTemplate.update(sql, parameters.apply(entry));
+                pending.remove(entry.getKey(), entry.getValue());
+            } catch (DataIntegrityViolationException e) {
+                log.warn("Dropping {} for {}: {}", label, entry.getKey(), e.getMessage());
+                pending.remove(entry.getKey(), entry.getValue());
+            }
+        }
+    }
+
+    private static String progressUpsert(Set<Field> fields) {
+        StringJoiner columns = new StringJoiner(", ", "user_id, book_id, ", "");
+        StringJoiner values = new StringJoiner(", ", ":userId, :bookId, ", "");
+        StringJoiner updates = new StringJoiner(", ");
+        for (Field field : fields) {
+            columns.add(field.getColumn());
+            values.add(":" + field.getColumn());
+            updates.add(field.getColumn() + " = VALUES(" + field.getColumn() + ")");
+        }
+        return "INSERT INTO user_book_progress (" + columns + ") VALUES (" + values + ") ON DUPLICATE KEY UPDATE " + updates;
+    }
+
+    private static SqlParameterSource progressParameters(Map.Entry<Key, Patch> entry) {
+        MapSqlParameterSource parameters = new MapSqlParameterSource()
+                .addValue("userId", entry.getKey().userId())
+                .addValue("bookId", entry.getKey().bookId());
+        entry.getValue().values.forEach((field, value) -> parameters.addValue(field.getColumn(), toSqlValue(value)));
+        return parameters;
+    }
+
+    private static SqlParameterSource koboStateParameters(KoboReadingStateEntity state) {
+        return new MapSqlParameterSource()
+                .addValue("entitlementId", state.getEntitlementId())
+                .addValue("created", state.getCreated())
+                .addValue("lastModified", state.getLastModified())
+                .addValue("priorityTimestamp", state.getPriorityTimestamp())
+                .addValue("currentBookmarkJson", state.getCurrentBookmarkJson())
+                .addValue("statisticsJson", state.getStatisticsJson())
+                .addValue("statusInfoJson", state.getStatusInfoJson())
+                .addValue("lastModifiedString", state.getLastModifiedString());
+    }
+
+    private static UserBookProgressEntity copyOf(UserBookProgressEntity progress) {
+        return UserBookProgressEntity.builder()
+                .id(progress.getId())
+                .user(progress.getUser())
+                .book(progress.getBook())
+                .lastReadTime(progress.getLastReadTime())
+                .pdfProgress(progress.getPdfProgress())
+                .pdfProgressPercent(progress.getPdfProgressPercent())
+                .epubProgress(progress.getEpubProgress())
+                .epubProgressPercent(progress.getEpubProgressPercent())
+                .cbxProgress(progress.getCbxProgress())
+                .cbxProgressPercent(progress.getCbxProgressPercent())
+                .koreaderProgress(progress.getKoreaderProgress())
+                .koreaderProgressPercent(progress.getKoreaderProgressPercent())
+                .koreaderDevice(progress.getKoreaderDevice())
+                .koreaderDeviceId(progress.getKoreaderDeviceId())
+                .koreaderLastSyncTime(progress.getKoreaderLastSyncTime())
+                .readStatus(progress.getReadStatus())
+                .dateFinished(progress.getDateFinished())
+                .build();
+    }
+
+    private static Object toSqlValue(Object value) {
+        if (value instanceof Instant instant) return Timestamp.from(instant);
+        if (value instanceof Enum<?> constant) return constant.name();
+        return value;
+    }
+}
@@ -6,6 +6,7 @@ import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 
 import java.util.Map;
+import java.util.Optional;
 import java.util.Set;
 import java.util.stream.Collectors;
 
@@ -14,9 +15,20 @@ import java.util.stream.Collectors;
 public class UserProgressService {
 
     private final UserBookProgressRepository userBookProgressRepository;
+    private final ReadingProgressBuffer readingProgressBuffer;
 
     public Map<Long, UserBookProgressEntity> fetchUserProgress(Long userId, Set<Long> bookIds) {
-        return userBookProgressRepository.findByUserIdAndBookIdIn(userId, bookIds).stream()
+        Map<Long, ReadingProgressBuffer.Patch> pending = readingProgressBuffer.pending(userId, bookIds);
+        Map<Long, UserBookProgressEntity> stored = userBookProgressRepository.findByUserIdAndBookIdIn(userId, bookIds).stream()
                 .collect(Collectors.toMap(p -> p.getBook().getId(), p -> p));
+        return readingProgressBuffer.overlay(stored, pending);
+    }
+
+    public Optional<UserBookProgressEntity> findUserProgress(Long userId, Long bookId) {
+        Map<Long, ReadingProgressBuffer.Patch> pending = readingProgressBuffer.pending(userId, Set.of(bookId));
+        Map<Long, UserBookProgressEntity> stored = userBookProgressRepository.findByUserIdAndBookId(userId, bookId)
+                .map(progress -> Map.of(bookId, progress))
+                .orElse(Map.of());
+        return Optional.ofNullable(readingProgressBuffer.overlay(stored, pending).get(bookId));
     }
 }
@@ -10,6 +10,7 @@ import com.adityachandel.booklore.model.enums.*;
 import com.adityachandel.booklore.repository.LibraryRepository;
 import com.adityachandel.booklore.repository.UserRepository;
 import com.adityachandel.booklore.service.appsettings.AppSettingService;
+import com.adityachandel.booklore.service.event.WebSocketUserRegistry;
 import jakarta.transaction.Transactional;
 import lombok.AllArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -32,6 +33,7 @@ public class UserProvisioningService {
     private final BCryptPasswordEncoder passwordEncoder = new BCryptPasswordEncoder();
     private final UserDefaultsService userDefaultsService;
     private final AppSettingService appSettingService;
+    private final WebSocketUserRegistry webSocketUserRegistry;
 
     public boolean isInitialUserAlreadyProvisioned() {
         return userRepository.count() > 0;
@@ -202,6 +204,7 @@ public class UserProvisioningService {
         user = userRepository.save(user);
         userDefaultsService.addDefaultShelves(user);
         userDefaultsService.addDefaultSettings(user);
+        webSocketUserRegistry.upsertUser(user);
         return user;
     }
 }
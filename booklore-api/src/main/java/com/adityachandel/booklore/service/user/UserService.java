@@ -1,5 +1,6 @@
 package com.adityachandel.booklore.service.user;
 
+import com.adityachandel.booklore.config.security.service.AuthenticatedPrincipalCache;
 import com.adityachandel.booklore.config.security.service.AuthenticationService;
 import com.adityachandel.booklore.exception.ApiError;
 import com.adityachandel.booklore.mapper.custom.BookLoreUserTransformer;
@@ -14,6 +15,7 @@ import com.adityachandel.booklore.model.entity.LibraryEntity;
 import com.adityachandel.booklore.model.entity.UserSettingEntity;
 import com.adityachandel.booklore.repository.LibraryRepository;
 import com.adityachandel.booklore.repository.UserRepository;
+import com.adityachandel.booklore.service.event.WebSocketUserRegistry;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
 import org.springframework.security.crypto.password.PasswordEncoder;
@@ -32,6 +34,8 @@ public class UserService {
     private final PasswordEncoder passwordEncoder;
     private final ObjectMapper objectMapper;
     private final BookLoreUserTransformer bookLoreUserTransformer;
+    private final AuthenticatedPrincipalCache principalCache;
+    private final WebSocketUserRegistry webSocketUserRegistry;
 
     public List<BookLoreUser> getBookLoreUsers() {
         return userRepository.findAll()
@@ -65,6 +69,8 @@ public class UserService {
         }
 
         userRepository.save(user);
+        principalCache.evictUser(id);
+        webSocketUserRegistry.upsertUser(user);
         return bookLoreUserTransformer.toDTO(user);
     }
 
@@ -79,6 +85,8 @@ public class UserService {
             throw ApiError.SELF_DELETION_NOT_ALLOWED.createException();
         }
         userRepository.delete(userToDelete);
+        principalCache.evictUser(id);
+        webSocketUserRegistry.removeUser(userToDelete.getUsername());
     }
 
     public BookLoreUser getBookLoreUser(Long id) {
@@ -110,6 +118,7 @@ public class UserService {
         bookLoreUserEntity.setDefaultPassword(false);
         bookLoreUserEntity.setPasswordHash(passwordEncoder.encode(changePasswordRequest.getNewPassword()));
         userRepository.save(bookLoreUserEntity);
+        principalCache.evictUser(bookLoreUserEntity.getId());
     }
 
     public void changeUserPassword(ChangeUserPasswordRequest request) {
@@ -119,6 +128,7 @@ public class UserService {
         }
         userEntity.setPasswordHash(passwordEncoder.encode(request.getNewPassword()));
         userRepository.save(userEntity);
+        principalCache.evictUser(userEntity.getId());
     }
 
     public void updateUserSetting(Long userId, UpdateUserSettingRequest request) {
@@ -162,6 +172,7 @@ public class UserService {
         }
 
         userRepository.save(user);
+        principalCache.evictUser(userId);
     }
 
     private boolean meetsMinimumPasswordRequirements(String password) {
@@ -93,6 +93,19 @@ public class BookFilePersistenceService {
         return books.size();
     }
 
+    @Transactional(readOnly = true)
+    public Set<Path> findBookPathsUnderFolder(long libraryPathId, String relativeFolderPath) {
+        String folderPrefix = relativeFolderPath.isEmpty() ? "" : relativeFolderPath + "/";
+        Set<Path> paths = new HashSet<>();
+        for (BookEntity book : bookRepository.findAllByLibraryPathIdAndFileSubPathStartingWith(libraryPathId, relativeFolderPath)) {
+            boolean underFolder = book.getFileSubPath().equals(relativeFolderPath) || book.getFileSubPath().startsWith(folderPrefix);
+            if (underFolder && !Boolean.TRUE.equals(book.getDeleted())) {
+                paths.add(book.getFullFilePath().toAbsolutePath().normalize());
+            }
+        }
+        return paths;
+    }
+
     @Transactional(readOnly = true)
     public Optional<BookEntity> findByLibraryPathSubPathAndFileName(long libraryPathId, String fileSubPath, String fileName) {
         return bookRepository.findByLibraryPath_IdAndFileSubPathAndFileName(libraryPathId, fileSubPath, fileName);
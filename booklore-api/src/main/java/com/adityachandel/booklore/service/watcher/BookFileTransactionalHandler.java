@@ -18,9 +18,7 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 
 import java.nio.file.Path;
-import java.util.List;
-import java.util.Optional;
-import java.util.Set;
+import java.util.*;
 
 import static com.adityachandel.booklore.model.enums.PermissionType.ADMIN;
 import static com.adityachandel.booklore.model.enums.PermissionType.MANIPULATE_LIBRARY;
@@ -47,14 +45,46 @@ public class BookFileTransactionalHandler {
         }
 
         String filePath = path.toString();
-        String fileName = path.getFileName().toString();
-        String libraryPath = bookFilePersistenceService.findMatchingLibraryPath(libraryEntity, path);
 
         notificationService.sendMessageToPermissions(Topic.LOG, LogNotification.info("Started processing file: " + filePath), Set.of(ADMIN, MANIPULATE_LIBRARY));
 
+        libraryProcessingService.processLibraryFiles(List.of(toLibraryFile(libraryEntity, path, currentHash)), libraryEntity);
+
+        notificationService.sendMessageToPermissions(Topic.LOG, LogNotification.info("Finished processing file: " + filePath), Set.of(ADMIN, MANIPULATE_LIBRARY));
+        log.info("[CREATE] Completed processing for file '{}'", filePath);
+    }
+
+    @Transactional()
+    public void handleNewBookFiles(long libraryId, Map<Path, String> hashesByPath) {
+        LibraryEntity libraryEntity = libraryRepository.findById(libraryId).orElseThrow(() -> ApiError.LIBRARY_NOT_FOUND.createException(libraryId));
+
+        List<LibraryFile> newFiles = new ArrayList<>();
+        hashesByPath.forEach((path, currentHash) -> {
+            Optional<BookEntity> existingOpt = bookFilePersistenceService.findByHash(currentHash);
+            if (existingOpt.isPresent()) {
+                bookFilePersistenceService.updatePathIfChanged(existingOpt.get(), libraryEntity, path, currentHash);
+            } else {
+                newFiles.add(toLibraryFile(libraryEntity, path, currentHash));
+            }
+        });
+        if (newFiles.isEmpty()) {
+            return;
+        }
+
+        notificationService.sendMessageToPermissions(Topic.LOG, LogNotification.info("Started processing " + newFiles.size() + " files in library: " + libraryEntity.getName()), Set.of(ADMIN, MANIPULATE_LIBRARY));
+
+        libraryProcessingService.processLibraryFiles(newFiles, libraryEntity);
+
+        notificationService.sendMessageToPermissions(Topic.LOG, LogNotification.info("Finished processing " + newFiles.size() + " files in library: " + libraryEntity.getName()), Set.of(ADMIN, MANIPULATE_LIBRARY));
+        log.info("[CREATE] Completed batch of {} files for library '{}'", newFiles.size(), libraryEntity.getName());
+    }
+
+    private LibraryFile toLibraryFile(LibraryEntity libraryEntity, Path path, String currentHash) {
+        String fileName = path.getFileName().toString();
+        String libraryPath = bookFilePersistenceService.findMatchingLibraryPath(libraryEntity, path);
         LibraryPathEntity libraryPathEntity = bookFilePersistenceService.getLibraryPathEntityForFile(libraryEntity, libraryPath);
 
-        LibraryFile libraryFile = LibraryFile.builder()
+        return LibraryFile.builder()
                 .libraryEntity(libraryEntity)
                 .libraryPathEntity(libraryPathEntity)
                 .fileSubPath(FileUtils.getRelativeSubPath(libraryPathEntity.getPath(), path))
@@ -62,11 +92,7 @@ public class BookFileTransactionalHandler {
                 .bookFileType(BookFileExtension.fromFileName(fileName)
                         .map(BookFileExtension::getType)
                         .orElseThrow(() -> new IllegalArgumentException("Unsupported book file type: " + fileName)))
+                .currentHash(currentHash)
                 .build();
-
-        libraryProcessingService.processLibraryFiles(List.of(libraryFile), libraryEntity);
-
-        notificationService.sendMessageToPermissions(Topic.LOG, LogNotification.info("Finished processing file: " + filePath), Set.of(ADMIN, MANIPULATE_LIBRARY));
-        log.info("[CREATE] Completed processing for file '{}'", filePath);
     }
 }
@@ -8,9 +8,9 @@ import com.adityachandel.booklore.model.enums.PermissionType;
 import com.adityachandel.booklore.model.websocket.Topic;
 import com.adityachandel.booklore.repository.LibraryRepository;
 import com.adityachandel.booklore.service.file.FileFingerprint;
+import com.adityachandel.booklore.service.file.PrecomputedFileHashes;
 import com.adityachandel.booklore.service.NotificationService;
 import com.adityachandel.booklore.util.FileUtils;
-import jakarta.annotation.PostConstruct;
 import jakarta.annotation.PreDestroy;
 import lombok.AllArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -18,9 +18,10 @@ import org.springframework.stereotype.Service;
 
 import java.io.IOException;
 import java.nio.file.*;
-import java.util.Optional;
-import java.util.Set;
+import java.util.*;
 import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
 
 @Slf4j
 @Service
@@ -28,40 +29,25 @@ import java.util.concurrent.*;
 public class LibraryFileEventProcessor {
 
     private static final long DEBOUNCE_MS = 500L;
+    private static final int MAX_BATCH_SIZE = 500;
 
-    private final BlockingQueue<FileEvent> eventQueue = new LinkedBlockingQueue<>();
+    private final ConcurrentMap<Long, LibraryEventQueue> libraryQueues = new ConcurrentHashMap<>();
     private final LibraryRepository libraryRepository;
     private final BookFileTransactionalHandler bookFileTransactionalHandler;
     private final BookFilePersistenceService bookFilePersistenceService;
     private final NotificationService notificationService;
+    private final PrecomputedFileHashes precomputedFileHashes;
 
     private final ScheduledExecutorService scheduler = Executors.newScheduledThreadPool(1);
     private final ConcurrentMap<Path, ScheduledFuture<?>> pendingDeletes = new ConcurrentHashMap<>();
 
-    @PostConstruct
-    public void init() {
-        Thread.ofVirtual().start(() -> {
-            log.info("LibraryFileEventProcessor virtual thread started.");
-            while (!Thread.currentThread().isInterrupted()) {
-                try {
-                    handleEvent(eventQueue.take());
-                } catch (InterruptedException e) {
-                    Thread.currentThread().interrupt();
-                    log.warn("LibraryFileEventProcessor virtual thread interrupted.");
-                } catch (Exception e) {
-                    log.error("Error while processing file event", e);
-                }
-            }
-        });
-    }
-
     public void processFile(WatchEvent.Kind<?> eventKind, long libraryId, String libraryPath, String filePath) {
         Path path = Paths.get(filePath).toAbsolutePath().normalize();
 
         if (eventKind == StandardWatchEventKinds.ENTRY_DELETE) {
             // Schedule DELETE after debounce
             ScheduledFuture<?> existing = pendingDeletes.put(path, scheduler.schedule(() -> {
-                eventQueue.offer(new FileEvent(eventKind, libraryId, libraryPath, filePath));
+                enqueue(new FileEvent(eventKind, libraryId, libraryPath, filePath));
                 pendingDeletes.remove(path);
             }, DEBOUNCE_MS, TimeUnit.MILLISECONDS));
 
@@ -75,30 +61,82 @@ public class LibraryFileEventProcessor {
                 return;
             }
             // Otherwise process CREATE immediately
-            eventQueue.offer(new FileEvent(eventKind, libraryId, libraryPath, filePath));
+            enqueue(new FileEvent(eventKind, libraryId, libraryPath, filePath));
         } else {
             // Other events
-            eventQueue.offer(new FileEvent(eventKind, libraryId, libraryPath, filePath));
+            enqueue(new FileEvent(eventKind, libraryId, libraryPath, filePath));
+        }
+    }
+
+    private void enqueue(FileEvent event) {
+        LibraryEventQueue queue = libraryQueues.computeIfAbsent(event.libraryId(), id -> new LibraryEventQueue());
+        queue.events.offer(event);
+        if (queue.draining.compareAndSet(false, true)) {
+            Thread.ofVirtual().name("library-events-" + event.libraryId()).start(() -> drain(event.libraryId(), queue));
+        }
+    }
+
+    // Each library drains on its own virtual thread, so a bulk import in one library never delays another
+    private void drain(long libraryId, LibraryEventQueue queue) {
+        while (true) {
+            List<FileEvent> batch = new ArrayList<>();
+            FileEvent event;
+            while (batch.size() < MAX_BATCH_SIZE && (event = queue.events.poll()) != null) {
+                batch.add(event);
+            }
+            if (batch.isEmpty()) {
+                queue.draining.set(false);
+                if (queue.events.isEmpty() || !queue.draining.compareAndSet(false, true)) {
+                    return;
+                }
+                continue;
+            }
+            try {
+                handleBatch(libraryId, batch);
+            } catch (Exception e) {
+                log.error("Error while processing file events for library {}", libraryId, e);
+            }
+        }
+    }
+
+    private void handleBatch(long libraryId, List<FileEvent> events) {
+        LibraryEntity library = libraryRepository.findById(libraryId)
+                .orElseThrow(() -> ApiError.LIBRARY_NOT_FOUND.createException(libraryId));
+
+        List<Path> newFiles = new ArrayList<>();
+        for (FileEvent event : events) {
+            try {
+                handleEvent(library, event, newFiles);
+            } catch (Exception e) {
+                log.error("Error while processing file event {}", event, e);
+            }
         }
+        importNewFiles(library, newFiles);
     }
 
-    private void handleEvent(FileEvent event) {
+    private void handleEvent(LibraryEntity library, FileEvent event, List<Path> newFiles) {
         Path path = Paths.get(event.filePath()).toAbsolutePath().normalize();
         String fileName = path.getFileName().toString();
         log.info("[PROCESS] '{}' event for '{}'", event.eventKind().name(), fileName);
 
-        LibraryEntity library = libraryRepository.findById(event.libraryId())
-                .orElseThrow(() -> ApiError.LIBRARY_NOT_FOUND.createException(event.libraryId()));
-
         if (library.getLibraryPaths().stream().noneMatch(lp -> path.startsWith(lp.getPath()))) {
             log.warn("[SKIP] Path outside of library: '{}'", path);
             return;
         }
 
+        if (event.eventKind() == StandardWatchEventKinds.OVERFLOW) {
+            importNewFiles(library, newFiles);
+            handleDirectoryRescan(library, path, newFiles);
+            return;
+        }
+
         if (isFolder(path)) {
             switch (event.eventKind().name()) {
-                case "ENTRY_CREATE" -> handleFolderCreate(library, path);
-                case "ENTRY_DELETE" -> handleFolderDelete(library, path);
+                case "ENTRY_CREATE" -> handleFolderCreate(path, newFiles);
+                case "ENTRY_DELETE" -> {
+                    importNewFiles(library, newFiles);
+                    handleFolderDelete(library, path);
+                }
                 default -> log.warn("[SKIP] Folder event '{}' ignored for '{}'", event.eventKind().name(), fileName);
             }
             return;
@@ -110,16 +148,51 @@ public class LibraryFileEventProcessor {
         }
 
         switch (event.eventKind().name()) {
-            case "ENTRY_CREATE" -> handleFileCreate(library, path);
-            case "ENTRY_DELETE" -> handleFileDelete(library, path);
+            case "ENTRY_CREATE" -> {
+                log.info("[FILE_CREATE] '{}'", path);
+                newFiles.add(path);
+            }
+            case "ENTRY_DELETE" -> {
+                importNewFiles(library, newFiles);
+                handleFileDelete(library, path);
+            }
             default -> log.debug("[SKIP] File event '{}' ignored for '{}'", event.eventKind().name(), fileName);
         }
     }
 
-    private void handleFileCreate(LibraryEntity library, Path path) {
-        log.info("[FILE_CREATE] '{}'", path);
-        String hash = FileFingerprint.generateHash(path);
-        bookFileTransactionalHandler.handleNewBookFile(library.getId(), path, hash);
+    /**
+     * Imports the collected files in a single transaction. If the batch fails, each file is retried on
+     * its own so that one unreadable file cannot keep the rest of a bulk copy out of the library.
+     */
+    private void importNewFiles(LibraryEntity library, List<Path> newFiles) {
+        if (newFiles.isEmpty()) {
+            return;
+        }
+        Map<Path, String> hashesByPath = new LinkedHashMap<>();
+        for (Path path : newFiles) {
+            try {
+                hashesByPath.put(path, precomputedFileHashes.take(path).orElseGet(() -> FileFingerprint.generateHash(path)));
+            } catch (Exception e) {
+                log.warn("[ERROR] Hashing file '{}': {}", path, e.getMessage());
+            }
+        }
+        newFiles.clear();
+
+        if (hashesByPath.size() > 1) {
+            try {
+                bookFileTransactionalHandler.handleNewBookFiles(library.getId(), hashesByPath);
+                return;
+            } catch (Exception e) {
+                log.warn("[BATCH] Importing {} files failed, retrying one by one: {}", hashesByPath.size(), e.getMessage());
+            }
+        }
+        hashesByPath.forEach((path, hash) -> {
+            try {
+                bookFileTransactionalHandler.handleNewBookFile(library.getId(), path, hash);
+            } catch (Exception e) {
+                log.warn("[ERROR] Processing file '{}': {}", path, e.getMessage());
+            }
+        });
     }
 
     private void handleFileDelete(LibraryEntity library, Path path) {
@@ -146,21 +219,49 @@ public class LibraryFileEventProcessor {
         }
     }
 
-    private void handleFolderCreate(LibraryEntity library, Path folderPath) {
+    private void handleFolderCreate(Path folderPath, List<Path> newFiles) {
         log.info("[FOLDER_CREATE] '{}'", folderPath);
-        try (var stream = Files.walk(folderPath)) {
-            stream.filter(Files::isRegularFile)
+        newFiles.addAll(findBookFiles(folderPath));
+    }
+
+    /**
+     * Reconciles a directory whose watch events were lost to a queue overflow: book files on disk that the
+     * library does not know yet are imported, and books recorded under the directory whose files are gone
+     * are marked deleted.
+     */
+    private void handleDirectoryRescan(LibraryEntity library, Path folderPath, List<Path> newFiles) {
+        log.info("[RESCAN] '{}'", folderPath);
+        if (!Files.isDirectory(folderPath)) {
+            handleFolderDelete(library, folderPath);
+            return;
+        }
+        try {
+            String libPath = bookFilePersistenceService.findMatchingLibraryPath(library, folderPath);
+            LibraryPathEntity libPathEntity = bookFilePersistenceService.getLibraryPathEntityForFile(library, libPath);
+            String relativeFolderPath = Paths.get(libPathEntity.getPath()).relativize(folderPath).toString().replace("\\", "/");
+            Set<Path> knownFiles = bookFilePersistenceService.findBookPathsUnderFolder(libPathEntity.getId(), relativeFolderPath);
+
+            List<Path> filesOnDisk = findBookFiles(folderPath);
+            List<Path> unknownFiles = filesOnDisk.stream().filter(p -> !knownFiles.contains(p)).toList();
+            newFiles.addAll(unknownFiles);
+
+            Set<Path> onDisk = new HashSet<>(filesOnDisk);
+            knownFiles.stream().filter(p -> !onDisk.contains(p)).forEach(p -> handleFileDelete(library, p));
+            log.info("[RESCAN] '{}': {} new, {} known book files", folderPath, unknownFiles.size(), knownFiles.size());
+        } catch (Exception e) {
+            log.warn("[ERROR] Rescanning folder '{}': {}", folderPath, e.getMessage());
+        }
+    }
+
+    private List<Path> findBookFiles(Path folderPath) {
+        try (Stream<Path> stream = Files.walk(folderPath)) {
+            return stream.filter(Files::isRegularFile)
                     .filter(p -> isBookFile(p.getFileName().toString()))
-                    .forEach(p -> {
-                        try {
-                            String hash = FileFingerprint.generateHash(p);
-                            bookFileTransactionalHandler.handleNewBookFile(library.getId(), p, hash);
-                        } catch (Exception e) {
-                            log.warn("[ERROR] Processing file '{}': {}", p, e.getMessage());
-                        }
-                    });
+                    .map(p -> p.toAbsolutePath().normalize())
+                    .toList();
         } catch (IOException e) {
             log.warn("[ERROR] Walking folder '{}': {}", folderPath, e.getMessage());
+            return List.of();
         }
     }
 
@@ -183,7 +284,7 @@ public class LibraryFileEventProcessor {
     }
 
     private boolean isBookFile(String fileName) {
-        return BookFileExtension.fromFileName(fileName).isPresent();
+        return !FileUtils.isUploadStagingFile(fileName) && BookFileExtension.fromFileName(fileName).isPresent();
     }
 
     @PreDestroy
@@ -194,4 +295,9 @@ public class LibraryFileEventProcessor {
 
     public record FileEvent(WatchEvent.Kind<?> eventKind, long libraryId, String libraryPath, String filePath) {
     }
+
+    private static class LibraryEventQueue {
+        private final Queue<FileEvent> events = new ConcurrentLinkedQueue<>();
+        private final AtomicBoolean draining = new AtomicBoolean();
+    }
 }
\ No newline at end of file
@@ -0,0 +1,16 @@
+package com.adityachandel.booklore.task.options;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class LibraryScanOptions {
+
+    private Long libraryId;
+    private boolean rescan;
+}
@@ -0,0 +1,18 @@
+package com.adityachandel.booklore.task.options;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class MetadataFileWriteOptions {
+
+    private List<Long> bookIds;
+    private boolean moveFiles;
+}
@@ -0,0 +1,35 @@
+package com.adityachandel.booklore.task.tasks;
+
+import com.adityachandel.booklore.model.dto.request.TaskCreateRequest;
+import com.adityachandel.booklore.model.dto.response.TaskCreateResponse;
+import com.adityachandel.booklore.model.enums.TaskType;
+import com.adityachandel.booklore.service.metadata.BookMetadataService;
+import lombok.AllArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+@AllArgsConstructor
+@Component
+@Slf4j
+public class CoverRegenerationTask implements Task {
+
+    private final BookMetadataService bookMetadataService;
+
+    @Override
+    public TaskCreateResponse execute(TaskCreateRequest request) {
+        long startTime = System.currentTimeMillis();
+        log.info("{}: Task started. TaskId: {}", getTaskType(), request.getTaskId());
+
+        bookMetadataService.regenerateAllCovers();
+
+        long endTime = System.currentTimeMillis();
+        log.info("{}: Task completed. Duration: {} ms", getTaskType(), endTime - startTime);
+
+        return null;
+    }
+
+    @Override
+    public TaskType getTaskType() {
+        return TaskType.REGENERATE_COVERS;
+    }
+}
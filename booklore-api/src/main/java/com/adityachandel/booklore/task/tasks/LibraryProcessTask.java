@@ -0,0 +1,53 @@
+package com.adityachandel.booklore.task.tasks;
+
+import com.adityachandel.booklore.model.dto.request.TaskCreateRequest;
+import com.adityachandel.booklore.model.dto.response.TaskCreateResponse;
+import com.adityachandel.booklore.model.enums.TaskType;
+import com.adityachandel.booklore.service.library.LibraryProcessingService;
+import com.adityachandel.booklore.task.options.LibraryScanOptions;
+import com.adityachandel.booklore.task.options.RescanLibraryContext;
+import lombok.AllArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.InvalidDataAccessApiUsageException;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+
+@AllArgsConstructor
+@Component
+@Slf4j
+public class LibraryProcessTask implements Task {
+
+    private final LibraryProcessingService libraryProcessingService;
+
+    @Override
+    public TaskCreateResponse execute(TaskCreateRequest request) {
+        LibraryScanOptions options = request.getOptions(LibraryScanOptions.class);
+        Long libraryId = options.getLibraryId();
+
+        long startTime = System.currentTimeMillis();
+        log.info("{}: Task started. TaskId: {}, Library: {}, Rescan: {}", getTaskType(), request.getTaskId(), libraryId, options.isRescan());
+
+        try {
+            if (options.isRescan()) {
+                libraryProcessingService.rescanLibrary(RescanLibraryContext.builder().libraryId(libraryId).build());
+            } else {
+                libraryProcessingService.processLibrary(libraryId);
+            }
+        } catch (InvalidDataAccessApiUsageException e) {
+            log.debug("InvalidDataAccessApiUsageException - Library id: {}", libraryId);
+        } catch (IOException e) {
+            log.error("Error while parsing library books", e);
+        }
+
+        long endTime = System.currentTimeMillis();
+        log.info("{}: Task completed. Duration: {} ms", getTaskType(), endTime - startTime);
+
+        return null;
+    }
+
+    @Override
+    public TaskType getTaskType() {
+        return TaskType.SCAN_LIBRARY;
+    }
+}
@@ -0,0 +1,39 @@
+package com.adityachandel.booklore.task.tasks;
+
+import com.adityachandel.booklore.model.dto.request.TaskCreateRequest;
+import com.adityachandel.booklore.model.dto.response.TaskCreateResponse;
+import com.adityachandel.booklore.model.enums.TaskType;
+import com.adityachandel.booklore.service.metadata.MetadataFileWriteService;
+import com.adityachandel.booklore.task.options.MetadataFileWriteOptions;
+import lombok.AllArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+@AllArgsConstructor
+@Component
+@Slf4j
+public class MetadataFileWriteTask implements Task {
+
+    private final MetadataFileWriteService metadataFileWriteService;
+
+    @Override
+    public TaskCreateResponse execute(TaskCreateRequest request) {
+        MetadataFileWriteOptions options = request.getOptions(MetadataFileWriteOptions.class);
+        String taskId = request.getTaskId();
+
+        long startTime = System.currentTimeMillis();
+        log.info("{}: Task started. TaskId: {}, Books: {}", getTaskType(), taskId, options.getBookIds().size());
+
+        metadataFileWriteService.writeFiles(options.getBookIds(), options.isMoveFiles(), taskId);
+
+        long endTime = System.currentTimeMillis();
+        log.info("{}: Task completed. Duration: {} ms", getTaskType(), endTime - startTime);
+
+        return null;
+    }
+
+    @Override
+    public TaskType getTaskType() {
+        return TaskType.WRITE_METADATA_FILES;
+    }
+}
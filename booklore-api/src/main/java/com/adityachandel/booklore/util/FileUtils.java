@@ -18,6 +18,8 @@ import java.util.Optional;
 public class FileUtils {
 
     private static final String FILE_NOT_FOUND_MESSAGE = "File does not exist: ";
+    private static final String UPLOAD_STAGING_PREFIX = ".booklore-upload-";
+    private static final String UPLOAD_STAGING_SUFFIX = ".part";
 
     public static String getBookFullPath(BookEntity bookEntity) {
         return Path.of(bookEntity.getLibraryPath().getPath(), bookEntity.getFileSubPath(), bookEntity.getFileName())
@@ -52,6 +54,18 @@ public class FileUtils {
         }
     }
 
+    public static String uploadStagingFileName(String uploadId) {
+        return UPLOAD_STAGING_PREFIX + uploadId + UPLOAD_STAGING_SUFFIX;
+    }
+
+    /**
+     * Staging files of uploads in progress live next to the library so the final move is a rename. Scans and
+     * the watcher must never pick them up.
+     */
+    public static boolean isUploadStagingFile(String fileName) {
+        return fileName.startsWith(UPLOAD_STAGING_PREFIX) && fileName.endsWith(UPLOAD_STAGING_SUFFIX);
+    }
+
     public static void deleteDirectoryRecursively(Path path) throws IOException {
         if (!Files.exists(path)) return;
 
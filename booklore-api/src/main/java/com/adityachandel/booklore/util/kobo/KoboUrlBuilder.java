@@ -55,6 +55,16 @@ public class KoboUrlBuilder {
                 .toUriString();
     }
 
+    /**
+     * The download URL with a {@code {bookId}} placeholder, so a whole sync page needs only one base URL lookup.
+     */
+    public String downloadUrlTemplate(String token) {
+        return baseBuilder()
+                .pathSegment("api", "kobo", token, "v1", "books", "{bookId}", "download")
+                .build()
+                .toUriString();
+    }
+
     public String imageUrlTemplate(String token) {
         return baseBuilder()
                 .pathSegment("api", "kobo", token, "v1", "books", "{ImageId}", "thumbnail", "{Width}", "{Height}", "false", "image.jpg")
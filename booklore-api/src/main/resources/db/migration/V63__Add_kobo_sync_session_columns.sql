@@ -0,0 +1,5 @@
+ALTER TABLE kobo_removed_books_tracking
+    ADD COLUMN IF NOT EXISTS synced BOOLEAN NOT NULL DEFAULT FALSE;
+
+CREATE INDEX IF NOT EXISTS idx_kobo_snapshot_book_unsynced ON kobo_library_snapshot_book (snapshot_id, synced, id);
+CREATE INDEX IF NOT EXISTS idx_kobo_removed_books_unsynced ON kobo_removed_books_tracking (snapshot_id, user_id, synced, id);
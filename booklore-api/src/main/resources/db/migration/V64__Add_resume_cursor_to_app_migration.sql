@@ -0,0 +1,4 @@
+ALTER TABLE app_migration
+    MODIFY COLUMN executed_at TIMESTAMP NULL DEFAULT NULL COMMENT 'When the migration completed; NULL while it is still in progress',
+    ADD COLUMN IF NOT EXISTS last_processed_id BIGINT NULL COMMENT 'Highest book id already migrated, used to resume an interrupted migration',
+    ADD COLUMN IF NOT EXISTS processed_count BIGINT NOT NULL DEFAULT 0 COMMENT 'Number of books handled so far';
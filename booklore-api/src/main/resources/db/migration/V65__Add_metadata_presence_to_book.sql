@@ -0,0 +1,2 @@
+ALTER TABLE book
+    ADD COLUMN IF NOT EXISTS metadata_presence INT NULL COMMENT 'Bit mask of the metadata fields counted by the match score';
@@ -0,0 +1,22 @@
+ALTER TABLE email_provider_v2
+    ADD COLUMN IF NOT EXISTS max_concurrent_sends INT NOT NULL DEFAULT 2,
+    ADD COLUMN IF NOT EXISTS max_sends_per_minute INT NOT NULL DEFAULT 20;
+
+CREATE TABLE IF NOT EXISTS email_outbox
+(
+    id              BIGINT AUTO_INCREMENT PRIMARY KEY,
+    provider_id     BIGINT        NOT NULL,
+    user_id         BIGINT        NOT NULL,
+    book_id         BIGINT        NOT NULL,
+    recipient_email VARCHAR(255)  NOT NULL,
+    status          VARCHAR(20)   NOT NULL,
+    attempts        INT           NOT NULL DEFAULT 0,
+    next_attempt_at TIMESTAMP     NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    last_error      VARCHAR(1000) NULL,
+    created_at      TIMESTAMP     NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    CONSTRAINT fk_email_outbox_provider FOREIGN KEY (provider_id) REFERENCES email_provider_v2 (id) ON DELETE CASCADE,
+    CONSTRAINT fk_email_outbox_user FOREIGN KEY (user_id) REFERENCES users (id) ON DELETE CASCADE,
+    CONSTRAINT fk_email_outbox_book FOREIGN KEY (book_id) REFERENCES book (id) ON DELETE CASCADE
+);
+
+CREATE INDEX IF NOT EXISTS idx_email_outbox_due ON email_outbox (status, next_attempt_at);
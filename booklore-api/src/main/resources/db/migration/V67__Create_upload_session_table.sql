@@ -0,0 +1,15 @@
+CREATE TABLE IF NOT EXISTS upload_session
+(
+    id               VARCHAR(36)   NOT NULL PRIMARY KEY,
+    user_id          BIGINT        NOT NULL,
+    library_id       BIGINT        NOT NULL,
+    library_path_id  BIGINT        NOT NULL,
+    file_name        VARCHAR(1000) NOT NULL,
+    file_size        BIGINT        NOT NULL,
+    staging_path     TEXT          NOT NULL,
+    created_at       TIMESTAMP     NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    last_activity_at TIMESTAMP     NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    CONSTRAINT fk_upload_session_user FOREIGN KEY (user_id) REFERENCES users (id) ON DELETE CASCADE
+);
+
+CREATE INDEX IF NOT EXISTS idx_upload_session_last_activity ON upload_session (last_activity_at);
@@ -6,6 +6,7 @@ import com.adityachandel.booklore.repository.*;
 import com.adityachandel.booklore.service.book.BookDownloadService;
 import com.adityachandel.booklore.service.book.BookQueryService;
 import com.adityachandel.booklore.service.book.BookService;
+import com.adityachandel.booklore.service.user.ReadingProgressBuffer;
 import com.adityachandel.booklore.service.user.UserProgressService;
 import com.adityachandel.booklore.service.monitoring.MonitoringRegistrationService;
 import com.adityachandel.booklore.util.FileService;
@@ -41,13 +42,14 @@ class BookServiceDeleteTests {
         CbxViewerPreferencesRepository cbxViewerPreferencesRepository = Mockito.mock(CbxViewerPreferencesRepository.class);
         NewPdfViewerPreferencesRepository newPdfViewerPreferencesRepository = Mockito.mock(NewPdfViewerPreferencesRepository.class);
         ShelfRepository shelfRepository = Mockito.mock(ShelfRepository.class);
+        BookMetadataRepository bookMetadataRepository = Mockito.mock(BookMetadataRepository.class);
         FileService fileService = Mockito.mock(FileService.class);
         BookMapper bookMapper = Mockito.mock(BookMapper.class);
         UserRepository userRepository = Mockito.mock(UserRepository.class);
-        UserBookProgressRepository userBookProgressRepository = Mockito.mock(UserBookProgressRepository.class);
         AuthenticationService authenticationService = Mockito.mock(AuthenticationService.class);
         BookQueryService bookQueryService = Mockito.mock(BookQueryService.class);
         UserProgressService userProgressService = Mockito.mock(UserProgressService.class);
+        ReadingProgressBuffer readingProgressBuffer = Mockito.mock(ReadingProgressBuffer.class);
         BookDownloadService bookDownloadService = Mockito.mock(BookDownloadService.class);
         MonitoringRegistrationService monitoringRegistrationService = Mockito.mock(MonitoringRegistrationService.class);
 
@@ -58,13 +60,14 @@ class BookServiceDeleteTests {
                 cbxViewerPreferencesRepository,
                 newPdfViewerPreferencesRepository,
                 shelfRepository,
+                bookMetadataRepository,
                 fileService,
                 bookMapper,
                 userRepository,
-                userBookProgressRepository,
                 authenticationService,
                 bookQueryService,
                 userProgressService,
+                readingProgressBuffer,
                 bookDownloadService,
                 monitoringRegistrationService
         );
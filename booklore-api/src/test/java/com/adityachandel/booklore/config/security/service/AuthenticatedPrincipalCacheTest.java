@@ -0,0 +1,94 @@
+package com.adityachandel.booklore.config.security.service;
+
+import com.adityachandel.booklore.model.dto.BookLoreUser;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AuthenticatedPrincipalCacheTest {
+
+    private AuthenticatedPrincipalCache cache;
+
+    @BeforeEach
+    void setUp() {
+        cache = new AuthenticatedPrincipalCache();
+    }
+
+    private BookLoreUser user(long id) {
+        return BookLoreUser.builder().id(id).username("user" + id).build();
+    }
+
+    @Test
+    void returnsCachedPrincipalForSameToken() {
+        BookLoreUser user = user(1L);
+        cache.put("token-a", user, Instant.now().plusSeconds(3600), cache.generation());
+
+        assertSame(user, cache.get("token-a"));
+        assertNull(cache.get("token-b"));
+    }
+
+    @Test
+    void doesNotOutliveToken() {
+        cache.put("token-a", user(1L), Instant.now().minusSeconds(1), cache.generation());
+
+        assertNull(cache.get("token-a"));
+    }
+
+    @Test
+    void evictUserRemovesAllTokensOfThatUserOnly() {
+        cache.put("token-a", user(1L), null, cache.generation());
+        cache.put("token-b", user(1L), null, cache.generation());
+        cache.put("token-c", user(2L), null, cache.generation());
+
+        cache.evictUser(1L);
+
+        assertNull(cache.get("token-a"));
+        assertNull(cache.get("token-b"));
+        assertNotNull(cache.get("token-c"));
+    }
+
+    @Test
+    void evictAllClearsEverything() {
+        cache.put("token-a", user(1L), null, cache.generation());
+        cache.put("token-c", user(2L), null, cache.generation());
+
+        cache.evictAll();
+
+        assertNull(cache.get("token-a"));
+        assertNull(cache.get("token-c"));
+    }
+
+    @Test
+    void principalLoadedBeforeEvictionIsNotCached() {
+        long loadedAt = cache.generation();
+        cache.evictUser(1L);
+
+        cache.put("token-a", user(1L), null, loadedAt);
+        cache.put("token-b", user(2L), null, loadedAt);
+
+        assertNull(cache.get("token-a"));
+        assertNotNull(cache.get("token-b"));
+    }
+
+    @Test
+    void principalLoadedBeforeEvictAllIsNotCached() {
+        long loadedAt = cache.generation();
+        cache.evictAll();
+
+        cache.put("token-a", user(1L), null, loadedAt);
+
+        assertNull(cache.get("token-a"));
+    }
+
+    @Test
+    void principalLoadedAfterEvictionIsCached() {
+        cache.evictUser(1L);
+
+        cache.put("token-a", user(1L), null, cache.generation());
+
+        assertNotNull(cache.get("token-a"));
+    }
+}
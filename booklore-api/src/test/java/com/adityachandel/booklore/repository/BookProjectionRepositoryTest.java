@@ -0,0 +1,194 @@
+package com.adityachandel.booklore.repository;
+
+import com.adityachandel.booklore.mapper.ShelfMapperImpl;
+import com.adityachandel.booklore.mapper.v2.BookMapperV2;
+import com.adityachandel.booklore.mapper.v2.BookMapperV2Impl;
+import com.adityachandel.booklore.model.dto.Book;
+import com.adityachandel.booklore.model.dto.Shelf;
+import com.adityachandel.booklore.model.entity.*;
+import com.adityachandel.booklore.model.enums.BookFileType;
+import com.adityachandel.booklore.model.enums.LibraryScanMode;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+import org.testcontainers.containers.MariaDBContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Checks that the tuple projection yields the same {@link Book} as mapping the entity graph with
+ * {@link BookMapperV2}, which the grid used to do. Skipped when Docker is not available.
+ */
+@DataJpaTest
+@Testcontainers(disabledWithoutDocker = true)
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@TestPropertySource(properties = {
+        "spring.jpa.hibernate.ddl-auto=none",
+        "spring.flyway.enabled=true"
+})
+@Import({BookProjectionRepository.class, BookMapperV2Impl.class, ShelfMapperImpl.class})
+class BookProjectionRepositoryTest {
+
+    @Container
+    @ServiceConnection
+    static MariaDBContainer<?> mariaDB = new MariaDBContainer<>("mariadb:11.4.5");
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private BookProjectionRepository bookProjectionRepository;
+
+    @Autowired
+    private BookMapperV2 bookMapperV2;
+
+    private LibraryEntity library;
+    private LibraryPathEntity libraryPath;
+    private BookLoreUserEntity owner;
+    private BookLoreUserEntity otherUser;
+
+    @BeforeEach
+    void setUp() {
+        owner = user();
+        otherUser = user();
+
+        library = LibraryEntity.builder()
+                .name("Library " + UUID.randomUUID())
+                .icon("book")
+                .scanMode(LibraryScanMode.FILE_AS_BOOK)
+                .libraryPaths(new ArrayList<>())
+                .build();
+        entityManager.persist(library);
+        libraryPath = LibraryPathEntity.builder().library(library).path("/books").build();
+        entityManager.persist(libraryPath);
+    }
+
+    private BookLoreUserEntity user() {
+        String username = "reader-" + UUID.randomUUID();
+        jdbcTemplate.update("INSERT INTO users (username, password_hash, name) VALUES (?, 'x', 'Reader')", username);
+        Long id = jdbcTemplate.queryForObject("SELECT id FROM users WHERE username = ?", Long.class, username);
+        return entityManager.find(BookLoreUserEntity.class, id);
+    }
+
+    private ShelfEntity shelf(BookLoreUserEntity user, String name) {
+        ShelfEntity shelf = ShelfEntity.builder().user(user).name(name).icon("star").bookEntities(new HashSet<>()).build();
+        entityManager.persist(shelf);
+        return shelf;
+    }
+
+    private Long fullyDescribedBook(Set<ShelfEntity> shelves) {
+        BookEntity book = BookEntity.builder()
+                .fileName("dune.epub")
+                .fileSubPath("Frank Herbert")
+                .bookType(BookFileType.EPUB)
+                .fileSizeKb(2048L)
+                .metadataMatchScore(87.5f)
+                .library(library)
+                .libraryPath(libraryPath)
+                .addedOn(Instant.now().truncatedTo(ChronoUnit.SECONDS))
+                .deleted(false)
+                .shelves(shelves)
+                .build();
+        book.setMetadata(BookMetadataEntity.builder()
+                .book(book)
+                .title("Dune")
+                .subtitle("Book One")
+                .publisher("Chilton")
+                .publishedDate(LocalDate.of(1965, 8, 1))
+                .description("Desert planet")
+                .seriesName("Dune")
+                .seriesNumber(1f)
+                .seriesTotal(6)
+                .isbn13("9780441013593")
+                .isbn10("0441013597")
+                .pageCount(412)
+                .language("en")
+                .rating(4.5)
+                .asin("B00B7NPRY8")
+                .goodreadsId("234225")
+                .goodreadsRating(4.3)
+                .goodreadsReviewCount(1200)
+                .personalRating(5.0)
+                .titleLocked(true)
+                .authorsLocked(true)
+                .tagsLocked(false)
+                .authors(Set.of(AuthorEntity.builder().name("Frank Herbert " + UUID.randomUUID()).build()))
+                .categories(Set.of(
+                        CategoryEntity.builder().name("Science Fiction " + UUID.randomUUID()).build(),
+                        CategoryEntity.builder().name("Classics " + UUID.randomUUID()).build()))
+                .moods(Set.of(MoodEntity.builder().name("Epic " + UUID.randomUUID()).build()))
+                .tags(Set.of(TagEntity.builder().name("Hugo " + UUID.randomUUID()).build()))
+                .build());
+        entityManager.persist(book);
+        entityManager.flush();
+        entityManager.clear();
+        return book.getId();
+    }
+
+    private Book mapped(Long bookId) {
+        return bookMapperV2.toDTO(entityManager.find(BookEntity.class, bookId));
+    }
+
+    private Book projected(List<Book> books, Long bookId) {
+        return books.stream().filter(book -> book.getId().equals(bookId)).findFirst().orElseThrow();
+    }
+
+    @Test
+    void projectionMatchesMapperOutput() {
+        Long bookId = fullyDescribedBook(Set.of(shelf(owner, "Favourites"), shelf(otherUser, "To Read")));
+
+        Book projected = projected(bookProjectionRepository.findAllBookSummaries(true, null), bookId);
+        Book expected = mapped(bookId);
+
+        assertThat(expected.getMetadata().getAuthors()).hasSize(1);
+        assertThat(expected.getMetadata().getCategories()).hasSize(2);
+        assertThat(expected.getMetadata().getMoods()).hasSize(1);
+        assertThat(expected.getMetadata().getTags()).hasSize(1);
+        assertThat(expected.getShelves()).hasSize(2);
+        assertThat(projected).usingRecursiveComparison().ignoringCollectionOrder().isEqualTo(expected);
+    }
+
+    @Test
+    void libraryQueryDropsDescriptionAndOtherUsersShelves() {
+        Long bookId = fullyDescribedBook(Set.of(shelf(owner, "Favourites"), shelf(otherUser, "To Read")));
+
+        Book projected = projected(bookProjectionRepository.findBookSummariesByLibraryIds(List.of(library.getId()), false, owner.getId()), bookId);
+        Book expected = mapped(bookId);
+        expected.getMetadata().setDescription(null);
+        expected.setShelves(new HashSet<>(expected.getShelves().stream().filter(shelf -> owner.getId().equals(shelf.getUserId())).toList()));
+
+        assertThat(projected.getShelves()).extracting(Shelf::getName).containsExactly("Favourites");
+        assertThat(projected).usingRecursiveComparison().ignoringCollectionOrder().isEqualTo(expected);
+    }
+
+    @Test
+    void deletedBooksAndOtherLibrariesAreLeftOut() {
+        Long bookId = fullyDescribedBook(Set.of());
+        jdbcTemplate.update("UPDATE book SET deleted = true WHERE id = ?", bookId);
+
+        assertThat(bookProjectionRepository.findAllBookSummaries(false, null)).extracting(Book::getId).doesNotContain(bookId);
+        assertThat(bookProjectionRepository.findBookSummariesByLibraryIds(List.of(library.getId()), false, null)).isEmpty();
+        assertThat(bookProjectionRepository.findBookSummariesByLibraryIds(List.of(), false, null)).isEmpty();
+    }
+}
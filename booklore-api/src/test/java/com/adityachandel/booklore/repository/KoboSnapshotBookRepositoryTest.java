@@ -0,0 +1,133 @@
+package com.adityachandel.booklore.repository;
+
+import com.adityachandel.booklore.model.entity.KoboDeletedBookProgressEntity;
+import com.adityachandel.booklore.model.entity.KoboLibrarySnapshotEntity;
+import com.adityachandel.booklore.model.entity.KoboSnapshotBookEntity;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+import org.testcontainers.containers.MariaDBContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs the snapshot diff queries against MariaDB, since UPDATE ... JOIN and INSERT IGNORE ... SELECT are MariaDB
+ * specific. Skipped when Docker is not available.
+ */
+@DataJpaTest
+@Testcontainers(disabledWithoutDocker = true)
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@TestPropertySource(properties = {
+        "spring.jpa.hibernate.ddl-auto=none",
+        "spring.flyway.enabled=true"
+})
+class KoboSnapshotBookRepositoryTest {
+
+    @Container
+    @ServiceConnection
+    static MariaDBContainer<?> mariaDB = new MariaDBContainer<>("mariadb:11.4.5");
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private KoboSnapshotBookRepository snapshotBookRepository;
+
+    @Autowired
+    private KoboDeletedBookProgressRepository deletedBookProgressRepository;
+
+    private Long userId;
+
+    @BeforeEach
+    void setUp() {
+        String username = "kobo-" + UUID.randomUUID();
+        jdbcTemplate.update("INSERT INTO users (username, password_hash, name) VALUES (?, 'x', 'Kobo')", username);
+        userId = jdbcTemplate.queryForObject("SELECT id FROM users WHERE username = ?", Long.class, username);
+    }
+
+    private KoboLibrarySnapshotEntity snapshot(Long... bookIds) {
+        KoboLibrarySnapshotEntity snapshot = KoboLibrarySnapshotEntity.builder()
+                .id(UUID.randomUUID().toString())
+                .userId(userId)
+                .createdDate(LocalDateTime.now())
+                .books(new ArrayList<>())
+                .build();
+        for (Long bookId : bookIds) {
+            snapshot.getBooks().add(KoboSnapshotBookEntity.builder().snapshot(snapshot).bookId(bookId).build());
+        }
+        entityManager.persist(snapshot);
+        entityManager.flush();
+        return snapshot;
+    }
+
+    private List<Long> unsyncedBookIds(String snapshotId) {
+        return snapshotBookRepository.findBySnapshot_IdAndSyncedFalse(snapshotId, PageRequest.of(0, 100)).stream()
+                .map(KoboSnapshotBookEntity::getBookId)
+                .sorted()
+                .toList();
+    }
+
+    private List<Long> pendingRemovals(String snapshotId) {
+        return deletedBookProgressRepository.findBySnapshotIdAndUserIdAndSyncedFalse(snapshotId, userId, PageRequest.of(0, 100)).stream()
+                .map(KoboDeletedBookProgressEntity::getBookIdSynced)
+                .sorted()
+                .toList();
+    }
+
+    @Test
+    void markExistingBooksSynced_leavesOnlyNewlyAddedBooksUnsynced() {
+        KoboLibrarySnapshotEntity previous = snapshot(1L, 2L, 3L);
+        KoboLibrarySnapshotEntity current = snapshot(2L, 3L, 4L, 5L);
+
+        int updated = snapshotBookRepository.markExistingBooksSynced(previous.getId(), current.getId());
+        entityManager.clear();
+
+        assertThat(updated).isEqualTo(2);
+        assertThat(unsyncedBookIds(current.getId())).containsExactly(4L, 5L);
+        assertThat(unsyncedBookIds(previous.getId())).containsExactly(1L, 2L, 3L);
+    }
+
+    @Test
+    void insertRemovedBooks_queuesBooksMissingFromTheCurrentSnapshotOnce() {
+        KoboLibrarySnapshotEntity previous = snapshot(1L, 2L, 3L);
+        KoboLibrarySnapshotEntity current = snapshot(2L, 4L);
+
+        int inserted = snapshotBookRepository.insertRemovedBooks(previous.getId(), current.getId(), userId);
+        int reinserted = snapshotBookRepository.insertRemovedBooks(previous.getId(), current.getId(), userId);
+
+        assertThat(inserted).isEqualTo(2);
+        assertThat(reinserted).isZero();
+        assertThat(pendingRemovals(current.getId())).containsExactly(1L, 3L);
+        assertThat(deletedBookProgressRepository.existsBySnapshotIdAndUserIdAndSyncedFalse(current.getId(), userId)).isTrue();
+    }
+
+    @Test
+    void identicalSnapshots_produceNoAdditionsOrRemovals() {
+        KoboLibrarySnapshotEntity previous = snapshot(1L, 2L);
+        KoboLibrarySnapshotEntity current = snapshot(1L, 2L);
+
+        snapshotBookRepository.markExistingBooksSynced(previous.getId(), current.getId());
+        snapshotBookRepository.insertRemovedBooks(previous.getId(), current.getId(), userId);
+        entityManager.clear();
+
+        assertThat(unsyncedBookIds(current.getId())).isEmpty();
+        assertThat(deletedBookProgressRepository.existsBySnapshotIdAndUserIdAndSyncedFalse(current.getId(), userId)).isFalse();
+    }
+}
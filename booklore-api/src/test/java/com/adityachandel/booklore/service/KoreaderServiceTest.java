@@ -2,19 +2,18 @@ package com.adityachandel.booklore.service;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
-import static org.mockito.ArgumentMatchers.isNull;
 
 import com.adityachandel.booklore.config.security.userdetails.KoreaderUserDetails;
 import com.adityachandel.booklore.exception.APIException;
 import com.adityachandel.booklore.model.dto.progress.KoreaderProgress;
-import com.adityachandel.booklore.model.entity.BookEntity;
-import com.adityachandel.booklore.model.entity.BookLoreUserEntity;
 import com.adityachandel.booklore.model.entity.UserBookProgressEntity;
+import com.adityachandel.booklore.model.enums.ReadStatus;
 import com.adityachandel.booklore.repository.BookRepository;
 import com.adityachandel.booklore.repository.UserBookProgressRepository;
-import com.adityachandel.booklore.repository.UserRepository;
 import com.adityachandel.booklore.repository.KoreaderUserRepository;
 import com.adityachandel.booklore.service.koreader.KoreaderService;
+import com.adityachandel.booklore.service.user.ReadingProgressBuffer;
+import com.adityachandel.booklore.service.user.UserProgressService;
 import org.junit.jupiter.api.*;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.*;
@@ -22,10 +21,11 @@ import org.mockito.junit.jupiter.MockitoExtension;
 import org.mockito.junit.jupiter.MockitoSettings;
 import org.mockito.quality.Strictness;
 import org.springframework.http.ResponseEntity;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.*;
 
-import java.time.Instant;
 import java.util.Map;
 import java.util.Optional;
 
@@ -38,11 +38,11 @@ class KoreaderServiceTest {
     @Mock
     BookRepository bookRepo;
     @Mock
-    UserRepository userRepo;
-    @Mock
     KoreaderUserRepository koreaderUserRepo;
+    @Mock
+    NamedParameterJdbcTemplate jdbcTemplate;
 
-    @InjectMocks
+    ReadingProgressBuffer progressBuffer;
     KoreaderService service;
 
     private KoreaderUserDetails details;
@@ -51,6 +51,9 @@ class KoreaderServiceTest {
 
     @BeforeEach
     void setUpAuth() {
+        progressBuffer = new ReadingProgressBuffer(jdbcTemplate);
+        service = new KoreaderService(new UserProgressService(progressRepo, progressBuffer), progressBuffer, bookRepo, koreaderUserRepo);
+
         details = mock(KoreaderUserDetails.class);
         when(details.getUsername()).thenReturn("u");
         when(details.getPassword()).thenReturn("md5pwd");
@@ -100,9 +103,7 @@ class KoreaderServiceTest {
     @Test
     void getProgress_success() {
         when(details.isSyncEnabled()).thenReturn(true);
-        var book = new BookEntity();
-        book.setId(99L);
-        when(bookRepo.findByCurrentHash("h")).thenReturn(Optional.of(book));
+        when(bookRepo.findIdByCurrentHash("h")).thenReturn(Optional.of(99L));
         var prog = new UserBookProgressEntity();
         prog.setKoreaderProgress("p");
         prog.setKoreaderProgressPercent(0.5F);
@@ -118,16 +119,15 @@ class KoreaderServiceTest {
     @Test
     void getProgress_bookNotFound() {
         when(details.isSyncEnabled()).thenReturn(true);
-        when(bookRepo.findByCurrentHash("h")).thenReturn(Optional.empty());
+        when(bookRepo.findIdByCurrentHash("h")).thenReturn(Optional.empty());
         assertThrows(APIException.class, () -> service.getProgress("h"));
     }
 
     @Test
     void getProgress_noProgress() {
         when(details.isSyncEnabled()).thenReturn(true);
-        when(bookRepo.findByCurrentHash("h"))
-                .thenReturn(Optional.of(new BookEntity()));
-        when(progressRepo.findByUserIdAndBookId(anyLong(), isNull()))
+        when(bookRepo.findIdByCurrentHash("h")).thenReturn(Optional.of(5L));
+        when(progressRepo.findByUserIdAndBookId(42L, 5L))
                 .thenReturn(Optional.empty());
         assertThrows(APIException.class, () -> service.getProgress("h"));
     }
@@ -139,51 +139,48 @@ class KoreaderServiceTest {
     }
 
     @Test
-    void saveProgress_createsNew() {
+    void saveProgress_isBufferedAndReadableBeforeFlush() {
         when(details.isSyncEnabled()).thenReturn(true);
-        var book = new BookEntity();
-        book.setId(7L);
-        when(bookRepo.findByCurrentHash("h")).thenReturn(Optional.of(book));
-        var user = new BookLoreUserEntity();
-        user.setId(42L);
-        when(userRepo.findById(42L)).thenReturn(Optional.of(user));
-        when(progressRepo.findByUserIdAndBookId(42L, 7L))
-                .thenReturn(Optional.empty());
+        when(bookRepo.findIdByCurrentHash("h")).thenReturn(Optional.of(7L));
+        when(progressRepo.findByUserIdAndBookId(42L, 7L)).thenReturn(Optional.empty());
 
         var dto = KoreaderProgress.builder()
                 .document("h").progress("x").percentage(0.6F).device("d").device_id("id").build();
         service.saveProgress("h", dto);
 
-        ArgumentCaptor<UserBookProgressEntity> cap = ArgumentCaptor.forClass(UserBookProgressEntity.class);
-        verify(progressRepo).save(cap.capture());
-        var saved = cap.getValue();
-        assertEquals("x", saved.getKoreaderProgress());
-        assertEquals(0.6F, saved.getKoreaderProgressPercent());
-        assertEquals("d", saved.getKoreaderDevice());
-        assertEquals("id", saved.getKoreaderDeviceId());
-        assertEquals(Instant.class, saved.getKoreaderLastSyncTime().getClass());
+        verify(progressRepo, never()).save(any());
+        verifyNoInteractions(jdbcTemplate);
+        KoreaderProgress out = service.getProgress("h");
+        assertEquals("x", out.getProgress());
+        assertEquals(0.6F, out.getPercentage());
     }
 
     @Test
-    void saveProgress_updatesExisting() {
+    void saveProgress_overlaysStoredProgressAndFlushesKoreaderColumnsOnly() {
         when(details.isSyncEnabled()).thenReturn(true);
-        var book = new BookEntity();
-        book.setId(8L);
-        when(bookRepo.findByCurrentHash("h")).thenReturn(Optional.of(book));
-        var user = new BookLoreUserEntity();
-        user.setId(42L);
-        when(userRepo.findById(42L)).thenReturn(Optional.of(user));
+        when(bookRepo.findIdByCurrentHash("h")).thenReturn(Optional.of(8L));
         var existing = new UserBookProgressEntity();
-        when(progressRepo.findByUserIdAndBookId(42L, 8L))
-                .thenReturn(Optional.of(existing));
+        existing.setEpubProgress("epubcfi(/6/4)");
+        existing.setKoreaderProgress("old");
+        when(progressRepo.findByUserIdAndBookId(42L, 8L)).thenReturn(Optional.of(existing));
 
         var dto = KoreaderProgress.builder()
-                .document("h").progress("y").percentage(0.4F).device("d").device_id("id").build();
+                .document("h").progress("y").percentage(1.0F).device("d").device_id("id").build();
         service.saveProgress("h", dto);
 
-        verify(progressRepo).save(existing);
-        assertEquals("y", existing.getKoreaderProgress());
-        assertEquals(0.4F, existing.getKoreaderProgressPercent());
+        UserBookProgressEntity progress = new UserProgressService(progressRepo, progressBuffer).findUserProgress(42L, 8L).orElseThrow();
+        assertEquals("y", progress.getKoreaderProgress());
+        assertEquals("epubcfi(/6/4)", progress.getEpubProgress());
+        assertEquals(ReadStatus.READ, progress.getReadStatus());
+        assertNotNull(progress.getDateFinished());
+        assertEquals("old", existing.getKoreaderProgress());
+
+        progressBuffer.flush();
+
+        ArgumentCaptor<String> sql = ArgumentCaptor.forClass(String.class);
+        verify(jdbcTemplate).batchUpdate(sql.capture(), any(SqlParameterSource[].class));
+        assertTrue(sql.getValue().contains("koreader_progress = VALUES(koreader_progress)"));
+        assertFalse(sql.getValue().contains("epub_progress"));
     }
 
     @Test
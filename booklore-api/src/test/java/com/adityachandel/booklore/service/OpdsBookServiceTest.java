@@ -12,6 +12,7 @@ import com.adityachandel.booklore.repository.ShelfRepository;
 import com.adityachandel.booklore.repository.UserRepository;
 import com.adityachandel.booklore.service.library.LibraryService;
 import com.adityachandel.booklore.service.opds.OpdsBookService;
+import com.adityachandel.booklore.service.opds.RandomBookSampler;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -22,6 +23,7 @@ import org.mockito.MockitoAnnotations;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 
+import java.time.Instant;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
@@ -39,6 +41,7 @@ class OpdsBookServiceTest {
     @Mock private BookLoreUserTransformer bookLoreUserTransformer;
     @Mock private ShelfRepository shelfRepository;
     @Mock private LibraryService libraryService;
+    @Mock private RandomBookSampler randomBookSampler;
 
     @InjectMocks private OpdsBookService opdsBookService;
 
@@ -267,7 +270,7 @@ class OpdsBookServiceTest {
         List<Library> libs = List.of(Library.builder().id(1L).build());
         doReturn(libs).when(spy).getAccessibleLibraries(details);
 
-        when(bookOpdsRepository.findRandomBookIdsByLibraryIds(anyList())).thenReturn(List.of(1L, 2L));
+        when(randomBookSampler.sampleIds(List.of(1L), 1)).thenReturn(List.of(1L));
         BookEntity entity = mock(BookEntity.class);
         when(bookOpdsRepository.findAllWithMetadataByIds(anyList())).thenReturn(List.of(entity));
         Book book = Book.builder().id(1L).build();
@@ -304,4 +307,37 @@ class OpdsBookServiceTest {
         ).hasMessageContaining("You are not allowed to access this resource");
     }
 
+    @Test
+    void getBooksFeedVersion_legacyUser_summarisesRequestedLibrary() {
+        BookOpdsRepository.FeedVersion version = mock(BookOpdsRepository.FeedVersion.class);
+        when(version.getBookCount()).thenReturn(12L);
+        when(version.getBooksUpdatedAt()).thenReturn(Instant.parse("2025-01-01T00:00:00Z"));
+        when(version.getMetadataUpdatedAt()).thenReturn(Instant.parse("2025-02-01T00:00:00Z"));
+        when(bookOpdsRepository.findFeedVersionByLibraryIds(Set.of(4L))).thenReturn(version);
+
+        String result = opdsBookService.getBooksFeedVersion(legacyUserDetails(), 4L, null);
+
+        assertThat(result).isEqualTo("12:2025-01-01T00:00:00Z:2025-02-01T00:00:00Z");
+        verify(bookOpdsRepository, never()).findBookIdsByLibraryIds(anySet(), any());
+    }
+
+    @Test
+    void getBooksFeedVersion_v2User_rejectsUnassignedLibrary() {
+        OpdsUserDetails details = v2UserDetails(1L, false, Set.of(2L));
+        BookLoreUserEntity entity = mock(BookLoreUserEntity.class);
+        var permissionsEntity = mock(com.adityachandel.booklore.model.entity.UserPermissionsEntity.class);
+        when(permissionsEntity.isPermissionAccessOpds()).thenReturn(true);
+        when(entity.getPermissions()).thenReturn(permissionsEntity);
+        when(userRepository.findById(1L)).thenReturn(Optional.of(entity));
+        BookLoreUser user = mock(BookLoreUser.class);
+        BookLoreUser.UserPermissions perms = mock(BookLoreUser.UserPermissions.class);
+        when(bookLoreUserTransformer.toDTO(entity)).thenReturn(user);
+        when(user.getPermissions()).thenReturn(perms);
+        when(perms.isAdmin()).thenReturn(false);
+        when(user.getAssignedLibraries()).thenReturn(List.of(Library.builder().id(2L).build()));
+
+        assertThatThrownBy(() -> opdsBookService.getBooksFeedVersion(details, 9L, null))
+                .hasMessageContaining("You are not allowed to access this library");
+        verify(bookOpdsRepository, never()).findFeedVersionByLibraryIds(any());
+    }
 }
@@ -0,0 +1,99 @@
+package com.adityachandel.booklore.service.book;
+
+import com.adityachandel.booklore.model.entity.AuthorEntity;
+import com.adityachandel.booklore.model.entity.BookEntity;
+import com.adityachandel.booklore.model.entity.BookMetadataEntity;
+import com.adityachandel.booklore.model.entity.CategoryEntity;
+import com.adityachandel.booklore.repository.AuthorRepository;
+import com.adityachandel.booklore.repository.BookRepository;
+import com.adityachandel.booklore.repository.CategoryRepository;
+import com.adityachandel.booklore.service.book.MetadataNameDictionary.Kind;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.*;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class BookCreatorServiceTest {
+
+    @Mock
+    AuthorRepository authorRepository;
+    @Mock
+    CategoryRepository categoryRepository;
+    @Mock
+    BookRepository bookRepository;
+    @Mock
+    MetadataNameDictionary nameDictionary;
+
+    @InjectMocks
+    BookCreatorService service;
+
+    @Test
+    void addAuthorsToBook_loadsResolvedAuthorsInOneQuery() {
+        AuthorEntity herbert = AuthorEntity.builder().id(1L).name("Frank Herbert").build();
+        AuthorEntity anderson = AuthorEntity.builder().id(2L).name("Kevin J. Anderson").build();
+        Set<String> names = new LinkedHashSet<>(List.of("Frank Herbert", "Kevin J. Anderson"));
+        when(nameDictionary.resolve(Kind.AUTHOR, names)).thenReturn(Map.of("Frank Herbert", 1L, "Kevin J. Anderson", 2L));
+        when(authorRepository.findAllById(Set.of(1L, 2L))).thenReturn(List.of(herbert, anderson));
+        BookEntity book = newBook();
+
+        service.addAuthorsToBook(names, book);
+
+        assertThat(book.getMetadata().getAuthors()).containsExactlyInAnyOrder(herbert, anderson);
+        verify(authorRepository, never()).findByName(anyString());
+        verify(authorRepository, never()).save(any());
+    }
+
+    @Test
+    void addCategoriesToBook_fallsBackForNamesTheDictionaryCouldNotResolve() {
+        CategoryEntity fantasy = CategoryEntity.builder().id(1L).name("Fantasy").build();
+        CategoryEntity cafe = CategoryEntity.builder().id(9L).name("Cafe").build();
+        when(nameDictionary.resolve(eq(Kind.CATEGORY), any())).thenReturn(Map.of("Fantasy", 1L, "Stale", 5L));
+        when(categoryRepository.findAllById(Set.of(1L, 5L))).thenReturn(List.of(fantasy));
+        when(categoryRepository.findByName("Café")).thenReturn(Optional.of(cafe));
+        when(categoryRepository.findByName("Stale")).thenReturn(Optional.empty());
+        when(categoryRepository.save(any(CategoryEntity.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        BookEntity book = newBook();
+
+        service.addCategoriesToBook(new LinkedHashSet<>(List.of("Fantasy", "Café", "Stale")), book);
+
+        assertThat(book.getMetadata().getCategories()).extracting(CategoryEntity::getName)
+                .containsExactlyInAnyOrder("Fantasy", "Cafe", "Stale");
+        verify(nameDictionary).evict(Kind.CATEGORY, List.of("Café", "Stale"));
+    }
+
+    @Test
+    void addAuthorsToBook_truncatesLongNames() {
+        String longName = "a".repeat(300);
+        when(nameDictionary.resolve(Kind.AUTHOR, Set.of("a".repeat(255)))).thenReturn(Map.of("a".repeat(255), 3L));
+        when(authorRepository.findAllById(Set.of(3L))).thenReturn(List.of(AuthorEntity.builder().id(3L).name("a".repeat(255)).build()));
+        BookEntity book = newBook();
+
+        service.addAuthorsToBook(Set.of(longName), book);
+
+        assertThat(book.getMetadata().getAuthors()).singleElement()
+                .extracting(AuthorEntity::getName).isEqualTo("a".repeat(255));
+    }
+
+    @Test
+    void saveConnections_savesBookOnly() {
+        BookEntity book = newBook();
+
+        service.saveConnections(book);
+
+        verify(bookRepository).save(book);
+        verifyNoInteractions(authorRepository, categoryRepository);
+    }
+
+    private static BookEntity newBook() {
+        return BookEntity.builder().metadata(BookMetadataEntity.builder().build()).build();
+    }
+}
@@ -0,0 +1,73 @@
+package com.adityachandel.booklore.service.book;
+
+import com.adityachandel.booklore.service.book.MetadataNameDictionary.Kind;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class MetadataNameDictionaryTest {
+
+    private NamedParameterJdbcTemplate jdbcTemplate;
+    private MetadataNameDictionary dictionary;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate = mock(NamedParameterJdbcTemplate.class);
+        dictionary = new MetadataNameDictionary(jdbcTemplate);
+    }
+
+    @Test
+    void insideScan_preloadsOnceAndCreatesUnknownNamesInOneBatch() throws SQLException {
+        doAnswer(invocation -> emit(invocation.getArgument(1), Map.of("Frank Herbert", 1L)))
+                .when(jdbcTemplate).query(startsWith("SELECT id, name FROM author WHERE name IS NOT NULL"), any(RowCallbackHandler.class));
+        doAnswer(invocation -> emit(invocation.getArgument(2), Map.of()))
+                .doAnswer(invocation -> emit(invocation.getArgument(2), Map.of("Brian Herbert", 2L)))
+                .when(jdbcTemplate).query(contains("WHERE name IN"), any(SqlParameterSource.class), any(RowCallbackHandler.class));
+
+        try (MetadataNameDictionary.Scope ignored = dictionary.openScan()) {
+            Map<String, Long> first = dictionary.resolve(Kind.AUTHOR, List.of("frank herbert", "Brian Herbert"));
+            Map<String, Long> second = dictionary.resolve(Kind.AUTHOR, List.of("Frank Herbert", "Brian Herbert"));
+
+            assertThat(first).containsEntry("frank herbert", 1L).containsEntry("Brian Herbert", 2L);
+            assertThat(second).containsEntry("Frank Herbert", 1L).containsEntry("Brian Herbert", 2L);
+        }
+
+        verify(jdbcTemplate, times(1)).query(startsWith("SELECT id, name FROM author WHERE name IS NOT NULL"), any(RowCallbackHandler.class));
+        verify(jdbcTemplate, times(2)).query(contains("WHERE name IN"), any(SqlParameterSource.class), any(RowCallbackHandler.class));
+        verify(jdbcTemplate, times(1)).batchUpdate(eq("INSERT IGNORE INTO author (name) VALUES (:name)"), any(SqlParameterSource[].class));
+    }
+
+    @Test
+    void outsideScan_looksNamesUpWithoutCaching() throws SQLException {
+        doAnswer(invocation -> emit(invocation.getArgument(2), Map.of("Fantasy", 4L)))
+                .when(jdbcTemplate).query(contains("FROM category WHERE name IN"), any(SqlParameterSource.class), any(RowCallbackHandler.class));
+
+        assertThat(dictionary.resolve(Kind.CATEGORY, List.of("Fantasy"))).containsEntry("Fantasy", 4L);
+        assertThat(dictionary.resolve(Kind.CATEGORY, List.of("Fantasy"))).containsEntry("Fantasy", 4L);
+
+        verify(jdbcTemplate, times(2)).query(contains("FROM category WHERE name IN"), any(SqlParameterSource.class), any(RowCallbackHandler.class));
+        verify(jdbcTemplate, never()).query(anyString(), any(RowCallbackHandler.class));
+        verify(jdbcTemplate, never()).batchUpdate(anyString(), any(SqlParameterSource[].class));
+    }
+
+    private static Object emit(RowCallbackHandler handler, Map<String, Long> rows) throws SQLException {
+        for (Map.Entry<String, Long> row : rows.entrySet()) {
+            ResultSet rs = mock(ResultSet.class);
+            when(rs.getString("name")).thenReturn(row.getKey());
+            when(rs.getLong("id")).thenReturn(row.getValue());
+            handler.processRow(rs);
+        }
+        return null;
+    }
+}
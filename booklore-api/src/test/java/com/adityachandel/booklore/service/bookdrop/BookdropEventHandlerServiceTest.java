@@ -0,0 +1,95 @@
+package com.adityachandel.booklore.service.bookdrop;
+
+import com.adityachandel.booklore.model.dto.settings.AppSettings;
+import com.adityachandel.booklore.model.entity.BookdropFileEntity;
+import com.adityachandel.booklore.repository.BookdropFileRepository;
+import com.adityachandel.booklore.service.NotificationService;
+import com.adityachandel.booklore.service.appsettings.AppSettingService;
+import com.adityachandel.booklore.service.metrics.BookloreMetrics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+class BookdropEventHandlerServiceTest {
+
+    @TempDir
+    Path tmp;
+
+    private BookdropFileRepository bookdropFileRepository;
+    private BookdropMetadataService bookdropMetadataService;
+    private AppSettingService appSettingService;
+    private BookdropEventHandlerService service;
+
+    @BeforeEach
+    void setUp() {
+        bookdropFileRepository = mock(BookdropFileRepository.class);
+        bookdropMetadataService = mock(BookdropMetadataService.class);
+        appSettingService = mock(AppSettingService.class);
+
+        AtomicLong ids = new AtomicLong();
+        when(bookdropFileRepository.findByFilePath(anyString())).thenReturn(Optional.empty());
+        when(bookdropFileRepository.save(any(BookdropFileEntity.class))).thenAnswer(invocation -> {
+            BookdropFileEntity entity = invocation.getArgument(0);
+            entity.setId(ids.incrementAndGet());
+            return entity;
+        });
+
+        service = new BookdropEventHandlerService(bookdropFileRepository, mock(NotificationService.class),
+                mock(BookdropNotificationService.class), appSettingService, bookdropMetadataService, mock(BookloreMetrics.class));
+    }
+
+    @AfterEach
+    void tearDown() {
+        service.shutdown();
+    }
+
+    @Test
+    void enqueueFile_ignoresEventAlreadyQueued() throws Exception {
+        when(appSettingService.getAppSettings()).thenReturn(AppSettings.builder().metadataDownloadOnBookdrop(false).build());
+        Path book = Files.writeString(tmp.resolve("book.epub"), "x");
+
+        service.enqueueFile(book, StandardWatchEventKinds.ENTRY_CREATE);
+        service.enqueueFile(book, StandardWatchEventKinds.ENTRY_CREATE);
+        service.init();
+
+        verify(bookdropMetadataService, timeout(2_000)).attachInitialMetadata(anyLong());
+        verify(bookdropFileRepository, after(200).times(1)).save(any(BookdropFileEntity.class));
+    }
+
+    @Test
+    void slowMetadataFetch_doesNotBlockLocalIngestion() throws Exception {
+        when(appSettingService.getAppSettings()).thenReturn(AppSettings.builder().metadataDownloadOnBookdrop(true).build());
+        CountDownLatch providerResponds = new CountDownLatch(1);
+        when(bookdropMetadataService.attachFetchedMetadata(anyLong())).thenAnswer(invocation -> {
+            providerResponds.await(5, TimeUnit.SECONDS);
+            return null;
+        });
+
+        service.init();
+        for (int i = 0; i < 20; i++) {
+            service.enqueueFile(Files.writeString(tmp.resolve("book-" + i + ".epub"), "x" + i), StandardWatchEventKinds.ENTRY_CREATE);
+        }
+
+        try {
+            verify(bookdropMetadataService, timeout(2_000).times(20)).attachInitialMetadata(anyLong());
+            verify(bookdropMetadataService, timeout(2_000).times(1)).attachFetchedMetadata(anyLong());
+        } finally {
+            providerResponds.countDown();
+        }
+        verify(bookdropMetadataService, timeout(2_000).times(20)).attachFetchedMetadata(anyLong());
+    }
+}
@@ -0,0 +1,239 @@
+package com.adityachandel.booklore.service.email;
+
+import com.adityachandel.booklore.model.entity.BookEntity;
+import com.adityachandel.booklore.model.entity.BookLoreUserEntity;
+import com.adityachandel.booklore.model.entity.BookMetadataEntity;
+import com.adityachandel.booklore.model.entity.EmailOutboxEntity;
+import com.adityachandel.booklore.model.entity.EmailProviderV2Entity;
+import com.adityachandel.booklore.model.entity.LibraryPathEntity;
+import com.adityachandel.booklore.model.websocket.LogNotification;
+import com.adityachandel.booklore.model.websocket.Topic;
+import com.adityachandel.booklore.repository.BookRepository;
+import com.adityachandel.booklore.repository.EmailOutboxRepository;
+import com.adityachandel.booklore.repository.EmailProviderV2Repository;
+import com.adityachandel.booklore.repository.UserRepository;
+import com.adityachandel.booklore.service.NotificationService;
+import com.icegreen.greenmail.junit5.GreenMailExtension;
+import com.icegreen.greenmail.util.GreenMailUtil;
+import com.icegreen.greenmail.util.ServerSetupTest;
+import jakarta.mail.internet.MimeMessage;
+import jakarta.mail.internet.MimeMultipart;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class EmailOutboxServiceTest {
+
+    @RegisterExtension
+    static GreenMailExtension greenMail = new GreenMailExtension(ServerSetupTest.SMTP);
+
+    @TempDir
+    Path libraryDir;
+
+    private EmailOutboxRepository outboxRepository;
+    private EmailProviderV2Repository providerRepository;
+    private BookRepository bookRepository;
+    private NotificationService notificationService;
+    private EmailTransportPool transportPool;
+    private EmailOutboxService service;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        outboxRepository = mock(EmailOutboxRepository.class);
+        providerRepository = mock(EmailProviderV2Repository.class);
+        bookRepository = mock(BookRepository.class);
+        UserRepository userRepository = mock(UserRepository.class);
+        notificationService = mock(NotificationService.class);
+        transportPool = new EmailTransportPool();
+        service = new EmailOutboxService(outboxRepository, providerRepository, bookRepository, userRepository, transportPool, notificationService);
+
+        when(userRepository.findById(7L)).thenReturn(Optional.of(BookLoreUserEntity.builder().id(7L).username("reader").build()));
+        Files.writeString(libraryDir.resolve("dune.epub"), "epub content");
+        BookEntity book = BookEntity.builder()
+                .id(3L)
+                .fileName("dune.epub")
+                .fileSubPath("")
+                .libraryPath(LibraryPathEntity.builder().path(libraryDir.toString()).build())
+                .metadata(BookMetadataEntity.builder().title("Dune").build())
+                .build();
+        when(bookRepository.findAllWithMetadataByIds(anySet())).thenReturn(List.of(book));
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        service.shutdown();
+        transportPool.closeAll();
+    }
+
+    private EmailProviderV2Entity provider(int port) {
+        return EmailProviderV2Entity.builder()
+                .id(1L)
+                .name("local")
+                .host("localhost")
+                .port(port)
+                .username("booklore@localhost")
+                .password("secret")
+                .auth(false)
+                .startTls(false)
+                .maxConcurrentSends(2)
+                .maxSendsPerMinute(6_000)
+                .build();
+    }
+
+    private EmailOutboxEntity queuedEmail(int attempts) {
+        return EmailOutboxEntity.builder()
+                .id(11L)
+                .providerId(1L)
+                .userId(7L)
+                .bookId(3L)
+                .recipientEmail("kindle@localhost")
+                .status(EmailOutboxEntity.Status.SENDING)
+                .attempts(attempts)
+                .build();
+    }
+
+    private static int closedPort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+
+    private LogNotification sentNotification() {
+        ArgumentCaptor<Object> notification = ArgumentCaptor.forClass(Object.class);
+        verify(notificationService).sendMessageToUser(eq("reader"), eq(Topic.LOG), notification.capture());
+        return (LogNotification) notification.getValue();
+    }
+
+    @Test
+    void deliveredEmailCarriesTheBookAndLeavesTheQueue() throws Exception {
+        EmailProviderV2Entity provider = provider(ServerSetupTest.SMTP.getPort());
+
+        service.deliver(queuedEmail(0), provider, transportPool.tryAcquire(provider).orElseThrow());
+
+        MimeMessage[] received = greenMail.getReceivedMessages();
+        assertThat(received).hasSize(1);
+        assertThat(received[0].getSubject()).isEqualTo("Your Book from Booklore: Dune");
+        MimeMultipart content = (MimeMultipart) received[0].getContent();
+        assertThat(content.getBodyPart(1).getFileName()).isEqualTo("dune.epub");
+        assertThat(GreenMailUtil.getBody(content.getBodyPart(1))).isNotBlank();
+        verify(outboxRepository).deleteById(11L);
+        assertThat(sentNotification().getMessage()).contains("successfully sent to kindle@localhost");
+    }
+
+    @Test
+    void unreachableServerSchedulesARetryWithBackoff() throws Exception {
+        EmailProviderV2Entity provider = provider(closedPort());
+        EmailOutboxEntity email = queuedEmail(0);
+
+        service.deliver(email, provider, transportPool.tryAcquire(provider).orElseThrow());
+
+        verify(outboxRepository).save(email);
+        verify(outboxRepository, never()).deleteById(any());
+        assertThat(email.getStatus()).isEqualTo(EmailOutboxEntity.Status.PENDING);
+        assertThat(email.getAttempts()).isEqualTo(1);
+        assertThat(email.getLastError()).isNotBlank();
+        assertThat(email.getNextAttemptAt()).isCloseTo(Instant.now().plusSeconds(30), within(Duration.ofSeconds(5)));
+        verifyNoInteractions(notificationService);
+    }
+
+    @Test
+    void lastAttemptMarksTheEmailFailed() throws Exception {
+        EmailProviderV2Entity provider = provider(closedPort());
+        EmailOutboxEntity email = queuedEmail(EmailOutboxService.MAX_ATTEMPTS - 1);
+
+        service.deliver(email, provider, transportPool.tryAcquire(provider).orElseThrow());
+
+        assertThat(email.getStatus()).isEqualTo(EmailOutboxEntity.Status.FAILED);
+        assertThat(email.getAttempts()).isEqualTo(EmailOutboxService.MAX_ATTEMPTS);
+        assertThat(sentNotification().getMessage()).contains("An error occurred while sending the book: Dune");
+    }
+
+    @Test
+    void missingBookFailsWithoutRetrying() {
+        when(bookRepository.findAllWithMetadataByIds(anySet())).thenReturn(List.of());
+        EmailProviderV2Entity provider = provider(ServerSetupTest.SMTP.getPort());
+        EmailOutboxEntity email = queuedEmail(0);
+
+        service.deliver(email, provider, transportPool.tryAcquire(provider).orElseThrow());
+
+        assertThat(email.getStatus()).isEqualTo(EmailOutboxEntity.Status.FAILED);
+        assertThat(greenMail.getReceivedMessages()).isEmpty();
+    }
+
+    @Test
+    void missingBookFileFailsWithoutRetrying() throws IOException {
+        Files.delete(libraryDir.resolve("dune.epub"));
+        EmailProviderV2Entity provider = provider(ServerSetupTest.SMTP.getPort());
+        EmailOutboxEntity email = queuedEmail(0);
+
+        service.deliver(email, provider, transportPool.tryAcquire(provider).orElseThrow());
+
+        assertThat(email.getStatus()).isEqualTo(EmailOutboxEntity.Status.FAILED);
+        assertThat(email.getLastError()).contains("Book file not found");
+        assertThat(greenMail.getReceivedMessages()).isEmpty();
+    }
+
+    @Test
+    void unexpectedErrorsAreRetried() {
+        when(bookRepository.findAllWithMetadataByIds(anySet())).thenThrow(new IllegalStateException("connection pool exhausted"));
+        EmailProviderV2Entity provider = provider(ServerSetupTest.SMTP.getPort());
+        EmailOutboxEntity email = queuedEmail(0);
+
+        service.deliver(email, provider, transportPool.tryAcquire(provider).orElseThrow());
+
+        assertThat(email.getStatus()).isEqualTo(EmailOutboxEntity.Status.PENDING);
+        assertThat(email.getAttempts()).isEqualTo(1);
+        verifyNoInteractions(notificationService);
+    }
+
+    @Test
+    void purgeFailedDropsFailedEmailsPastTheRetention() {
+        service.purgeFailed();
+
+        ArgumentCaptor<Instant> cutoff = ArgumentCaptor.forClass(Instant.class);
+        verify(outboxRepository).deleteFailedCreatedBefore(cutoff.capture());
+        assertThat(cutoff.getValue()).isCloseTo(Instant.now().minus(EmailOutboxService.FAILED_RETENTION), within(Duration.ofSeconds(5)));
+    }
+
+    @Test
+    void backoffDoublesUpToTheCap() {
+        assertThat(EmailOutboxService.backoff(1)).isEqualTo(Duration.ofSeconds(30));
+        assertThat(EmailOutboxService.backoff(2)).isEqualTo(Duration.ofMinutes(1));
+        assertThat(EmailOutboxService.backoff(4)).isEqualTo(Duration.ofMinutes(4));
+        assertThat(EmailOutboxService.backoff(10)).isEqualTo(EmailOutboxService.MAX_BACKOFF);
+        assertThat(EmailOutboxService.backoff(100)).isEqualTo(EmailOutboxService.MAX_BACKOFF);
+    }
+
+    @Test
+    void dispatchLeavesEmailsQueuedWhileTheProviderIsBusy() {
+        EmailProviderV2Entity provider = provider(ServerSetupTest.SMTP.getPort());
+        provider.setMaxConcurrentSends(1);
+        EmailOutboxEntity email = queuedEmail(0);
+        email.setStatus(EmailOutboxEntity.Status.PENDING);
+        when(outboxRepository.findDue(any(), any())).thenReturn(List.of(email));
+        when(providerRepository.findAllById(any())).thenReturn(List.of(provider));
+        EmailTransportPool.Lease held = transportPool.tryAcquire(provider).orElseThrow();
+
+        service.dispatch();
+
+        verify(outboxRepository, never()).claim(any());
+        held.close();
+    }
+}
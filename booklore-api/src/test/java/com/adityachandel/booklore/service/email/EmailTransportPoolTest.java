@@ -0,0 +1,116 @@
+package com.adityachandel.booklore.service.email;
+
+import com.adityachandel.booklore.model.entity.EmailProviderV2Entity;
+import com.icegreen.greenmail.junit5.GreenMailExtension;
+import com.icegreen.greenmail.util.ServerSetupTest;
+import jakarta.mail.internet.MimeMessage;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.springframework.mail.javamail.MimeMessageHelper;
+
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class EmailTransportPoolTest {
+
+    @RegisterExtension
+    static GreenMailExtension greenMail = new GreenMailExtension(ServerSetupTest.SMTP);
+
+    private final EmailTransportPool pool = new EmailTransportPool();
+
+    @AfterEach
+    void tearDown() {
+        pool.closeAll();
+    }
+
+    private EmailProviderV2Entity provider(int maxConcurrentSends, int maxSendsPerMinute) {
+        return EmailProviderV2Entity.builder()
+                .id(1L)
+                .name("local")
+                .host("localhost")
+                .port(ServerSetupTest.SMTP.getPort())
+                .username("booklore@localhost")
+                .password("secret")
+                .auth(false)
+                .startTls(false)
+                .maxConcurrentSends(maxConcurrentSends)
+                .maxSendsPerMinute(maxSendsPerMinute)
+                .build();
+    }
+
+    private void send(EmailTransportPool.Lease lease, String subject) throws Exception {
+        MimeMessage message = lease.createMimeMessage();
+        MimeMessageHelper helper = new MimeMessageHelper(message, false);
+        helper.setFrom("booklore@localhost");
+        helper.setTo("kindle@localhost");
+        helper.setSubject(subject);
+        helper.setText("body");
+        lease.send(message);
+    }
+
+    private EmailTransportPool.Lease awaitLease(EmailProviderV2Entity provider) throws InterruptedException {
+        for (int i = 0; i < 100; i++) {
+            Optional<EmailTransportPool.Lease> lease = pool.tryAcquire(provider);
+            if (lease.isPresent()) {
+                return lease.get();
+            }
+            Thread.sleep(10);
+        }
+        throw new AssertionError("No send slot became available");
+    }
+
+    @Test
+    void consecutiveSendsReuseOneConnection() throws Exception {
+        EmailProviderV2Entity provider = provider(2, 6_000);
+
+        for (int i = 0; i < 3; i++) {
+            try (EmailTransportPool.Lease lease = awaitLease(provider)) {
+                send(lease, "Book " + i);
+            }
+        }
+
+        assertThat(greenMail.getReceivedMessages()).hasSize(3);
+        assertThat(pool.idleTransports(1L)).isEqualTo(1);
+    }
+
+    @Test
+    void concurrencyLimitBlocksFurtherLeasesUntilReleased() throws Exception {
+        EmailProviderV2Entity provider = provider(1, 6_000);
+
+        EmailTransportPool.Lease first = awaitLease(provider);
+        Thread.sleep(20);
+        assertThat(pool.tryAcquire(provider)).isEmpty();
+
+        first.close();
+        awaitLease(provider).close();
+    }
+
+    @Test
+    void rateLimitSpacesSends() {
+        EmailProviderV2Entity provider = provider(5, 1);
+
+        pool.tryAcquire(provider).orElseThrow().close();
+
+        assertThat(pool.tryAcquire(provider)).isEmpty();
+    }
+
+    @Test
+    void changedProviderSettingsReplaceConnections() throws Exception {
+        EmailProviderV2Entity provider = provider(2, 6_000);
+        try (EmailTransportPool.Lease lease = awaitLease(provider)) {
+            send(lease, "Before");
+        }
+        assertThat(pool.idleTransports(1L)).isEqualTo(1);
+
+        provider.setPassword("rotated");
+        try (EmailTransportPool.Lease lease = awaitLease(provider)) {
+            assertThat(pool.idleTransports(1L)).isZero();
+            send(lease, "After");
+        }
+
+        assertThat(greenMail.getReceivedMessages()).hasSize(2);
+        assertThat(pool.idleTransports(1L)).isEqualTo(1);
+    }
+}
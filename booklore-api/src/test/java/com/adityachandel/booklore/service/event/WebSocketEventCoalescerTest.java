@@ -0,0 +1,104 @@
+package com.adityachandel.booklore.service.event;
+
+import com.adityachandel.booklore.model.dto.Book;
+import com.adityachandel.booklore.model.websocket.Topic;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class WebSocketEventCoalescerTest {
+
+    private SimpMessagingTemplate messagingTemplate;
+    private WebSocketEventCoalescer coalescer;
+
+    @BeforeEach
+    void setUp() {
+        messagingTemplate = mock(SimpMessagingTemplate.class);
+        coalescer = new WebSocketEventCoalescer(messagingTemplate);
+    }
+
+    private Book book(long id) {
+        return Book.builder().id(id).fileName("book-" + id + ".epub").build();
+    }
+
+    @Test
+    void syntheticScanIsSentAsBatches() {
+        int scannedBooks = 5_000;
+        for (long id = 1; id <= scannedBooks; id++) {
+            coalescer.enqueue("admin", Topic.BOOK_ADD, book(id));
+        }
+        coalescer.flush();
+
+        ArgumentCaptor<Object> payloads = ArgumentCaptor.forClass(Object.class);
+        verify(messagingTemplate, times(scannedBooks / WebSocketEventCoalescer.MAX_BATCH_MESSAGE_SIZE))
+                .convertAndSendToUser(eq("admin"), eq(Topic.BOOK_ADD_BATCH.getPath()), payloads.capture());
+        int delivered = payloads.getAllValues().stream().mapToInt(p -> ((Collection<?>) p).size()).sum();
+        assertEquals(scannedBooks, delivered);
+        assertTrue(payloads.getAllValues().stream().allMatch(p -> ((Collection<?>) p).size() <= WebSocketEventCoalescer.MAX_BATCH_MESSAGE_SIZE));
+    }
+
+    @Test
+    void singleEventKeepsOriginalTopic() {
+        Book book = book(1);
+        coalescer.enqueue("reader", Topic.BOOK_METADATA_UPDATE, book);
+        coalescer.flush();
+
+        verify(messagingTemplate).convertAndSendToUser("reader", Topic.BOOK_METADATA_UPDATE.getPath(), book);
+        verifyNoMoreInteractions(messagingTemplate);
+    }
+
+    @Test
+    void flushedUsersAreDroppedUntilTheyGetNewEvents() {
+        coalescer.enqueue("reader", Topic.BOOK_ADD, book(1));
+        coalescer.enqueue("admin", Topic.BOOK_ADD, book(2));
+        assertEquals(2, coalescer.pendingUserCount());
+
+        coalescer.flush();
+        assertEquals(0, coalescer.pendingUserCount());
+
+        coalescer.enqueue("reader", Topic.BOOK_UPDATE, book(1));
+        coalescer.flush();
+        verify(messagingTemplate).convertAndSendToUser("reader", Topic.BOOK_UPDATE.getPath(), book(1));
+    }
+
+    @Test
+    void latestUpdateWinsAndRemovalCancelsPendingEvents() {
+        coalescer.enqueue("reader", Topic.BOOK_UPDATE, book(1));
+        Book latest = book(1);
+        latest.setFileName("renamed.epub");
+        coalescer.enqueue("reader", Topic.BOOK_UPDATE, latest);
+        coalescer.enqueue("reader", Topic.BOOK_UPDATE, book(2));
+        coalescer.enqueue("reader", Topic.BOOKS_REMOVE, List.of(2L, 3L));
+        coalescer.flush();
+
+        verify(messagingTemplate).convertAndSendToUser("reader", Topic.BOOK_UPDATE.getPath(), latest);
+        verify(messagingTemplate).convertAndSendToUser("reader", Topic.BOOKS_REMOVE.getPath(), Set.of(2L, 3L));
+        verifyNoMoreInteractions(messagingTemplate);
+    }
+
+    @Test
+    void flushWithNothingPendingSendsNothing() {
+        coalescer.enqueue("reader", Topic.BOOK_ADD, book(1));
+        coalescer.flush();
+        coalescer.flush();
+
+        verify(messagingTemplate, times(1)).convertAndSendToUser(anyString(), anyString(), any(Object.class));
+    }
+
+    @Test
+    void onlyBookPayloadsAreCoalesced() {
+        assertTrue(WebSocketEventCoalescer.isCoalesced(Topic.BOOK_ADD, book(1)));
+        assertTrue(WebSocketEventCoalescer.isCoalesced(Topic.BOOKS_REMOVE, Set.of(1L)));
+        assertFalse(WebSocketEventCoalescer.isCoalesced(Topic.LOG, "message"));
+        assertFalse(WebSocketEventCoalescer.isCoalesced(Topic.BOOK_ADD, "not a book"));
+    }
+}
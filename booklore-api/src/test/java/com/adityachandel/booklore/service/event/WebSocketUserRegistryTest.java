@@ -0,0 +1,118 @@
+package com.adityachandel.booklore.service.event;
+
+import com.adityachandel.booklore.model.entity.BookLoreUserEntity;
+import com.adityachandel.booklore.model.entity.LibraryEntity;
+import com.adityachandel.booklore.model.entity.UserPermissionsEntity;
+import com.adityachandel.booklore.model.enums.PermissionType;
+import com.adityachandel.booklore.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.messaging.SessionConnectedEvent;
+import org.springframework.web.socket.messaging.SessionDisconnectEvent;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class WebSocketUserRegistryTest {
+
+    private UserRepository userRepository;
+    private WebSocketUserRegistry registry;
+
+    @BeforeEach
+    void setUp() {
+        userRepository = mock(UserRepository.class);
+        registry = new WebSocketUserRegistry(userRepository);
+
+        when(userRepository.findAll()).thenReturn(List.of(
+                user("admin", true, false),
+                user("reader", false, false, 1L),
+                user("editor", false, true, 2L)
+        ));
+        registry.loadUsers();
+    }
+
+    private BookLoreUserEntity user(String username, boolean admin, boolean editMetadata, Long... libraryIds) {
+        UserPermissionsEntity permissions = new UserPermissionsEntity();
+        permissions.setPermissionAdmin(admin);
+        permissions.setPermissionEditMetadata(editMetadata);
+        BookLoreUserEntity user = new BookLoreUserEntity();
+        user.setUsername(username);
+        user.setPermissions(permissions);
+        List<LibraryEntity> libraries = new ArrayList<>();
+        for (Long libraryId : libraryIds) {
+            libraries.add(LibraryEntity.builder().id(libraryId).build());
+        }
+        user.setLibraries(libraries);
+        return user;
+    }
+
+    private void connect(String sessionId, String username) {
+        StompHeaderAccessor accessor = StompHeaderAccessor.create(StompCommand.CONNECTED);
+        accessor.setSessionId(sessionId);
+        Message<byte[]> message = MessageBuilder.createMessage(new byte[0], accessor.getMessageHeaders());
+        registry.onSessionConnected(new SessionConnectedEvent(this, message, new UsernamePasswordAuthenticationToken(username, null)));
+    }
+
+    private void disconnect(String sessionId, String username) {
+        StompHeaderAccessor accessor = StompHeaderAccessor.create(StompCommand.DISCONNECT);
+        accessor.setSessionId(sessionId);
+        Message<byte[]> message = MessageBuilder.createMessage(new byte[0], accessor.getMessageHeaders());
+        registry.onSessionDisconnect(new SessionDisconnectEvent(this, message, sessionId, CloseStatus.NORMAL, new UsernamePasswordAuthenticationToken(username, null)));
+    }
+
+    @Test
+    void onlyConnectedUsersAreReturned() {
+        connect("s1", "editor");
+
+        assertEquals(Set.of("editor"), registry.getConnectedUsernamesWithAnyPermission(Set.of(PermissionType.EDIT_METADATA)));
+        assertTrue(registry.getConnectedAdmins().isEmpty());
+        verify(userRepository, times(1)).findAll();
+    }
+
+    @Test
+    void libraryAccessIncludesAdmins() {
+        connect("s1", "admin");
+        connect("s2", "reader");
+        connect("s3", "editor");
+
+        assertEquals(Set.of("admin", "reader"), registry.getConnectedUsernamesWithLibraryAccess(1L));
+        assertEquals(Set.of("admin", "editor"), registry.getConnectedUsernamesWithLibraryAccess(2L));
+    }
+
+    @Test
+    void userStaysConnectedUntilLastSessionCloses() {
+        connect("s1", "reader");
+        connect("s2", "reader");
+
+        disconnect("s1", "reader");
+        assertEquals(Set.of("reader"), registry.getConnectedUsernamesWithLibraryAccess(1L));
+
+        disconnect("s2", "reader");
+        assertTrue(registry.getConnectedUsernamesWithLibraryAccess(1L).isEmpty());
+    }
+
+    @Test
+    void userUpdatesAreReflectedWithoutReload() {
+        connect("s1", "reader");
+
+        registry.upsertUser(user("reader", false, true, 1L));
+        assertEquals(Set.of("reader"), registry.getConnectedUsernamesWithAnyPermission(Set.of(PermissionType.EDIT_METADATA)));
+
+        registry.removeLibrary(1L);
+        assertTrue(registry.getConnectedUsernamesWithLibraryAccess(1L).isEmpty());
+
+        registry.removeUser("reader");
+        assertTrue(registry.getConnectedUsernamesWithAnyPermission(Set.of(PermissionType.EDIT_METADATA)).isEmpty());
+        verify(userRepository, times(1)).findAll();
+    }
+}
@@ -0,0 +1,41 @@
+package com.adityachandel.booklore.service.file;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class FileFingerprintTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void incremental_matchesFileHashForAnyChunking() throws IOException {
+        // sizes around the sampled 1 KiB blocks at 0, 1K, 4K, 16K, ... 1M, 4M
+        int[] sizes = {0, 1, 700, 1024, 1025, 4096, 5000, 70_000, 1_100_000, 5_000_001};
+        for (int size : sizes) {
+            byte[] data = new byte[size];
+            Random random = new Random(size);
+            random.nextBytes(data);
+            Path file = tempDir.resolve("book-" + size + ".bin");
+            Files.write(file, data);
+
+            FileFingerprint.Incremental fingerprint = FileFingerprint.incremental();
+            int offset = 0;
+            while (offset < size) {
+                int chunk = Math.min(size - offset, 1 + random.nextInt(3000));
+                fingerprint.update(data, offset, chunk);
+                offset += chunk;
+            }
+
+            assertThat(fingerprint.length()).isEqualTo(size);
+            assertThat(fingerprint.digest()).as("size %d", size).isEqualTo(FileFingerprint.generateHash(file));
+        }
+    }
+}
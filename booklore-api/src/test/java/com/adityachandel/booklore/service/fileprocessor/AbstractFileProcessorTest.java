@@ -15,6 +15,7 @@ import com.adityachandel.booklore.repository.BookRepository;
 import com.adityachandel.booklore.service.book.BookCreatorService;
 import com.adityachandel.booklore.service.file.FileFingerprint;
 import com.adityachandel.booklore.service.metadata.MetadataMatchService;
+import com.adityachandel.booklore.service.metrics.BookloreMetrics;
 import com.adityachandel.booklore.util.FileService;
 import jakarta.persistence.EntityManager;
 import org.junit.jupiter.api.BeforeEach;
@@ -44,6 +45,8 @@ class AbstractFileProcessorTest {
     FileService fileService;
     @Mock
     EntityManager entityManager;
+    @Mock
+    BookloreMetrics bookloreMetrics;
 
     TestFileProcessor processor;
 
@@ -56,7 +59,8 @@ class AbstractFileProcessorTest {
                 bookCreatorService,
                 bookMapper,
                 fileService,
-                metadataMatchService
+                metadataMatchService,
+                bookloreMetrics
         );
 
         // Inject EntityManager via reflection
@@ -135,7 +139,7 @@ class AbstractFileProcessorTest {
                     .thenReturn(Optional.empty());
             when(bookRepository.findBookByFileNameAndLibraryId("file.pdf", 1L))
                     .thenReturn(Optional.empty());
-            when(metadataMatchService.calculateMatchScore(any())).thenReturn(85F);
+            when(metadataMatchService.updateMatchScore(any())).thenReturn(true);
             when(bookMapper.toBook(newEntity)).thenReturn(newBook);
 
             processor.setProcessNewFileResult(newEntity);
@@ -148,7 +152,7 @@ class AbstractFileProcessorTest {
             assertThat(result.getBook()).isEqualTo(newBook);
             assertThat(result.getDuplicate()).isNull();
             verify(bookCreatorService).saveConnections(newEntity);
-            verify(metadataMatchService).calculateMatchScore(newEntity);
+            verify(metadataMatchService).updateMatchScore(newEntity);
         }
     }
 
@@ -356,7 +360,7 @@ class AbstractFileProcessorTest {
                     .thenReturn(Optional.empty());
             when(bookRepository.findBookByFileNameAndLibraryId("file.pdf", 1L))
                     .thenReturn(Optional.empty());
-            when(metadataMatchService.calculateMatchScore(any())).thenReturn(90F);
+            when(metadataMatchService.updateMatchScore(any())).thenReturn(true);
             when(bookMapper.toBook(newEntity)).thenReturn(newBook);
 
             processor.setProcessNewFileResult(newEntity);
@@ -485,8 +489,9 @@ class AbstractFileProcessorTest {
                                  BookCreatorService bookCreatorService,
                                  BookMapper bookMapper,
                                  FileService fileService,
-                                 MetadataMatchService metadataMatchService) {
-            super(bookRepository, bookAdditionalFileRepository, bookCreatorService, bookMapper, fileService, metadataMatchService);
+                                 MetadataMatchService metadataMatchService,
+                                 BookloreMetrics bookloreMetrics) {
+            super(bookRepository, bookAdditionalFileRepository, bookCreatorService, bookMapper, fileService, metadataMatchService, bookloreMetrics);
         }
 
         @Override
@@ -0,0 +1,106 @@
+package com.adityachandel.booklore.service.kobo;
+
+import com.adityachandel.booklore.model.dto.kobo.KoboBookMetadata;
+import com.adityachandel.booklore.model.dto.kobo.KoboBookVersion;
+import com.adityachandel.booklore.model.dto.kobo.NewEntitlement;
+import com.adityachandel.booklore.model.dto.settings.AppSettings;
+import com.adityachandel.booklore.model.dto.settings.KoboSettings;
+import com.adityachandel.booklore.model.entity.AuthorEntity;
+import com.adityachandel.booklore.model.entity.BookEntity;
+import com.adityachandel.booklore.model.entity.BookMetadataEntity;
+import com.adityachandel.booklore.model.enums.BookFileType;
+import com.adityachandel.booklore.service.appsettings.AppSettingService;
+import com.adityachandel.booklore.service.book.BookQueryService;
+import com.adityachandel.booklore.util.kobo.KoboUrlBuilder;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anySet;
+import static org.mockito.Mockito.*;
+
+class KoboEntitlementServiceTest {
+
+    private static final Instant UPDATED_AT = Instant.parse("2025-01-01T00:00:00Z");
+
+    private KoboUrlBuilder koboUrlBuilder;
+    private BookQueryService bookQueryService;
+    private AppSettings appSettings;
+    private KoboEntitlementService service;
+
+    @BeforeEach
+    void setUp() {
+        koboUrlBuilder = mock(KoboUrlBuilder.class);
+        bookQueryService = mock(BookQueryService.class);
+        AppSettingService appSettingService = mock(AppSettingService.class);
+        appSettings = AppSettings.builder().koboSettings(KoboSettings.builder().build()).build();
+        when(appSettingService.getAppSettings()).thenReturn(appSettings);
+        when(koboUrlBuilder.downloadUrlTemplate(anyString()))
+                .thenAnswer(invocation -> "http://host/api/kobo/" + invocation.getArgument(0) + "/v1/books/{bookId}/download");
+        service = new KoboEntitlementService(koboUrlBuilder, bookQueryService, appSettingService, new KoboEntitlementCache());
+    }
+
+    @Test
+    void repeatedSyncs_reuseRenderedMetadataAndOnlySwapTheToken() {
+        when(bookQueryService.findKoboBookVersionsByIds(Set.of(1L))).thenReturn(List.of(version(UPDATED_AT)));
+        when(bookQueryService.findAllWithMetadataByIds(Set.of(1L))).thenReturn(List.of(book()));
+
+        NewEntitlement first = service.generateNewEntitlements(Set.of(1L), "token-a", false).getFirst();
+        NewEntitlement second = service.generateNewEntitlements(Set.of(1L), "token-b", false).getFirst();
+
+        verify(bookQueryService, times(1)).findAllWithMetadataByIds(anySet());
+        KoboBookMetadata metadata = second.getNewEntitlement().getBookMetadata();
+        assertThat(metadata.getTitle()).isEqualTo("Dune");
+        assertThat(metadata.getContributors()).containsExactly("Frank Herbert");
+        assertThat(metadata.getDownloadUrls()).singleElement().satisfies(url -> {
+            assertThat(url.getUrl()).isEqualTo("http://host/api/kobo/token-b/v1/books/1/download");
+            assertThat(url.getFormat()).isEqualTo("EPUB3");
+            assertThat(url.getSize()).isEqualTo(2048);
+        });
+        assertThat(first.getNewEntitlement().getBookMetadata().getDownloadUrls().getFirst().getUrl())
+                .isEqualTo("http://host/api/kobo/token-a/v1/books/1/download");
+    }
+
+    @Test
+    void changedMetadataOrFormat_rendersAgain() {
+        when(bookQueryService.findKoboBookVersionsByIds(Set.of(1L)))
+                .thenReturn(List.of(version(UPDATED_AT)))
+                .thenReturn(List.of(version(UPDATED_AT.plusSeconds(5))));
+        when(bookQueryService.findAllWithMetadataByIds(Set.of(1L))).thenReturn(List.of(book()));
+
+        service.getMetadataForBook(1L, "token");
+        service.getMetadataForBook(1L, "token");
+        appSettings.getKoboSettings().setConvertToKepub(true);
+        KoboBookMetadata kepub = service.getMetadataForBook(1L, "token");
+
+        verify(bookQueryService, times(3)).findAllWithMetadataByIds(anySet());
+        assertThat(kepub.getDownloadUrls().getFirst().getFormat()).isEqualTo("KEPUB");
+    }
+
+    @Test
+    void removedEntitlements_needNoMetadata() {
+        when(bookQueryService.findKoboBookVersionsByIds(Set.of(1L))).thenReturn(List.of(version(UPDATED_AT)));
+
+        assertThat(service.generateChangedEntitlements(Set.of(1L), "token", true)).hasSize(1);
+
+        verify(bookQueryService, never()).findAllWithMetadataByIds(anySet());
+        verifyNoInteractions(koboUrlBuilder);
+    }
+
+    private static KoboBookVersion version(Instant metadataUpdatedAt) {
+        return new KoboBookVersion(1L, BookFileType.EPUB, Instant.parse("2024-06-01T00:00:00Z"), 2L, metadataUpdatedAt);
+    }
+
+    private static BookEntity book() {
+        BookMetadataEntity metadata = BookMetadataEntity.builder()
+                .bookId(1L)
+                .title("Dune")
+                .authors(Set.of(AuthorEntity.builder().name("Frank Herbert").build()))
+                .build();
+        return BookEntity.builder().id(1L).bookType(BookFileType.EPUB).fileSizeKb(2L).metadata(metadata).build();
+    }
+}
@@ -0,0 +1,137 @@
+package com.adityachandel.booklore.service.kobo;
+
+import com.adityachandel.booklore.config.AppProperties;
+import com.adityachandel.booklore.model.dto.BookLoreUser;
+import com.adityachandel.booklore.model.dto.BookloreSyncToken;
+import com.adityachandel.booklore.model.dto.kobo.KoboHeaders;
+import com.adityachandel.booklore.model.entity.KoboDeletedBookProgressEntity;
+import com.adityachandel.booklore.model.entity.KoboLibrarySnapshotEntity;
+import com.adityachandel.booklore.model.entity.KoboSnapshotBookEntity;
+import com.adityachandel.booklore.repository.KoboDeletedBookProgressRepository;
+import com.adityachandel.booklore.util.kobo.BookloreSyncTokenGenerator;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class KoboLibrarySyncServiceTest {
+
+    private static final int BATCH_SIZE = 5;
+
+    private BookloreSyncTokenGenerator tokenGenerator;
+    private KoboLibrarySnapshotService snapshotService;
+    private KoboEntitlementService entitlementService;
+    private KoboDeletedBookProgressRepository deletedBookProgressRepository;
+    private KoboServerProxy koboServerProxy;
+    private KoboLibrarySyncService service;
+
+    private final BookLoreUser user = BookLoreUser.builder().id(1L).build();
+    private final KoboLibrarySnapshotEntity previous = KoboLibrarySnapshotEntity.builder().id("prev").userId(1L).build();
+    private final KoboLibrarySnapshotEntity current = KoboLibrarySnapshotEntity.builder().id("curr").userId(1L).build();
+
+    @BeforeEach
+    void setUp() {
+        tokenGenerator = mock(BookloreSyncTokenGenerator.class);
+        snapshotService = mock(KoboLibrarySnapshotService.class);
+        entitlementService = mock(KoboEntitlementService.class);
+        deletedBookProgressRepository = mock(KoboDeletedBookProgressRepository.class);
+        koboServerProxy = mock(KoboServerProxy.class);
+        AppProperties appProperties = new AppProperties();
+        appProperties.getKobo().setSyncMinBatchSize(1);
+        service = new KoboLibrarySyncService(tokenGenerator, snapshotService, entitlementService, deletedBookProgressRepository,
+                koboServerProxy, new ObjectMapper(), new KoboSyncBatchSizer(appProperties));
+
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(new MockHttpServletRequest()));
+        when(tokenGenerator.fromRequestHeaders(any())).thenReturn(BookloreSyncToken.builder()
+                .lastSuccessfulSyncPointId("prev")
+                .ongoingSyncPointId("curr")
+                .batchSize(BATCH_SIZE)
+                .build());
+        when(tokenGenerator.toBase64(any())).thenReturn("token");
+        when(snapshotService.findByIdAndUserId("prev", 1L)).thenReturn(Optional.of(previous));
+        when(snapshotService.findByIdAndUserId("curr", 1L)).thenReturn(Optional.of(current));
+        when(koboServerProxy.proxyCurrentRequest(null, true)).thenReturn(ResponseEntity.ok().<JsonNode>build());
+    }
+
+    @AfterEach
+    void tearDown() {
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+    private void unsyncedAdditions(int count, boolean more) {
+        List<KoboSnapshotBookEntity> books = LongStream.rangeClosed(1, count)
+                .mapToObj(id -> KoboSnapshotBookEntity.builder().bookId(id).build())
+                .toList();
+        when(snapshotService.getUnsyncedBooks("curr", BATCH_SIZE)).thenReturn(new SliceImpl<>(books, PageRequest.of(0, BATCH_SIZE), more));
+    }
+
+    private ResponseEntity<?> sync() {
+        return service.syncLibrary(user, "kobo-token");
+    }
+
+    @Test
+    void additionsExactlyFillingThePage_continueSoRemovalsGoOutNext() {
+        unsyncedAdditions(BATCH_SIZE, false);
+        when(snapshotService.hasUnsyncedRemovedBooks("curr", 1L)).thenReturn(true);
+
+        ResponseEntity<?> response = sync();
+
+        assertThat(response.getHeaders().getFirst(KoboHeaders.X_KOBO_SYNC)).isEqualTo("continue");
+        verify(snapshotService, never()).getUnsyncedRemovedBooks(any(), any(), anyInt());
+        verify(koboServerProxy, never()).proxyCurrentRequest(any(), anyBoolean());
+        verify(snapshotService, never()).deleteById(any());
+    }
+
+    @Test
+    void additionsExactlyFillingThePage_finishWhenNoRemovalsArePending() {
+        unsyncedAdditions(BATCH_SIZE, false);
+        when(snapshotService.hasUnsyncedRemovedBooks("curr", 1L)).thenReturn(false);
+
+        ResponseEntity<?> response = sync();
+
+        assertThat(response.getHeaders().getFirst(KoboHeaders.X_KOBO_SYNC)).isEmpty();
+        verify(koboServerProxy).proxyCurrentRequest(null, true);
+        verify(snapshotService).deleteById("prev");
+    }
+
+    @Test
+    void removalsFillTheRestOfThePage() {
+        unsyncedAdditions(2, false);
+        KoboDeletedBookProgressEntity removed = KoboDeletedBookProgressEntity.builder().bookIdSynced(9L).build();
+        when(snapshotService.getUnsyncedRemovedBooks("curr", 1L, 3))
+                .thenReturn(new SliceImpl<>(List.of(removed), PageRequest.of(0, 3), false));
+
+        ResponseEntity<?> response = sync();
+
+        verify(entitlementService).generateNewEntitlements(Set.of(1L, 2L), "kobo-token", false);
+        verify(entitlementService).generateChangedEntitlements(Set.of(9L), "kobo-token", true);
+        assertThat(response.getHeaders().getFirst(KoboHeaders.X_KOBO_SYNC)).isEmpty();
+    }
+
+    @Test
+    void moreAdditionsPending_skipRemovalsUntilAdditionsAreDone() {
+        unsyncedAdditions(BATCH_SIZE, true);
+
+        ResponseEntity<?> response = sync();
+
+        assertThat(response.getHeaders().getFirst(KoboHeaders.X_KOBO_SYNC)).isEqualTo("continue");
+        verify(snapshotService, never()).getUnsyncedRemovedBooks(any(), any(), anyInt());
+        verify(snapshotService, never()).hasUnsyncedRemovedBooks(any(), any());
+    }
+}
@@ -0,0 +1,54 @@
+package com.adityachandel.booklore.service.kobo;
+
+import com.adityachandel.booklore.config.AppProperties;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class KoboSyncBatchSizerTest {
+
+    private AppProperties.Kobo kobo;
+    private KoboSyncBatchSizer sizer;
+
+    @BeforeEach
+    void setUp() {
+        AppProperties appProperties = new AppProperties();
+        kobo = appProperties.getKobo();
+        kobo.setSyncBatchSize(50);
+        kobo.setSyncMinBatchSize(5);
+        kobo.setSyncMaxBatchSize(250);
+        kobo.setSyncTargetPayloadKb(512);
+        sizer = new KoboSyncBatchSizer(appProperties);
+    }
+
+    @Test
+    void resolve_usesConfiguredSizeForNewSession() {
+        assertThat(sizer.resolve(null)).isEqualTo(50);
+    }
+
+    @Test
+    void resolve_clampsSizeCarriedInToken() {
+        assertThat(sizer.resolve(1)).isEqualTo(5);
+        assertThat(sizer.resolve(10_000)).isEqualTo(250);
+        assertThat(sizer.resolve(120)).isEqualTo(120);
+    }
+
+    @Test
+    void next_growsForLeanEntitlements() {
+        // 4 KiB per entitlement -> 128 fit into 512 KiB
+        assertThat(sizer.next(50, 50 * 4096L, 50)).isEqualTo(128);
+    }
+
+    @Test
+    void next_shrinksForHeavyEntitlements() {
+        // 64 KiB per entitlement -> 8 fit into 512 KiB
+        assertThat(sizer.next(50, 50 * 65_536L, 50)).isEqualTo(8);
+        assertThat(sizer.next(50, 50 * 1_048_576L, 50)).isEqualTo(5);
+    }
+
+    @Test
+    void next_keepsCurrentSizeWithoutEntitlements() {
+        assertThat(sizer.next(80, 2, 0)).isEqualTo(80);
+    }
+}
@@ -115,7 +115,7 @@ class FolderAsBookFileProcessorTest {
 
         BookEntity bookEntity = createBookEntity(1L, "book.pdf", "books");
 
-        when(bookRepository.findAllByLibraryPathIdAndFileSubPathStartingWith(anyLong(), anyString()))
+        when(bookRepository.findAllWithLibraryPathByLibraryPathIdIn(anyCollection()))
                 .thenReturn(new ArrayList<>());
         when(bookFileProcessorRegistry.getProcessorOrThrow(BookFileType.PDF))
                 .thenReturn(mockBookFileProcessor);
@@ -154,7 +154,7 @@ class FolderAsBookFileProcessorTest {
 
         BookEntity existingBook = createBookEntity(1L, "book.pdf", "books");
 
-        when(bookRepository.findAllByLibraryPathIdAndFileSubPathStartingWith(anyLong(), eq("books")))
+        when(bookRepository.findAllWithLibraryPathByLibraryPathIdIn(anyCollection()))
                 .thenReturn(List.of(existingBook));
         when(bookAdditionalFileRepository.findByLibraryPath_IdAndFileSubPathAndFileName(anyLong(), anyString(), anyString()))
                 .thenReturn(Optional.empty());
@@ -185,9 +185,7 @@ class FolderAsBookFileProcessorTest {
 
         BookEntity parentBook = createBookEntity(1L, "book.pdf", "books");
 
-        when(bookRepository.findAllByLibraryPathIdAndFileSubPathStartingWith(anyLong(), eq("books/chapter1")))
-                .thenReturn(new ArrayList<>());
-        when(bookRepository.findAllByLibraryPathIdAndFileSubPathStartingWith(anyLong(), eq("books")))
+        when(bookRepository.findAllWithLibraryPathByLibraryPathIdIn(anyCollection()))
                 .thenReturn(List.of(parentBook));
         when(bookAdditionalFileRepository.findByLibraryPath_IdAndFileSubPathAndFileName(anyLong(), anyString(), anyString()))
                 .thenReturn(Optional.empty());
@@ -227,7 +225,7 @@ class FolderAsBookFileProcessorTest {
 
         BookEntity bookEntity = createBookEntity(1L, "book.epub", "books");
 
-        when(bookRepository.findAllByLibraryPathIdAndFileSubPathStartingWith(anyLong(), anyString()))
+        when(bookRepository.findAllWithLibraryPathByLibraryPathIdIn(anyCollection()))
                 .thenReturn(new ArrayList<>());
         when(bookFileProcessorRegistry.getProcessorOrThrow(BookFileType.EPUB))
                 .thenReturn(mockBookFileProcessor);
@@ -272,7 +270,7 @@ class FolderAsBookFileProcessorTest {
 
         BookEntity bookEntity = createBookEntity(1L, "book.pdf", "books");
 
-        when(bookRepository.findAllByLibraryPathIdAndFileSubPathStartingWith(anyLong(), anyString()))
+        when(bookRepository.findAllWithLibraryPathByLibraryPathIdIn(anyCollection()))
                 .thenReturn(new ArrayList<>());
         when(bookFileProcessorRegistry.getProcessorOrThrow(BookFileType.PDF))
                 .thenReturn(mockBookFileProcessor);
@@ -310,7 +308,7 @@ class FolderAsBookFileProcessorTest {
                 .additionalFileType(AdditionalFileType.ALTERNATIVE_FORMAT)
                 .build();
 
-        when(bookRepository.findAllByLibraryPathIdAndFileSubPathStartingWith(anyLong(), eq("books")))
+        when(bookRepository.findAllWithLibraryPathByLibraryPathIdIn(anyCollection()))
                 .thenReturn(List.of(existingBook));
         when(bookAdditionalFileRepository.findByLibraryPath_IdAndFileSubPathAndFileName(anyLong(), eq("books"), eq("book.epub")))
                 .thenReturn(Optional.of(existingAdditionalFile));
@@ -338,7 +336,7 @@ class FolderAsBookFileProcessorTest {
                 createLibraryFile("notes.txt", "docs")
         );
 
-        when(bookRepository.findAllByLibraryPathIdAndFileSubPathStartingWith(anyLong(), anyString()))
+        when(bookRepository.findAllWithLibraryPathByLibraryPathIdIn(anyCollection()))
                 .thenReturn(new ArrayList<>());
 
         // When
@@ -359,7 +357,7 @@ class FolderAsBookFileProcessorTest {
                 createLibraryFile("book.pdf", "books", BookFileType.PDF)
         );
 
-        when(bookRepository.findAllByLibraryPathIdAndFileSubPathStartingWith(anyLong(), anyString()))
+        when(bookRepository.findAllWithLibraryPathByLibraryPathIdIn(anyCollection()))
                 .thenReturn(new ArrayList<>());
         when(bookFileProcessorRegistry.getProcessorOrThrow(BookFileType.PDF))
                 .thenReturn(mockBookFileProcessor);
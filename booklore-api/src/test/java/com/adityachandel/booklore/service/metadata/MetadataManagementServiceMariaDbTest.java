@@ -0,0 +1,202 @@
+package com.adityachandel.booklore.service.metadata;
+
+import com.adityachandel.booklore.model.dto.settings.AppSettings;
+import com.adityachandel.booklore.model.dto.settings.MetadataMatchWeights;
+import com.adityachandel.booklore.model.dto.settings.MetadataPersistenceSettings;
+import com.adityachandel.booklore.model.entity.*;
+import com.adityachandel.booklore.model.enums.BookFileType;
+import com.adityachandel.booklore.model.enums.LibraryScanMode;
+import com.adityachandel.booklore.model.enums.MergeMetadataType;
+import com.adityachandel.booklore.repository.MetadataMappingRepository;
+import com.adityachandel.booklore.service.appsettings.AppSettingService;
+import com.adityachandel.booklore.service.kobo.KoboEntitlementCache;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.testcontainers.containers.MariaDBContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.when;
+
+/**
+ * Runs merges and deletes of mapped metadata values end to end against MariaDB, since the mapping tables are
+ * rewritten with INSERT IGNORE ... SELECT and bulk deletes instead of through the entities. Skipped when Docker
+ * is not available.
+ */
+@DataJpaTest
+@Testcontainers(disabledWithoutDocker = true)
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@TestPropertySource(properties = {
+        "spring.jpa.hibernate.ddl-auto=none",
+        "spring.flyway.enabled=true"
+})
+@Import({MetadataManagementService.class, MetadataMappingRepository.class, MetadataMatchService.class})
+class MetadataManagementServiceMariaDbTest {
+
+    private static final int TITLE_AND_CATEGORIES = MetadataPresence.TITLE.bit() | MetadataPresence.CATEGORIES.bit();
+
+    @Container
+    @ServiceConnection
+    static MariaDBContainer<?> mariaDB = new MariaDBContainer<>("mariadb:11.4.5");
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private MetadataManagementService service;
+
+    @MockitoBean
+    private AppSettingService appSettingService;
+
+    @MockitoBean
+    private MetadataFileWriteService metadataFileWriteService;
+
+    @MockitoBean
+    private KoboEntitlementCache koboEntitlementCache;
+
+    private LibraryEntity library;
+    private LibraryPathEntity libraryPath;
+
+    @BeforeEach
+    void setUp() {
+        AppSettings appSettings = new AppSettings();
+        appSettings.setMetadataPersistenceSettings(new MetadataPersistenceSettings());
+        appSettings.setMetadataMatchWeights(MetadataMatchWeights.builder().title(1).categories(1).build());
+        when(appSettingService.getAppSettings()).thenReturn(appSettings);
+
+        library = LibraryEntity.builder()
+                .name("Library")
+                .icon("book")
+                .scanMode(LibraryScanMode.FILE_AS_BOOK)
+                .libraryPaths(new ArrayList<>())
+                .build();
+        entityManager.persist(library);
+        libraryPath = LibraryPathEntity.builder().library(library).path("/books").build();
+        entityManager.persist(libraryPath);
+    }
+
+    private <E> E persist(E entity) {
+        entityManager.persist(entity);
+        return entity;
+    }
+
+    private Long book(String title, Set<AuthorEntity> authors, Set<CategoryEntity> categories) {
+        BookEntity book = BookEntity.builder()
+                .fileName(title + ".epub")
+                .fileSubPath("")
+                .bookType(BookFileType.EPUB)
+                .library(library)
+                .libraryPath(libraryPath)
+                .deleted(false)
+                .build();
+        book.setMetadata(BookMetadataEntity.builder()
+                .book(book)
+                .title(title)
+                .authors(authors)
+                .categories(categories)
+                .build());
+        entityManager.persist(book);
+        entityManager.flush();
+        jdbcTemplate.update("UPDATE book SET metadata_presence = ?, metadata_match_score = 100 WHERE id = ?", TITLE_AND_CATEGORIES, book.getId());
+        return book.getId();
+    }
+
+    private List<String> authorNames(Long bookId) {
+        return jdbcTemplate.queryForList("SELECT a.name FROM author a JOIN book_metadata_author_mapping m ON m.author_id = a.id "
+                + "WHERE m.book_id = ? ORDER BY a.name", String.class, bookId);
+    }
+
+    private List<String> categoryNames(Long bookId) {
+        return jdbcTemplate.queryForList("SELECT c.name FROM category c JOIN book_metadata_category_mapping m ON m.category_id = c.id "
+                + "WHERE m.book_id = ? ORDER BY c.name", String.class, bookId);
+    }
+
+    private long count(String table, String name) {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM " + table + " WHERE name = ?", Long.class, name);
+    }
+
+    @Test
+    void mergeAuthors_movesBooksOntoExistingTargetAndDeletesSource() {
+        AuthorEntity target = persist(AuthorEntity.builder().name("Ursula K. Le Guin").build());
+        AuthorEntity source = persist(AuthorEntity.builder().name("U. K. Le Guin").build());
+        AuthorEntity other = persist(AuthorEntity.builder().name("Vonda McIntyre").build());
+        Long fromSource = book("Earthsea", Set.of(source, other), Set.of());
+        Long fromTarget = book("Lathe", Set.of(target), Set.of());
+
+        service.consolidateMetadata(MergeMetadataType.authors, List.of("Ursula K. Le Guin"), List.of("U. K. Le Guin"));
+
+        assertThat(authorNames(fromSource)).containsExactly("Ursula K. Le Guin", "Vonda McIntyre");
+        assertThat(authorNames(fromTarget)).containsExactly("Ursula K. Le Guin");
+        assertThat(count("author", "U. K. Le Guin")).isZero();
+        assertThat(count("author", "Ursula K. Le Guin")).isEqualTo(1);
+    }
+
+    @Test
+    void mergeAuthors_bookWithBothValuesKeepsOneMapping() {
+        AuthorEntity target = persist(AuthorEntity.builder().name("Iain M. Banks").build());
+        AuthorEntity source = persist(AuthorEntity.builder().name("Iain Banks").build());
+        Long both = book("Consider Phlebas", Set.of(target, source), Set.of());
+
+        service.consolidateMetadata(MergeMetadataType.authors, List.of("Iain M. Banks"), List.of("Iain Banks"));
+
+        assertThat(authorNames(both)).containsExactly("Iain M. Banks");
+        assertThat(count("author", "Iain Banks")).isZero();
+    }
+
+    @Test
+    void mergeCategories_renamesOntoExistingNameAndMergesBooks() {
+        CategoryEntity existing = persist(CategoryEntity.builder().name("science fiction").build());
+        CategoryEntity source = persist(CategoryEntity.builder().name("Sci-Fi").build());
+        Long onExisting = book("Dune", Set.of(), Set.of(existing));
+        Long onSource = book("Hyperion", Set.of(), Set.of(source));
+        Long onBoth = book("Foundation", Set.of(), Set.of(existing, source));
+
+        service.consolidateMetadata(MergeMetadataType.categories, List.of("Science Fiction"), List.of("sci-fi"));
+
+        assertThat(categoryNames(onExisting)).containsExactly("Science Fiction");
+        assertThat(categoryNames(onSource)).containsExactly("Science Fiction");
+        assertThat(categoryNames(onBoth)).containsExactly("Science Fiction");
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM category WHERE LOWER(name) IN ('science fiction', 'sci-fi')", Long.class))
+                .isEqualTo(1);
+    }
+
+    @Test
+    void deleteCategories_clearsPresenceOnlyForBooksLeftWithoutCategories() {
+        CategoryEntity removed = persist(CategoryEntity.builder().name("Misc").build());
+        CategoryEntity kept = persist(CategoryEntity.builder().name("Fantasy").build());
+        Long emptied = book("Loose Ends", Set.of(), Set.of(removed));
+        Long stillCategorised = book("The Hobbit", Set.of(), Set.of(removed, kept));
+
+        service.deleteMetadata(MergeMetadataType.categories, List.of("misc"));
+
+        assertThat(categoryNames(emptied)).isEmpty();
+        assertThat(categoryNames(stillCategorised)).containsExactly("Fantasy");
+        assertThat(count("category", "Misc")).isZero();
+
+        assertThat(jdbcTemplate.queryForObject("SELECT metadata_presence FROM book WHERE id = ?", Integer.class, emptied))
+                .isEqualTo(MetadataPresence.TITLE.bit());
+        assertThat(jdbcTemplate.queryForObject("SELECT metadata_match_score FROM book WHERE id = ?", Float.class, emptied))
+                .isEqualTo(50f);
+        assertThat(jdbcTemplate.queryForObject("SELECT metadata_presence FROM book WHERE id = ?", Integer.class, stillCategorised))
+                .isEqualTo(TITLE_AND_CATEGORIES);
+        assertThat(jdbcTemplate.queryForObject("SELECT metadata_match_score FROM book WHERE id = ?", Float.class, stillCategorised))
+                .isEqualTo(100f);
+    }
+}
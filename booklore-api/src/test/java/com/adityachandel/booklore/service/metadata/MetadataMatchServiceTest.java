@@ -0,0 +1,113 @@
+package com.adityachandel.booklore.service.metadata;
+
+import com.adityachandel.booklore.model.dto.settings.AppSettings;
+import com.adityachandel.booklore.model.dto.settings.MetadataMatchWeights;
+import com.adityachandel.booklore.model.entity.AuthorEntity;
+import com.adityachandel.booklore.model.entity.BookEntity;
+import com.adityachandel.booklore.model.entity.BookMetadataEntity;
+import com.adityachandel.booklore.service.appsettings.AppSettingService;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.Query;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+class MetadataMatchServiceTest {
+
+    private AppSettingService appSettingService;
+    private EntityManager entityManager;
+    private MetadataMatchService service;
+    private MetadataMatchWeights weights;
+
+    @BeforeEach
+    void setUp() {
+        appSettingService = mock(AppSettingService.class);
+        entityManager = mock(EntityManager.class);
+        weights = MetadataMatchWeights.builder()
+                .title(10).description(5).authors(10).isbn13(3).pageCount(2).categories(4).goodreadsRating(2).coverImage(4)
+                .build();
+        when(appSettingService.getAppSettings()).thenReturn(AppSettings.builder().metadataMatchWeights(weights).build());
+        service = new MetadataMatchService(appSettingService, entityManager);
+    }
+
+    @Test
+    void updateMatchScore_weighsPresentFields() {
+        BookMetadataEntity metadata = BookMetadataEntity.builder()
+                .title("Dune")
+                .description("  ")
+                .authors(Set.of(AuthorEntity.builder().name("Frank Herbert").build()))
+                .pageCount(0)
+                .goodreadsRating(4.2)
+                .build();
+        BookEntity book = BookEntity.builder().metadata(metadata).build();
+
+        service.updateMatchScore(book);
+
+        // title + authors + goodreads rating out of a total weight of 40
+        assertThat(book.getMetadataMatchScore()).isCloseTo(55f, within(0.001f));
+    }
+
+    @Test
+    void updateMatchScore_rescoresOnlyWhenPresenceChanges() {
+        BookMetadataEntity metadata = BookMetadataEntity.builder().title("Dune").authors(new HashSet<>()).build();
+        BookEntity book = BookEntity.builder().metadata(metadata).build();
+
+        assertThat(service.updateMatchScore(book)).isTrue();
+        assertThat(book.getMetadataPresence()).isEqualTo(MetadataPresence.TITLE.bit());
+        assertThat(book.getMetadataMatchScore()).isCloseTo(25f, within(0.001f));
+
+        metadata.setTitle("Dune Messiah");
+        assertThat(service.updateMatchScore(book)).isFalse();
+
+        metadata.getAuthors().add(AuthorEntity.builder().name("Frank Herbert").build());
+        assertThat(service.updateMatchScore(book)).isTrue();
+        assertThat(book.getMetadataPresence()).isEqualTo(MetadataPresence.TITLE.bit() | MetadataPresence.AUTHORS.bit());
+        assertThat(book.getMetadataMatchScore()).isCloseTo(50f, within(0.001f));
+    }
+
+    @Test
+    void recalculateAllMatchScores_isOneUpdateOverPresenceBits() {
+        Query query = mock(Query.class);
+        when(entityManager.createNativeQuery(anyString())).thenReturn(query);
+        when(query.executeUpdate()).thenReturn(42);
+
+        assertThat(service.recalculateAllMatchScores()).isEqualTo(42);
+
+        ArgumentCaptor<String> sql = ArgumentCaptor.forClass(String.class);
+        verify(entityManager).createNativeQuery(sql.capture());
+        assertThat(sql.getValue())
+                .startsWith("UPDATE book SET metadata_match_score")
+                .contains("((metadata_presence & 1) <> 0) * :w0")
+                .endsWith("WHERE metadata_presence IS NOT NULL");
+        verify(query).setParameter("w" + MetadataPresence.TITLE.ordinal(), 10);
+        verify(query).setParameter("w" + MetadataPresence.AUTHORS.ordinal(), 10);
+        verify(query).setParameter("totalWeight", 40);
+        verify(query, times(MetadataPresence.values().length + 1)).setParameter(anyString(), any());
+        verify(query).executeUpdate();
+    }
+
+    @Test
+    void maskAndScore_agreeWithUpdateMatchScore() {
+        BookMetadataEntity metadata = BookMetadataEntity.builder()
+                .title("Dune").isbn13("9780441013593").pageCount(412)
+                .categories(new HashSet<>())
+                .build();
+        BookEntity book = BookEntity.builder().metadata(metadata).build();
+
+        int mask = MetadataPresence.maskOf(metadata);
+
+        assertThat(mask).isEqualTo(MetadataPresence.TITLE.bit() | MetadataPresence.ISBN_13.bit() | MetadataPresence.PAGE_COUNT.bit());
+        service.updateMatchScore(book);
+        assertThat(book.getMetadataPresence()).isEqualTo(mask);
+        assertThat(book.getMetadataMatchScore()).isEqualTo(MetadataPresence.score(mask, weights));
+    }
+}
@@ -0,0 +1,139 @@
+package com.adityachandel.booklore.service.metadata.extractor;
+
+import com.adityachandel.booklore.model.dto.BookMetadata;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EpubMetadataExtractorTest {
+
+    private static final String CONTAINER_XML = """
+            <?xml version="1.0" encoding="UTF-8"?>
+            <container version="1.0" xmlns="urn:oasis:names:tc:opendocument:xmlns:container">
+              <rootfiles>
+                <rootfile full-path="OEBPS/content.opf" media-type="application/oebps-package+xml"/>
+              </rootfiles>
+            </container>
+            """;
+
+    private static final String OPF_TEMPLATE = """
+            <?xml version="1.0" encoding="UTF-8"?>
+            <package xmlns="http://www.idpf.org/2007/opf" version="3.0" unique-identifier="id">
+              <metadata xmlns:dc="http://purl.org/dc/elements/1.1/">
+                <dc:title>The Title</dc:title>
+                <dc:creator>Jane Author</dc:creator>
+                <dc:subject>Fiction</dc:subject>
+                <dc:date>2021-03-04</dc:date>
+                <dc:identifier>isbn:9781234567897</dc:identifier>
+                <meta name="calibre:series" content="Saga"/>
+                <meta name="calibre:series_index" content="2"/>
+                %s
+              </metadata>
+              <manifest>
+                %s
+                <item id="ch1" href="text/ch1.xhtml" media-type="application/xhtml+xml"/>
+              </manifest>
+              <spine><itemref idref="ch1"/></spine>
+            </package>
+            """;
+
+    private static final byte[] COVER = {1, 2, 3, 4};
+    private static final byte[] OTHER_IMAGE = {5, 6, 7};
+
+    @TempDir
+    Path tempDir;
+
+    private final EpubMetadataExtractor extractor = new EpubMetadataExtractor();
+
+    @Test
+    void extractMetadata_readsOpfFields() throws Exception {
+        File epub = createEpub("<meta name=\"cover\" content=\"cover-img\"/>",
+                "<item id=\"cover-img\" href=\"images/front.jpg\" media-type=\"image/jpeg\"/>");
+
+        BookMetadata metadata = extractor.extractMetadata(epub);
+
+        assertEquals("The Title", metadata.getTitle());
+        assertTrue(metadata.getAuthors().contains("Jane Author"));
+        assertTrue(metadata.getCategories().contains("Fiction"));
+        assertEquals(LocalDate.of(2021, 3, 4), metadata.getPublishedDate());
+        assertEquals("9781234567897", metadata.getIsbn13());
+        assertEquals("Saga", metadata.getSeriesName());
+        assertEquals(2f, metadata.getSeriesNumber());
+    }
+
+    @Test
+    void extractCover_followsCoverMetaToManifestItem() throws Exception {
+        File epub = createEpub("<meta name=\"cover\" content=\"cover-img\"/>",
+                "<item id=\"cover-img\" href=\"images/front.jpg\" media-type=\"image/jpeg\"/>");
+
+        assertArrayEquals(COVER, extractor.extractCover(epub));
+    }
+
+    @Test
+    void extractCover_usesCoverImageProperty() throws Exception {
+        File epub = createEpub("",
+                "<item id=\"img\" href=\"images/front.jpg\" media-type=\"image/jpeg\" properties=\"cover-image\"/>");
+
+        assertArrayEquals(COVER, extractor.extractCover(epub));
+    }
+
+    @Test
+    void extractCover_fallsBackToImageNamedCover() throws Exception {
+        File epub = createEpub("",
+                "<item id=\"pic\" href=\"../OEBPS/images/other.png\" media-type=\"image/png\"/>"
+                        + "<item id=\"cover\" href=\"images/front.jpg\" media-type=\"image/jpeg\"/>");
+
+        assertArrayEquals(COVER, extractor.extractCover(epub));
+    }
+
+    @Test
+    void sharedContext_servesMetadataAndCover() throws Exception {
+        File epub = createEpub("<meta name=\"cover\" content=\"cover-img\"/>",
+                "<item id=\"cover-img\" href=\"images/front.jpg\" media-type=\"image/jpeg\"/>");
+
+        try (EpubParseContext context = EpubParseContext.open(epub)) {
+            assertEquals("OEBPS/content.opf", context.getOpfPath());
+            assertEquals("The Title", extractor.extractMetadata(context).getTitle());
+            assertArrayEquals(COVER, extractor.extractCover(context));
+        }
+    }
+
+    @Test
+    void extractMetadata_returnsNullWithoutContainer() throws Exception {
+        File broken = tempDir.resolve("broken.epub").toFile();
+        try (ZipOutputStream zos = new ZipOutputStream(new FileOutputStream(broken))) {
+            put(zos, "mimetype", "application/epub+zip".getBytes(StandardCharsets.US_ASCII));
+        }
+
+        assertNull(extractor.extractMetadata(broken));
+        assertNull(extractor.extractCover(broken));
+    }
+
+    private File createEpub(String coverMeta, String manifestItems) throws Exception {
+        File file = tempDir.resolve("book.epub").toFile();
+        try (ZipOutputStream zos = new ZipOutputStream(new FileOutputStream(file))) {
+            put(zos, "mimetype", "application/epub+zip".getBytes(StandardCharsets.US_ASCII));
+            put(zos, "META-INF/container.xml", CONTAINER_XML.getBytes(StandardCharsets.UTF_8));
+            put(zos, "OEBPS/content.opf", OPF_TEMPLATE.formatted(coverMeta, manifestItems).getBytes(StandardCharsets.UTF_8));
+            put(zos, "OEBPS/images/front.jpg", COVER);
+            put(zos, "OEBPS/images/other.png", OTHER_IMAGE);
+            put(zos, "OEBPS/text/ch1.xhtml", "<html><body><p>Chapter one</p></body></html>".getBytes(StandardCharsets.UTF_8));
+        }
+        return file;
+    }
+
+    private static void put(ZipOutputStream zos, String name, byte[] data) throws Exception {
+        zos.putNextEntry(new ZipEntry(name));
+        zos.write(data);
+        zos.closeEntry();
+    }
+}
@@ -0,0 +1,54 @@
+package com.adityachandel.booklore.service.metadata.parser;
+
+import com.adityachandel.booklore.model.dto.Book;
+import com.adityachandel.booklore.model.dto.BookMetadata;
+import com.adityachandel.booklore.model.dto.request.FetchMetadataRequest;
+import com.adityachandel.booklore.model.enums.MetadataProvider;
+import com.adityachandel.booklore.service.metrics.BookloreMetrics;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class TimedBookParserTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final BookParser delegate = mock(BookParser.class);
+    private final TimedBookParser parser = new TimedBookParser(MetadataProvider.Google, delegate, new BookloreMetrics(registry));
+
+    @Test
+    void fetchMetadata_recordsSuccessfulLookup() {
+        BookMetadata metadata = BookMetadata.builder().title("Dune").build();
+        when(delegate.fetchMetadata(any(), any())).thenReturn(List.of(metadata));
+
+        assertThat(parser.fetchMetadata(Book.builder().build(), FetchMetadataRequest.builder().build())).containsExactly(metadata);
+
+        assertThat(timer("fetchMetadata", "success").count()).isEqualTo(1);
+    }
+
+    @Test
+    void fetchTopMetadata_recordsErrorAndRethrows() {
+        when(delegate.fetchTopMetadata(any(), any())).thenThrow(new IllegalStateException("rate limited"));
+
+        assertThatThrownBy(() -> parser.fetchTopMetadata(Book.builder().build(), FetchMetadataRequest.builder().build()))
+                .isInstanceOf(IllegalStateException.class);
+
+        assertThat(timer("fetchTopMetadata", "error").count()).isEqualTo(1);
+        assertThat(registry.find(BookloreMetrics.PROVIDER_REQUEST).tag("outcome", "success").timer()).isNull();
+    }
+
+    private Timer timer(String operation, String outcome) {
+        return registry.get(BookloreMetrics.PROVIDER_REQUEST)
+                .tag("provider", "Google")
+                .tag("operation", operation)
+                .tag("outcome", outcome)
+                .timer();
+    }
+}
@@ -0,0 +1,141 @@
+package com.adityachandel.booklore.service.metadata.writer;
+
+import com.adityachandel.booklore.model.MetadataClearFlags;
+import com.adityachandel.booklore.model.entity.BookMetadataEntity;
+import com.adityachandel.booklore.model.enums.BookFileType;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.List;
+import java.util.zip.CRC32;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+import java.util.zip.ZipOutputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EpubMetadataWriterTest {
+
+    private static final String CONTAINER_XML = """
+            <?xml version="1.0" encoding="UTF-8"?>
+            <container version="1.0" xmlns="urn:oasis:names:tc:opendocument:xmlns:container">
+              <rootfiles>
+                <rootfile full-path="OEBPS/content.opf" media-type="application/oebps-package+xml"/>
+              </rootfiles>
+            </container>
+            """;
+
+    private static final String CONTENT_OPF = """
+            <?xml version="1.0" encoding="UTF-8"?>
+            <package xmlns="http://www.idpf.org/2007/opf" version="3.0" unique-identifier="id">
+              <metadata xmlns:dc="http://purl.org/dc/elements/1.1/">
+                <dc:title>Old Title</dc:title>
+                <meta name="cover" content="cover-img"/>
+              </metadata>
+              <manifest>
+                <item id="cover-img" href="images/cover.jpg" media-type="image/jpeg"/>
+                <item id="ch1" href="text/ch1.xhtml" media-type="application/xhtml+xml"/>
+              </manifest>
+              <spine><itemref idref="ch1"/></spine>
+            </package>
+            """;
+
+    @TempDir
+    Path tempDir;
+
+    private final EpubMetadataWriter writer = new EpubMetadataWriter();
+
+    @Test
+    void getSupportedBookType_isEpub() {
+        assertEquals(BookFileType.EPUB, writer.getSupportedBookType());
+    }
+
+    @Test
+    void writeMetadataToFile_rewritesOpfAndCopiesOtherEntriesUnchanged() throws Exception {
+        File epub = createEpub(tempDir.resolve("book.epub"));
+        byte[] chapter;
+        long chapterCompressedSize;
+        try (ZipFile zip = new ZipFile(epub)) {
+            chapter = zip.getInputStream(zip.getEntry("OEBPS/text/ch1.xhtml")).readAllBytes();
+            chapterCompressedSize = zip.getEntry("OEBPS/text/ch1.xhtml").getCompressedSize();
+        }
+
+        BookMetadataEntity meta = new BookMetadataEntity();
+        meta.setTitle("New Title");
+        writer.writeMetadataToFile(epub, meta, null, new MetadataClearFlags());
+
+        try (ZipFile zip = new ZipFile(epub)) {
+            List<? extends ZipEntry> entries = Collections.list(zip.entries());
+            assertEquals("mimetype", entries.getFirst().getName());
+            assertEquals(ZipEntry.STORED, entries.getFirst().getMethod());
+
+            String opf = new String(zip.getInputStream(zip.getEntry("OEBPS/content.opf")).readAllBytes(), StandardCharsets.UTF_8);
+            assertTrue(opf.contains("New Title"));
+            assertFalse(opf.contains("Old Title"));
+
+            ZipEntry chapterEntry = zip.getEntry("OEBPS/text/ch1.xhtml");
+            assertArrayEquals(chapter, zip.getInputStream(chapterEntry).readAllBytes());
+            assertEquals(chapterCompressedSize, chapterEntry.getCompressedSize());
+        }
+        assertFalse(Files.exists(tempDir.resolve("book.epub.tmp")));
+    }
+
+    @Test
+    void writeMetadataToFile_withCoverReplacesOnlyCoverEntry() throws Exception {
+        File epub = createEpub(tempDir.resolve("book.epub"));
+        byte[] newCover = {9, 9, 9, 9};
+        Path coverFile = Files.write(tempDir.resolve("new-cover.jpg"), newCover);
+
+        writer.writeMetadataToFile(epub, new BookMetadataEntity(), coverFile.toString(), new MetadataClearFlags());
+
+        try (ZipFile zip = new ZipFile(epub)) {
+            assertArrayEquals(newCover, zip.getInputStream(zip.getEntry("OEBPS/images/cover.jpg")).readAllBytes());
+            assertEquals(5, Collections.list(zip.entries()).size());
+        }
+    }
+
+    @Test
+    void writeMetadataToFile_leavesFileUntouchedWhenNothingChanges() throws Exception {
+        File epub = createEpub(tempDir.resolve("book.epub"));
+        byte[] before = Files.readAllBytes(epub.toPath());
+
+        BookMetadataEntity meta = new BookMetadataEntity();
+        meta.setTitle("Old Title");
+        writer.writeMetadataToFile(epub, meta, null, new MetadataClearFlags());
+
+        assertArrayEquals(before, Files.readAllBytes(epub.toPath()));
+    }
+
+    private static File createEpub(Path path) throws Exception {
+        try (ZipOutputStream zos = new ZipOutputStream(new FileOutputStream(path.toFile()))) {
+            byte[] mimetype = "application/epub+zip".getBytes(StandardCharsets.US_ASCII);
+            ZipEntry mimetypeEntry = new ZipEntry("mimetype");
+            mimetypeEntry.setMethod(ZipEntry.STORED);
+            mimetypeEntry.setSize(mimetype.length);
+            CRC32 crc = new CRC32();
+            crc.update(mimetype);
+            mimetypeEntry.setCrc(crc.getValue());
+            zos.putNextEntry(mimetypeEntry);
+            zos.write(mimetype);
+            zos.closeEntry();
+
+            put(zos, "META-INF/container.xml", CONTAINER_XML.getBytes(StandardCharsets.UTF_8));
+            put(zos, "OEBPS/content.opf", CONTENT_OPF.getBytes(StandardCharsets.UTF_8));
+            put(zos, "OEBPS/images/cover.jpg", new byte[]{1, 2, 3});
+            put(zos, "OEBPS/text/ch1.xhtml", "<html><body><p>Chapter one</p></body></html>".repeat(50).getBytes(StandardCharsets.UTF_8));
+        }
+        return path.toFile();
+    }
+
+    private static void put(ZipOutputStream zos, String name, byte[] data) throws Exception {
+        zos.putNextEntry(new ZipEntry(name));
+        zos.write(data);
+        zos.closeEntry();
+    }
+}
@@ -0,0 +1,94 @@
+package com.adityachandel.booklore.service.migration;
+
+import com.adityachandel.booklore.model.entity.AppMigrationEntity;
+import com.adityachandel.booklore.repository.AppMigrationRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class ChunkedMigrationRunnerTest {
+
+    private final Map<String, AppMigrationEntity> stored = new HashMap<>();
+    private AppMigrationRepository migrationRepository;
+    private ChunkedMigrationRunner runner;
+
+    private final List<Long> bookIds = LongStream.rangeClosed(1, 450).map(id -> id * 2).boxed().toList();
+    private final ChunkedMigrationRunner.IdSource ids = new ChunkedMigrationRunner.IdSource(
+            (afterId, page) -> bookIds.stream().filter(id -> id > afterId).limit(page.getPageSize()).toList(),
+            afterId -> bookIds.stream().filter(id -> id > afterId).count());
+
+    @BeforeEach
+    void setUp() {
+        migrationRepository = mock(AppMigrationRepository.class);
+        when(migrationRepository.findById(any())).thenAnswer(invocation -> Optional.ofNullable(stored.get(invocation.<String>getArgument(0))));
+        when(migrationRepository.save(any())).thenAnswer(invocation -> {
+            AppMigrationEntity entity = invocation.getArgument(0);
+            stored.put(entity.getKey(), entity);
+            return entity;
+        });
+        runner = new ChunkedMigrationRunner(migrationRepository, mock(PlatformTransactionManager.class));
+    }
+
+    @Test
+    void run_processesAllBooksInChunksAndMarksCompleted() {
+        List<List<Long>> chunks = new ArrayList<>();
+        List<Long> progress = new ArrayList<>();
+
+        runner.run("test", "Test migration", ids, chunks::add, (processed, total) -> {
+            assertThat(total).isEqualTo(450);
+            progress.add(processed);
+        });
+
+        assertThat(chunks).extracting(List::size).containsExactly(200, 200, 50);
+        assertThat(chunks.stream().flatMap(List::stream).toList()).isEqualTo(bookIds);
+        assertThat(progress).containsExactly(200L, 400L, 450L);
+        AppMigrationEntity state = stored.get("test");
+        assertThat(state.isCompleted()).isTrue();
+        assertThat(state.getLastProcessedId()).isEqualTo(900L);
+        assertThat(runner.isCompleted("test")).isTrue();
+    }
+
+    @Test
+    void run_resumesAfterLastCommittedChunk() {
+        List<Long> seen = new ArrayList<>();
+        assertThatThrownBy(() -> runner.run("test", "Test migration", ids, chunk -> {
+            if (chunk.getFirst() > 400) throw new IllegalStateException("container stopped");
+            seen.addAll(chunk);
+        }, (processed, total) -> {
+        })).isInstanceOf(IllegalStateException.class);
+
+        AppMigrationEntity state = stored.get("test");
+        assertThat(state.isCompleted()).isFalse();
+        assertThat(state.getLastProcessedId()).isEqualTo(400L);
+        assertThat(state.getProcessedCount()).isEqualTo(200L);
+
+        List<Long> resumed = new ArrayList<>();
+        runner.run("test", "Test migration", ids, resumed::addAll, (processed, total) -> assertThat(total).isEqualTo(450));
+
+        assertThat(resumed).first().isEqualTo(402L);
+        assertThat(seen.size() + resumed.size()).isEqualTo(450);
+        assertThat(stored.get("test").isCompleted()).isTrue();
+        assertThat(stored.get("test").getProcessedCount()).isEqualTo(450L);
+    }
+
+    @Test
+    void run_skipsCompletedMigrations() {
+        stored.put("test", new AppMigrationEntity("test", LocalDateTime.now(), "Test migration"));
+
+        runner.run("test", "Test migration", ids, chunk -> {
+            throw new AssertionError("should not run");
+        }, (processed, total) -> {
+        });
+
+        verify(migrationRepository, never()).save(any());
+    }
+}
@@ -0,0 +1,39 @@
+package com.adityachandel.booklore.service.monitoring;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Path;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ExpectedChangeLedgerTest {
+
+    private final AtomicLong now = new AtomicLong(1_000);
+    private final ExpectedChangeLedger ledger = new ExpectedChangeLedger(now::get);
+
+    @Test
+    void matchesExpectedFilesAndTheirFolders() {
+        Path target = Path.of("/library/Author/Title/book.epub");
+        ledger.expect(Path.of("/library/old/book.epub"), target);
+
+        assertThat(ledger.isExpected(target, false)).isTrue();
+        assertThat(ledger.isExpected(Path.of("/library/old/../old/book.epub"), false)).isTrue();
+        assertThat(ledger.isExpected(Path.of("/library/Author"), true)).isTrue();
+        assertThat(ledger.isExpected(Path.of("/library/old"), true)).isTrue();
+
+        assertThat(ledger.isExpected(Path.of("/library/Author/other.epub"), false)).isFalse();
+        assertThat(ledger.isExpected(Path.of("/library/Author"), false)).isFalse();
+        assertThat(ledger.isExpected(Path.of("/library/Other"), true)).isFalse();
+    }
+
+    @Test
+    void expectationsExpire() {
+        Path target = Path.of("/library/book.epub");
+        ledger.expect(target);
+
+        now.addAndGet(ExpectedChangeLedger.EXPECTATION_TTL_MS);
+
+        assertThat(ledger.isExpected(target, false)).isFalse();
+    }
+}
@@ -0,0 +1,121 @@
+package com.adityachandel.booklore.service.monitoring;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Path;
+import java.util.List;
+
+import static java.nio.file.StandardWatchEventKinds.*;
+import static org.assertj.core.api.Assertions.assertThat;
+
+class FileChangeCoalescerTest {
+
+    private static final long QUIET_MS = 500;
+
+    private final FileChangeCoalescer coalescer = new FileChangeCoalescer(QUIET_MS);
+    private final Path root = Path.of("/library");
+
+    @Test
+    void changeIsHeldUntilPathHasBeenQuiet() {
+        Path book = root.resolve("book.epub");
+        coalescer.add(1L, ENTRY_CREATE, book, root, 0);
+
+        assertThat(coalescer.drainSettled(QUIET_MS - 1)).isEmpty();
+        assertThat(coalescer.drainSettled(QUIET_MS)).extracting(FileChangeCoalescer.PendingChange::path).containsExactly(book);
+        assertThat(coalescer.drainSettled(QUIET_MS * 10)).isEmpty();
+    }
+
+    @Test
+    void modifyEventsExtendQuietWindowWithoutDuplicatingCreate() {
+        Path book = root.resolve("book.epub");
+        coalescer.add(1L, ENTRY_CREATE, book, root, 0);
+        coalescer.add(1L, ENTRY_MODIFY, book, root, 300);
+        coalescer.add(1L, ENTRY_MODIFY, book, root, 600);
+
+        assertThat(coalescer.drainSettled(1_000)).isEmpty();
+
+        List<FileChangeCoalescer.PendingChange> settled = coalescer.drainSettled(1_100);
+        assertThat(settled).hasSize(1);
+        assertThat(settled.getFirst().kind()).isEqualTo(ENTRY_CREATE);
+    }
+
+    @Test
+    void modifyWithoutPendingChangeIsIgnored() {
+        coalescer.add(1L, ENTRY_MODIFY, root.resolve("book.epub"), root, 0);
+
+        assertThat(coalescer.drainSettled(QUIET_MS * 10)).isEmpty();
+    }
+
+    @Test
+    void createAndDeleteOfSamePathCancelOut() {
+        Path book = root.resolve("book.epub");
+        coalescer.add(1L, ENTRY_CREATE, book, root, 0);
+        coalescer.add(1L, ENTRY_DELETE, book, root, 10);
+
+        assertThat(coalescer.drainSettled(QUIET_MS * 10)).isEmpty();
+    }
+
+    @Test
+    void deleteThenCreateOfSamePathIsReprocessed() {
+        Path book = root.resolve("book.epub");
+        coalescer.add(1L, ENTRY_DELETE, book, root, 0);
+        coalescer.add(1L, ENTRY_CREATE, book, root, 10);
+
+        List<FileChangeCoalescer.PendingChange> settled = coalescer.drainSettled(QUIET_MS * 10);
+        assertThat(settled).extracting(FileChangeCoalescer.PendingChange::path).containsExactly(book);
+        assertThat(settled.getFirst().kind()).isEqualTo(ENTRY_CREATE);
+    }
+
+    @Test
+    void overflowAbsorbsPendingChangesBelowDirectory() {
+        Path dir = root.resolve("incoming");
+        coalescer.add(1L, ENTRY_CREATE, dir.resolve("a.epub"), dir, 0);
+        coalescer.add(1L, ENTRY_CREATE, dir.resolve("nested/b.epub"), dir.resolve("nested"), 0);
+        coalescer.add(1L, ENTRY_CREATE, root.resolve("c.epub"), root, 0);
+        coalescer.add(1L, OVERFLOW, dir, dir, 10);
+        coalescer.add(1L, ENTRY_CREATE, dir.resolve("d.epub"), dir, 20);
+
+        List<FileChangeCoalescer.PendingChange> settled = coalescer.drainSettled(QUIET_MS * 10);
+
+        assertThat(settled).extracting(FileChangeCoalescer.PendingChange::path).containsExactly(root.resolve("c.epub"), dir);
+        assertThat(settled.get(1).isRescan()).isTrue();
+    }
+
+    @Test
+    void overflowBelowPendingRescanRefreshesItInsteadOfAddingAnother() {
+        Path dir = root.resolve("incoming");
+        coalescer.add(1L, OVERFLOW, dir, dir, 0);
+        coalescer.add(1L, OVERFLOW, dir.resolve("nested"), dir.resolve("nested"), 300);
+
+        assertThat(coalescer.pendingCount()).isEqualTo(1);
+        assertThat(coalescer.drainSettled(QUIET_MS)).isEmpty();
+
+        List<FileChangeCoalescer.PendingChange> settled = coalescer.drainSettled(300 + QUIET_MS);
+        assertThat(settled).extracting(FileChangeCoalescer.PendingChange::path).containsExactly(dir);
+        assertThat(settled.getFirst().isRescan()).isTrue();
+    }
+
+    @Test
+    void burstOfCreatesDrainsInArrivalOrder() {
+        for (int i = 0; i < 3_000; i++) {
+            coalescer.add(1L, ENTRY_CREATE, root.resolve("book-" + i + ".epub"), root, i / 10);
+        }
+
+        assertThat(coalescer.drainSettled(QUIET_MS)).hasSize(10);
+
+        List<FileChangeCoalescer.PendingChange> rest = coalescer.drainSettled(QUIET_MS * 10);
+        assertThat(rest).hasSize(2_990);
+        assertThat(rest.getFirst().path()).isEqualTo(root.resolve("book-10.epub"));
+    }
+
+    @Test
+    void librariesAreTrackedIndependently() {
+        Path book = root.resolve("book.epub");
+        coalescer.add(1L, ENTRY_CREATE, book, root, 0);
+        coalescer.add(2L, ENTRY_DELETE, book, root, 0);
+
+        assertThat(coalescer.drainSettled(QUIET_MS))
+                .extracting(FileChangeCoalescer.PendingChange::libraryId)
+                .containsExactlyInAnyOrder(1L, 2L);
+    }
+}
@@ -2,6 +2,7 @@ package com.adityachandel.booklore.service.monitoring;
 
 import com.adityachandel.booklore.model.dto.Library;
 import com.adityachandel.booklore.model.dto.LibraryPath;
+import com.adityachandel.booklore.service.metrics.BookloreMetrics;
 import com.adityachandel.booklore.service.watcher.LibraryFileEventProcessor;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
@@ -27,13 +28,15 @@ class MonitoringServiceTest {
     LibraryFileEventProcessor processor;
     MonitoringTask monitoringTask;
     WatchService watchService;
+    ExpectedChangeLedger expectedChangeLedger;
 
     @BeforeEach
     void setup() throws Exception {
         processor = mock(LibraryFileEventProcessor.class);
         monitoringTask = mock(MonitoringTask.class);
         watchService = FileSystems.getDefault().newWatchService();
-        service = Mockito.spy(new MonitoringService(processor, watchService, monitoringTask));
+        expectedChangeLedger = new ExpectedChangeLedger();
+        service = Mockito.spy(new MonitoringService(processor, watchService, monitoringTask, mock(BookloreMetrics.class), expectedChangeLedger));
     }
 
     @AfterEach
@@ -152,6 +155,92 @@ class MonitoringServiceTest {
         verify(processor, timeout(2_000)).processFile(eq(StandardWatchEventKinds.ENTRY_CREATE), eq(123L), eq(watched.toString()), eq(file.toString()));
     }
 
+    @Test
+    void expectedChanges_areDroppedButNewFoldersStayWatched() throws Exception {
+        Path watched = tmp.resolve("lib");
+        Path source = watched.resolve("old").resolve("book.epub");
+        Path targetDir = watched.resolve("Author");
+        Path target = targetDir.resolve("Title.epub");
+        Files.createDirectories(targetDir);
+        Files.writeString(target, "x");
+
+        Field pathToLibraryField = MonitoringService.class.getDeclaredField("pathToLibraryIdMap");
+        pathToLibraryField.setAccessible(true);
+        @SuppressWarnings("unchecked")
+        Map<Path,Long> map = (Map<Path,Long>) pathToLibraryField.get(service);
+        map.put(watched, 3L);
+        doReturn(true).when(service).registerPath(any(Path.class), eq(3L));
+
+        java.lang.reflect.Method startMethod = MonitoringService.class.getDeclaredMethod("startProcessingThread");
+        startMethod.setAccessible(true);
+        startMethod.invoke(service);
+
+        expectedChangeLedger.expect(source, target);
+
+        service.handleFileChangeEvent(event(targetDir, StandardWatchEventKinds.ENTRY_CREATE, watched));
+        service.handleFileChangeEvent(event(target, StandardWatchEventKinds.ENTRY_CREATE, targetDir));
+        service.handleFileChangeEvent(event(source, StandardWatchEventKinds.ENTRY_DELETE, watched.resolve("old")));
+
+        Path dropped = watched.resolve("dropped.pdf");
+        Files.writeString(dropped, "y");
+        service.handleFileChangeEvent(event(dropped, StandardWatchEventKinds.ENTRY_CREATE, watched));
+
+        verify(service).registerPath(eq(targetDir), eq(3L));
+        verify(processor, timeout(2_000)).processFile(eq(StandardWatchEventKinds.ENTRY_CREATE), eq(3L), eq(watched.toString()), eq(dropped.toString()));
+        verify(processor, never()).processFile(any(), anyLong(), anyString(), eq(target.toString()));
+        verify(processor, never()).processFile(any(), anyLong(), anyString(), eq(targetDir.toString()));
+        verify(processor, never()).processFile(any(), anyLong(), anyString(), eq(source.toString()));
+    }
+
+    private FileChangeEvent event(Path path, WatchEvent.Kind<?> kind, Path watchedFolder) {
+        FileChangeEvent ev = mock(FileChangeEvent.class);
+        when(ev.getFilePath()).thenReturn(path);
+        doReturn(kind).when(ev).getEventKind();
+        when(ev.getWatchedFolder()).thenReturn(watchedFolder);
+        return ev;
+    }
+
+    @Test
+    void overflow_isDispatchedAsDirectoryRescan() throws Exception {
+        Path watched = tmp.resolve("overflowed");
+        Files.createDirectories(watched);
+
+        Field pathToLibraryField = MonitoringService.class.getDeclaredField("pathToLibraryIdMap");
+        pathToLibraryField.setAccessible(true);
+        @SuppressWarnings("unchecked")
+        Map<Path,Long> map = (Map<Path,Long>) pathToLibraryField.get(service);
+        map.put(watched, 321L);
+
+        java.lang.reflect.Method startMethod = MonitoringService.class.getDeclaredMethod("startProcessingThread");
+        startMethod.setAccessible(true);
+        startMethod.invoke(service);
+
+        FileChangeEvent ev = mock(FileChangeEvent.class);
+        when(ev.getFilePath()).thenReturn(watched);
+        doReturn(StandardWatchEventKinds.OVERFLOW).when(ev).getEventKind();
+        when(ev.getWatchedFolder()).thenReturn(watched);
+
+        service.handleFileChangeEvent(ev);
+
+        verify(processor, timeout(2_000)).processFile(eq(StandardWatchEventKinds.OVERFLOW), eq(321L), eq(watched.toString()), eq(watched.toString()));
+    }
+
+    @Test
+    void overflow_registersDirectoriesCreatedWhileEventsWereLost() throws Exception {
+        Path watched = tmp.resolve("overflowed-dirs");
+        Files.createDirectories(watched);
+        assertTrue(service.registerPath(watched, 42L));
+
+        Path created = watched.resolve("new").resolve("nested");
+        Files.createDirectories(created);
+        assertFalse(service.isPathMonitored(created));
+
+        service.handleFileChangeEvent(event(watched, StandardWatchEventKinds.OVERFLOW, watched));
+
+        assertTrue(service.isPathMonitored(watched.resolve("new")));
+        assertTrue(service.isPathMonitored(created));
+    }
+
     @Test
     void handleWatchKeyInvalidation_removesInvalidPath_and_cancelsKey() throws Exception {
         Path invalid = tmp.resolve("inv");
@@ -15,6 +15,9 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
 import java.time.Instant;
 import java.util.Collections;
 import java.util.List;
@@ -41,8 +44,8 @@ class OpdsFeedServiceTest {
     }
 
     @Test
-    void generateRootNavigation_shouldContainAllSections() {
-        String xml = opdsFeedService.generateRootNavigation(request);
+    void writeRootNavigation_shouldContainAllSections() throws Exception {
+        String xml = render(out -> opdsFeedService.writeRootNavigation(request, out));
         assertThat(xml).contains("All Books");
         assertThat(xml).contains("Recently Added");
         assertThat(xml).contains("Libraries");
@@ -53,31 +56,31 @@ class OpdsFeedServiceTest {
     }
 
     @Test
-    void generateLibrariesNavigation_shouldListLibraries() {
+    void writeLibrariesNavigation_shouldListLibraries() throws Exception {
         OpdsUserDetails userDetails = mock(OpdsUserDetails.class);
         when(authenticationService.getOpdsUser()).thenReturn(userDetails);
 
         Library lib = Library.builder().id(1L).name("Test Library").build();
         when(opdsBookService.getAccessibleLibraries(userDetails)).thenReturn(List.of(lib));
 
-        String xml = opdsFeedService.generateLibrariesNavigation(request);
+        String xml = render(out -> opdsFeedService.writeLibrariesNavigation(request, out));
         assertThat(xml).contains("Test Library");
         assertThat(xml).contains("urn:booklore:library:1");
         assertThat(xml).contains("</feed>");
     }
 
     @Test
-    void generateLibrariesNavigation_shouldHandleNoLibraries() {
+    void writeLibrariesNavigation_shouldHandleNoLibraries() throws Exception {
         OpdsUserDetails userDetails = mock(OpdsUserDetails.class);
         when(authenticationService.getOpdsUser()).thenReturn(userDetails);
         when(opdsBookService.getAccessibleLibraries(userDetails)).thenReturn(Collections.emptyList());
 
-        String xml = opdsFeedService.generateLibrariesNavigation(request);
+        String xml = render(out -> opdsFeedService.writeLibrariesNavigation(request, out));
         assertThat(xml).contains("</feed>");
     }
 
     @Test
-    void generateShelvesNavigation_shouldListShelves() {
+    void writeShelvesNavigation_shouldListShelves() throws Exception {
         OpdsUserDetails userDetails = mock(OpdsUserDetails.class);
         OpdsUserV2 v2 = mock(OpdsUserV2.class);
         when(userDetails.getOpdsUserV2()).thenReturn(v2);
@@ -87,14 +90,14 @@ class OpdsFeedServiceTest {
         ShelfEntity shelfEntity = ShelfEntity.builder().id(5L).name("Favorites").build();
         when(opdsBookService.getUserShelves(42L)).thenReturn(Collections.singletonList(shelfEntity));
 
-        String xml = opdsFeedService.generateShelvesNavigation(request);
+        String xml = render(out -> opdsFeedService.writeShelvesNavigation(request, out));
         assertThat(xml).contains("Favorites");
         assertThat(xml).contains("urn:booklore:shelf:5");
         assertThat(xml).contains("</feed>");
     }
 
     @Test
-    void generateShelvesNavigation_shouldHandleNoShelves() {
+    void writeShelvesNavigation_shouldHandleNoShelves() throws Exception {
         OpdsUserDetails userDetails = mock(OpdsUserDetails.class);
         OpdsUserV2 v2 = mock(OpdsUserV2.class);
         when(userDetails.getOpdsUserV2()).thenReturn(v2);
@@ -103,19 +106,19 @@ class OpdsFeedServiceTest {
 
         when(opdsBookService.getUserShelves(42L)).thenReturn(Collections.emptyList());
 
-        String xml = opdsFeedService.generateShelvesNavigation(request);
+        String xml = render(out -> opdsFeedService.writeShelvesNavigation(request, out));
         assertThat(xml).contains("</feed>");
     }
 
     @Test
-    void generateShelvesNavigation_shouldHandleNullUserDetails() {
+    void writeShelvesNavigation_shouldHandleNullUserDetails() throws Exception {
         when(authenticationService.getOpdsUser()).thenReturn(null);
-        String xml = opdsFeedService.generateShelvesNavigation(request);
+        String xml = render(out -> opdsFeedService.writeShelvesNavigation(request, out));
         assertThat(xml).contains("</feed>");
     }
 
     @Test
-    void generateCatalogFeed_shouldReturnFeedWithBooks() {
+    void writeCatalogFeed_shouldReturnFeedWithBooks() throws Exception {
         OpdsUserDetails userDetails = mock(OpdsUserDetails.class);
         when(authenticationService.getOpdsUser()).thenReturn(userDetails);
 
@@ -147,7 +150,7 @@ class OpdsFeedServiceTest {
         when(opdsBookService.getShelfName(any())).thenReturn("Shelf Name");
         when(opdsBookService.getLibraryName(any())).thenReturn("Library Name");
 
-        String xml = opdsFeedService.generateCatalogFeed(request);
+        String xml = render(out -> opdsFeedService.writeCatalogFeed(request, out));
         assertThat(xml).contains("Book Title");
         assertThat(xml).contains("Author A");
         assertThat(xml).contains("Publisher X");
@@ -157,7 +160,7 @@ class OpdsFeedServiceTest {
     }
 
     @Test
-    void generateCatalogFeed_shouldHandleEmptyPage() {
+    void writeCatalogFeed_shouldHandleEmptyPage() throws Exception {
         OpdsUserDetails userDetails = mock(OpdsUserDetails.class);
         when(authenticationService.getOpdsUser()).thenReturn(userDetails);
 
@@ -168,12 +171,12 @@ class OpdsFeedServiceTest {
         Page<Book> page = new PageImpl<>(Collections.emptyList(), PageRequest.of(0, 50), 0);
         when(opdsBookService.getBooksPage(any(), any(), any(), any(), anyInt(), anyInt())).thenReturn(page);
 
-        String xml = opdsFeedService.generateCatalogFeed(request);
+        String xml = render(out -> opdsFeedService.writeCatalogFeed(request, out));
         assertThat(xml).contains("</feed>");
     }
 
     @Test
-    void generateRecentFeed_shouldReturnFeedWithBooks() {
+    void writeRecentFeed_shouldReturnFeedWithBooks() throws Exception {
         OpdsUserDetails userDetails = mock(OpdsUserDetails.class);
         when(authenticationService.getOpdsUser()).thenReturn(userDetails);
 
@@ -192,14 +195,14 @@ class OpdsFeedServiceTest {
         Page<Book> page = new PageImpl<>(List.of(book), PageRequest.of(0, 50), 1);
         when(opdsBookService.getRecentBooksPage(eq(userDetails), eq(0), eq(50))).thenReturn(page);
 
-        String xml = opdsFeedService.generateRecentFeed(request);
+        String xml = render(out -> opdsFeedService.writeRecentFeed(request, out));
         assertThat(xml).contains("Recent Book");
         assertThat(xml).contains("application/pdf");
         assertThat(xml).contains("</feed>");
     }
 
     @Test
-    void generateRecentFeed_shouldHandleEmptyPage() {
+    void writeRecentFeed_shouldHandleEmptyPage() throws Exception {
         OpdsUserDetails userDetails = mock(OpdsUserDetails.class);
         when(authenticationService.getOpdsUser()).thenReturn(userDetails);
 
@@ -210,12 +213,12 @@ class OpdsFeedServiceTest {
         Page<Book> page = new PageImpl<>(Collections.emptyList(), PageRequest.of(0, 50), 0);
         when(opdsBookService.getRecentBooksPage(any(), anyInt(), anyInt())).thenReturn(page);
 
-        String xml = opdsFeedService.generateRecentFeed(request);
+        String xml = render(out -> opdsFeedService.writeRecentFeed(request, out));
         assertThat(xml).contains("</feed>");
     }
 
     @Test
-    void generateSurpriseFeed_shouldReturnFeedWithBooks() {
+    void writeSurpriseFeed_shouldReturnFeedWithBooks() throws Exception {
         OpdsUserDetails userDetails = mock(OpdsUserDetails.class);
         when(authenticationService.getOpdsUser()).thenReturn(userDetails);
 
@@ -228,20 +231,20 @@ class OpdsFeedServiceTest {
 
         when(opdsBookService.getRandomBooks(userDetails, 25)).thenReturn(List.of(book));
 
-        String xml = opdsFeedService.generateSurpriseFeed(request);
+        String xml = render(out -> opdsFeedService.writeSurpriseFeed(request, out));
         assertThat(xml).contains("Surprise Book");
         assertThat(xml).contains("urn:booklore:book:12");
         assertThat(xml).contains("</feed>");
     }
 
     @Test
-    void generateSurpriseFeed_shouldHandleNoBooks() {
+    void writeSurpriseFeed_shouldHandleNoBooks() throws Exception {
         OpdsUserDetails userDetails = mock(OpdsUserDetails.class);
         when(authenticationService.getOpdsUser()).thenReturn(userDetails);
 
         when(opdsBookService.getRandomBooks(userDetails, 25)).thenReturn(Collections.emptyList());
 
-        String xml = opdsFeedService.generateSurpriseFeed(request);
+        String xml = render(out -> opdsFeedService.writeSurpriseFeed(request, out));
         assertThat(xml).contains("</feed>");
     }
 
@@ -254,14 +257,46 @@ class OpdsFeedServiceTest {
     }
 
     @Test
-    void escapeXml_shouldEscapeSpecialCharacters() throws Exception {
-        // Use reflection to access private method
-        var method = OpdsFeedService.class.getDeclaredMethod("escapeXml", String.class);
-        method.setAccessible(true);
-        String input = "a&b<c>d\"e'f";
-        String expected = "a&amp;b&lt;c&gt;d&quot;e&apos;f";
-        String result = (String) method.invoke(opdsFeedService, input);
-        assertThat(result).isEqualTo(expected);
+    void writeCatalogFeed_escapesSpecialCharacters() throws Exception {
+        OpdsUserDetails userDetails = mock(OpdsUserDetails.class);
+        when(authenticationService.getOpdsUser()).thenReturn(userDetails);
+        when(request.getParameter(anyString())).thenReturn(null);
+        when(request.getRequestURI()).thenReturn("/api/v1/opds/catalog");
+        when(request.getQueryString()).thenReturn("q=a%26b&page=1&size=50");
+
+        Book book = Book.builder()
+                .id(13L)
+                .metadata(BookMetadata.builder().title("a&b<c>d\"e'f").build())
+                .build();
+        when(opdsBookService.getBooksPage(any(), any(), any(), any(), anyInt(), anyInt()))
+                .thenReturn(new PageImpl<>(List.of(book), PageRequest.of(0, 50), 1));
+
+        String xml = render(out -> opdsFeedService.writeCatalogFeed(request, out));
+        assertThat(xml).contains("<title>a&amp;b&lt;c&gt;d\"e'f</title>");
+        assertThat(xml).contains("href=\"/api/v1/opds/catalog?q=a%26b&amp;page=1&amp;size=50\"");
+    }
+
+    @Test
+    void getCatalogFeedETag_changesWithScopeVersionAndPage() throws Exception {
+        OpdsUserDetails userDetails = mock(OpdsUserDetails.class);
+        when(userDetails.getUsername()).thenReturn("reader");
+        when(authenticationService.getOpdsUser()).thenReturn(userDetails);
+        when(request.getParameter(anyString())).thenReturn(null);
+        when(request.getParameter("libraryId")).thenReturn("3");
+        when(request.getRequestURI()).thenReturn("/api/v1/opds/catalog");
+        when(request.getQueryString()).thenReturn("libraryId=3&page=1&size=50");
+        when(opdsBookService.getBooksFeedVersion(userDetails, 3L, null)).thenReturn("10:t1:t1", "10:t1:t1", "10:t1:t2");
+
+        String first = opdsFeedService.getCatalogFeedETag(request);
+        String unchanged = opdsFeedService.getCatalogFeedETag(request);
+        String edited = opdsFeedService.getCatalogFeedETag(request);
+        when(request.getQueryString()).thenReturn("libraryId=3&page=2&size=50");
+        String nextPage = opdsFeedService.getCatalogFeedETag(request);
+
+        assertThat(first).startsWith("W/\"").isEqualTo(unchanged);
+        assertThat(edited).isNotEqualTo(first);
+        assertThat(nextPage).isNotEqualTo(edited);
+        verify(opdsBookService, never()).getBooksPage(any(), any(), any(), any(), anyInt(), anyInt());
     }
 
     @Test
@@ -281,4 +316,15 @@ class OpdsFeedServiceTest {
         assertThat(invalid).isEqualTo(42L);
         assertThat(missing).isEqualTo(42L);
     }
+
+    private String render(FeedWrite write) throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        write.to(out);
+        return out.toString(StandardCharsets.UTF_8);
+    }
+
+    @FunctionalInterface
+    private interface FeedWrite {
+        void to(OutputStream out) throws Exception;
+    }
 }
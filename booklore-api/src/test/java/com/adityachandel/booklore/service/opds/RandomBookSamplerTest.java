@@ -0,0 +1,111 @@
+package com.adityachandel.booklore.service.opds;
+
+import com.adityachandel.booklore.repository.BookOpdsRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Pageable;
+
+import java.util.*;
+import java.util.random.RandomGenerator;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.*;
+
+class RandomBookSamplerTest {
+
+    private BookOpdsRepository repository;
+    private RandomBookSampler sampler;
+
+    @BeforeEach
+    void setUp() {
+        repository = mock(BookOpdsRepository.class);
+        sampler = new RandomBookSampler(repository);
+    }
+
+    @Test
+    void sampleIds_isUniformOverSparseIdSpace() {
+        // 200 eligible ids spread over 1..1000 with uneven gaps
+        List<Long> eligible = LongStream.rangeClosed(1, 1000)
+                .filter(id -> id % 5 == 0 ? id % 3 != 0 : id % 7 == 1)
+                .limit(200)
+                .boxed()
+                .toList();
+        stubScope(eligible);
+
+        int rounds = 20_000;
+        int sampleSize = 5;
+        RandomGenerator random = new SplittableRandom(42);
+        Map<Long, Integer> hits = new HashMap<>();
+        for (int i = 0; i < rounds; i++) {
+            List<Long> sample = sampler.sampleIds(null, sampleSize, random);
+            assertThat(sample).hasSize(sampleSize).doesNotHaveDuplicates();
+            sample.forEach(id -> hits.merge(id, 1, Integer::sum));
+        }
+
+        assertThat(hits.keySet()).containsExactlyInAnyOrderElementsOf(eligible);
+        double expected = (double) rounds * sampleSize / eligible.size();
+        double chiSquare = eligible.stream()
+                .mapToDouble(id -> Math.pow(hits.getOrDefault(id, 0) - expected, 2) / expected)
+                .sum();
+        // 199 degrees of freedom: the 0.999 quantile of chi-square is about 267
+        assertThat(chiSquare).isLessThan(267);
+    }
+
+    @Test
+    void sampleIds_returnsWholeScopeWhenSmallerThanRequest() {
+        stubScope(List.of(3L, 9L, 27L));
+
+        List<Long> sample = sampler.sampleIds(null, 25, new SplittableRandom(1));
+
+        assertThat(sample).containsExactlyInAnyOrder(3L, 9L, 27L);
+    }
+
+    @Test
+    void sampleIds_fallsBackToOffsetsWhenIdsAreVerySparse() {
+        List<Long> eligible = List.of(1L, 2L, 3L, 4L, 5L, 6L, 7L, 8L, 9L, 10L, 50_000_000L);
+        stubScope(eligible);
+
+        List<Long> sample = sampler.sampleIds(null, 4, new SplittableRandom(7));
+
+        assertThat(sample).hasSize(4).doesNotHaveDuplicates().allMatch(eligible::contains);
+        verify(repository, atLeastOnce()).findBookIdsOrderedById(any(Pageable.class));
+    }
+
+    @Test
+    void sampleIds_queriesOnlyRequestedLibraries() {
+        BookOpdsRepository.IdRange range = range(0, null, null);
+        when(repository.findIdRangeByLibraryIds(List.of(1L, 2L))).thenReturn(range);
+
+        assertThat(sampler.sampleIds(List.of(1L, 2L), 10, new SplittableRandom(3))).isEmpty();
+        verify(repository, never()).findIdRange();
+        verify(repository, never()).findExistingBookIdsByLibraryIds(anyCollection(), anyCollection());
+    }
+
+    private void stubScope(List<Long> eligible) {
+        Set<Long> eligibleSet = new HashSet<>(eligible);
+        List<Long> sorted = eligible.stream().sorted().toList();
+        BookOpdsRepository.IdRange range = range(eligible.size(), sorted.getFirst(), sorted.getLast());
+        when(repository.findIdRange()).thenReturn(range);
+        when(repository.findExistingBookIds(anyCollection())).thenAnswer(invocation -> {
+            Collection<Long> candidates = invocation.getArgument(0);
+            // the database returns matches in index order, not draw order
+            return candidates.stream().filter(eligibleSet::contains).sorted().collect(Collectors.toList());
+        });
+        when(repository.findBookIdsOrderedById(any(Pageable.class))).thenAnswer(invocation -> {
+            Pageable pageable = invocation.getArgument(0);
+            return List.of(sorted.get((int) pageable.getOffset()));
+        });
+    }
+
+    private BookOpdsRepository.IdRange range(long count, Long min, Long max) {
+        BookOpdsRepository.IdRange range = mock(BookOpdsRepository.IdRange.class);
+        when(range.getBookCount()).thenReturn(count);
+        when(range.getMinId()).thenReturn(min);
+        when(range.getMaxId()).thenReturn(max);
+        return range;
+    }
+}
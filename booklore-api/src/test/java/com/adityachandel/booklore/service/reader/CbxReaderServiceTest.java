@@ -0,0 +1,156 @@
+package com.adityachandel.booklore.service.reader;
+
+import com.adityachandel.booklore.model.dto.settings.AppSettings;
+import com.adityachandel.booklore.model.entity.BookEntity;
+import com.adityachandel.booklore.model.entity.LibraryPathEntity;
+import com.adityachandel.booklore.repository.BookRepository;
+import com.adityachandel.booklore.service.appsettings.AppSettingService;
+import com.adityachandel.booklore.service.metrics.BookloreMetrics;
+import com.adityachandel.booklore.util.FileService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.commons.compress.archivers.sevenz.SevenZArchiveEntry;
+import org.apache.commons.compress.archivers.sevenz.SevenZOutputFile;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.ByteArrayOutputStream;
+import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Optional;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CbxReaderServiceTest {
+
+    private static final long BOOK_ID = 7L;
+
+    @TempDir
+    Path tempDir;
+
+    @Mock
+    private BookRepository bookRepository;
+    @Mock
+    private AppSettingService appSettingService;
+    @Mock
+    private FileService fileService;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private CbxReaderService service;
+    private Path libraryDir;
+    private Path cacheRoot;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        libraryDir = Files.createDirectories(tempDir.resolve("library"));
+        cacheRoot = tempDir.resolve("cbx_cache");
+        when(fileService.getCbxCachePath()).thenReturn(cacheRoot.toString());
+        service = new CbxReaderService(bookRepository, appSettingService, fileService, new ObjectMapper(),
+                new BookloreMetrics(meterRegistry));
+    }
+
+    @Test
+    void cbzPagesAreReadFromArchiveWithoutExtraction() throws Exception {
+        Path cbz = libraryDir.resolve("comic.cbz");
+        try (ZipOutputStream zos = new ZipOutputStream(new FileOutputStream(cbz.toFile()))) {
+            put(zos, "b/002.jpg", new byte[]{2});
+            put(zos, "a/001.jpg", new byte[]{1});
+            put(zos, "ComicInfo.xml", new byte[]{9});
+        }
+        stubBook("comic.cbz");
+
+        assertThat(service.getAvailablePages(BOOK_ID)).containsExactly(1, 2);
+        assertThat(readPage(1)).containsExactly(1);
+        assertThat(readPage(2)).containsExactly(2);
+
+        try (var files = Files.list(cacheRoot.resolve(String.valueOf(BOOK_ID)))) {
+            assertThat(files.map(p -> p.getFileName().toString())).containsExactly(".page-index.json");
+        }
+        verify(appSettingService, never()).getAppSettings();
+    }
+
+    @Test
+    void pageIndexIsReusedAcrossRequests() throws Exception {
+        Path cbz = libraryDir.resolve("comic.cbz");
+        try (ZipOutputStream zos = new ZipOutputStream(new FileOutputStream(cbz.toFile()))) {
+            put(zos, "001.png", new byte[]{1});
+        }
+        stubBook("comic.cbz");
+        service.getAvailablePages(BOOK_ID);
+
+        readPage(1);
+        readPage(1);
+
+        verify(bookRepository, times(1)).findById(BOOK_ID);
+        assertThat(meterRegistry.counter(BookloreMetrics.READER_CACHE, "reader", "cbx", "result", "miss").count()).isEqualTo(1);
+        assertThat(meterRegistry.counter(BookloreMetrics.READER_CACHE, "reader", "cbx", "result", "hit").count()).isEqualTo(2);
+    }
+
+    @Test
+    void cb7PagesAreDecodedOnceIntoCache() throws Exception {
+        Path cb7 = libraryDir.resolve("comic.cb7");
+        try (SevenZOutputFile out = new SevenZOutputFile(cb7.toFile())) {
+            for (int i = 2; i >= 1; i--) {
+                SevenZArchiveEntry entry = new SevenZArchiveEntry();
+                entry.setName("page-" + i + ".jpg");
+                out.putArchiveEntry(entry);
+                out.write(new byte[]{(byte) i, (byte) i});
+                out.closeArchiveEntry();
+            }
+        }
+        stubBook("comic.cb7");
+        when(appSettingService.getAppSettings()).thenReturn(AppSettings.builder().cbxCacheSizeInMb(100).build());
+
+        assertThat(service.getAvailablePages(BOOK_ID)).containsExactly(1, 2);
+        assertThat(readPage(1)).containsExactly(1, 1);
+        assertThat(readPage(2)).containsExactly(2, 2);
+        assertThat(cacheRoot.resolve(String.valueOf(BOOK_ID)).resolve("0001.jpg")).exists();
+    }
+
+    @Test
+    void pageOutOfRangeIsRejected() throws Exception {
+        Path cbz = libraryDir.resolve("comic.cbz");
+        try (ZipOutputStream zos = new ZipOutputStream(new FileOutputStream(cbz.toFile()))) {
+            put(zos, "001.jpg", new byte[]{1});
+        }
+        stubBook("comic.cbz");
+        service.getAvailablePages(BOOK_ID);
+
+        assertThatThrownBy(() -> readPage(2)).isInstanceOf(FileNotFoundException.class);
+    }
+
+    private void stubBook(String fileName) {
+        LibraryPathEntity libraryPath = new LibraryPathEntity();
+        libraryPath.setPath(libraryDir.toString());
+        BookEntity book = new BookEntity();
+        book.setId(BOOK_ID);
+        book.setLibraryPath(libraryPath);
+        book.setFileSubPath("");
+        book.setFileName(fileName);
+        when(bookRepository.findById(BOOK_ID)).thenReturn(Optional.of(book));
+    }
+
+    private byte[] readPage(int page) throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        service.streamPageImage(BOOK_ID, page, out);
+        return out.toByteArray();
+    }
+
+    private static void put(ZipOutputStream zos, String name, byte[] data) throws Exception {
+        zos.putNextEntry(new ZipEntry(name));
+        zos.write(data);
+        zos.closeEntry();
+    }
+}
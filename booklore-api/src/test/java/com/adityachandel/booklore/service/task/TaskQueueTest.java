@@ -0,0 +1,163 @@
+package com.adityachandel.booklore.service.task;
+
+import com.adityachandel.booklore.config.AppProperties;
+import com.adityachandel.booklore.exception.APIException;
+import com.adityachandel.booklore.model.dto.response.TaskQueueResponse;
+import com.adityachandel.booklore.model.enums.TaskPriority;
+import com.adityachandel.booklore.model.enums.TaskResourceClass;
+import com.adityachandel.booklore.model.enums.TaskType;
+import com.adityachandel.booklore.task.TaskStatus;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class TaskQueueTest {
+
+    private final List<Runnable> started = new CopyOnWriteArrayList<>();
+    private final List<String> ran = new CopyOnWriteArrayList<>();
+    private AppProperties appProperties;
+    private TaskQueue taskQueue;
+
+    @BeforeEach
+    void setUp() {
+        appProperties = new AppProperties();
+        appProperties.getTasks().setNetworkBoundConcurrency(2);
+        taskQueue = new TaskQueue(started::add, appProperties);
+    }
+
+    private Runnable work(String taskId) {
+        return () -> ran.add(taskId);
+    }
+
+    private void runNextStarted() {
+        started.removeFirst().run();
+    }
+
+    private void awaitQueued(String taskId) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (taskQueue.snapshot().getTasks().stream().noneMatch(task -> task.getTaskId().equals(taskId))) {
+            assertThat(System.nanoTime()).isLessThan(deadline);
+            Thread.sleep(10);
+        }
+    }
+
+    @Test
+    void tasksBeyondTheClassLimitWaitForASlot() {
+        assertThat(taskQueue.submit("scan-1", TaskType.SYNC_LIBRARY_FILES, TaskPriority.NORMAL, work("scan-1"))).isZero();
+        assertThat(taskQueue.submit("scan-2", TaskType.REFRESH_LIBRARY_METADATA, TaskPriority.NORMAL, work("scan-2"))).isEqualTo(1);
+        assertThat(started).hasSize(1);
+
+        runNextStarted();
+
+        assertThat(started).hasSize(1);
+        runNextStarted();
+        assertThat(ran).containsExactly("scan-1", "scan-2");
+    }
+
+    @Test
+    void resourceClassesDoNotBlockEachOther() {
+        taskQueue.submit("scan", TaskType.SYNC_LIBRARY_FILES, TaskPriority.NORMAL, work("scan"));
+        taskQueue.submit("recommendations", TaskType.UPDATE_BOOK_RECOMMENDATIONS, TaskPriority.LOW, work("recommendations"));
+        taskQueue.submit("refresh-1", TaskType.REFRESH_METADATA_MANUAL, TaskPriority.HIGH, work("refresh-1"));
+        taskQueue.submit("refresh-2", TaskType.REFRESH_METADATA_MANUAL, TaskPriority.HIGH, work("refresh-2"));
+
+        assertThat(started).hasSize(4);
+    }
+
+    @Test
+    void higherPriorityStartsFirstAndEqualPrioritiesKeepSubmissionOrder() {
+        taskQueue.submit("running", TaskType.SYNC_LIBRARY_FILES, TaskPriority.NORMAL, work("running"));
+        taskQueue.submit("low", TaskType.REFRESH_LIBRARY_METADATA, TaskPriority.LOW, work("low"));
+        taskQueue.submit("normal-1", TaskType.CLEANUP_DELETED_BOOKS, TaskPriority.NORMAL, work("normal-1"));
+        taskQueue.submit("normal-2", TaskType.CLEAR_CBX_CACHE, TaskPriority.NORMAL, work("normal-2"));
+        assertThat(taskQueue.submit("high", TaskType.APP_MIGRATION, TaskPriority.HIGH, work("high"))).isEqualTo(1);
+
+        while (!started.isEmpty()) {
+            runNextStarted();
+        }
+
+        assertThat(ran).containsExactly("running", "high", "normal-1", "normal-2", "low");
+    }
+
+    @Test
+    void snapshotShowsRunningTasksAndQueuePositions() {
+        taskQueue.submit("running", TaskType.SYNC_LIBRARY_FILES, TaskPriority.NORMAL, work("running"));
+        taskQueue.submit("second", TaskType.CLEANUP_DELETED_BOOKS, TaskPriority.LOW, work("second"));
+        taskQueue.submit("first", TaskType.CLEAR_PDF_CACHE, TaskPriority.NORMAL, work("first"));
+
+        TaskQueueResponse snapshot = taskQueue.snapshot();
+
+        assertThat(snapshot.getConcurrencyLimits()).containsEntry(TaskResourceClass.DISK_HEAVY, 1);
+        assertThat(snapshot.getTasks()).extracting(TaskQueueResponse.QueuedTask::getTaskId)
+                .containsExactly("running", "first", "second");
+        assertThat(snapshot.getTasks()).extracting(TaskQueueResponse.QueuedTask::getStatus)
+                .containsExactly(TaskStatus.IN_PROGRESS, TaskStatus.ACCEPTED, TaskStatus.ACCEPTED);
+        assertThat(snapshot.getTasks()).extracting(TaskQueueResponse.QueuedTask::getPosition)
+                .containsExactly(null, 1, 2);
+    }
+
+    @Test
+    void removedTasksNeverStart() {
+        taskQueue.submit("running", TaskType.SYNC_LIBRARY_FILES, TaskPriority.NORMAL, work("running"));
+        taskQueue.submit("queued", TaskType.CLEANUP_DELETED_BOOKS, TaskPriority.NORMAL, work("queued"));
+
+        assertThat(taskQueue.removeQueued("queued")).isTrue();
+        assertThat(taskQueue.removeQueued("running")).isFalse();
+        runNextStarted();
+
+        assertThat(started).isEmpty();
+        assertThat(ran).containsExactly("running");
+    }
+
+    @Test
+    void synchronousTasksHoldASlotWhileTheyRun() {
+        String result = taskQueue.runNow("sync", TaskType.CLEANUP_TEMP_METADATA, () -> {
+            taskQueue.submit("queued", TaskType.SYNC_LIBRARY_FILES, TaskPriority.NORMAL, work("queued"));
+            assertThat(started).isEmpty();
+            return "done";
+        });
+
+        assertThat(result).isEqualTo("done");
+        assertThat(started).hasSize(1);
+    }
+
+    @Test
+    void synchronousTasksWaitForASlotAheadOfQueuedTasks() throws Exception {
+        taskQueue.submit("scan", TaskType.SYNC_LIBRARY_FILES, TaskPriority.NORMAL, work("scan"));
+        taskQueue.submit("queued", TaskType.CLEANUP_DELETED_BOOKS, TaskPriority.NORMAL, work("queued"));
+
+        CompletableFuture<String> result = CompletableFuture.supplyAsync(() -> taskQueue.runNow("sync", TaskType.CLEAR_CBX_CACHE, () -> {
+            ran.add("sync");
+            return "done";
+        }));
+        awaitQueued("sync");
+        assertThat(result).isNotDone();
+
+        runNextStarted();
+
+        assertThat(result.get(5, TimeUnit.SECONDS)).isEqualTo("done");
+        runNextStarted();
+        assertThat(ran).containsExactly("scan", "sync", "queued");
+    }
+
+    @Test
+    void synchronousTasksGiveUpWhenNoSlotFreesUp() {
+        taskQueue = new TaskQueue(started::add, appProperties, Duration.ofMillis(50));
+        taskQueue.submit("scan", TaskType.SYNC_LIBRARY_FILES, TaskPriority.NORMAL, work("scan"));
+
+        assertThatThrownBy(() -> taskQueue.runNow("sync", TaskType.CLEAR_CBX_CACHE, () -> "done"))
+                .isInstanceOf(APIException.class)
+                .satisfies(e -> assertThat(((APIException) e).getStatus()).isEqualTo(HttpStatus.SERVICE_UNAVAILABLE));
+        assertThat(taskQueue.snapshot().getTasks()).extracting(TaskQueueResponse.QueuedTask::getTaskId)
+                .containsExactly("scan");
+    }
+}
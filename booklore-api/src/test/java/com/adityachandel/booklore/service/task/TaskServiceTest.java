@@ -1,15 +1,18 @@
 package com.adityachandel.booklore.service.task;
 
+import com.adityachandel.booklore.config.AppProperties;
 import com.adityachandel.booklore.config.security.service.AuthenticationService;
 import com.adityachandel.booklore.exception.APIException;
 import com.adityachandel.booklore.model.dto.BookLoreUser;
 import com.adityachandel.booklore.model.dto.TaskInfo;
 import com.adityachandel.booklore.model.dto.request.TaskCreateRequest;
 import com.adityachandel.booklore.model.dto.response.CronConfig;
+import com.adityachandel.booklore.model.dto.response.TaskCancelResponse;
 import com.adityachandel.booklore.model.dto.response.TaskCreateResponse;
 import com.adityachandel.booklore.model.enums.TaskType;
 import com.adityachandel.booklore.task.tasks.Task;
 import com.adityachandel.booklore.task.TaskCancellationManager;
+import com.adityachandel.booklore.task.TaskStatus;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Disabled;
@@ -31,6 +34,7 @@ class TaskServiceTest {
     private TaskCronService taskCronService;
     private TaskCancellationManager cancellationManager;
     private Executor taskExecutor;
+    private TaskQueue taskQueue;
     private ObjectMapper objectMapper;
     private TaskScheduler taskScheduler;
     private TaskService taskService;
@@ -43,6 +47,7 @@ class TaskServiceTest {
         taskCronService = mock(TaskCronService.class);
         cancellationManager = mock(TaskCancellationManager.class);
         taskExecutor = mock(Executor.class);
+        taskQueue = new TaskQueue(taskExecutor, new AppProperties());
         objectMapper = mock(ObjectMapper.class);
         taskScheduler = mock(TaskScheduler.class);
 
@@ -55,7 +60,7 @@ class TaskServiceTest {
                 taskCronService,
                 List.of(mockTask),
                 cancellationManager,
-                taskExecutor,
+                taskQueue,
                 objectMapper,
                 taskScheduler
         );
@@ -142,7 +147,7 @@ class TaskServiceTest {
                 taskCronService,
                 List.of(nonParallelTask),
                 cancellationManager,
-                taskExecutor,
+                taskQueue,
                 objectMapper,
                 taskScheduler
         );
@@ -183,7 +188,7 @@ class TaskServiceTest {
                 taskCronService,
                 List.of(asyncTask),
                 cancellationManager,
-                taskExecutor,
+                taskQueue,
                 objectMapper,
                 taskScheduler
         );
@@ -197,7 +202,7 @@ class TaskServiceTest {
         TaskCreateResponse resp = taskService.runAsUser(req);
 
         assertEquals(asyncType, resp.getTaskType());
-        assertEquals(com.adityachandel.booklore.task.TaskStatus.ACCEPTED, resp.getStatus());
+        assertEquals(TaskStatus.ACCEPTED, resp.getStatus());
     }
 
     @Test
@@ -275,4 +280,40 @@ class TaskServiceTest {
         when(taskCronService.getCronConfigOrDefault(TaskType.CLEANUP_TEMP_METADATA)).thenReturn(cronConfig);
         assertDoesNotThrow(() -> taskService.rescheduleTask(TaskType.CLEANUP_TEMP_METADATA));
     }
+
+    @Test
+    void testQueuedTaskCanBeCancelledBeforeItStarts() {
+        Task rescanTask = mock(Task.class);
+        when(rescanTask.getTaskType()).thenReturn(TaskType.REFRESH_LIBRARY_METADATA);
+        Task writeTask = mock(Task.class);
+        when(writeTask.getTaskType()).thenReturn(TaskType.WRITE_METADATA_FILES);
+        taskService = new TaskService(
+                authenticationService,
+                taskHistoryService,
+                taskCronService,
+                List.of(rescanTask, writeTask),
+                cancellationManager,
+                taskQueue,
+                objectMapper,
+                taskScheduler
+        );
+        BookLoreUser user = new BookLoreUser();
+        user.setId(10L);
+        user.setUsername("queueUser");
+        when(authenticationService.getAuthenticatedUser()).thenReturn(user);
+
+        taskService.runAsUser(TaskCreateRequest.builder().taskType(TaskType.REFRESH_LIBRARY_METADATA).build());
+        TaskCreateResponse queued = taskService.runAsUser(TaskCreateRequest.builder().taskType(TaskType.WRITE_METADATA_FILES).build());
+
+        verify(taskExecutor, times(1)).execute(any());
+        assertEquals(2, taskService.getTaskQueue().getTasks().size());
+
+        TaskCancelResponse cancel = taskService.cancelTask(queued.getTaskId());
+
+        assertTrue(cancel.isCancelled());
+        assertEquals(1, taskService.getTaskQueue().getTasks().size());
+        verify(taskHistoryService).updateTaskStatus(eq(queued.getTaskId()), eq(TaskStatus.CANCELLED), anyString());
+        verify(cancellationManager, never()).cancelTask(queued.getTaskId());
+        assertThrows(APIException.class, () -> taskService.cancelTask(queued.getTaskId()));
+    }
 }
@@ -0,0 +1,206 @@
+package com.adityachandel.booklore.service.upload;
+
+import com.adityachandel.booklore.config.security.service.AuthenticationService;
+import com.adityachandel.booklore.exception.APIException;
+import com.adityachandel.booklore.exception.ApiError;
+import com.adityachandel.booklore.model.dto.BookLoreUser;
+import com.adityachandel.booklore.model.dto.request.ChunkedUploadRequest;
+import com.adityachandel.booklore.model.dto.response.ChunkedUploadStatus;
+import com.adityachandel.booklore.model.entity.LibraryPathEntity;
+import com.adityachandel.booklore.model.entity.UploadSessionEntity;
+import com.adityachandel.booklore.repository.UploadSessionRepository;
+import com.adityachandel.booklore.service.file.FileFingerprint;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class ChunkedUploadServiceTest {
+
+    @TempDir
+    Path tempDir;
+
+    private FileUploadService fileUploadService;
+    private AuthenticationService authenticationService;
+    private UploadSessionRepository uploadSessionRepository;
+    private ChunkedUploadService service;
+    private Path stagingFile;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        fileUploadService = mock(FileUploadService.class);
+        authenticationService = mock(AuthenticationService.class);
+        uploadSessionRepository = mock(UploadSessionRepository.class);
+        service = new ChunkedUploadService(fileUploadService, authenticationService, uploadSessionRepository);
+
+        stagingFile = Files.createFile(tempDir.resolve(".booklore-upload-test.part"));
+        LibraryPathEntity libraryPath = new LibraryPathEntity();
+        when(fileUploadService.findUploadTarget(1L, 2L)).thenReturn(libraryPath);
+        when(fileUploadService.createStagingFile(eq(libraryPath), anyString())).thenReturn(stagingFile);
+        authenticateAs(10L);
+    }
+
+    @Test
+    void appendChunk_resumesAfterInterruptedChunk() throws IOException {
+        byte[] data = new byte[200_000];
+        new Random(5).nextBytes(data);
+        AtomicReference<String> completedHash = new AtomicReference<>();
+        when(fileUploadService.completeStagedUpload(eq(1L), eq(2L), eq("big.cbz"), eq(stagingFile), anyString())).thenAnswer(invocation -> {
+            completedHash.set(invocation.getArgument(4));
+            assertThat(Files.readAllBytes(stagingFile)).isEqualTo(data);
+            return tempDir.resolve("big.cbz");
+        });
+
+        ChunkedUploadStatus started = service.startUpload(request("big.cbz", data.length));
+        String uploadId = started.getUploadId();
+        assertThat(started.getReceivedBytes()).isZero();
+
+        assertThatExceptionOfType(APIException.class)
+                .isThrownBy(() -> service.appendChunk(uploadId, 0, failingAfter(Arrays.copyOfRange(data, 0, 120_000), 70_000)))
+                .satisfies(ex -> assertThat(ex.getStatus()).isEqualTo(ApiError.FILE_READ_ERROR.getStatus()));
+
+        long resumeAt = service.getStatus(uploadId).getReceivedBytes();
+        assertThat(resumeAt).isPositive().isLessThanOrEqualTo(70_000);
+
+        assertThatExceptionOfType(APIException.class)
+                .isThrownBy(() -> service.appendChunk(uploadId, 120_000, new ByteArrayInputStream(new byte[1])))
+                .satisfies(ex -> assertThat(ex.getStatus()).isEqualTo(ApiError.UPLOAD_OFFSET_MISMATCH.getStatus()));
+
+        ChunkedUploadStatus done = service.appendChunk(uploadId, resumeAt,
+                new ByteArrayInputStream(Arrays.copyOfRange(data, (int) resumeAt, data.length)));
+
+        assertThat(done.isComplete()).isTrue();
+        assertThat(done.getReceivedBytes()).isEqualTo(data.length);
+        assertThat(completedHash.get()).isEqualTo(FileFingerprint.generateHash(stagingFile));
+        assertThatExceptionOfType(APIException.class).isThrownBy(() -> service.getStatus(uploadId));
+    }
+
+    @Test
+    void appendChunk_rejectsBytesBeyondDeclaredSize() {
+        String uploadId = service.startUpload(request("small.epub", 10)).getUploadId();
+
+        assertThatExceptionOfType(APIException.class)
+                .isThrownBy(() -> service.appendChunk(uploadId, 0, new ByteArrayInputStream(new byte[11])))
+                .satisfies(ex -> assertThat(ex.getStatus()).isEqualTo(ApiError.INVALID_INPUT.getStatus()));
+    }
+
+    @Test
+    void sessionsAreNotVisibleToOtherUsers() {
+        String uploadId = service.startUpload(request("book.epub", 100)).getUploadId();
+
+        authenticateAs(11L);
+
+        assertThatExceptionOfType(APIException.class)
+                .isThrownBy(() -> service.getStatus(uploadId))
+                .satisfies(ex -> assertThat(ex.getStatus()).isEqualTo(ApiError.UPLOAD_SESSION_NOT_FOUND.getStatus()));
+    }
+
+    @Test
+    void cancel_removesStagingFile() {
+        String uploadId = service.startUpload(request("book.epub", 100)).getUploadId();
+
+        service.cancel(uploadId);
+
+        verify(fileUploadService).cleanupTempFile(stagingFile);
+        verify(uploadSessionRepository).deleteById(uploadId);
+        assertThatExceptionOfType(APIException.class).isThrownBy(() -> service.getStatus(uploadId));
+    }
+
+    @Test
+    void uploadsCanBeResumedAfterARestart() throws IOException {
+        byte[] data = new byte[50_000];
+        new Random(7).nextBytes(data);
+        Files.write(stagingFile, Arrays.copyOfRange(data, 0, 30_000));
+        when(uploadSessionRepository.findById("restored")).thenReturn(Optional.of(UploadSessionEntity.builder()
+                .id("restored")
+                .userId(10L)
+                .libraryId(1L)
+                .libraryPathId(2L)
+                .fileName("book.epub")
+                .fileSize((long) data.length)
+                .stagingPath(stagingFile.toString())
+                .lastActivityAt(Instant.now())
+                .build()));
+        AtomicReference<String> completedHash = new AtomicReference<>();
+        when(fileUploadService.completeStagedUpload(eq(1L), eq(2L), eq("book.epub"), eq(stagingFile), anyString())).thenAnswer(invocation -> {
+            completedHash.set(invocation.getArgument(4));
+            return tempDir.resolve("book.epub");
+        });
+
+        assertThat(service.getStatus("restored").getReceivedBytes()).isEqualTo(30_000);
+        ChunkedUploadStatus done = service.appendChunk("restored", 30_000,
+                new ByteArrayInputStream(Arrays.copyOfRange(data, 30_000, data.length)));
+
+        assertThat(done.isComplete()).isTrue();
+        assertThat(Files.readAllBytes(stagingFile)).isEqualTo(data);
+        assertThat(completedHash.get()).isEqualTo(FileFingerprint.generateHash(stagingFile));
+        verify(uploadSessionRepository).deleteById("restored");
+    }
+
+    @Test
+    void removeOrphanedStagingFiles_keepsFilesOfKnownSessions() throws IOException {
+        Path orphan = Files.createFile(tempDir.resolve(".booklore-upload-orphan.part"));
+        when(fileUploadService.findStagingFiles()).thenReturn(List.of(stagingFile, orphan));
+        when(uploadSessionRepository.findAll()).thenReturn(List.of(UploadSessionEntity.builder()
+                .id("known")
+                .stagingPath(stagingFile.toString())
+                .build()));
+
+        service.removeOrphanedStagingFiles();
+
+        verify(fileUploadService).cleanupTempFile(orphan);
+        verify(fileUploadService, never()).cleanupTempFile(stagingFile);
+    }
+
+    private void authenticateAs(long userId) {
+        BookLoreUser user = new BookLoreUser();
+        user.setId(userId);
+        when(authenticationService.getAuthenticatedUser()).thenReturn(user);
+    }
+
+    private ChunkedUploadRequest request(String fileName, long size) {
+        ChunkedUploadRequest request = new ChunkedUploadRequest();
+        request.setLibraryId(1L);
+        request.setPathId(2L);
+        request.setFileName(fileName);
+        request.setFileSize(size);
+        return request;
+    }
+
+    private InputStream failingAfter(byte[] data, int failAt) {
+        return new InputStream() {
+            private int position;
+
+            @Override
+            public int read() throws IOException {
+                if (position >= failAt) throw new IOException("connection reset");
+                return data[position++] & 0xff;
+            }
+
+            @Override
+            public int read(byte[] buffer, int offset, int length) throws IOException {
+                if (position >= failAt) throw new IOException("connection reset");
+                int count = Math.min(length, Math.min(failAt, data.length) - position);
+                System.arraycopy(data, position, buffer, offset, count);
+                position += count;
+                return count;
+            }
+        };
+    }
+}
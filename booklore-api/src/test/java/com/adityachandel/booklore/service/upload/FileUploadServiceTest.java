@@ -17,6 +17,7 @@ import com.adityachandel.booklore.repository.LibraryRepository;
 import com.adityachandel.booklore.service.file.FileFingerprint;
 import com.adityachandel.booklore.service.appsettings.AppSettingService;
 import com.adityachandel.booklore.service.file.FileMovingHelper;
+import com.adityachandel.booklore.service.file.PrecomputedFileHashes;
 import com.adityachandel.booklore.service.metadata.extractor.MetadataExtractorFactory;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -27,6 +28,7 @@ import org.mockito.MockitoAnnotations;
 import org.springframework.mock.web.MockMultipartFile;
 import org.springframework.web.multipart.MultipartFile;
 
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
@@ -36,6 +38,8 @@ import java.util.Optional;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 class FileUploadServiceTest {
@@ -57,6 +61,8 @@ class FileUploadServiceTest {
     FileMovingHelper fileMovingHelper;
     @Mock
     AdditionalFileMapper additionalFileMapper;
+    @Mock
+    PrecomputedFileHashes precomputedFileHashes;
 
     AppProperties appProperties;
     FileUploadService service;
@@ -74,7 +80,8 @@ class FileUploadServiceTest {
 
         service = new FileUploadService(
                 libraryRepository, bookRepository, bookAdditionalFileRepository,
-                appSettingService, appProperties, metadataExtractorFactory, additionalFileMapper, fileMovingHelper
+                appSettingService, appProperties, metadataExtractorFactory, additionalFileMapper, fileMovingHelper,
+                precomputedFileHashes
         );
     }
 
@@ -161,7 +168,7 @@ class FileUploadServiceTest {
         when(file.getOriginalFilename()).thenReturn("book.cbz");
         when(file.getSize()).thenReturn(100L);
         when(file.getName()).thenReturn("file");
-        doThrow(new IOException("disk error")).when(file).transferTo(any(Path.class));
+        when(file.getInputStream()).thenThrow(new IOException("disk error"));
 
         LibraryEntity lib = new LibraryEntity();
         lib.setId(1L);
@@ -198,6 +205,53 @@ class FileUploadServiceTest {
 
         Path moved = tempDir.resolve("book.cbz");
         assertThat(Files.exists(moved)).isTrue();
+        assertThat(Files.readAllBytes(moved)).isEqualTo(data);
+        verify(precomputedFileHashes).register(eq(moved), eq(FileFingerprint.generateHash(moved)), eq((long) data.length), anyLong());
+        try (var remaining = Files.list(tempDir)) {
+            assertThat(remaining).containsExactly(moved);
+        }
+    }
+
+    @Test
+    void uploadFileStream_writes_body_into_library() throws IOException {
+        byte[] data = new byte[300_000];
+        new java.util.Random(3).nextBytes(data);
+
+        LibraryEntity lib = new LibraryEntity();
+        lib.setId(7L);
+        LibraryPathEntity path = new LibraryPathEntity();
+        path.setId(2L);
+        path.setPath(tempDir.toString());
+        lib.setLibraryPaths(List.of(path));
+        when(libraryRepository.findById(7L)).thenReturn(Optional.of(lib));
+        when(fileMovingHelper.getFileNamingPattern(lib)).thenReturn("{currentFilename}");
+
+        service.uploadFileStream(new ByteArrayInputStream(data), "big.cbz", data.length, 7L, 2L);
+
+        Path moved = tempDir.resolve("big.cbz");
+        assertThat(Files.readAllBytes(moved)).isEqualTo(data);
+        verify(precomputedFileHashes).register(eq(moved), eq(FileFingerprint.generateHash(moved)), eq((long) data.length), anyLong());
+    }
+
+    @Test
+    void uploadFileStream_rejects_body_over_limit_and_removes_staging_file() {
+        AppSettings small = new AppSettings();
+        small.setMaxFileUploadSizeInMb(1);
+        when(appSettingService.getAppSettings()).thenReturn(small);
+
+        LibraryEntity lib = new LibraryEntity();
+        lib.setId(7L);
+        LibraryPathEntity path = new LibraryPathEntity();
+        path.setId(2L);
+        path.setPath(tempDir.toString());
+        lib.setLibraryPaths(List.of(path));
+        when(libraryRepository.findById(7L)).thenReturn(Optional.of(lib));
+
+        // unknown content length: the limit is enforced while streaming
+        assertThatExceptionOfType(APIException.class)
+                .isThrownBy(() -> service.uploadFileStream(new ByteArrayInputStream(new byte[2 * 1024 * 1024]), "big.cbz", -1, 7L, 2L))
+                .satisfies(ex -> assertThat(ex.getStatus()).isEqualTo(ApiError.FILE_TOO_LARGE.getStatus()));
+        assertThat(tempDir.toFile().list()).isEmpty();
     }
 
     @Test
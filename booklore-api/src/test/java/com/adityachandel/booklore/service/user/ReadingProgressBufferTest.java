@@ -0,0 +1,144 @@
+package com.adityachandel.booklore.service.user;
+
+import com.adityachandel.booklore.model.entity.KoboReadingStateEntity;
+import com.adityachandel.booklore.model.entity.UserBookProgressEntity;
+import com.adityachandel.booklore.model.enums.ReadStatus;
+import com.adityachandel.booklore.service.user.ReadingProgressBuffer.Field;
+import com.adityachandel.booklore.service.user.ReadingProgressBuffer.Patch;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.TransientDataAccessResourceException;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class ReadingProgressBufferTest {
+
+    private NamedParameterJdbcTemplate jdbcTemplate;
+    private ReadingProgressBuffer buffer;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate = mock(NamedParameterJdbcTemplate.class);
+        buffer = new ReadingProgressBuffer(jdbcTemplate);
+    }
+
+    @Test
+    void repeatedUpdatesAreCoalescedIntoOneUpsert() {
+        for (int page = 1; page <= 50; page++) {
+            buffer.update(1L, 10L, new Patch().set(Field.PDF_PROGRESS, page).set(Field.PDF_PROGRESS_PERCENT, page * 2f));
+        }
+        buffer.update(1L, 10L, new Patch().set(Field.READ_STATUS, ReadStatus.READING));
+        verifyNoInteractions(jdbcTemplate);
+
+        buffer.flush();
+
+        ArgumentCaptor<SqlParameterSource[]> batch = ArgumentCaptor.forClass(SqlParameterSource[].class);
+        verify(jdbcTemplate).batchUpdate(eq("INSERT INTO user_book_progress (user_id, book_id, pdf_progress, pdf_progress_percent, read_status) " +
+                "VALUES (:userId, :bookId, :pdf_progress, :pdf_progress_percent, :read_status) " +
+                "ON DUPLICATE KEY UPDATE pdf_progress = VALUES(pdf_progress), pdf_progress_percent = VALUES(pdf_progress_percent), read_status = VALUES(read_status)"),
+                batch.capture());
+        assertThat(batch.getValue()).hasSize(1);
+        SqlParameterSource row = batch.getValue()[0];
+        assertThat(row.getValue("pdf_progress")).isEqualTo(50);
+        assertThat(row.getValue("read_status")).isEqualTo("READING");
+
+        buffer.flush();
+        verifyNoMoreInteractions(jdbcTemplate);
+    }
+
+    @Test
+    void pendingValuesAreOverlaidOnCopiesOfStoredRows() {
+        Instant now = Instant.now();
+        buffer.update(1L, 10L, new Patch().set(Field.EPUB_PROGRESS, "cfi-2").set(Field.LAST_READ_TIME, now));
+        buffer.update(1L, 11L, new Patch().set(Field.READ_STATUS, ReadStatus.READ));
+        buffer.update(2L, 10L, new Patch().set(Field.EPUB_PROGRESS, "other user"));
+        UserBookProgressEntity stored = UserBookProgressEntity.builder().id(5L).epubProgress("cfi-1").epubProgressPercent(12f).build();
+
+        Map<Long, UserBookProgressEntity> merged = buffer.overlay(Map.of(10L, stored), buffer.pending(1L, Set.of(10L, 11L, 12L)));
+
+        assertThat(merged).containsOnlyKeys(10L, 11L);
+        assertThat(merged.get(10L).getEpubProgress()).isEqualTo("cfi-2");
+        assertThat(merged.get(10L).getEpubProgressPercent()).isEqualTo(12f);
+        assertThat(merged.get(10L).getLastReadTime()).isEqualTo(now);
+        assertThat(merged.get(11L).getReadStatus()).isEqualTo(ReadStatus.READ);
+        assertThat(stored.getEpubProgress()).isEqualTo("cfi-1");
+    }
+
+    @Test
+    void nullClearsFieldAndInstantsAreWrittenAsTimestamps() {
+        Instant finished = Instant.parse("2025-01-01T10:00:00Z");
+        buffer.update(1L, 10L, new Patch().set(Field.DATE_FINISHED, finished).set(Field.KOREADER_PROGRESS, null));
+
+        UserBookProgressEntity merged = buffer.overlay(Map.of(),
+                buffer.pending(1L, List.of(10L))).get(10L);
+        assertThat(merged.getDateFinished()).isEqualTo(finished);
+        assertThat(merged.getKoreaderProgress()).isNull();
+
+        buffer.flush();
+
+        ArgumentCaptor<SqlParameterSource[]> batch = ArgumentCaptor.forClass(SqlParameterSource[].class);
+        verify(jdbcTemplate).batchUpdate(anyString(), batch.capture());
+        SqlParameterSource row = batch.getValue()[0];
+        assertThat(row.getValue("date_finished")).isEqualTo(Timestamp.from(finished));
+        assertThat(row.hasValue("koreader_progress")).isTrue();
+        assertThat(row.getValue("koreader_progress")).isNull();
+    }
+
+    @Test
+    void rejectedRowsAreDroppedAndOthersWritten() {
+        buffer.update(1L, 10L, new Patch().set(Field.CBX_PROGRESS, 3));
+        buffer.update(1L, 99L, new Patch().set(Field.CBX_PROGRESS, 4));
+        when(jdbcTemplate.batchUpdate(anyString(), any(SqlParameterSource[].class)))
+                .thenThrow(new DataIntegrityViolationException("fk_user_book_progress_book"));
+        when(jdbcTemplate.update(anyString(), argThat((SqlParameterSource p) -> Long.valueOf(99L).equals(p.getValue("bookId")))))
+                .thenThrow(new DataIntegrityViolationException("fk_user_book_progress_book"));
+
+        buffer.flush();
+
+        verify(jdbcTemplate, times(2)).update(anyString(), any(SqlParameterSource.class));
+        assertThat(buffer.pending(1L, List.of(10L, 99L))).isEmpty();
+    }
+
+    @Test
+    void unavailableDatabaseKeepsEntriesForTheNextFlush() {
+        buffer.update(1L, 10L, new Patch().set(Field.CBX_PROGRESS, 3));
+        when(jdbcTemplate.batchUpdate(anyString(), any(SqlParameterSource[].class)))
+                .thenThrow(new TransientDataAccessResourceException("connection refused"))
+                .thenReturn(new int[]{1});
+
+        buffer.flush();
+        assertThat(buffer.pending(1L, List.of(10L))).containsOnlyKeys(10L);
+
+        buffer.flush();
+        assertThat(buffer.pending(1L, List.of(10L))).isEmpty();
+    }
+
+    @Test
+    void koboStatesKeepOnlyTheLatestPerEntitlement() {
+        buffer.updateKoboState(KoboReadingStateEntity.builder().entitlementId("7").currentBookmarkJson("{\"a\":1}").build());
+        KoboReadingStateEntity latest = KoboReadingStateEntity.builder().entitlementId("7").currentBookmarkJson("{\"a\":2}").build();
+        buffer.updateKoboState(latest);
+
+        assertThat(buffer.pendingKoboState("7")).isSameAs(latest);
+
+        buffer.flush();
+
+        ArgumentCaptor<SqlParameterSource[]> batch = ArgumentCaptor.forClass(SqlParameterSource[].class);
+        verify(jdbcTemplate).batchUpdate(startsWith("INSERT INTO kobo_reading_state"), batch.capture());
+        assertThat(batch.getValue()).hasSize(1);
+        assertThat(batch.getValue()[0].getValue("currentBookmarkJson")).isEqualTo("{\"a\":2}");
+        assertThat(buffer.pendingKoboState("7")).isNull();
+    }
+}
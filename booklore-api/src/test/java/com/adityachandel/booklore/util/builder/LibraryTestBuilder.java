@@ -21,11 +21,13 @@ import java.nio.file.Path;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
 import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.Mockito.lenient;
 import static org.mockito.Mockito.when;
@@ -78,14 +80,12 @@ public class LibraryTestBuilder {
                     Long bookId = invocation.getArgument(0);
                     return getBookById(bookId);
                 });
-        when(bookRepositoryMock.findAllByLibraryPathIdAndFileSubPathStartingWith(anyLong(), any(String.class)))
+        when(bookRepositoryMock.findAllWithLibraryPathByLibraryPathIdIn(anyCollection()))
                 .thenAnswer(invocation -> {
-                    Long libraryPathId = invocation.getArgument(0);
-                    String fileSubPath = invocation.getArgument(1);
+                    Collection<Long> libraryPathIds = invocation.getArgument(0);
                     return bookRepository.values()
                             .stream()
-                            .filter(book -> book.getLibraryPath().getId().equals(libraryPathId) &&
-                                    book.getFileSubPath().startsWith(fileSubPath))
+                            .filter(book -> libraryPathIds.contains(book.getLibraryPath().getId()))
                             .toList();
                 });
 
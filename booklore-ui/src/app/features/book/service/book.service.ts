@@ -563,6 +563,21 @@ export class BookService {
     this.bookStateSubject.next({...currentState, books: updatedBooks});
   }
 
+  handleNewlyCreatedBooks(books: Book[]): void {
+    const currentState = this.bookStateSubject.value;
+    const createdMap = new Map(books.map(book => [book.id, book]));
+    const updatedBooks = (currentState.books || []).map(existingBook => {
+      const created = createdMap.get(existingBook.id);
+      if (created) {
+        createdMap.delete(existingBook.id);
+        return created;
+      }
+      return existingBook;
+    });
+    updatedBooks.push(...createdMap.values());
+    this.bookStateSubject.next({...currentState, books: updatedBooks});
+  }
+
   handleRemovedBookIds(removedBookIds: number[]): void {
     const currentState = this.bookStateSubject.value;
     const filteredBooks = (currentState.books || []).filter(book => !removedBookIds.includes(book.id));